@@ -30,9 +30,11 @@ public class CommandAuthorizationEventHandler {
 
     private CommandAuthorizationRepository commandAuthorizationRepository;
 
+    private CommandAuthorizationIndex commandAuthorizationIndex;
+
     /**
      * Handles {@code ChargingStationCreatedEvent} which contains the initial authorizations. Initial authorizations
-     * are updated in the command authorization repository.
+     * are updated in the command authorization repository and index.
      *
      * @param event contains information about command authorization.
      */
@@ -40,27 +42,41 @@ public class CommandAuthorizationEventHandler {
     public void handle(ChargingStationCreatedEvent event) {
         for (UserIdentity userIdentity : event.getUserIdentitiesWithAllPermissions()) {
             commandAuthorizationRepository.createOrUpdate(event.getChargingStationId().getId(), userIdentity.getId(), AllPermissions.class);
+
+            if (commandAuthorizationIndex != null) {
+                commandAuthorizationIndex.grant(event.getChargingStationId().getId(), userIdentity.getId(), AllPermissions.class);
+            }
         }
     }
 
     /**
-     * Handles {@code PermissionGrantedEvent} by calling repository to create or update the command authorization.
+     * Handles {@code PermissionGrantedEvent} by calling repository to create or update the command authorization, and
+     * adding it to the index.
      *
      * @param event contains information about command authorization.
      */
     @EventHandler
     public void handle(PermissionGrantedEvent event) {
         commandAuthorizationRepository.createOrUpdate(event.getChargingStationId().getId(), event.getUserIdentity().getId(), event.getCommandClass());
+
+        if (commandAuthorizationIndex != null) {
+            commandAuthorizationIndex.grant(event.getChargingStationId().getId(), event.getUserIdentity().getId(), event.getCommandClass());
+        }
     }
 
     /**
-     * Handles {@code PermissionRevokedEvent} by calling repository to remove the command authorization.
+     * Handles {@code PermissionRevokedEvent} by calling repository to remove the command authorization, and removing
+     * it from the index.
      *
      * @param event contains information about command authorization.
      */
     @EventHandler
     public void handle(PermissionRevokedEvent event) {
         commandAuthorizationRepository.remove(event.getChargingStationId().getId(), event.getUserIdentity().getId(), event.getCommandClass());
+
+        if (commandAuthorizationIndex != null) {
+            commandAuthorizationIndex.revoke(event.getChargingStationId().getId(), event.getUserIdentity().getId(), event.getCommandClass());
+        }
     }
 
     /**
@@ -71,4 +87,13 @@ public class CommandAuthorizationEventHandler {
     public void setCommandAuthorizationRepository(CommandAuthorizationRepository commandAuthorizationRepository) {
         this.commandAuthorizationRepository = commandAuthorizationRepository;
     }
+
+    /**
+     * Sets the in-memory index to keep up to date, optional.
+     *
+     * @param commandAuthorizationIndex index containing command authorization.
+     */
+    public void setCommandAuthorizationIndex(CommandAuthorizationIndex commandAuthorizationIndex) {
+        this.commandAuthorizationIndex = commandAuthorizationIndex;
+    }
 }
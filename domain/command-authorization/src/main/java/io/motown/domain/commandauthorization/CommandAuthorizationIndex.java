@@ -0,0 +1,154 @@
+/**
+ * Copyright (C) 2013 Motown.IO (info@motown.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.motown.domain.commandauthorization;
+
+import io.motown.domain.api.security.CommandClassRegistry;
+import io.motown.domain.commandauthorization.model.CommandAuthorization;
+import io.motown.domain.commandauthorization.model.CommandAuthorizationId;
+import io.motown.domain.commandauthorization.repositories.CommandAuthorizationRepository;
+
+import java.util.BitSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * In-memory index of command authorizations, which answers authorization checks without accessing the database. The
+ * index is loaded from the {@code CommandAuthorizationRepository} at startup and kept up to date by the
+ * {@code CommandAuthorizationEventHandler}.
+ * <p/>
+ * Per charging station and user identity the authorized command classes are kept as a bit set, with a bit per command
+ * class as assigned by the {@link CommandClassRegistry}. Bit sets are never modified once they are in the index, changes replace
+ * them with an updated copy, so checks do not need any locking.
+ */
+public class CommandAuthorizationIndex {
+
+    /**
+     * Authorized command classes, keys are charging station id and user identity.
+     */
+    private final ConcurrentMap<String, ConcurrentMap<String, BitSet>> authorizations = new ConcurrentHashMap<>();
+
+    private CommandAuthorizationRepository commandAuthorizationRepository;
+
+    /**
+     * Loads all command authorizations from the repository.
+     */
+    public void initialize() {
+        for (CommandAuthorization commandAuthorization : commandAuthorizationRepository.findAll()) {
+            CommandAuthorizationId id = commandAuthorization.getCommandAuthorizationId();
+            grant(id.getChargingStationId(), id.getUserIdentity(), id.getCommandClass());
+        }
+    }
+
+    /**
+     * Checks if a user identity has access to a command class, or to all permissions, for a certain charging station.
+     *
+     * @param chargingStationId    charging station identifier.
+     * @param userIdentity         user identity (user name).
+     * @param commandClass         command class.
+     * @return true if the user is authorized to execute the command for the charging station, false if not.
+     */
+    public boolean isAuthorized(String chargingStationId, String userIdentity, Class commandClass) {
+        ConcurrentMap<String, BitSet> userAuthorizations = authorizations.get(chargingStationId);
+        BitSet bits = userAuthorizations != null ? userAuthorizations.get(userIdentity) : null;
+
+        if (bits == null) {
+            return false;
+        }
+
+        int commandClassBit = CommandClassRegistry.ordinalOf(commandClass);
+
+        return (commandClassBit >= 0 && bits.get(commandClassBit)) || bits.get(CommandClassRegistry.ALL_PERMISSIONS_ORDINAL);
+    }
+
+    /**
+     * Adds a command authorization to the index.
+     *
+     * @param chargingStationId    charging station identifier.
+     * @param userIdentity         user identity (user name).
+     * @param commandClass         command class.
+     */
+    public void grant(String chargingStationId, String userIdentity, Class commandClass) {
+        int bit = CommandClassRegistry.register(commandClass);
+        ConcurrentMap<String, BitSet> userAuthorizations = getUserAuthorizations(chargingStationId);
+
+        while (true) {
+            BitSet current = userAuthorizations.get(userIdentity);
+            if (current != null && current.get(bit)) {
+                return;
+            }
+
+            BitSet updated = current != null ? (BitSet) current.clone() : new BitSet();
+            updated.set(bit);
+
+            if (current == null ? userAuthorizations.putIfAbsent(userIdentity, updated) == null : userAuthorizations.replace(userIdentity, current, updated)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Removes a command authorization from the index.
+     *
+     * @param chargingStationId    charging station identifier.
+     * @param userIdentity         user identity (user name).
+     * @param commandClass         command class.
+     */
+    public void revoke(String chargingStationId, String userIdentity, Class commandClass) {
+        int bit = CommandClassRegistry.ordinalOf(commandClass);
+        ConcurrentMap<String, BitSet> userAuthorizations = authorizations.get(chargingStationId);
+
+        if (bit < 0 || userAuthorizations == null) {
+            return;
+        }
+
+        while (true) {
+            BitSet current = userAuthorizations.get(userIdentity);
+            if (current == null || !current.get(bit)) {
+                return;
+            }
+
+            BitSet updated = (BitSet) current.clone();
+            updated.clear(bit);
+
+            if (updated.isEmpty() ? userAuthorizations.remove(userIdentity, current) : userAuthorizations.replace(userIdentity, current, updated)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Sets the repository from which the index is loaded.
+     *
+     * @param commandAuthorizationRepository command authorization repository.
+     */
+    public void setCommandAuthorizationRepository(CommandAuthorizationRepository commandAuthorizationRepository) {
+        this.commandAuthorizationRepository = commandAuthorizationRepository;
+    }
+
+    private ConcurrentMap<String, BitSet> getUserAuthorizations(String chargingStationId) {
+        ConcurrentMap<String, BitSet> userAuthorizations = authorizations.get(chargingStationId);
+
+        if (userAuthorizations == null) {
+            ConcurrentMap<String, BitSet> newUserAuthorizations = new ConcurrentHashMap<>();
+            userAuthorizations = authorizations.putIfAbsent(chargingStationId, newUserAuthorizations);
+            if (userAuthorizations == null) {
+                userAuthorizations = newUserAuthorizations;
+            }
+        }
+
+        return userAuthorizations;
+    }
+}
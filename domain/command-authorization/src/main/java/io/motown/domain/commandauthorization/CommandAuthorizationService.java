@@ -24,8 +24,11 @@ public class CommandAuthorizationService {
 
     private CommandAuthorizationRepository commandAuthorizationRepository;
 
+    private CommandAuthorizationIndex commandAuthorizationIndex;
+
     /**
-     * Checks if a user identity has access to a command class for a certain charging station.
+     * Checks if a user identity has access to a command class for a certain charging station. If an index is set the
+     * check is answered by the index, otherwise by the repository.
      *
      * @param chargingStationId    charging station identification.
      * @param userIdentity         user identity.
@@ -33,6 +36,10 @@ public class CommandAuthorizationService {
      * @return true if the user is authorized to execute the command for the charging station, false if not.
      */
     public boolean isAuthorized(ChargingStationId chargingStationId, UserIdentity userIdentity, Class commandClass) {
+        if (commandAuthorizationIndex != null) {
+            return commandAuthorizationIndex.isAuthorized(chargingStationId.getId(), userIdentity.getId(), commandClass);
+        }
+
         // first search for this specific authorization
         boolean isAuthorized = commandAuthorizationRepository.find(chargingStationId.getId(), userIdentity.getId(), commandClass) != null;
 
@@ -52,4 +59,13 @@ public class CommandAuthorizationService {
     public void setCommandAuthorizationRepository(CommandAuthorizationRepository commandAuthorizationRepository) {
         this.commandAuthorizationRepository = commandAuthorizationRepository;
     }
+
+    /**
+     * Sets the in-memory index to use instead of the repository.
+     *
+     * @param commandAuthorizationIndex command authorization index.
+     */
+    public void setCommandAuthorizationIndex(CommandAuthorizationIndex commandAuthorizationIndex) {
+        this.commandAuthorizationIndex = commandAuthorizationIndex;
+    }
 }
@@ -22,6 +22,7 @@ import org.slf4j.LoggerFactory;
 
 import javax.persistence.EntityManager;
 import javax.persistence.EntityTransaction;
+import java.util.List;
 
 /**
  * Provides access to storage of {@code CommandAuthorization}.
@@ -45,6 +46,15 @@ public class CommandAuthorizationRepository {
         return entityManager.find(CommandAuthorization.class, id);
     }
 
+    /**
+     * Finds all {@code CommandAuthorization}s.
+     *
+     * @return all command authorizations in the repository.
+     */
+    public List<CommandAuthorization> findAll() {
+        return entityManager.createQuery("SELECT ca FROM io.motown.domain.commandauthorization.model.CommandAuthorization AS ca", CommandAuthorization.class).getResultList();
+    }
+
     /**
      * Creates or updates a {@code CommandAuthorization} based on charging station id, user identity and command class.
      *
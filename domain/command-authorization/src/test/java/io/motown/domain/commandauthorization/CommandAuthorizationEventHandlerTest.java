@@ -57,6 +57,20 @@ public class CommandAuthorizationEventHandlerTest {
         verify(commandAuthorizationRepository).createOrUpdate(CHARGING_STATION_ID.getId(), USER_IDENTITY.getId(), COMMAND_CLASS);
     }
 
+    @Test
+    public void handlePermissionEventsUpdateIndex() {
+        CommandAuthorizationIndex commandAuthorizationIndex = mock(CommandAuthorizationIndex.class);
+        commandAuthorizationEventHandler.setCommandAuthorizationIndex(commandAuthorizationIndex);
+
+        commandAuthorizationEventHandler.handle(new ChargingStationCreatedEvent(CHARGING_STATION_ID, USER_IDENTITIES_WITH_ALL_PERMISSIONS, IDENTITY_CONTEXT));
+        commandAuthorizationEventHandler.handle(new PermissionGrantedEvent(CHARGING_STATION_ID, USER_IDENTITY, COMMAND_CLASS, IDENTITY_CONTEXT));
+        commandAuthorizationEventHandler.handle(new PermissionRevokedEvent(CHARGING_STATION_ID, USER_IDENTITY, COMMAND_CLASS, IDENTITY_CONTEXT));
+
+        verify(commandAuthorizationIndex).grant(CHARGING_STATION_ID.getId(), ROOT_USER_IDENTITY.getId(), AllPermissions.class);
+        verify(commandAuthorizationIndex).grant(CHARGING_STATION_ID.getId(), USER_IDENTITY.getId(), COMMAND_CLASS);
+        verify(commandAuthorizationIndex).revoke(CHARGING_STATION_ID.getId(), USER_IDENTITY.getId(), COMMAND_CLASS);
+    }
+
     @Test
     public void handlePermissionRevokedEvent() {
         commandAuthorizationEventHandler.handle(new PermissionRevokedEvent(CHARGING_STATION_ID, USER_IDENTITY, COMMAND_CLASS, IDENTITY_CONTEXT));
@@ -0,0 +1,99 @@
+/**
+ * Copyright (C) 2013 Motown.IO (info@motown.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.motown.domain.commandauthorization;
+
+import io.motown.domain.api.chargingstation.AcceptChargingStationCommand;
+import io.motown.domain.api.chargingstation.RequestStartTransactionCommand;
+import io.motown.domain.api.security.AllPermissions;
+import io.motown.domain.commandauthorization.model.CommandAuthorization;
+import io.motown.domain.commandauthorization.model.CommandAuthorizationId;
+import io.motown.domain.commandauthorization.repositories.CommandAuthorizationRepository;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Collections;
+
+import static io.motown.domain.api.chargingstation.test.ChargingStationTestUtils.*;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class CommandAuthorizationIndexTest {
+
+    private CommandAuthorizationIndex commandAuthorizationIndex;
+
+    private CommandAuthorizationRepository commandAuthorizationRepository;
+
+    private static final Class<AcceptChargingStationCommand> COMMAND_CLASS = AcceptChargingStationCommand.class;
+
+    private static final Class<RequestStartTransactionCommand> OTHER_COMMAND_CLASS = RequestStartTransactionCommand.class;
+
+    @Before
+    public void setup() {
+        commandAuthorizationRepository = mock(CommandAuthorizationRepository.class);
+
+        commandAuthorizationIndex = new CommandAuthorizationIndex();
+        commandAuthorizationIndex.setCommandAuthorizationRepository(commandAuthorizationRepository);
+    }
+
+    @Test
+    public void isAuthorizedAfterGrant() {
+        commandAuthorizationIndex.grant(CHARGING_STATION_ID.getId(), USER_IDENTITY.getId(), COMMAND_CLASS);
+
+        assertTrue(commandAuthorizationIndex.isAuthorized(CHARGING_STATION_ID.getId(), USER_IDENTITY.getId(), COMMAND_CLASS));
+        assertFalse(commandAuthorizationIndex.isAuthorized(CHARGING_STATION_ID.getId(), USER_IDENTITY.getId(), OTHER_COMMAND_CLASS));
+        assertFalse(commandAuthorizationIndex.isAuthorized(CHARGING_STATION_ID.getId(), ROOT_USER_IDENTITY.getId(), COMMAND_CLASS));
+        assertFalse(commandAuthorizationIndex.isAuthorized("OTHER_CHARGING_STATION", USER_IDENTITY.getId(), COMMAND_CLASS));
+    }
+
+    @Test
+    public void isAuthorizedWithAllPermissions() {
+        commandAuthorizationIndex.grant(CHARGING_STATION_ID.getId(), USER_IDENTITY.getId(), AllPermissions.class);
+
+        assertTrue(commandAuthorizationIndex.isAuthorized(CHARGING_STATION_ID.getId(), USER_IDENTITY.getId(), COMMAND_CLASS));
+        assertTrue(commandAuthorizationIndex.isAuthorized(CHARGING_STATION_ID.getId(), USER_IDENTITY.getId(), OTHER_COMMAND_CLASS));
+    }
+
+    @Test
+    public void isNotAuthorizedAfterRevoke() {
+        commandAuthorizationIndex.grant(CHARGING_STATION_ID.getId(), USER_IDENTITY.getId(), COMMAND_CLASS);
+        commandAuthorizationIndex.grant(CHARGING_STATION_ID.getId(), USER_IDENTITY.getId(), OTHER_COMMAND_CLASS);
+
+        commandAuthorizationIndex.revoke(CHARGING_STATION_ID.getId(), USER_IDENTITY.getId(), COMMAND_CLASS);
+
+        assertFalse(commandAuthorizationIndex.isAuthorized(CHARGING_STATION_ID.getId(), USER_IDENTITY.getId(), COMMAND_CLASS));
+        assertTrue(commandAuthorizationIndex.isAuthorized(CHARGING_STATION_ID.getId(), USER_IDENTITY.getId(), OTHER_COMMAND_CLASS));
+    }
+
+    @Test
+    public void revokeUnknownAuthorization() {
+        // no exception should be thrown
+        commandAuthorizationIndex.revoke(CHARGING_STATION_ID.getId(), USER_IDENTITY.getId(), COMMAND_CLASS);
+
+        assertFalse(commandAuthorizationIndex.isAuthorized(CHARGING_STATION_ID.getId(), USER_IDENTITY.getId(), COMMAND_CLASS));
+    }
+
+    @Test
+    public void initializeLoadsRepository() {
+        when(commandAuthorizationRepository.findAll()).thenReturn(Collections.singletonList(new CommandAuthorization(new CommandAuthorizationId(CHARGING_STATION_ID.getId(), USER_IDENTITY.getId(), COMMAND_CLASS))));
+
+        commandAuthorizationIndex.initialize();
+
+        assertTrue(commandAuthorizationIndex.isAuthorized(CHARGING_STATION_ID.getId(), USER_IDENTITY.getId(), COMMAND_CLASS));
+    }
+
+}
@@ -27,8 +27,7 @@ import static io.motown.domain.api.chargingstation.test.ChargingStationTestUtils
 import static io.motown.domain.api.chargingstation.test.ChargingStationTestUtils.USER_IDENTITY;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
-import static org.mockito.Mockito.mock;
-import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.*;
 
 public class CommandAuthorizationServiceTest {
 
@@ -61,6 +60,16 @@ public class CommandAuthorizationServiceTest {
         assertTrue(commandAuthorizationService.isAuthorized(CHARGING_STATION_ID, USER_IDENTITY, COMMAND_CLASS));
     }
 
+    @Test
+    public void isAuthorizedByIndex() {
+        CommandAuthorizationIndex commandAuthorizationIndex = new CommandAuthorizationIndex();
+        commandAuthorizationIndex.grant(CHARGING_STATION_ID.getId(), USER_IDENTITY.getId(), COMMAND_CLASS);
+        commandAuthorizationService.setCommandAuthorizationIndex(commandAuthorizationIndex);
+
+        assertTrue(commandAuthorizationService.isAuthorized(CHARGING_STATION_ID, USER_IDENTITY, COMMAND_CLASS));
+        verifyZeroInteractions(commandAuthorizationRepository);
+    }
+
     @Test
     public void isNotAuthorized() {
         when(commandAuthorizationRepository.find(CHARGING_STATION_ID.getId(), USER_IDENTITY.getId(), COMMAND_CLASS)).thenReturn(null);
@@ -88,6 +88,16 @@ public class CommandAuthorizationRepositoryTest {
         assertNotNull(commandAuthorization);
     }
 
+    @Test
+    public void findAllAuthorizations() {
+        commandAuthorizationRepository.createOrUpdate(CHARGING_STATION_ID.getId(), USER_IDENTITY.getId(), COMMAND_CLASS);
+
+        List<CommandAuthorization> commandAuthorizations = commandAuthorizationRepository.findAll();
+
+        assertEquals(1, commandAuthorizations.size());
+        assertEquals(new CommandAuthorization(new CommandAuthorizationId(CHARGING_STATION_ID.getId(), USER_IDENTITY.getId(), COMMAND_CLASS)), commandAuthorizations.get(0));
+    }
+
     @Test
     public void removeUnknownAuthorization() {
         // make sure pre-condition is met
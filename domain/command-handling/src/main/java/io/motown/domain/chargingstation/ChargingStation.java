@@ -15,7 +15,6 @@
  */
 package io.motown.domain.chargingstation;
 
-import com.google.common.collect.HashMultimap;
 import com.google.common.collect.Multimap;
 import io.motown.domain.api.chargingstation.*;
 import io.motown.domain.api.security.*;
@@ -42,12 +41,18 @@ public class ChargingStation extends AbstractAnnotatedAggregateRoot {
 
     private boolean isReservable = false;
 
-    private transient CommandAuthorization commandAuthorization = new SimpleCommandAuthorization();
+    /**
+     * Command classes each identity is authorized to execute.
+     */
+    private CommandPermissions permissions = new CommandPermissions();
 
     /**
-     * Map of identities with command classes the identity is authorized to execute.
+     * Authorizations as kept by earlier versions, only set when the aggregate is deserialized from such a version.
+     *
+     * @deprecated replaced by {@link #permissions}, kept so existing snapshots of the complete aggregate can be read.
      */
-    private Multimap<UserIdentity, Class<?>> authorizations = HashMultimap.create();
+    @Deprecated
+    private Multimap<UserIdentity, Class<?>> authorizations;
 
     protected ChargingStation() {
     }
@@ -98,11 +103,6 @@ public class ChargingStation extends AbstractAnnotatedAggregateRoot {
         apply(chargingStationBootedEvent);
     }
 
-    @CommandHandler
-    public void handle(HeartbeatCommand command) {
-        apply(new ChargingStationSentHeartbeatEvent(command.getChargingStationId(), command.getIdentityContext()));
-    }
-
     @CommandHandler
     public void handle(AcceptChargingStationCommand command) {
         checkCommandAllowed(command.getIdentityContext(), command.getClass());
@@ -263,11 +263,6 @@ public class ChargingStation extends AbstractAnnotatedAggregateRoot {
         apply(new ChangeChargingStationAvailabilityToOperativeRequestedEvent(this.id, this.protocol, command.getIdentityContext()), metaData);
     }
 
-    @CommandHandler
-    public void handle(ProcessMeterValueCommand command) {
-        apply(new ChargingStationSentMeterValuesEvent(this.id, command.getTransactionId(), command.getEvseId(), command.getMeterValueList(), command.getIdentityContext()));
-    }
-
     @CommandHandler
     public void handle(RequestDataTransferCommand command, MetaData metaData) {
         checkCommandAllowed(command.getIdentityContext(), command.getClass());
@@ -405,16 +400,6 @@ public class ChargingStation extends AbstractAnnotatedAggregateRoot {
         apply(new IncomingDataTransferResultEvent(command.getChargingStationId(), command.getResponseData(), command.getStatus(), command.getIdentityContext()));
     }
 
-    @CommandHandler
-    public void handle(ComponentStatusNotificationCommand command) {
-        apply(new ComponentStatusNotificationReceivedEvent(command.getChargingStationId(), command.getComponent(), command.getComponentId(), command.getStatusNotification(), command.getIdentityContext()));
-    }
-
-    @CommandHandler
-    public void handle(ChargingStationStatusNotificationCommand command) {
-        apply(new ChargingStationStatusNotificationReceivedEvent(command.getChargingStationId(), command.getStatusNotification(), command.getIdentityContext()));
-    }
-
     @CommandHandler
     public void handle(ChangeChargingStationAvailabilityToOperativeCommand command, MetaData metaData) {
         apply(new ChargingStationAvailabilityChangedToOperativeEvent(command.getChargingStationId(), command.getIdentityContext()), metaData);
@@ -500,6 +485,11 @@ public class ChargingStation extends AbstractAnnotatedAggregateRoot {
         apply(new CacheClearedEvent(command.getChargingStationId(), command.getIdentityContext()));
     }
 
+    @CommandHandler
+    public void handle(RequestFailedCommand command, MetaData metaData) {
+        apply(new RequestFailedEvent(command.getChargingStationId(), command.getReason(), command.getIdentityContext()), metaData);
+    }
+
     @EventSourcingHandler
     public void handle(ChargingStationBootedEvent event) {
         this.protocol = event.getProtocol();
@@ -521,7 +511,7 @@ public class ChargingStation extends AbstractAnnotatedAggregateRoot {
         this.id = event.getChargingStationId();
 
         for(UserIdentity identity : event.getUserIdentitiesWithAllPermissions()) {
-            this.authorizations.put(identity, AllPermissions.class);
+            this.permissions.grant(identity, AllPermissions.class);
         }
     }
 
@@ -537,12 +527,50 @@ public class ChargingStation extends AbstractAnnotatedAggregateRoot {
 
     @EventSourcingHandler
     public void handle(PermissionGrantedEvent event) {
-        this.authorizations.put(event.getUserIdentity(), event.getCommandClass());
+        this.permissions.grant(event.getUserIdentity(), event.getCommandClass());
     }
 
     @EventSourcingHandler
     public void handle(PermissionRevokedEvent event) {
-        this.authorizations.remove(event.getUserIdentity(), event.getCommandClass());
+        this.permissions.revoke(event.getUserIdentity(), event.getCommandClass());
+    }
+
+    @EventSourcingHandler
+    public void handle(ChargingStationSnapshot snapshot) {
+        this.id = snapshot.getChargingStationId();
+        this.protocol = snapshot.getProtocol();
+        this.numberOfEvses = snapshot.getNumberOfEvses();
+        this.isAccepted = snapshot.isAccepted();
+        this.isConfigured = snapshot.isConfigured();
+        this.isReservable = snapshot.isReservable();
+
+        this.permissions.reset(snapshot.getAuthorizations());
+    }
+
+    /**
+     * Creates a snapshot of the current state of this charging station.
+     *
+     * @return the snapshot.
+     */
+    public ChargingStationSnapshot createSnapshot() {
+        return new ChargingStationSnapshot(id, protocol, numberOfEvses, isAccepted, isConfigured, isReservable, permissions.asMap());
+    }
+
+    /**
+     * Converts the authorizations of earlier versions to permissions when the aggregate itself has been deserialized,
+     * which is the case for snapshots which contain the complete aggregate instead of a {@link ChargingStationSnapshot}.
+     *
+     * @return this charging station.
+     */
+    private Object readResolve() {
+        if (permissions == null) {
+            permissions = new CommandPermissions();
+            if (authorizations != null) {
+                permissions.reset(authorizations.asMap());
+                authorizations = null;
+            }
+        }
+        return this;
     }
 
     /**
@@ -569,7 +597,7 @@ public class ChargingStation extends AbstractAnnotatedAggregateRoot {
      * @throws IllegalStateException if the identity context is not allowed to execute the command.
      */
     private void checkCommandAllowed(IdentityContext identityContext, Class commandClass) {
-        if (!commandAuthorization.isAuthorized(identityContext, this.authorizations.asMap(), commandClass)) {
+        if (identityContext == null || !permissions.isAuthorized(identityContext.getUserIdentity(), commandClass)) {
             throw new IllegalStateException(identityContext + " is not authorized to execute " + commandClass);
         }
     }
@@ -0,0 +1,131 @@
+/**
+ * Copyright (C) 2013 Motown.IO (info@motown.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.motown.domain.chargingstation;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import io.motown.domain.api.chargingstation.ChargingStationId;
+import io.motown.domain.api.security.UserIdentity;
+
+import java.io.Serializable;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Snapshot of the state of a {@link ChargingStation} aggregate. Loading an aggregate starts from its most recent
+ * snapshot, so only the events which have been applied after the snapshot was taken need to be replayed.
+ * <p/>
+ * The snapshot only holds the state of the aggregate and none of the framework internals, so snapshots remain
+ * readable when the aggregate's implementation changes.
+ */
+public final class ChargingStationSnapshot implements Serializable {
+
+    private static final long serialVersionUID = 3370318453284137541L;
+
+    private final ChargingStationId chargingStationId;
+
+    private final String protocol;
+
+    private final int numberOfEvses;
+
+    private final boolean accepted;
+
+    private final boolean configured;
+
+    private final boolean reservable;
+
+    /**
+     * Map of identities with command classes the identity is authorized to execute.
+     */
+    private final Map<UserIdentity, Set<Class<?>>> authorizations;
+
+    /**
+     * Creates a {@code ChargingStationSnapshot}.
+     *
+     * @param chargingStationId the identifier of the charging station.
+     * @param protocol          the protocol the charging station communicates with, can be {@code null}.
+     * @param numberOfEvses     the number of evses.
+     * @param accepted          whether the charging station has been accepted.
+     * @param configured        whether the charging station has been configured.
+     * @param reservable        whether the charging station is reservable.
+     * @param authorizations    the command classes each identity is authorized to execute.
+     * @throws NullPointerException if {@code chargingStationId} or {@code authorizations} is {@code null}.
+     */
+    public ChargingStationSnapshot(ChargingStationId chargingStationId, String protocol, int numberOfEvses, boolean accepted,
+                                   boolean configured, boolean reservable, Map<UserIdentity, ? extends Collection<Class<?>>> authorizations) {
+        this.chargingStationId = checkNotNull(chargingStationId);
+        this.protocol = protocol;
+        this.numberOfEvses = numberOfEvses;
+        this.accepted = accepted;
+        this.configured = configured;
+        this.reservable = reservable;
+
+        ImmutableMap.Builder<UserIdentity, Set<Class<?>>> builder = ImmutableMap.builder();
+        for (Map.Entry<UserIdentity, ? extends Collection<Class<?>>> entry : checkNotNull(authorizations).entrySet()) {
+            builder.put(entry.getKey(), ImmutableSet.copyOf(entry.getValue()));
+        }
+        this.authorizations = builder.build();
+    }
+
+    public ChargingStationId getChargingStationId() {
+        return chargingStationId;
+    }
+
+    public String getProtocol() {
+        return protocol;
+    }
+
+    public int getNumberOfEvses() {
+        return numberOfEvses;
+    }
+
+    public boolean isAccepted() {
+        return accepted;
+    }
+
+    public boolean isConfigured() {
+        return configured;
+    }
+
+    public boolean isReservable() {
+        return reservable;
+    }
+
+    public Map<UserIdentity, Set<Class<?>>> getAuthorizations() {
+        return authorizations;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(chargingStationId, protocol, numberOfEvses, accepted, configured, reservable, authorizations);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (obj == null || getClass() != obj.getClass()) {
+            return false;
+        }
+        final ChargingStationSnapshot other = (ChargingStationSnapshot) obj;
+        return Objects.equals(this.chargingStationId, other.chargingStationId) && Objects.equals(this.protocol, other.protocol) && Objects.equals(this.numberOfEvses, other.numberOfEvses) && Objects.equals(this.accepted, other.accepted) && Objects.equals(this.configured, other.configured) && Objects.equals(this.reservable, other.reservable) && Objects.equals(this.authorizations, other.authorizations);
+    }
+}
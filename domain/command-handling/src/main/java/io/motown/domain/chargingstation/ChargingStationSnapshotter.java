@@ -0,0 +1,40 @@
+/**
+ * Copyright (C) 2013 Motown.IO (info@motown.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.motown.domain.chargingstation;
+
+import org.axonframework.domain.DomainEventMessage;
+import org.axonframework.domain.DomainEventStream;
+import org.axonframework.domain.GenericDomainEventMessage;
+import org.axonframework.eventsourcing.AggregateSnapshotter;
+
+/**
+ * Snapshotter which stores a {@link ChargingStationSnapshot} instead of the complete {@link ChargingStation}
+ * aggregate. Snapshots of other aggregate types are stored as created by the {@link AggregateSnapshotter}.
+ */
+public class ChargingStationSnapshotter extends AggregateSnapshotter {
+
+    @Override
+    protected DomainEventMessage createSnapshot(String typeIdentifier, Object aggregateIdentifier, DomainEventStream eventStream) {
+        DomainEventMessage snapshot = super.createSnapshot(typeIdentifier, aggregateIdentifier, eventStream);
+
+        if (snapshot != null && snapshot.getPayload() instanceof ChargingStation) {
+            ChargingStation chargingStation = (ChargingStation) snapshot.getPayload();
+            return new GenericDomainEventMessage<>(snapshot.getAggregateIdentifier(), snapshot.getSequenceNumber(), chargingStation.createSnapshot());
+        }
+
+        return snapshot;
+    }
+}
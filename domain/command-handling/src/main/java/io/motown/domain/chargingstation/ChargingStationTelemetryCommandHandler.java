@@ -0,0 +1,206 @@
+/**
+ * Copyright (C) 2013 Motown.IO (info@motown.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.motown.domain.chargingstation;
+
+import io.motown.domain.api.chargingstation.*;
+import org.axonframework.commandhandling.annotation.CommandHandler;
+import org.axonframework.domain.DomainEventMessage;
+import org.axonframework.domain.DomainEventStream;
+import org.axonframework.domain.GenericDomainEventMessage;
+import org.axonframework.domain.SimpleDomainEventStream;
+import org.axonframework.eventhandling.EventBus;
+import org.axonframework.eventhandling.annotation.EventHandler;
+import org.axonframework.eventstore.EventStore;
+import org.axonframework.eventstore.EventStreamNotFoundException;
+import org.axonframework.repository.Repository;
+import org.axonframework.unitofwork.CurrentUnitOfWork;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Handles the telemetry commands charging stations send at a high rate: heartbeats, meter values and status
+ * notifications. These commands do not depend on nor change the state of the {@link ChargingStation} aggregate, so
+ * their events are not applied to the aggregate, which saves loading and locking the aggregate for every message.
+ * <p/>
+ * The events are appended to a separate event stream per charging station, of type {@link #TELEMETRY_STREAM_TYPE},
+ * before they are published. They are therefore still part of the event store, and replayed along with the events of
+ * the aggregate. The sequence number of a charging station's telemetry stream is read from the event store the first
+ * time the handler appends to that stream.
+ * <p/>
+ * Like the aggregate, the handler only accepts commands for charging stations which have been created. Charging
+ * stations created while the handler is running are registered from their {@code ChargingStationCreatedEvent}, other
+ * charging stations are looked up once in the repository.
+ */
+public class ChargingStationTelemetryCommandHandler {
+
+    /**
+     * Type identifier of the event streams the telemetry events are stored in.
+     */
+    public static final String TELEMETRY_STREAM_TYPE = "ChargingStationTelemetry";
+
+    private final ConcurrentMap<ChargingStationId, TelemetryStream> telemetryStreams = new ConcurrentHashMap<>();
+
+    private final Set<ChargingStationId> knownChargingStations = Collections.newSetFromMap(new ConcurrentHashMap<ChargingStationId, Boolean>());
+
+    private EventBus eventBus;
+
+    private EventStore eventStore;
+
+    private Repository<ChargingStation> repository;
+
+    @CommandHandler
+    public void handle(HeartbeatCommand command) {
+        checkChargingStationExists(command.getChargingStationId());
+
+        storeAndPublish(command.getChargingStationId(), new ChargingStationSentHeartbeatEvent(command.getChargingStationId(), command.getIdentityContext()));
+    }
+
+    @CommandHandler
+    public void handle(ProcessMeterValueCommand command) {
+        checkChargingStationExists(command.getChargingStationId());
+
+        storeAndPublish(command.getChargingStationId(), new ChargingStationSentMeterValuesEvent(command.getChargingStationId(), command.getTransactionId(), command.getEvseId(), command.getMeterValueList(), command.getIdentityContext()));
+    }
+
+    @CommandHandler
+    public void handle(ComponentStatusNotificationCommand command) {
+        checkChargingStationExists(command.getChargingStationId());
+
+        storeAndPublish(command.getChargingStationId(), new ComponentStatusNotificationReceivedEvent(command.getChargingStationId(), command.getComponent(), command.getComponentId(), command.getStatusNotification(), command.getIdentityContext()));
+    }
+
+    @CommandHandler
+    public void handle(ChargingStationStatusNotificationCommand command) {
+        checkChargingStationExists(command.getChargingStationId());
+
+        storeAndPublish(command.getChargingStationId(), new ChargingStationStatusNotificationReceivedEvent(command.getChargingStationId(), command.getStatusNotification(), command.getIdentityContext()));
+    }
+
+    @EventHandler
+    public void handle(ChargingStationCreatedEvent event) {
+        knownChargingStations.add(event.getChargingStationId());
+    }
+
+    public void setEventBus(EventBus eventBus) {
+        this.eventBus = eventBus;
+    }
+
+    public void setEventStore(EventStore eventStore) {
+        this.eventStore = eventStore;
+    }
+
+    public void setRepository(Repository<ChargingStation> repository) {
+        this.repository = repository;
+    }
+
+    /**
+     * Ensures the charging station has been created.
+     *
+     * @param chargingStationId the charging station's id.
+     * @throws org.axonframework.repository.AggregateNotFoundException if the charging station does not exist.
+     */
+    private void checkChargingStationExists(ChargingStationId chargingStationId) {
+        if (!knownChargingStations.contains(chargingStationId)) {
+            repository.load(chargingStationId);
+            knownChargingStations.add(chargingStationId);
+        }
+    }
+
+    /**
+     * Appends the event to the charging station's telemetry stream and publishes it.
+     *
+     * @param chargingStationId the charging station's id.
+     * @param event             the event to store and publish.
+     */
+    private void storeAndPublish(ChargingStationId chargingStationId, Object event) {
+        TelemetryStream telemetryStream = telemetryStreams.get(chargingStationId);
+        if (telemetryStream == null) {
+            TelemetryStream newTelemetryStream = new TelemetryStream();
+            telemetryStream = telemetryStreams.putIfAbsent(chargingStationId, newTelemetryStream);
+            if (telemetryStream == null) {
+                telemetryStream = newTelemetryStream;
+            }
+        }
+
+        DomainEventMessage<Object> eventMessage;
+        synchronized (telemetryStream) {
+            if (telemetryStream.nextSequenceNumber < 0) {
+                telemetryStream.nextSequenceNumber = readNextSequenceNumber(chargingStationId);
+            }
+
+            eventMessage = new GenericDomainEventMessage<>(chargingStationId, telemetryStream.nextSequenceNumber, event);
+            try {
+                eventStore.appendEvents(TELEMETRY_STREAM_TYPE, new SimpleDomainEventStream(eventMessage));
+            } catch (RuntimeException e) {
+                // the stream may have been appended to elsewhere, read its sequence number again on the next event
+                telemetryStream.nextSequenceNumber = -1;
+                throw e;
+            }
+            telemetryStream.nextSequenceNumber++;
+        }
+
+        publish(eventMessage);
+    }
+
+    /**
+     * Reads the sequence number the next event of the charging station's telemetry stream gets.
+     *
+     * @param chargingStationId the charging station's id.
+     * @return the sequence number following the last stored one, or 0 if nothing has been stored yet.
+     */
+    private long readNextSequenceNumber(ChargingStationId chargingStationId) {
+        long nextSequenceNumber = 0;
+
+        try {
+            DomainEventStream events = eventStore.readEvents(TELEMETRY_STREAM_TYPE, chargingStationId);
+            while (events.hasNext()) {
+                nextSequenceNumber = events.next().getSequenceNumber() + 1;
+            }
+        } catch (EventStreamNotFoundException e) {
+            // nothing has been stored for this charging station yet
+        }
+
+        return nextSequenceNumber;
+    }
+
+    /**
+     * Publishes the event. Within a unit of work the event is published when the unit of work is committed, like the
+     * events applied to aggregates.
+     *
+     * @param eventMessage the event to publish.
+     */
+    private void publish(DomainEventMessage<?> eventMessage) {
+        if (CurrentUnitOfWork.isStarted()) {
+            CurrentUnitOfWork.get().publishEvent(eventMessage, eventBus);
+        } else {
+            eventBus.publish(eventMessage);
+        }
+    }
+
+    /**
+     * Sequence number state of a charging station's telemetry stream, guarded by synchronizing on the instance.
+     */
+    private static final class TelemetryStream {
+
+        /**
+         * The next sequence number, or -1 if it has to be read from the event store.
+         */
+        private long nextSequenceNumber = -1;
+    }
+}
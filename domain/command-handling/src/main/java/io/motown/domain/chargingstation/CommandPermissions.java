@@ -0,0 +1,158 @@
+/**
+ * Copyright (C) 2013 Motown.IO (info@motown.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.motown.domain.chargingstation;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import io.motown.domain.api.security.CommandClassRegistry;
+import io.motown.domain.api.security.UserIdentity;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Command classes each user identity is authorized to execute on a charging station. Per user identity the command
+ * classes are kept as a bit set indexed by the ordinals of the {@link CommandClassRegistry}, so checking a permission
+ * does not allocate.
+ * <p/>
+ * Ordinals differ between processes, therefore the permissions are serialized as command classes and converted back
+ * to bits when they are read.
+ */
+final class CommandPermissions implements Serializable {
+
+    private static final long serialVersionUID = -1925472470372014651L;
+
+    /**
+     * Authorized command classes, key is user identity.
+     */
+    private transient Map<UserIdentity, BitSet> permissions = new HashMap<>();
+
+    /**
+     * Checks if a user identity is authorized to execute a command class, either because it has been granted the
+     * command class or {@code AllPermissions}.
+     *
+     * @param userIdentity user identity.
+     * @param commandClass command class.
+     * @return true if the user identity is authorized.
+     */
+    boolean isAuthorized(UserIdentity userIdentity, Class<?> commandClass) {
+        BitSet bits = permissions.get(userIdentity);
+
+        if (bits == null) {
+            return false;
+        }
+
+        int ordinal = CommandClassRegistry.ordinalOf(commandClass);
+
+        return (ordinal >= 0 && bits.get(ordinal)) || bits.get(CommandClassRegistry.ALL_PERMISSIONS_ORDINAL);
+    }
+
+    void grant(UserIdentity userIdentity, Class<?> commandClass) {
+        BitSet bits = permissions.get(userIdentity);
+
+        if (bits == null) {
+            bits = new BitSet();
+            permissions.put(userIdentity, bits);
+        }
+
+        bits.set(CommandClassRegistry.register(commandClass));
+    }
+
+    void revoke(UserIdentity userIdentity, Class<?> commandClass) {
+        BitSet bits = permissions.get(userIdentity);
+        int ordinal = CommandClassRegistry.ordinalOf(commandClass);
+
+        if (bits == null || ordinal < 0) {
+            return;
+        }
+
+        bits.clear(ordinal);
+        if (bits.isEmpty()) {
+            permissions.remove(userIdentity);
+        }
+    }
+
+    /**
+     * Replaces all permissions.
+     *
+     * @param authorizations the command classes each identity is authorized to execute.
+     */
+    void reset(Map<UserIdentity, ? extends Collection<Class<?>>> authorizations) {
+        permissions.clear();
+
+        for (Map.Entry<UserIdentity, ? extends Collection<Class<?>>> entry : authorizations.entrySet()) {
+            for (Class<?> commandClass : entry.getValue()) {
+                grant(entry.getKey(), commandClass);
+            }
+        }
+    }
+
+    /**
+     * Gets the command classes each user identity is authorized to execute. User identities without any permission are
+     * left out.
+     *
+     * @return immutable map of command classes, key is user identity.
+     */
+    Map<UserIdentity, Set<Class<?>>> asMap() {
+        ImmutableMap.Builder<UserIdentity, Set<Class<?>>> builder = ImmutableMap.builder();
+
+        for (Map.Entry<UserIdentity, BitSet> entry : permissions.entrySet()) {
+            ImmutableSet.Builder<Class<?>> commandClasses = ImmutableSet.builder();
+            BitSet bits = entry.getValue();
+            for (int ordinal = bits.nextSetBit(0); ordinal >= 0; ordinal = bits.nextSetBit(ordinal + 1)) {
+                commandClasses.add(CommandClassRegistry.commandClassOf(ordinal));
+            }
+            builder.put(entry.getKey(), commandClasses.build());
+        }
+
+        return builder.build();
+    }
+
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        out.defaultWriteObject();
+
+        Map<UserIdentity, Set<Class<?>>> authorizations = asMap();
+        out.writeInt(authorizations.size());
+        for (Map.Entry<UserIdentity, Set<Class<?>>> entry : authorizations.entrySet()) {
+            out.writeObject(entry.getKey());
+            out.writeInt(entry.getValue().size());
+            for (Class<?> commandClass : entry.getValue()) {
+                out.writeObject(commandClass);
+            }
+        }
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+
+        permissions = new HashMap<>();
+        int numberOfUserIdentities = in.readInt();
+        for (int i = 0; i < numberOfUserIdentities; i++) {
+            UserIdentity userIdentity = (UserIdentity) in.readObject();
+            int numberOfCommandClasses = in.readInt();
+            for (int j = 0; j < numberOfCommandClasses; j++) {
+                grant(userIdentity, (Class<?>) in.readObject());
+            }
+        }
+    }
+}
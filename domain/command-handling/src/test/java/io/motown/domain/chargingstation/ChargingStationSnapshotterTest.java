@@ -0,0 +1,93 @@
+/**
+ * Copyright (C) 2013 Motown.IO (info@motown.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.motown.domain.chargingstation;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import io.motown.domain.api.security.AllPermissions;
+import io.motown.domain.api.security.UserIdentity;
+import org.axonframework.domain.DomainEventMessage;
+import org.axonframework.domain.GenericDomainEventMessage;
+import org.axonframework.domain.SimpleDomainEventStream;
+import org.axonframework.eventsourcing.AggregateFactory;
+import org.axonframework.eventsourcing.GenericAggregateFactory;
+import org.axonframework.serializer.SerializedObject;
+import org.axonframework.serializer.xml.XStreamSerializer;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import static io.motown.domain.api.chargingstation.test.ChargingStationTestUtils.*;
+import static org.junit.Assert.assertEquals;
+
+public class ChargingStationSnapshotterTest {
+
+    private ChargingStationSnapshotter snapshotter;
+
+    private GenericAggregateFactory<ChargingStation> aggregateFactory;
+
+    @Before
+    public void setUp() {
+        aggregateFactory = new GenericAggregateFactory<>(ChargingStation.class);
+
+        snapshotter = new ChargingStationSnapshotter();
+        snapshotter.setAggregateFactories(Collections.<AggregateFactory<?>>singletonList(aggregateFactory));
+    }
+
+    @Test
+    public void snapshotContainsStateOfChargingStation() {
+        DomainEventMessage snapshot = snapshotter.createSnapshot(aggregateFactory.getTypeIdentifier(), CHARGING_STATION_ID, new SimpleDomainEventStream(asDomainEventMessages(CHARGING_STATION)));
+
+        ChargingStationSnapshot expected = new ChargingStationSnapshot(CHARGING_STATION_ID, PROTOCOL, EVSES.size(), true, true, false,
+                ImmutableMap.<UserIdentity, Set<Class<?>>>of(ROOT_USER_IDENTITY, ImmutableSet.<Class<?>>of(AllPermissions.class)));
+        assertEquals(expected, snapshot.getPayload());
+        assertEquals(CHARGING_STATION_ID, snapshot.getAggregateIdentifier());
+        assertEquals(CHARGING_STATION.size() - 1, snapshot.getSequenceNumber());
+    }
+
+    @Test
+    public void chargingStationRestoredFromSnapshotHasSameState() {
+        DomainEventMessage snapshot = snapshotter.createSnapshot(aggregateFactory.getTypeIdentifier(), CHARGING_STATION_ID, new SimpleDomainEventStream(asDomainEventMessages(RESERVABLE_CHARGING_STATION)));
+
+        ChargingStation chargingStation = aggregateFactory.createAggregate(CHARGING_STATION_ID, snapshot);
+        chargingStation.initializeState(new SimpleDomainEventStream(snapshot));
+
+        assertEquals(snapshot.getPayload(), chargingStation.createSnapshot());
+        assertEquals(Long.valueOf(snapshot.getSequenceNumber()), chargingStation.getVersion());
+    }
+
+    @Test
+    public void snapshotCanBeSerialized() {
+        XStreamSerializer serializer = new XStreamSerializer();
+        ChargingStationSnapshot snapshot = (ChargingStationSnapshot) snapshotter.createSnapshot(aggregateFactory.getTypeIdentifier(), CHARGING_STATION_ID, new SimpleDomainEventStream(asDomainEventMessages(CHARGING_STATION))).getPayload();
+
+        SerializedObject<byte[]> serialized = serializer.serialize(snapshot, byte[].class);
+
+        assertEquals(snapshot, serializer.deserialize(serialized));
+    }
+
+    private List<DomainEventMessage> asDomainEventMessages(List<Object> events) {
+        List<DomainEventMessage> messages = new ArrayList<>();
+        for (Object event : events) {
+            messages.add(new GenericDomainEventMessage<>(CHARGING_STATION_ID, messages.size(), event));
+        }
+        return messages;
+    }
+}
@@ -0,0 +1,165 @@
+/**
+ * Copyright (C) 2013 Motown.IO (info@motown.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.motown.domain.chargingstation;
+
+import io.motown.domain.api.chargingstation.*;
+import org.axonframework.domain.DomainEventMessage;
+import org.axonframework.domain.DomainEventStream;
+import org.axonframework.eventstore.EventStore;
+import org.axonframework.eventstore.fs.FileSystemEventStore;
+import org.axonframework.eventstore.fs.SimpleEventFileResolver;
+import org.axonframework.repository.AggregateNotFoundException;
+import org.axonframework.test.FixtureConfiguration;
+import org.axonframework.test.Fixtures;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+import static io.motown.domain.api.chargingstation.test.ChargingStationTestUtils.*;
+import static org.junit.Assert.assertEquals;
+
+public class ChargingStationTelemetryCommandHandlerTest {
+
+    @Rule
+    public TemporaryFolder eventStoreFolder = new TemporaryFolder();
+
+    private FixtureConfiguration<ChargingStation> fixture;
+
+    private EventStore telemetryEventStore;
+
+    @Before
+    public void setUp() throws Exception {
+        fixture = Fixtures.newGivenWhenThenFixture(ChargingStation.class);
+        telemetryEventStore = new FileSystemEventStore(new SimpleEventFileResolver(eventStoreFolder.getRoot()));
+
+        fixture.registerAnnotatedCommandHandler(createCommandHandler());
+    }
+
+    @Test
+    public void testHeartbeat() {
+        fixture.given(CHARGING_STATION)
+                .when(new HeartbeatCommand(CHARGING_STATION_ID, NULL_USER_IDENTITY_CONTEXT))
+                .expectPublishedEvents(new ChargingStationSentHeartbeatEvent(CHARGING_STATION_ID, NULL_USER_IDENTITY_CONTEXT));
+    }
+
+    @Test
+    public void testHeartbeatNotStoredInEventStore() {
+        fixture.given(CHARGING_STATION)
+                .when(new HeartbeatCommand(CHARGING_STATION_ID, NULL_USER_IDENTITY_CONTEXT))
+                .expectStoredEvents();
+    }
+
+    @Test
+    public void testHeartbeatStoredInTelemetryStream() {
+        fixture.given(CHARGING_STATION)
+                .when(new HeartbeatCommand(CHARGING_STATION_ID, NULL_USER_IDENTITY_CONTEXT));
+
+        List<DomainEventMessage> telemetryEvents = readTelemetryStream();
+        assertEquals(1, telemetryEvents.size());
+        assertEquals(0, telemetryEvents.get(0).getSequenceNumber());
+        assertEquals(ChargingStationSentHeartbeatEvent.class, telemetryEvents.get(0).getPayloadType());
+    }
+
+    @Test
+    public void testTelemetryStreamContinuesAfterRestart() {
+        StatusNotification statusNotification = new StatusNotification(ComponentStatus.AVAILABLE, new Date(), Collections.<String, String>emptyMap());
+
+        fixture.given(CHARGING_STATION)
+                .when(new HeartbeatCommand(CHARGING_STATION_ID, NULL_USER_IDENTITY_CONTEXT));
+
+        ChargingStationTelemetryCommandHandler restartedCommandHandler = createCommandHandler();
+        restartedCommandHandler.handle(new ChargingStationCreatedEvent(CHARGING_STATION_ID, USER_IDENTITIES_WITH_ALL_PERMISSIONS, NULL_USER_IDENTITY_CONTEXT));
+        restartedCommandHandler.handle(new ChargingStationStatusNotificationCommand(CHARGING_STATION_ID, statusNotification, NULL_USER_IDENTITY_CONTEXT));
+
+        List<DomainEventMessage> telemetryEvents = readTelemetryStream();
+        assertEquals(2, telemetryEvents.size());
+        assertEquals(1, telemetryEvents.get(1).getSequenceNumber());
+        assertEquals(ChargingStationStatusNotificationReceivedEvent.class, telemetryEvents.get(1).getPayloadType());
+    }
+
+    @Test
+    public void testHeartbeatForNonExistentChargingStation() {
+        fixture.given()
+                .when(new HeartbeatCommand(CHARGING_STATION_ID, NULL_USER_IDENTITY_CONTEXT))
+                .expectException(AggregateNotFoundException.class);
+    }
+
+    @Test
+    public void testMultipleMeterValues() {
+        fixture.given(CHARGING_STATION)
+                .when(new ProcessMeterValueCommand(CHARGING_STATION_ID, TRANSACTION_ID, EVSE_ID, METER_VALUES, NULL_USER_IDENTITY_CONTEXT))
+                .expectPublishedEvents(new ChargingStationSentMeterValuesEvent(CHARGING_STATION_ID, TRANSACTION_ID, EVSE_ID, METER_VALUES, NULL_USER_IDENTITY_CONTEXT));
+    }
+
+    @Test
+    public void testNoMeterValues() {
+        List<MeterValue> meterValues = new ArrayList<>();
+
+        fixture.given(CHARGING_STATION)
+                .when(new ProcessMeterValueCommand(CHARGING_STATION_ID, TRANSACTION_ID, EVSE_ID, meterValues, NULL_USER_IDENTITY_CONTEXT))
+                .expectPublishedEvents(new ChargingStationSentMeterValuesEvent(CHARGING_STATION_ID, TRANSACTION_ID, EVSE_ID, meterValues, NULL_USER_IDENTITY_CONTEXT));
+    }
+
+    @Test
+    public void testMeterValuesNoTransaction() {
+        TransactionId transactionId = null;
+
+        fixture.given(CHARGING_STATION)
+                .when(new ProcessMeterValueCommand(CHARGING_STATION_ID, transactionId, EVSE_ID, METER_VALUES, NULL_USER_IDENTITY_CONTEXT))
+                .expectPublishedEvents(new ChargingStationSentMeterValuesEvent(CHARGING_STATION_ID, transactionId, EVSE_ID, METER_VALUES, NULL_USER_IDENTITY_CONTEXT));
+    }
+
+    @Test
+    public void testChargingStationStatusNotification() {
+        StatusNotification statusNotification = new StatusNotification(ComponentStatus.AVAILABLE, new Date(), Collections.<String, String>emptyMap());
+
+        fixture.given(CHARGING_STATION)
+                .when(new ChargingStationStatusNotificationCommand(CHARGING_STATION_ID, statusNotification, NULL_USER_IDENTITY_CONTEXT))
+                .expectPublishedEvents(new ChargingStationStatusNotificationReceivedEvent(CHARGING_STATION_ID, statusNotification, NULL_USER_IDENTITY_CONTEXT));
+    }
+
+    @Test
+    public void testComponentStatusNotification() {
+        StatusNotification statusNotification = new StatusNotification(ComponentStatus.AVAILABLE, new Date(), Collections.<String, String>emptyMap());
+
+        fixture.given(CHARGING_STATION)
+                .when(new ComponentStatusNotificationCommand(CHARGING_STATION_ID, ChargingStationComponent.CONNECTOR, EVSE_ID, statusNotification, NULL_USER_IDENTITY_CONTEXT))
+                .expectPublishedEvents(new ComponentStatusNotificationReceivedEvent(CHARGING_STATION_ID, ChargingStationComponent.CONNECTOR, EVSE_ID, statusNotification, NULL_USER_IDENTITY_CONTEXT));
+    }
+
+    private ChargingStationTelemetryCommandHandler createCommandHandler() {
+        ChargingStationTelemetryCommandHandler commandHandler = new ChargingStationTelemetryCommandHandler();
+        commandHandler.setEventBus(fixture.getEventBus());
+        commandHandler.setEventStore(telemetryEventStore);
+        commandHandler.setRepository(fixture.getRepository());
+        return commandHandler;
+    }
+
+    private List<DomainEventMessage> readTelemetryStream() {
+        List<DomainEventMessage> events = new ArrayList<>();
+        DomainEventStream eventStream = telemetryEventStore.readEvents(ChargingStationTelemetryCommandHandler.TELEMETRY_STREAM_TYPE, CHARGING_STATION_ID);
+        while (eventStream.hasNext()) {
+            events.add(eventStream.next());
+        }
+        return events;
+    }
+}
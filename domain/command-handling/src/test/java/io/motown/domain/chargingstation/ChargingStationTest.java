@@ -15,7 +15,11 @@
  */
 package io.motown.domain.chargingstation;
 
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 import io.motown.domain.api.chargingstation.*;
+import io.motown.domain.api.security.AllPermissions;
+import io.motown.domain.api.security.UserIdentity;
 import org.axonframework.repository.AggregateNotFoundException;
 import org.axonframework.test.FixtureConfiguration;
 import org.axonframework.test.Fixtures;
@@ -28,6 +32,9 @@ import static io.motown.domain.api.chargingstation.test.ChargingStationTestUtils
 
 public class ChargingStationTest {
 
+    private static final ChargingStationSnapshot CHARGING_STATION_SNAPSHOT = new ChargingStationSnapshot(CHARGING_STATION_ID, PROTOCOL, EVSES.size(), true, true, false,
+            ImmutableMap.<UserIdentity, Set<Class<?>>>of(ROOT_USER_IDENTITY, ImmutableSet.<Class<?>>of(AllPermissions.class)));
+
     private FixtureConfiguration<ChargingStation> fixture;
 
     @Before
@@ -57,35 +64,45 @@ public class ChargingStationTest {
     }
 
     @Test
-    public void testHeartbeat() {
-        fixture.given(CHARGING_STATION)
-                .when(new HeartbeatCommand(CHARGING_STATION_ID, NULL_USER_IDENTITY_CONTEXT))
-                .expectEvents(new ChargingStationSentHeartbeatEvent(CHARGING_STATION_ID, NULL_USER_IDENTITY_CONTEXT));
+    public void testRequestingToUnlockEvseForChargingStationRestoredFromSnapshot() {
+        fixture.given(CHARGING_STATION_SNAPSHOT)
+                .when(new RequestUnlockEvseCommand(CHARGING_STATION_ID, EVSE_ID, ROOT_IDENTITY_CONTEXT))
+                .expectEvents(new UnlockEvseRequestedEvent(CHARGING_STATION_ID, PROTOCOL, EVSE_ID, ROOT_IDENTITY_CONTEXT));
     }
 
     @Test
-    public void testMultipleMeterValues() {
-        fixture.given(CHARGING_STATION)
-                .when(new ProcessMeterValueCommand(CHARGING_STATION_ID, TRANSACTION_ID, EVSE_ID, METER_VALUES, NULL_USER_IDENTITY_CONTEXT))
-                .expectEvents(new ChargingStationSentMeterValuesEvent(CHARGING_STATION_ID, TRANSACTION_ID, EVSE_ID, METER_VALUES, NULL_USER_IDENTITY_CONTEXT));
+    public void testRequestingToUnlockUnknownEvseForChargingStationRestoredFromSnapshot() {
+        fixture.given(CHARGING_STATION_SNAPSHOT)
+                .when(new RequestUnlockEvseCommand(CHARGING_STATION_ID, UNKNOWN_EVSE_ID, ROOT_IDENTITY_CONTEXT))
+                .expectEvents(new EvseNotFoundEvent(CHARGING_STATION_ID, UNKNOWN_EVSE_ID, ROOT_IDENTITY_CONTEXT));
     }
 
     @Test
-    public void testNoMeterValues() {
-        List<MeterValue> meterValues = new ArrayList<>();
+    public void testCommandNotAllowedForChargingStationRestoredFromSnapshot() {
+        fixture.given(CHARGING_STATION_SNAPSHOT)
+                .when(new MakeChargingStationReservableCommand(CHARGING_STATION_ID, IDENTITY_CONTEXT))
+                .expectException(IllegalStateException.class);
+    }
 
-        fixture.given(CHARGING_STATION)
-                .when(new ProcessMeterValueCommand(CHARGING_STATION_ID, TRANSACTION_ID, EVSE_ID, meterValues, NULL_USER_IDENTITY_CONTEXT))
-                .expectEvents(new ChargingStationSentMeterValuesEvent(CHARGING_STATION_ID, TRANSACTION_ID, EVSE_ID, meterValues, NULL_USER_IDENTITY_CONTEXT));
+    @Test
+    public void testCommandAllowedAfterReplayOfGrantedPermission() {
+        List<Object> events = new ArrayList<>(CHARGING_STATION);
+        events.add(new PermissionGrantedEvent(CHARGING_STATION_ID, USER_IDENTITY, MakeChargingStationReservableCommand.class, ROOT_IDENTITY_CONTEXT));
+
+        fixture.given(events)
+                .when(new MakeChargingStationReservableCommand(CHARGING_STATION_ID, IDENTITY_CONTEXT))
+                .expectEvents(new ChargingStationMadeReservableEvent(CHARGING_STATION_ID, IDENTITY_CONTEXT));
     }
 
     @Test
-    public void testMeterValuesNoTransaction() {
-        TransactionId transactionId = null;
+    public void testCommandNotAllowedAfterReplayOfRevokedPermission() {
+        List<Object> events = new ArrayList<>(CHARGING_STATION);
+        events.add(new PermissionGrantedEvent(CHARGING_STATION_ID, USER_IDENTITY, MakeChargingStationReservableCommand.class, ROOT_IDENTITY_CONTEXT));
+        events.add(new PermissionRevokedEvent(CHARGING_STATION_ID, USER_IDENTITY, MakeChargingStationReservableCommand.class, ROOT_IDENTITY_CONTEXT));
 
-        fixture.given(CHARGING_STATION)
-                .when(new ProcessMeterValueCommand(CHARGING_STATION_ID, transactionId, EVSE_ID, METER_VALUES, NULL_USER_IDENTITY_CONTEXT))
-                .expectEvents(new ChargingStationSentMeterValuesEvent(CHARGING_STATION_ID, transactionId, EVSE_ID, METER_VALUES, NULL_USER_IDENTITY_CONTEXT));
+        fixture.given(events)
+                .when(new MakeChargingStationReservableCommand(CHARGING_STATION_ID, IDENTITY_CONTEXT))
+                .expectException(IllegalStateException.class);
     }
 
     @Test
@@ -508,6 +525,13 @@ public class ChargingStationTest {
                 .expectEvents(new CacheClearedEvent(CHARGING_STATION_ID, ROOT_IDENTITY_CONTEXT));
     }
 
+    @Test
+    public void testRequestFailed() {
+        fixture.given(CHARGING_STATION)
+                .when(new RequestFailedCommand(CHARGING_STATION_ID, RequestFailureReason.TIMEOUT, ROOT_IDENTITY_CONTEXT))
+                .expectEvents(new RequestFailedEvent(CHARGING_STATION_ID, RequestFailureReason.TIMEOUT, ROOT_IDENTITY_CONTEXT));
+    }
+
     @Test
     public void testRequestFirmwareUpdate() {
         String updateLocation = "https://somewhere.nl";
@@ -679,24 +703,6 @@ public class ChargingStationTest {
                 .expectEvents(new IncomingDataTransferResultEvent(CHARGING_STATION_ID, dataToTransfer, status, NULL_USER_IDENTITY_CONTEXT));
     }
 
-    @Test
-    public void testChargingStationStatusNotification() {
-        StatusNotification statusNotification = new StatusNotification(ComponentStatus.AVAILABLE, new Date(), Collections.<String, String>emptyMap());
-
-        fixture.given(CHARGING_STATION)
-                .when(new ChargingStationStatusNotificationCommand(CHARGING_STATION_ID, statusNotification, NULL_USER_IDENTITY_CONTEXT))
-                .expectEvents(new ChargingStationStatusNotificationReceivedEvent(CHARGING_STATION_ID, statusNotification, NULL_USER_IDENTITY_CONTEXT));
-    }
-
-    @Test
-    public void testComponentStatusNotification() {
-        StatusNotification statusNotification = new StatusNotification(ComponentStatus.AVAILABLE, new Date(), Collections.<String, String>emptyMap());
-
-        fixture.given(CHARGING_STATION)
-                .when(new ComponentStatusNotificationCommand(CHARGING_STATION_ID, ChargingStationComponent.CONNECTOR, EVSE_ID, statusNotification, NULL_USER_IDENTITY_CONTEXT))
-                .expectEvents(new ComponentStatusNotificationReceivedEvent(CHARGING_STATION_ID, ChargingStationComponent.CONNECTOR, EVSE_ID, statusNotification, NULL_USER_IDENTITY_CONTEXT));
-    }
-
     @Test
     public void testChangeConfiguration() {
         fixture.given(CHARGING_STATION)
@@ -0,0 +1,105 @@
+/**
+ * Copyright (C) 2013 Motown.IO (info@motown.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.motown.domain.chargingstation;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import io.motown.domain.api.chargingstation.RequestStartTransactionCommand;
+import io.motown.domain.api.chargingstation.RequestStopTransactionCommand;
+import io.motown.domain.api.security.AllPermissions;
+import io.motown.domain.api.security.UserIdentity;
+import org.axonframework.serializer.SerializedObject;
+import org.axonframework.serializer.xml.XStreamSerializer;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Set;
+
+import static io.motown.domain.api.chargingstation.test.ChargingStationTestUtils.ROOT_USER_IDENTITY;
+import static io.motown.domain.api.chargingstation.test.ChargingStationTestUtils.USER_IDENTITY;
+import static org.junit.Assert.*;
+
+public class CommandPermissionsTest {
+
+    private CommandPermissions permissions;
+
+    @Before
+    public void setUp() {
+        permissions = new CommandPermissions();
+    }
+
+    @Test
+    public void grantedCommandClassIsAuthorized() {
+        permissions.grant(USER_IDENTITY, RequestStartTransactionCommand.class);
+
+        assertTrue(permissions.isAuthorized(USER_IDENTITY, RequestStartTransactionCommand.class));
+        assertFalse(permissions.isAuthorized(USER_IDENTITY, RequestStopTransactionCommand.class));
+        assertFalse(permissions.isAuthorized(ROOT_USER_IDENTITY, RequestStartTransactionCommand.class));
+    }
+
+    @Test
+    public void allPermissionsAuthorizesEveryCommandClass() {
+        permissions.grant(ROOT_USER_IDENTITY, AllPermissions.class);
+
+        assertTrue(permissions.isAuthorized(ROOT_USER_IDENTITY, RequestStopTransactionCommand.class));
+        assertTrue(permissions.isAuthorized(ROOT_USER_IDENTITY, CommandPermissionsTest.class));
+    }
+
+    @Test
+    public void revokedCommandClassIsNotAuthorized() {
+        permissions.grant(USER_IDENTITY, RequestStartTransactionCommand.class);
+        permissions.grant(USER_IDENTITY, RequestStopTransactionCommand.class);
+
+        permissions.revoke(USER_IDENTITY, RequestStartTransactionCommand.class);
+
+        assertFalse(permissions.isAuthorized(USER_IDENTITY, RequestStartTransactionCommand.class));
+        assertTrue(permissions.isAuthorized(USER_IDENTITY, RequestStopTransactionCommand.class));
+    }
+
+    @Test
+    public void userIdentityWithoutPermissionsIsLeftOutOfMap() {
+        permissions.grant(USER_IDENTITY, RequestStartTransactionCommand.class);
+        permissions.grant(ROOT_USER_IDENTITY, AllPermissions.class);
+
+        permissions.revoke(USER_IDENTITY, RequestStartTransactionCommand.class);
+
+        assertEquals(ImmutableMap.<UserIdentity, Set<Class<?>>>of(ROOT_USER_IDENTITY, ImmutableSet.<Class<?>>of(AllPermissions.class)), permissions.asMap());
+    }
+
+    @Test
+    public void resetReplacesPermissions() {
+        permissions.grant(USER_IDENTITY, RequestStartTransactionCommand.class);
+        ImmutableMap<UserIdentity, Set<Class<?>>> authorizations = ImmutableMap.<UserIdentity, Set<Class<?>>>of(ROOT_USER_IDENTITY,
+                ImmutableSet.<Class<?>>of(RequestStartTransactionCommand.class, RequestStopTransactionCommand.class));
+
+        permissions.reset(authorizations);
+
+        assertEquals(authorizations, permissions.asMap());
+    }
+
+    @Test
+    public void permissionsCanBeSerialized() {
+        XStreamSerializer serializer = new XStreamSerializer();
+        permissions.grant(USER_IDENTITY, RequestStartTransactionCommand.class);
+        permissions.grant(ROOT_USER_IDENTITY, AllPermissions.class);
+
+        SerializedObject<byte[]> serialized = serializer.serialize(permissions, byte[].class);
+        CommandPermissions deserialized = serializer.deserialize(serialized);
+
+        assertEquals(permissions.asMap(), deserialized.asMap());
+        assertTrue(deserialized.isAuthorized(USER_IDENTITY, RequestStartTransactionCommand.class));
+    }
+}
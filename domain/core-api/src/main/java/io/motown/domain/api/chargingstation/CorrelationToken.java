@@ -50,7 +50,8 @@ public final class CorrelationToken {
      */
     @Override
     public int hashCode() {
-        return Objects.hash(token);
+        // called for every lookup of a waiting callback, avoid the varargs array of Objects.hash
+        return Objects.hashCode(token);
     }
 
     /**
@@ -0,0 +1,96 @@
+/**
+ * Copyright (C) 2013 Motown.IO (info@motown.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.motown.domain.api.chargingstation;
+
+import io.motown.domain.api.security.IdentityContext;
+import org.axonframework.commandhandling.annotation.TargetAggregateIdentifier;
+
+import java.util.Objects;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * {@code RequestFailedCommand} is the command which is published when a request to a charging station did not result
+ * in a response. The correlation token of the failed request is expected in the meta data.
+ */
+public final class RequestFailedCommand {
+
+    @TargetAggregateIdentifier
+    private final ChargingStationId chargingStationId;
+
+    private final RequestFailureReason reason;
+
+    private final IdentityContext identityContext;
+
+    /**
+     * Creates a {@code RequestFailedCommand}.
+     *
+     * @param chargingStationId the identifier of the charging station.
+     * @param reason            the reason the request failed.
+     * @param identityContext   identity context.
+     * @throws java.lang.NullPointerException if {@code chargingStationId}, {@code reason} or {@code identityContext} is
+     *                                        null.
+     */
+    public RequestFailedCommand(ChargingStationId chargingStationId, RequestFailureReason reason, IdentityContext identityContext) {
+        this.chargingStationId = checkNotNull(chargingStationId);
+        this.reason = checkNotNull(reason);
+        this.identityContext = checkNotNull(identityContext);
+    }
+
+    /**
+     * Gets the charging station identifier.
+     *
+     * @return the charging station identifier.
+     */
+    public ChargingStationId getChargingStationId() {
+        return chargingStationId;
+    }
+
+    /**
+     * Gets the reason the request failed.
+     *
+     * @return the reason.
+     */
+    public RequestFailureReason getReason() {
+        return reason;
+    }
+
+    /**
+     * Gets the identity context.
+     *
+     * @return the identity context.
+     */
+    public IdentityContext getIdentityContext() {
+        return identityContext;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(chargingStationId, reason, identityContext);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (obj == null || getClass() != obj.getClass()) {
+            return false;
+        }
+        final RequestFailedCommand other = (RequestFailedCommand) obj;
+        return Objects.equals(this.chargingStationId, other.chargingStationId) && Objects.equals(this.reason, other.reason) && Objects.equals(this.identityContext, other.identityContext);
+    }
+}
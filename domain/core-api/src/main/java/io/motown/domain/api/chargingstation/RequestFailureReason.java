@@ -0,0 +1,39 @@
+/**
+ * Copyright (C) 2013 Motown.IO (info@motown.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.motown.domain.api.chargingstation;
+
+/**
+ * {@code RequestFailureReason} describes why a request to a charging station did not result in a response.
+ */
+public enum RequestFailureReason {
+    /**
+     * The request could not be sent, e.g. because the charging station is not connected or too many requests are
+     * awaiting a response.
+     */
+    NOT_DELIVERED,
+    /**
+     * The charging station responded with an error.
+     */
+    ERROR_RESPONSE,
+    /**
+     * The connection with the charging station was lost before a response was received.
+     */
+    CONNECTION_LOST,
+    /**
+     * No response was received within the configured time.
+     */
+    TIMEOUT
+}
@@ -0,0 +1,97 @@
+/**
+ * Copyright (C) 2013 Motown.IO (info@motown.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.motown.domain.api.security;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Registry which assigns every command class an ordinal the first time it is seen, so permissions can be kept as a
+ * bit per command class. Ordinals are only valid within the running process and must never be persisted.
+ */
+public final class CommandClassRegistry {
+
+    /**
+     * Ordinal of {@link AllPermissions}, which is registered before any other class.
+     */
+    public static final int ALL_PERMISSIONS_ORDINAL = 0;
+
+    /**
+     * Ordinal of each command class, key is command class.
+     */
+    private static final ConcurrentMap<Class<?>, Integer> ORDINALS = new ConcurrentHashMap<>();
+
+    /**
+     * Command classes indexed by ordinal, replaced by a larger copy when a class is registered.
+     */
+    private static volatile Class<?>[] commandClasses = new Class<?>[0];
+
+    static {
+        register(AllPermissions.class);
+    }
+
+    private CommandClassRegistry() {
+        // utility class
+    }
+
+    /**
+     * Gets the ordinal of a command class, assigning a new ordinal if the class has not been registered yet.
+     *
+     * @param commandClass command class.
+     * @return the ordinal.
+     */
+    public static int register(Class<?> commandClass) {
+        Integer ordinal = ORDINALS.get(commandClass);
+        if (ordinal != null) {
+            return ordinal;
+        }
+
+        synchronized (CommandClassRegistry.class) {
+            ordinal = ORDINALS.get(commandClass);
+            if (ordinal == null) {
+                ordinal = commandClasses.length;
+                Class<?>[] updated = Arrays.copyOf(commandClasses, ordinal + 1);
+                updated[ordinal] = commandClass;
+                // publish the class before its ordinal, so every ordinal that can be found can be resolved
+                commandClasses = updated;
+                ORDINALS.put(commandClass, ordinal);
+            }
+            return ordinal;
+        }
+    }
+
+    /**
+     * Gets the ordinal of a command class without registering it.
+     *
+     * @param commandClass command class.
+     * @return the ordinal, or -1 if the class has not been registered.
+     */
+    public static int ordinalOf(Class<?> commandClass) {
+        Integer ordinal = ORDINALS.get(commandClass);
+        return ordinal != null ? ordinal : -1;
+    }
+
+    /**
+     * Gets the command class which has been assigned an ordinal.
+     *
+     * @param ordinal ordinal.
+     * @return the command class.
+     */
+    public static Class<?> commandClassOf(int ordinal) {
+        return commandClasses[ordinal];
+    }
+}
@@ -0,0 +1,54 @@
+/**
+ * Copyright (C) 2013 Motown.IO (info@motown.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.motown.domain.api.chargingstation;
+
+import nl.jqno.equalsverifier.EqualsVerifier;
+import org.junit.Test;
+
+import static io.motown.domain.api.chargingstation.test.ChargingStationTestUtils.CHARGING_STATION_ID;
+import static io.motown.domain.api.chargingstation.test.ChargingStationTestUtils.IDENTITY_CONTEXT;
+import static org.junit.Assert.assertEquals;
+
+public class RequestFailedCommandTest {
+
+    @Test
+    public void testRequestFailedCommand() {
+        RequestFailedCommand command = new RequestFailedCommand(CHARGING_STATION_ID, RequestFailureReason.TIMEOUT, IDENTITY_CONTEXT);
+        assertEquals(CHARGING_STATION_ID, command.getChargingStationId());
+        assertEquals(RequestFailureReason.TIMEOUT, command.getReason());
+        assertEquals(IDENTITY_CONTEXT, command.getIdentityContext());
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void testRequestFailedCommandWithNullChargingStationId() {
+        new RequestFailedCommand(null, RequestFailureReason.TIMEOUT, IDENTITY_CONTEXT);
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void testRequestFailedCommandWithNullReason() {
+        new RequestFailedCommand(CHARGING_STATION_ID, null, IDENTITY_CONTEXT);
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void testRequestFailedCommandWithNullIdentityContext() {
+        new RequestFailedCommand(CHARGING_STATION_ID, RequestFailureReason.TIMEOUT, null);
+    }
+
+    @Test
+    public void testEqualsAndHashCodeImplementedAccordingContract() {
+        EqualsVerifier.forClass(RequestFailedCommand.class).verify();
+    }
+}
@@ -0,0 +1,50 @@
+/**
+ * Copyright (C) 2013 Motown.IO (info@motown.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.motown.domain.api.security;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+public class CommandClassRegistryTest {
+
+    @Test
+    public void allPermissionsIsRegisteredFirst() {
+        assertEquals(CommandClassRegistry.ALL_PERMISSIONS_ORDINAL, CommandClassRegistry.ordinalOf(AllPermissions.class));
+        assertSame(AllPermissions.class, CommandClassRegistry.commandClassOf(CommandClassRegistry.ALL_PERMISSIONS_ORDINAL));
+    }
+
+    @Test
+    public void registeringAClassAgainKeepsItsOrdinal() {
+        int ordinal = CommandClassRegistry.register(RegisteredCommand.class);
+
+        assertEquals(ordinal, CommandClassRegistry.register(RegisteredCommand.class));
+        assertEquals(ordinal, CommandClassRegistry.ordinalOf(RegisteredCommand.class));
+        assertSame(RegisteredCommand.class, CommandClassRegistry.commandClassOf(ordinal));
+    }
+
+    @Test
+    public void unregisteredClassHasNoOrdinal() {
+        assertEquals(-1, CommandClassRegistry.ordinalOf(UnregisteredCommand.class));
+    }
+
+    private static final class RegisteredCommand {
+    }
+
+    private static final class UnregisteredCommand {
+    }
+}
@@ -0,0 +1,109 @@
+/**
+ * Copyright (C) 2013 Motown.IO (info@motown.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.motown.domain.utils.axon;
+
+import io.motown.domain.api.chargingstation.ChargingStationId;
+import org.axonframework.domain.DomainEventMessage;
+import org.axonframework.domain.EventMessage;
+import org.axonframework.eventhandling.async.SequencingPolicy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * {@code SequencingPolicy} which requires events of the same charging station to be handled sequentially, while events
+ * of different charging stations may be handled concurrently.
+ * <p/>
+ * Most events carry the id of the charging station they relate to, but not all of them are published by the charging
+ * station aggregate (telemetry events for example are published without loading the aggregate), therefore the charging
+ * station id is read from the event payload. Events without a charging station id are sequenced on the identifier of
+ * the aggregate which published them, all other events may be handled concurrently.
+ */
+public class ChargingStationSequencingPolicy implements SequencingPolicy<EventMessage<?>> {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ChargingStationSequencingPolicy.class);
+
+    private static final String CHARGING_STATION_ID_GETTER = "getChargingStationId";
+
+    /**
+     * Marker for payload types which do not have a charging station id getter, {@code ConcurrentHashMap} does not
+     * accept null values.
+     */
+    private static final Method NO_GETTER;
+
+    static {
+        try {
+            NO_GETTER = Object.class.getMethod("toString");
+        } catch (NoSuchMethodException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private final ConcurrentMap<Class<?>, Method> getters = new ConcurrentHashMap<>();
+
+    @Override
+    public Object getSequenceIdentifierFor(EventMessage<?> event) {
+        ChargingStationId chargingStationId = getChargingStationId(event.getPayload());
+
+        if (chargingStationId != null) {
+            return chargingStationId;
+        }
+
+        if (event instanceof DomainEventMessage) {
+            return ((DomainEventMessage) event).getAggregateIdentifier();
+        }
+
+        return null;
+    }
+
+    private ChargingStationId getChargingStationId(Object payload) {
+        Method getter = getGetter(payload.getClass());
+
+        if (getter == NO_GETTER) {
+            return null;
+        }
+
+        try {
+            return (ChargingStationId) getter.invoke(payload);
+        } catch (IllegalAccessException | InvocationTargetException e) {
+            LOG.warn("Unable to determine charging station id of [{}]", payload.getClass().getName(), e);
+            return null;
+        }
+    }
+
+    private Method getGetter(Class<?> payloadType) {
+        Method getter = getters.get(payloadType);
+
+        if (getter == null) {
+            getter = NO_GETTER;
+            try {
+                Method method = payloadType.getMethod(CHARGING_STATION_ID_GETTER);
+                if (ChargingStationId.class.isAssignableFrom(method.getReturnType())) {
+                    getter = method;
+                }
+            } catch (NoSuchMethodException e) {
+                LOG.trace("[{}] does not have a charging station id", payloadType.getName(), e);
+            }
+            getters.putIfAbsent(payloadType, getter);
+        }
+
+        return getter;
+    }
+}
@@ -17,8 +17,23 @@ package io.motown.domain.utils.axon;
 
 import org.axonframework.domain.EventMessage;
 
+/**
+ * Callback of {@link EventWaitingGateway#sendAndWaitForEvent}.
+ */
 public interface EventCallback {
 
+    /**
+     * Called with every event which has the correlation token of the dispatched command, until an event is handled.
+     *
+     * @param event the event.
+     * @return true if the event has been handled and the callback does not need to wait for more events.
+     */
     boolean onEvent(EventMessage<?> event);
 
+    /**
+     * Called when no event has been handled within the timeout. After this call the callback will not be called with
+     * events anymore.
+     */
+    void onTimeout();
+
 }
@@ -0,0 +1,267 @@
+/**
+ * Copyright (C) 2013 Motown.IO (info@motown.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.motown.domain.utils.axon;
+
+import org.axonframework.cache.Cache;
+import org.axonframework.domain.DomainEventMessage;
+import org.axonframework.domain.DomainEventStream;
+import org.axonframework.eventsourcing.EventSourcedAggregateRoot;
+import org.axonframework.eventsourcing.Snapshotter;
+import org.axonframework.eventsourcing.SnapshotterTrigger;
+import org.axonframework.unitofwork.CurrentUnitOfWork;
+import org.axonframework.unitofwork.UnitOfWork;
+import org.axonframework.unitofwork.UnitOfWorkListenerAdapter;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * {@code SnapshotterTrigger} which schedules a snapshot of an aggregate when either the number of events which have to
+ * be replayed to load it exceeds a threshold, or the oldest of these events is older than a threshold. The count based
+ * trigger keeps chatty aggregates cheap to load, the age based trigger makes sure aggregates which receive events at a
+ * slow pace are snapshotted as well.
+ * <p/>
+ * The events are counted while the aggregate is loaded and while new events are appended. The counters are dropped
+ * after the events have been appended, unless {@link #setClearCountersAfterAppend(boolean)} is set to false, which is
+ * required when the repository caches aggregates and therefore does not load them for every command. The cache of such
+ * a repository should be set through {@link #setAggregateCache(Cache)}, which keeps the counters and drops them when
+ * the aggregate is evicted from the cache.
+ */
+public class EventCountAndAgeSnapshotterTrigger implements SnapshotterTrigger {
+
+    private final ConcurrentMap<Object, EventCounter> counters = new ConcurrentHashMap<>();
+
+    private Snapshotter snapshotter;
+
+    /**
+     * The number of events after which a snapshot is taken.
+     */
+    private int eventCountThreshold = 50;
+
+    /**
+     * The age in milliseconds of the oldest event not covered by a snapshot after which a snapshot is taken, 0 disables
+     * the age based trigger.
+     */
+    private long eventAgeThresholdInMillis = 0;
+
+    private volatile boolean clearCountersAfterAppend = true;
+
+    @Override
+    public DomainEventStream decorateForRead(String aggregateType, Object aggregateIdentifier, DomainEventStream eventStream) {
+        EventCounter counter = new EventCounter();
+        counters.put(aggregateIdentifier, counter);
+        return new CountingEventStream(eventStream, counter);
+    }
+
+    @Override
+    public DomainEventStream decorateForAppend(String aggregateType, EventSourcedAggregateRoot aggregate, DomainEventStream eventStream) {
+        Object aggregateIdentifier = aggregate.getIdentifier();
+
+        EventCounter counter = counters.get(aggregateIdentifier);
+        while (counter == null) {
+            counters.putIfAbsent(aggregateIdentifier, new EventCounter());
+            counter = counters.get(aggregateIdentifier);
+        }
+
+        return new TriggeringEventStream(aggregateType, aggregateIdentifier, eventStream, counter);
+    }
+
+    public void setSnapshotter(Snapshotter snapshotter) {
+        this.snapshotter = snapshotter;
+    }
+
+    public void setEventCountThreshold(int eventCountThreshold) {
+        this.eventCountThreshold = eventCountThreshold;
+    }
+
+    public void setEventAgeThresholdInMillis(long eventAgeThresholdInMillis) {
+        this.eventAgeThresholdInMillis = eventAgeThresholdInMillis;
+    }
+
+    public void setClearCountersAfterAppend(boolean clearCountersAfterAppend) {
+        this.clearCountersAfterAppend = clearCountersAfterAppend;
+    }
+
+    /**
+     * Sets the cache of the repository the trigger is used with. Counters are kept after the events have been appended,
+     * and dropped when their aggregate expires or is removed from the cache.
+     *
+     * @param cache the aggregate cache of the repository.
+     */
+    public void setAggregateCache(Cache cache) {
+        this.clearCountersAfterAppend = false;
+        cache.registerCacheEntryListener(new CacheListener());
+    }
+
+    /**
+     * Sets the caches of the repositories the trigger is used with, see {@link #setAggregateCache(Cache)}.
+     *
+     * @param caches the aggregate caches of the repositories.
+     */
+    public void setAggregateCaches(List<Cache> caches) {
+        for (Cache cache : caches) {
+            setAggregateCache(cache);
+        }
+    }
+
+    /**
+     * Gets the number of aggregates for which events are counted.
+     *
+     * @return the number of counters.
+     */
+    public int getCounterCount() {
+        return counters.size();
+    }
+
+    private boolean isSnapshotRequired(EventCounter counter) {
+        int eventCount = counter.getEventCount();
+
+        if (eventCount > eventCountThreshold) {
+            return true;
+        }
+
+        return eventAgeThresholdInMillis > 0 && eventCount > 1 && System.currentTimeMillis() - counter.getOldestEventTimestamp() >= eventAgeThresholdInMillis;
+    }
+
+    private void afterAppend(final String aggregateType, final Object aggregateIdentifier, EventCounter counter) {
+        if (isSnapshotRequired(counter)) {
+            counter.reset();
+
+            if (CurrentUnitOfWork.isStarted()) {
+                // the snapshot has to include the appended events, so it can only be taken after they are committed
+                CurrentUnitOfWork.get().registerListener(new UnitOfWorkListenerAdapter() {
+                    @Override
+                    public void afterCommit(UnitOfWork unitOfWork) {
+                        snapshotter.scheduleSnapshot(aggregateType, aggregateIdentifier);
+                    }
+                });
+            } else {
+                snapshotter.scheduleSnapshot(aggregateType, aggregateIdentifier);
+            }
+        }
+
+        if (clearCountersAfterAppend) {
+            counters.remove(aggregateIdentifier, counter);
+        }
+    }
+
+    /**
+     * Drops the counter of an aggregate when the aggregate leaves the cache, as it is loaded from the event store again
+     * the next time it is used.
+     */
+    private final class CacheListener extends Cache.EntryListenerAdapter {
+
+        @Override
+        public void onEntryExpired(Object key) {
+            counters.remove(key);
+        }
+
+        @Override
+        public void onEntryRemoved(Object key) {
+            counters.remove(key);
+        }
+    }
+
+    /**
+     * Number of events of an aggregate which are not covered by a snapshot, together with the timestamp of the oldest
+     * of these events. When an aggregate is loaded from a snapshot, the snapshot is the oldest event.
+     */
+    private static final class EventCounter {
+
+        private final AtomicInteger eventCount = new AtomicInteger();
+
+        private volatile long oldestEventTimestamp;
+
+        void count(DomainEventMessage event) {
+            if (eventCount.getAndIncrement() == 0) {
+                oldestEventTimestamp = event.getTimestamp().getMillis();
+            }
+        }
+
+        int getEventCount() {
+            return eventCount.get();
+        }
+
+        long getOldestEventTimestamp() {
+            return oldestEventTimestamp;
+        }
+
+        void reset() {
+            eventCount.set(0);
+        }
+    }
+
+    private static class CountingEventStream implements DomainEventStream {
+
+        private final DomainEventStream delegate;
+
+        private final EventCounter counter;
+
+        CountingEventStream(DomainEventStream delegate, EventCounter counter) {
+            this.delegate = delegate;
+            this.counter = counter;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return delegate.hasNext();
+        }
+
+        @Override
+        public DomainEventMessage next() {
+            DomainEventMessage event = delegate.next();
+            counter.count(event);
+            return event;
+        }
+
+        @Override
+        public DomainEventMessage peek() {
+            return delegate.peek();
+        }
+    }
+
+    private final class TriggeringEventStream extends CountingEventStream {
+
+        private final String aggregateType;
+
+        private final Object aggregateIdentifier;
+
+        private final EventCounter counter;
+
+        private boolean appended;
+
+        TriggeringEventStream(String aggregateType, Object aggregateIdentifier, DomainEventStream delegate, EventCounter counter) {
+            super(delegate, counter);
+            this.aggregateType = aggregateType;
+            this.aggregateIdentifier = aggregateIdentifier;
+            this.counter = counter;
+        }
+
+        @Override
+        public boolean hasNext() {
+            boolean hasNext = super.hasNext();
+
+            if (!hasNext && !appended) {
+                appended = true;
+                afterAppend(aggregateType, aggregateIdentifier, counter);
+            }
+
+            return hasNext;
+        }
+    }
+}
@@ -15,48 +15,121 @@
  */
 package io.motown.domain.utils.axon;
 
+import com.google.common.collect.ImmutableSet;
 import io.motown.domain.api.chargingstation.CorrelationToken;
+import io.motown.domain.utils.concurrent.Timers;
 import org.axonframework.commandhandling.CommandBus;
 import org.axonframework.commandhandling.CommandMessage;
-import org.axonframework.common.annotation.MetaData;
 import org.axonframework.domain.EventMessage;
 import org.axonframework.eventhandling.EventBus;
-import org.axonframework.eventhandling.annotation.AnnotationEventListenerAdapter;
-import org.axonframework.eventhandling.annotation.EventHandler;
+import org.axonframework.eventhandling.EventListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.util.Collections;
-import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
 
 import static org.axonframework.commandhandling.GenericCommandMessage.asCommandMessage;
 
-public class EventWaitingGateway {
+/**
+ * Dispatches commands and calls back when an event with the same correlation token is published, or when no such event
+ * has been published in time.
+ * <p/>
+ * All timeouts are run by a single shared timer thread and the number of concurrently waiting callbacks is capped, so a
+ * burst of requests (e.g. authorizations in the morning rush) does not create a thread per request.
+ * <p/>
+ * The gateway listens to every event on the event bus while only a few of them are awaited. Events are therefore
+ * rejected as cheaply as possible: when no callback is waiting, when the event is not of one of the configured event
+ * types or when it carries no correlation token.
+ */
+public class EventWaitingGateway implements EventListener {
+
+    private static final Logger LOG = LoggerFactory.getLogger(EventWaitingGateway.class);
+
+    /**
+     * Upper bounds in milliseconds of the buckets of the wait time histogram, the last bucket holds all longer waits.
+     */
+    private static final long[] WAIT_TIME_BUCKETS_IN_MILLIS = {10, 50, 100, 250, 500, 1000, 2500, 5000, 10000, Long.MAX_VALUE};
 
     private CommandBus commandBus;
     private EventBus eventBus;
 
-    private final Map<CorrelationToken, TimedEventCallback> callbacks = new ConcurrentHashMap<>();
+    private final ConcurrentMap<CorrelationToken, TimedEventCallback> callbacks = new ConcurrentHashMap<>();
 
     private AtomicBoolean started = new AtomicBoolean(false);
 
+    /**
+     * The types of events callbacks wait for. If empty, events of all types are passed to the callbacks.
+     */
+    private Set<Class<?>> eventTypes = ImmutableSet.of();
+
+    private final ScheduledThreadPoolExecutor timer;
+
+    /**
+     * The maximum number of callbacks which can wait for an event at the same time.
+     */
+    private int maxWaitingCallbacks = 10000;
+
+    private final AtomicInteger waitingCount = new AtomicInteger();
+
+    private final AtomicLong timedOutCount = new AtomicLong();
+
+    private final AtomicLong rejectedCount = new AtomicLong();
+
+    private final AtomicLongArray waitTimeHistogram = new AtomicLongArray(WAIT_TIME_BUCKETS_IN_MILLIS.length);
+
+    public EventWaitingGateway() {
+        timer = Timers.newTimer("event-waiting-gateway-timeout-%d");
+    }
+
+    /**
+     * Dispatches a command and waits for an event with the same correlation token. The callback is called with every
+     * such event until it indicates the event has been handled, or {@link EventCallback#onTimeout()} is called if no
+     * event has been handled within the timeout.
+     * <p/>
+     * If the maximum number of waiting callbacks has been reached the command is not dispatched and the callback is
+     * timed out immediately.
+     *
+     * @param command         the command to dispatch.
+     * @param callback        the callback which is called with the events.
+     * @param timeoutInMillis the time to wait for an event.
+     */
     public void sendAndWaitForEvent(Object command, final EventCallback callback, final long timeoutInMillis) {
+        if (waitingCount.incrementAndGet() > maxWaitingCallbacks) {
+            waitingCount.decrementAndGet();
+            rejectedCount.incrementAndGet();
+            LOG.warn("Not dispatching command as the maximum of [{}] callbacks waiting for an event has been reached", maxWaitingCallbacks);
+            callback.onTimeout();
+            return;
+        }
+
         final CorrelationToken correlationToken = new CorrelationToken();
 
         final TimedEventCallback timedEventCallback = new TimedEventCallback(callback);
         callbacks.put(correlationToken, timedEventCallback);
-        timedEventCallback.scheduleTimer(new Runnable() {
+        timedEventCallback.setTimer(timer.schedule(new Runnable() {
             @Override
             public void run() {
-                callbacks.remove(correlationToken);
+                if (callbacks.remove(correlationToken, timedEventCallback) && timedEventCallback.onTimeout()) {
+                    waitingCount.decrementAndGet();
+                    timedOutCount.incrementAndGet();
+                }
             }
-        }, timeoutInMillis);
+        }, timeoutInMillis, TimeUnit.MILLISECONDS));
 
         if (started.compareAndSet(false, true)) {
-            eventBus.subscribe(new AnnotationEventListenerAdapter(this));
+            eventBus.subscribe(this);
         }
 
         final CommandMessage commandMessage = asCommandMessage(command)
@@ -64,19 +137,38 @@ public class EventWaitingGateway {
         commandBus.dispatch(commandMessage);
     }
 
-    @EventHandler
-    protected void onEvent(EventMessage<?> message,
-                           @MetaData(value = CorrelationToken.KEY, required = true) CorrelationToken correlationToken) {
+    @Override
+    public void handle(EventMessage event) {
+        if (callbacks.isEmpty() || (!eventTypes.isEmpty() && !eventTypes.contains(event.getPayloadType()))) {
+            return;
+        }
+
+        Object correlationToken = event.getMetaData().get(CorrelationToken.KEY);
+        if (correlationToken instanceof CorrelationToken) {
+            onEvent(event, (CorrelationToken) correlationToken);
+        }
+    }
+
+    protected void onEvent(EventMessage<?> message, CorrelationToken correlationToken) {
         final TimedEventCallback timedEventCallback = callbacks.get(correlationToken);
         if (timedEventCallback != null) {
             boolean handled = timedEventCallback.onEvent(message);
             if (handled) {
                 timedEventCallback.cancelTimer();
-                callbacks.remove(correlationToken);
+                callbacks.remove(correlationToken, timedEventCallback);
+                waitingCount.decrementAndGet();
+                recordWaitTime(timedEventCallback.getWaitTimeInMillis());
             }
         }
     }
 
+    /**
+     * Stops the timer which times out the waiting callbacks.
+     */
+    public void shutdown() {
+        timer.shutdownNow();
+    }
+
     public void setEventBus(EventBus eventBus) {
         this.eventBus = eventBus;
     }
@@ -85,27 +177,114 @@ public class EventWaitingGateway {
         this.commandBus = commandBus;
     }
 
-    private static class TimedEventCallback implements EventCallback {
+    /**
+     * Sets the types of events the callbacks wait for, events of other types are not passed to the callbacks. By
+     * default events of all types are passed.
+     *
+     * @param eventTypes the event types.
+     */
+    public void setEventTypes(Set<Class<?>> eventTypes) {
+        this.eventTypes = ImmutableSet.copyOf(eventTypes);
+    }
+
+    public void setMaxWaitingCallbacks(int maxWaitingCallbacks) {
+        this.maxWaitingCallbacks = maxWaitingCallbacks;
+    }
+
+    /**
+     * Gets the number of callbacks currently waiting for an event.
+     *
+     * @return the number of waiting callbacks.
+     */
+    public int getWaitingCount() {
+        return waitingCount.get();
+    }
+
+    /**
+     * Gets the number of callbacks which have been timed out, since startup.
+     *
+     * @return the number of timed out callbacks.
+     */
+    public long getTimedOutCount() {
+        return timedOutCount.get();
+    }
+
+    /**
+     * Gets the number of commands which have not been dispatched because the maximum of waiting callbacks was
+     * reached, since startup.
+     *
+     * @return the number of rejected commands.
+     */
+    public long getRejectedCount() {
+        return rejectedCount.get();
+    }
+
+    /**
+     * Gets the histogram of the time between dispatching a command and the handling of its event, since startup.
+     *
+     * @return map of the upper bound in milliseconds of each bucket to the number of waits in the bucket, the last
+     * bucket has {@code Long.MAX_VALUE} as upper bound.
+     */
+    public SortedMap<Long, Long> getWaitTimeHistogram() {
+        SortedMap<Long, Long> histogram = new TreeMap<>();
+        for (int i = 0; i < WAIT_TIME_BUCKETS_IN_MILLIS.length; i++) {
+            histogram.put(WAIT_TIME_BUCKETS_IN_MILLIS[i], waitTimeHistogram.get(i));
+        }
+        return histogram;
+    }
+
+    private void recordWaitTime(long waitTimeInMillis) {
+        int bucket = 0;
+        while (waitTimeInMillis > WAIT_TIME_BUCKETS_IN_MILLIS[bucket]) {
+            bucket++;
+        }
+        waitTimeHistogram.incrementAndGet(bucket);
+    }
+
+    /**
+     * Callback wrapper which guarantees the callback either handles an event or times out, but never both.
+     */
+    private static class TimedEventCallback {
 
         private final EventCallback callback;
-        private final ScheduledExecutorService scheduledExecutorService;
+        private final long startTime = System.nanoTime();
+        private volatile ScheduledFuture<?> timer;
+        private boolean done;
 
         public TimedEventCallback(EventCallback callback) {
             this.callback = callback;
-            this.scheduledExecutorService = Executors.newSingleThreadScheduledExecutor();
         }
 
-        public void scheduleTimer(Runnable task, long delayInMillis) {
-            this.scheduledExecutorService.schedule(task, delayInMillis, TimeUnit.MILLISECONDS);
+        public void setTimer(ScheduledFuture<?> timer) {
+            this.timer = timer;
         }
 
         public void cancelTimer() {
-            this.scheduledExecutorService.shutdownNow();
+            ScheduledFuture<?> scheduledTimer = timer;
+            if (scheduledTimer != null) {
+                scheduledTimer.cancel(false);
+            }
         }
 
-        @Override
-        public boolean onEvent(EventMessage<?> event) {
-            return callback.onEvent(event);
+        public long getWaitTimeInMillis() {
+            return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime);
+        }
+
+        public synchronized boolean onEvent(EventMessage<?> event) {
+            if (done) {
+                return false;
+            }
+            done = callback.onEvent(event);
+            return done;
+        }
+
+        public synchronized boolean onTimeout() {
+            if (done) {
+                return false;
+            }
+            done = true;
+            callback.onTimeout();
+            return true;
         }
     }
 }
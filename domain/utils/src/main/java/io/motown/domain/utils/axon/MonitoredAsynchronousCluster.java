@@ -0,0 +1,138 @@
+/**
+ * Copyright (C) 2013 Motown.IO (info@motown.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.motown.domain.utils.axon;
+
+import org.axonframework.domain.EventMessage;
+import org.axonframework.eventhandling.EventProcessingMonitor;
+import org.axonframework.eventhandling.MultiplexingEventProcessingMonitor;
+import org.axonframework.eventhandling.async.AsynchronousCluster;
+import org.axonframework.eventhandling.async.SequencingPolicy;
+
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * {@code AsynchronousCluster} which keeps track of how far its event listeners lag behind the events which have been
+ * published. Every event handed to the cluster is counted as pending until all listeners of the cluster have handled
+ * it, the number of pending events is therefore a measure of the backlog of the cluster. The processing delay is the
+ * time between the moment an event has been created and the moment it has been handled, which shows how stale the
+ * data of the listeners is.
+ */
+public class MonitoredAsynchronousCluster extends AsynchronousCluster {
+
+    private final AtomicLong pendingEventCount = new AtomicLong();
+
+    private final AtomicLong processedEventCount = new AtomicLong();
+
+    private final AtomicLong failedEventCount = new AtomicLong();
+
+    private final AtomicLong lastProcessingDelayInMillis = new AtomicLong();
+
+    private final AtomicLong maxProcessingDelayInMillis = new AtomicLong();
+
+    /**
+     * Creates a cluster which handles events using the given executor.
+     *
+     * @param name             the name of the cluster.
+     * @param executor         the executor which handles the events, the number of threads of the executor limits the
+     *                         number of events which are handled concurrently.
+     * @param sequencingPolicy the policy which determines which events have to be handled sequentially.
+     */
+    public MonitoredAsynchronousCluster(String name, Executor executor, SequencingPolicy<? super EventMessage<?>> sequencingPolicy) {
+        super(name, executor, sequencingPolicy);
+
+        subscribeEventProcessingMonitor(new EventProcessingMonitor() {
+            @Override
+            public void onEventProcessingCompleted(List<? extends EventMessage> eventMessages) {
+                processed(eventMessages);
+                processedEventCount.addAndGet(eventMessages.size());
+            }
+
+            @Override
+            public void onEventProcessingFailed(List<? extends EventMessage> eventMessages, Throwable cause) {
+                processed(eventMessages);
+                failedEventCount.addAndGet(eventMessages.size());
+            }
+        });
+    }
+
+    @Override
+    protected void schedule(EventMessage<?> task, MultiplexingEventProcessingMonitor eventProcessingMonitor) {
+        pendingEventCount.incrementAndGet();
+        super.schedule(task, eventProcessingMonitor);
+    }
+
+    /**
+     * Gets the number of events which have been published to this cluster but have not been handled yet.
+     *
+     * @return the number of pending events.
+     */
+    public long getPendingEventCount() {
+        return pendingEventCount.get();
+    }
+
+    /**
+     * Gets the number of events which have been handled successfully, since startup.
+     *
+     * @return the number of processed events.
+     */
+    public long getProcessedEventCount() {
+        return processedEventCount.get();
+    }
+
+    /**
+     * Gets the number of events which could not be handled, since startup.
+     *
+     * @return the number of failed events.
+     */
+    public long getFailedEventCount() {
+        return failedEventCount.get();
+    }
+
+    /**
+     * Gets the time in milliseconds between the creation and the handling of the event which has been handled last.
+     *
+     * @return the last processing delay in milliseconds.
+     */
+    public long getLastProcessingDelayInMillis() {
+        return lastProcessingDelayInMillis.get();
+    }
+
+    /**
+     * Gets the largest time in milliseconds between the creation and the handling of an event, since startup.
+     *
+     * @return the maximum processing delay in milliseconds.
+     */
+    public long getMaxProcessingDelayInMillis() {
+        return maxProcessingDelayInMillis.get();
+    }
+
+    private void processed(List<? extends EventMessage> eventMessages) {
+        pendingEventCount.addAndGet(-eventMessages.size());
+
+        long now = System.currentTimeMillis();
+        for (EventMessage eventMessage : eventMessages) {
+            long delay = now - eventMessage.getTimestamp().getMillis();
+            lastProcessingDelayInMillis.set(delay);
+
+            long max = maxProcessingDelayInMillis.get();
+            while (delay > max && !maxProcessingDelayInMillis.compareAndSet(max, delay)) {
+                max = maxProcessingDelayInMillis.get();
+            }
+        }
+    }
+}
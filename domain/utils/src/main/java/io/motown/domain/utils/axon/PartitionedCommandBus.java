@@ -0,0 +1,236 @@
+/**
+ * Copyright (C) 2013 Motown.IO (info@motown.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.motown.domain.utils.axon;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.axonframework.commandhandling.CommandBus;
+import org.axonframework.commandhandling.CommandCallback;
+import org.axonframework.commandhandling.CommandHandler;
+import org.axonframework.commandhandling.CommandMessage;
+import org.axonframework.commandhandling.CommandTargetResolver;
+import org.axonframework.commandhandling.annotation.AnnotationCommandTargetResolver;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * {@code CommandBus} which executes commands asynchronously on a fixed number of partitions, each having a single
+ * worker thread. Commands are assigned to a partition based on the hash of their target aggregate identifier, so
+ * commands for different charging stations are executed in parallel while commands for the same charging station are
+ * executed one after the other, in the order they were dispatched.
+ * <p/>
+ * The commands are executed by the local segment, which takes care of the handler subscriptions and interceptors.
+ * Commands without a target aggregate identifier are executed by the local segment on the calling thread.
+ * <p/>
+ * The number of queued commands is capped: callers block once the cap is reached until a command has been executed.
+ * Commands dispatched from a worker thread, for instance by an event handler which reacts on the result of a command,
+ * are never blocked as that could deadlock the workers.
+ */
+public class PartitionedCommandBus implements CommandBus {
+
+    private static final Logger LOG = LoggerFactory.getLogger(PartitionedCommandBus.class);
+
+    private static final int DEFAULT_MAX_QUEUED_COMMANDS = 10000;
+
+    private static final long SHUTDOWN_TIMEOUT_IN_SECONDS = 30;
+
+    private final ThreadLocal<Boolean> workerThread = new ThreadLocal<>();
+
+    private final CommandBus localSegment;
+
+    private final ExecutorService[] partitions;
+
+    private final Semaphore queueCapacity;
+
+    private final CommandTargetResolver commandTargetResolver = new AnnotationCommandTargetResolver();
+
+    private final AtomicInteger queuedCommandCount = new AtomicInteger();
+
+    private final AtomicLong executedCommandCount = new AtomicLong();
+
+    /**
+     * Creates a command bus with a partition per available processor.
+     *
+     * @param localSegment the command bus which executes the commands.
+     */
+    public PartitionedCommandBus(CommandBus localSegment) {
+        this(localSegment, Runtime.getRuntime().availableProcessors(), DEFAULT_MAX_QUEUED_COMMANDS);
+    }
+
+    /**
+     * Creates a command bus.
+     *
+     * @param localSegment       the command bus which executes the commands.
+     * @param numberOfPartitions the number of partitions, and therefore worker threads.
+     * @param maxQueuedCommands  the maximum number of commands which can be queued before callers are blocked.
+     * @throws NullPointerException     if {@code localSegment} is {@code null}.
+     * @throws IllegalArgumentException if {@code numberOfPartitions} or {@code maxQueuedCommands} is not positive.
+     */
+    public PartitionedCommandBus(CommandBus localSegment, int numberOfPartitions, int maxQueuedCommands) {
+        checkArgument(numberOfPartitions > 0, "number of partitions must be positive");
+        checkArgument(maxQueuedCommands > 0, "maximum number of queued commands must be positive");
+
+        this.localSegment = checkNotNull(localSegment);
+        this.queueCapacity = new Semaphore(maxQueuedCommands);
+        this.partitions = new ExecutorService[numberOfPartitions];
+
+        for (int i = 0; i < numberOfPartitions; i++) {
+            partitions[i] = Executors.newSingleThreadExecutor(new ThreadFactoryBuilder().setNameFormat("command-bus-partition-" + i + "-%d").build());
+        }
+    }
+
+    @Override
+    public void dispatch(CommandMessage<?> command) {
+        dispatch(command, null);
+    }
+
+    @Override
+    public <R> void dispatch(final CommandMessage<?> command, final CommandCallback<R> callback) {
+        Object targetIdentifier = resolveTargetIdentifier(command);
+
+        if (targetIdentifier == null) {
+            execute(command, callback);
+            return;
+        }
+
+        final boolean acquired = acquireQueueCapacity();
+
+        queuedCommandCount.incrementAndGet();
+        try {
+            partitions[partition(targetIdentifier)].execute(new Runnable() {
+                @Override
+                public void run() {
+                    workerThread.set(Boolean.TRUE);
+                    queuedCommandCount.decrementAndGet();
+                    try {
+                        execute(command, callback);
+                    } finally {
+                        executedCommandCount.incrementAndGet();
+                        if (acquired) {
+                            queueCapacity.release();
+                        }
+                    }
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            queuedCommandCount.decrementAndGet();
+            if (acquired) {
+                queueCapacity.release();
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public <C> void subscribe(String commandName, CommandHandler<? super C> handler) {
+        localSegment.subscribe(commandName, handler);
+    }
+
+    @Override
+    public <C> boolean unsubscribe(String commandName, CommandHandler<? super C> handler) {
+        return localSegment.unsubscribe(commandName, handler);
+    }
+
+    /**
+     * Stops accepting commands and waits for the queued commands to be executed.
+     */
+    public void shutdown() {
+        for (ExecutorService partition : partitions) {
+            partition.shutdown();
+        }
+
+        try {
+            for (ExecutorService partition : partitions) {
+                if (!partition.awaitTermination(SHUTDOWN_TIMEOUT_IN_SECONDS, TimeUnit.SECONDS)) {
+                    LOG.warn("Command bus partition did not finish its queued commands within [{}] seconds", SHUTDOWN_TIMEOUT_IN_SECONDS);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public int getNumberOfPartitions() {
+        return partitions.length;
+    }
+
+    /**
+     * Gets the number of commands which are waiting to be executed.
+     *
+     * @return the number of queued commands.
+     */
+    public int getQueuedCommandCount() {
+        return queuedCommandCount.get();
+    }
+
+    /**
+     * Gets the number of commands which have been executed by the partitions, since startup.
+     *
+     * @return the number of executed commands.
+     */
+    public long getExecutedCommandCount() {
+        return executedCommandCount.get();
+    }
+
+    private Object resolveTargetIdentifier(CommandMessage<?> command) {
+        try {
+            return commandTargetResolver.resolveTarget(command).getIdentifier();
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private int partition(Object targetIdentifier) {
+        return (targetIdentifier.hashCode() & Integer.MAX_VALUE) % partitions.length;
+    }
+
+    /**
+     * Acquires capacity for a command, blocking until capacity is available. Worker threads do not acquire capacity.
+     *
+     * @return true if capacity has been acquired and has to be released once the command has been executed.
+     */
+    private boolean acquireQueueCapacity() {
+        if (Boolean.TRUE.equals(workerThread.get())) {
+            return false;
+        }
+
+        try {
+            queueCapacity.acquire();
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private <R> void execute(CommandMessage<?> command, CommandCallback<R> callback) {
+        if (callback != null) {
+            localSegment.dispatch(command, callback);
+        } else {
+            localSegment.dispatch(command);
+        }
+    }
+}
@@ -0,0 +1,96 @@
+/**
+ * Copyright (C) 2013 Motown.IO (info@motown.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.motown.domain.utils.concurrent;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ScheduledFuture;
+
+/**
+ * Items which are collected to be handled at once, either when the batch is full or when its scheduled flush runs.
+ * Once closed a batch does not accept items anymore, which guarantees the items are handled exactly once.
+ * <p/>
+ * A closed batch is typically replaced by a new one, callers which fail to add to a batch should start a new batch.
+ *
+ * @param <T> the type of the items.
+ */
+public class ClosableBatch<T> {
+
+    private final List<T> items = new ArrayList<>();
+
+    private boolean closed;
+
+    private volatile ScheduledFuture<?> flush;
+
+    /**
+     * Adds an item to the batch.
+     *
+     * @param item the item.
+     * @return the number of items in the batch, or -1 if the batch has been closed.
+     */
+    public synchronized int add(T item) {
+        if (closed) {
+            return -1;
+        }
+        items.add(item);
+        return items.size();
+    }
+
+    /**
+     * Adds items to the batch.
+     *
+     * @param newItems the items.
+     * @return the number of items in the batch, or -1 if the batch has been closed.
+     */
+    public synchronized int addAll(Collection<? extends T> newItems) {
+        if (closed) {
+            return -1;
+        }
+        items.addAll(newItems);
+        return items.size();
+    }
+
+    /**
+     * Closes the batch and cancels its scheduled flush.
+     *
+     * @return the items of the batch, or null if the batch had already been closed.
+     */
+    public List<T> close() {
+        synchronized (this) {
+            if (closed) {
+                return null;
+            }
+            closed = true;
+        }
+
+        ScheduledFuture<?> scheduledFlush = flush;
+        if (scheduledFlush != null) {
+            scheduledFlush.cancel(false);
+        }
+
+        return items;
+    }
+
+    /**
+     * Sets the scheduled flush of the batch, which is cancelled when the batch is closed.
+     *
+     * @param flush the scheduled flush.
+     */
+    public void setFlush(ScheduledFuture<?> flush) {
+        this.flush = flush;
+    }
+}
@@ -0,0 +1,44 @@
+/**
+ * Copyright (C) 2013 Motown.IO (info@motown.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.motown.domain.utils.concurrent;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+
+/**
+ * Creates timers for delayed work which is usually cancelled before it runs, like timeouts of requests which are
+ * answered in time or flushes of batches which are sent because they are full.
+ */
+public final class Timers {
+
+    private Timers() {
+        // utility class
+    }
+
+    /**
+     * Creates a timer which runs its tasks on a single daemon thread. Cancelled tasks are removed from the queue of the
+     * timer right away, so tasks which are scheduled with a long delay and cancelled shortly after do not pile up.
+     *
+     * @param nameFormat the name format of the thread, e.g. {@code "ocpp-call-timeout-%d"}.
+     * @return the timer.
+     */
+    public static ScheduledThreadPoolExecutor newTimer(String nameFormat) {
+        ScheduledThreadPoolExecutor timer = new ScheduledThreadPoolExecutor(1, new ThreadFactoryBuilder().setDaemon(true).setNameFormat(nameFormat).build());
+        timer.setRemoveOnCancelPolicy(true);
+        return timer;
+    }
+}
@@ -0,0 +1,55 @@
+/**
+ * Copyright (C) 2013 Motown.IO (info@motown.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.motown.domain.utils.axon;
+
+import io.motown.domain.api.chargingstation.ChargingStationSentHeartbeatEvent;
+import org.axonframework.domain.GenericDomainEventMessage;
+import org.axonframework.domain.GenericEventMessage;
+import org.junit.Before;
+import org.junit.Test;
+
+import static io.motown.domain.api.chargingstation.test.ChargingStationTestUtils.CHARGING_STATION_ID;
+import static io.motown.domain.api.chargingstation.test.ChargingStationTestUtils.NULL_USER_IDENTITY_CONTEXT;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class ChargingStationSequencingPolicyTest {
+
+    private ChargingStationSequencingPolicy policy;
+
+    @Before
+    public void setUp() {
+        policy = new ChargingStationSequencingPolicy();
+    }
+
+    @Test
+    public void eventWithChargingStationIdIsSequencedOnChargingStationId() {
+        ChargingStationSentHeartbeatEvent event = new ChargingStationSentHeartbeatEvent(CHARGING_STATION_ID, NULL_USER_IDENTITY_CONTEXT);
+
+        assertEquals(CHARGING_STATION_ID, policy.getSequenceIdentifierFor(new GenericEventMessage<>(event)));
+        assertEquals(CHARGING_STATION_ID, policy.getSequenceIdentifierFor(new GenericDomainEventMessage<>("OTHER", 0, event)));
+    }
+
+    @Test
+    public void domainEventWithoutChargingStationIdIsSequencedOnAggregateIdentifier() {
+        assertEquals("AGGREGATE", policy.getSequenceIdentifierFor(new GenericDomainEventMessage<>("AGGREGATE", 0, "payload")));
+    }
+
+    @Test
+    public void eventWithoutChargingStationIdIsNotSequenced() {
+        assertNull(policy.getSequenceIdentifierFor(new GenericEventMessage<>("payload")));
+    }
+}
@@ -0,0 +1,162 @@
+/**
+ * Copyright (C) 2013 Motown.IO (info@motown.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.motown.domain.utils.axon;
+
+import org.axonframework.cache.Cache;
+import org.axonframework.domain.DomainEventMessage;
+import org.axonframework.domain.DomainEventStream;
+import org.axonframework.domain.GenericDomainEventMessage;
+import org.axonframework.domain.SimpleDomainEventStream;
+import org.axonframework.eventsourcing.EventSourcedAggregateRoot;
+import org.axonframework.eventsourcing.Snapshotter;
+import org.axonframework.unitofwork.DefaultUnitOfWork;
+import org.axonframework.unitofwork.UnitOfWork;
+import org.joda.time.DateTime;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+import static io.motown.domain.api.chargingstation.test.ChargingStationTestUtils.CHARGING_STATION_ID;
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.*;
+
+public class EventCountAndAgeSnapshotterTriggerTest {
+
+    private static final String AGGREGATE_TYPE = "ChargingStation";
+
+    private EventCountAndAgeSnapshotterTrigger trigger;
+
+    private Snapshotter snapshotter;
+
+    private EventSourcedAggregateRoot aggregate;
+
+    @Before
+    public void setUp() {
+        snapshotter = mock(Snapshotter.class);
+        aggregate = mock(EventSourcedAggregateRoot.class);
+        when(aggregate.getIdentifier()).thenReturn(CHARGING_STATION_ID);
+
+        trigger = new EventCountAndAgeSnapshotterTrigger();
+        trigger.setSnapshotter(snapshotter);
+        trigger.setEventCountThreshold(3);
+    }
+
+    @Test
+    public void snapshotScheduledWhenEventCountExceedsThreshold() {
+        readAndAppend(events(2, new DateTime()), events(2, new DateTime()));
+
+        verify(snapshotter).scheduleSnapshot(AGGREGATE_TYPE, CHARGING_STATION_ID);
+    }
+
+    @Test
+    public void noSnapshotScheduledBelowEventCountThreshold() {
+        readAndAppend(events(2, new DateTime()), events(1, new DateTime()));
+
+        verifyZeroInteractions(snapshotter);
+    }
+
+    @Test
+    public void snapshotScheduledWhenOldestEventExceedsAgeThreshold() {
+        trigger.setEventAgeThresholdInMillis(60000);
+
+        readAndAppend(events(1, new DateTime().minusHours(1)), events(1, new DateTime()));
+
+        verify(snapshotter).scheduleSnapshot(AGGREGATE_TYPE, CHARGING_STATION_ID);
+    }
+
+    @Test
+    public void noSnapshotScheduledWhenAgeThresholdIsDisabled() {
+        readAndAppend(events(1, new DateTime().minusHours(1)), events(1, new DateTime()));
+
+        verifyZeroInteractions(snapshotter);
+    }
+
+    @Test
+    public void snapshotScheduledAfterUnitOfWorkIsCommitted() {
+        UnitOfWork unitOfWork = DefaultUnitOfWork.startAndGet();
+        try {
+            readAndAppend(events(2, new DateTime()), events(2, new DateTime()));
+
+            verifyZeroInteractions(snapshotter);
+        } finally {
+            unitOfWork.commit();
+        }
+
+        verify(snapshotter).scheduleSnapshot(AGGREGATE_TYPE, CHARGING_STATION_ID);
+    }
+
+    @Test
+    public void countersClearedAfterAppend() {
+        readAndAppend(events(1, new DateTime()), events(1, new DateTime()));
+
+        assertEquals(0, trigger.getCounterCount());
+    }
+
+    @Test
+    public void countersKeptAfterAppendWhenConfigured() {
+        trigger.setClearCountersAfterAppend(false);
+
+        readAndAppend(events(2, new DateTime()), events(1, new DateTime()));
+        // a cached aggregate is not loaded again, the counter continues where the previous append left off
+        append(events(1, new DateTime()));
+
+        assertEquals(1, trigger.getCounterCount());
+        verify(snapshotter).scheduleSnapshot(AGGREGATE_TYPE, CHARGING_STATION_ID);
+    }
+
+    @Test
+    public void counterDroppedWhenAggregateIsEvictedFromCache() {
+        Cache cache = mock(Cache.class);
+        trigger.setAggregateCache(cache);
+        ArgumentCaptor<Cache.EntryListener> listener = ArgumentCaptor.forClass(Cache.EntryListener.class);
+        verify(cache).registerCacheEntryListener(listener.capture());
+
+        readAndAppend(events(2, new DateTime()), events(1, new DateTime()));
+        assertEquals(1, trigger.getCounterCount());
+
+        listener.getValue().onEntryExpired(CHARGING_STATION_ID);
+
+        assertEquals(0, trigger.getCounterCount());
+    }
+
+    private void readAndAppend(List<DomainEventMessage> readEvents, List<DomainEventMessage> appendedEvents) {
+        consume(trigger.decorateForRead(AGGREGATE_TYPE, CHARGING_STATION_ID, new SimpleDomainEventStream(readEvents)));
+        append(appendedEvents);
+    }
+
+    private void append(List<DomainEventMessage> appendedEvents) {
+        consume(trigger.decorateForAppend(AGGREGATE_TYPE, aggregate, new SimpleDomainEventStream(appendedEvents)));
+    }
+
+    private void consume(DomainEventStream eventStream) {
+        while (eventStream.hasNext()) {
+            eventStream.next();
+        }
+    }
+
+    private List<DomainEventMessage> events(int numberOfEvents, DateTime timestamp) {
+        List<DomainEventMessage> events = new ArrayList<>();
+        for (int i = 0; i < numberOfEvents; i++) {
+            events.add(new GenericDomainEventMessage<>(UUID.randomUUID().toString(), timestamp, CHARGING_STATION_ID, i, new Object(), Collections.<String, Object>emptyMap()));
+        }
+        return events;
+    }
+}
@@ -18,13 +18,18 @@ package io.motown.domain.utils.axon;
 import io.motown.domain.api.chargingstation.CorrelationToken;
 import org.axonframework.commandhandling.CommandBus;
 import org.axonframework.commandhandling.CommandMessage;
+import com.google.common.collect.ImmutableSet;
 import org.axonframework.commandhandling.GenericCommandMessage;
 import org.axonframework.domain.EventMessage;
+import org.axonframework.domain.GenericEventMessage;
 import org.axonframework.eventhandling.EventBus;
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.ArgumentCaptor;
 
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.*;
@@ -109,6 +114,85 @@ public class EventWaitingGatewayTest {
         verify(eventCallback, never()).onEvent(any(EventMessage.class));
     }
 
+    @Test
+    public void testIfEventCallbackIsTimedOut() {
+        EventCallback eventCallback = mock(EventCallback.class);
+        gateway.sendAndWaitForEvent(new GenericCommandMessage<>(new Object()), eventCallback, LOW_TIMEOUT_IN_MILLIS);
+
+        verify(eventCallback, timeout(HIGH_TIMEOUT_IN_MILLIS)).onTimeout();
+        verifyDispatchAndCaptureCorrelationToken();
+    }
+
+    @Test
+    public void testIfHandledEventCallbackIsNotTimedOut() throws InterruptedException {
+        EventCallback eventCallback = mock(EventCallback.class);
+        when(eventCallback.onEvent(any(EventMessage.class))).thenReturn(true);
+        gateway.sendAndWaitForEvent(new GenericCommandMessage<>(new Object()), eventCallback, 50);
+
+        gateway.onEvent(mock(EventMessage.class), verifyDispatchAndCaptureCorrelationToken());
+        Thread.sleep(200);
+
+        verify(eventCallback, never()).onTimeout();
+        assertEquals(0, gateway.getWaitingCount());
+        assertEquals(0, gateway.getTimedOutCount());
+        // the bucket depends on how fast the event is handled, only check that the wait has been recorded
+        long recordedWaits = 0;
+        for (Long count : gateway.getWaitTimeHistogram().values()) {
+            recordedWaits += count;
+        }
+        assertEquals(1, recordedWaits);
+    }
+
+    @Test
+    public void testIfCommandIsNotDispatchedWhenMaximumOfWaitingCallbacksIsReached() {
+        gateway.setMaxWaitingCallbacks(1);
+        gateway.sendAndWaitForEvent(new GenericCommandMessage<>(new Object()), mock(EventCallback.class), HIGH_TIMEOUT_IN_MILLIS);
+        EventCallback rejectedEventCallback = mock(EventCallback.class);
+
+        gateway.sendAndWaitForEvent(new GenericCommandMessage<>(new Object()), rejectedEventCallback, HIGH_TIMEOUT_IN_MILLIS);
+
+        verify(rejectedEventCallback).onTimeout();
+        verify(commandBus, times(1)).dispatch(any(CommandMessage.class));
+        assertEquals(1, gateway.getWaitingCount());
+        assertEquals(1, gateway.getRejectedCount());
+    }
+
+    @Test
+    public void testIfEventWithCorrelationTokenIsPassedToEventCallback() {
+        EventCallback eventCallback = mock(EventCallback.class);
+        gateway.sendAndWaitForEvent(new GenericCommandMessage<>(new Object()), eventCallback, HIGH_TIMEOUT_IN_MILLIS);
+        EventMessage<String> eventMessage = new GenericEventMessage<>("event", Collections.singletonMap(CorrelationToken.KEY, verifyDispatchAndCaptureCorrelationToken()));
+
+        gateway.handle(eventMessage);
+
+        verify(eventCallback).onEvent(eventMessage);
+    }
+
+    @Test
+    public void testIfEventWithoutCorrelationTokenIsNotPassedToEventCallback() {
+        EventCallback eventCallback = mock(EventCallback.class);
+        gateway.sendAndWaitForEvent(new GenericCommandMessage<>(new Object()), eventCallback, HIGH_TIMEOUT_IN_MILLIS);
+
+        gateway.handle(new GenericEventMessage<>("event"));
+
+        verify(eventCallback, never()).onEvent(any(EventMessage.class));
+    }
+
+    @Test
+    public void testIfEventOfOtherTypeIsNotPassedToEventCallback() {
+        gateway.setEventTypes(ImmutableSet.<Class<?>>of(Integer.class));
+        EventCallback eventCallback = mock(EventCallback.class);
+        gateway.sendAndWaitForEvent(new GenericCommandMessage<>(new Object()), eventCallback, HIGH_TIMEOUT_IN_MILLIS);
+        CorrelationToken correlationToken = verifyDispatchAndCaptureCorrelationToken();
+        EventMessage<Integer> eventMessage = new GenericEventMessage<>(1, Collections.singletonMap(CorrelationToken.KEY, correlationToken));
+
+        gateway.handle(new GenericEventMessage<>("event", Collections.singletonMap(CorrelationToken.KEY, correlationToken)));
+        gateway.handle(eventMessage);
+
+        verify(eventCallback, times(1)).onEvent(any(EventMessage.class));
+        verify(eventCallback).onEvent(eventMessage);
+    }
+
     /**
      * Captures the {@code CorrelationToken} which is metadata of the command which is dispatched on the bus.
      *
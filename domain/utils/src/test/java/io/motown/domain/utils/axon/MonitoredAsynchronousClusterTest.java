@@ -0,0 +1,132 @@
+/**
+ * Copyright (C) 2013 Motown.IO (info@motown.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.motown.domain.utils.axon;
+
+import io.motown.domain.api.chargingstation.ChargingStationId;
+import io.motown.domain.api.chargingstation.ChargingStationSentHeartbeatEvent;
+import org.axonframework.domain.EventMessage;
+import org.axonframework.domain.GenericEventMessage;
+import org.axonframework.eventhandling.EventListener;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import static io.motown.domain.api.chargingstation.test.ChargingStationTestUtils.NULL_USER_IDENTITY_CONTEXT;
+import static org.junit.Assert.*;
+
+public class MonitoredAsynchronousClusterTest {
+
+    private ExecutorService executor;
+
+    private MonitoredAsynchronousCluster cluster;
+
+    @Before
+    public void setUp() {
+        executor = Executors.newFixedThreadPool(4);
+        cluster = new MonitoredAsynchronousCluster("test", executor, new ChargingStationSequencingPolicy());
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void eventsOfSameChargingStationAreHandledInOrder() throws InterruptedException {
+        final int numberOfChargingStations = 10;
+        final int eventsPerChargingStation = 200;
+        final Map<ChargingStationId, List<Integer>> handled = new ConcurrentHashMap<>();
+        final CountDownLatch done = new CountDownLatch(numberOfChargingStations * eventsPerChargingStation);
+        cluster.subscribe(new EventListener() {
+            @Override
+            public void handle(EventMessage event) {
+                ChargingStationSentHeartbeatEvent payload = (ChargingStationSentHeartbeatEvent) event.getPayload();
+                handled.get(payload.getChargingStationId()).add((Integer) event.getMetaData().get("sequence"));
+                done.countDown();
+            }
+        });
+
+        for (int station = 0; station < numberOfChargingStations; station++) {
+            handled.put(new ChargingStationId("CS-" + station), Collections.synchronizedList(new ArrayList<Integer>()));
+        }
+        for (int i = 0; i < eventsPerChargingStation; i++) {
+            for (int station = 0; station < numberOfChargingStations; station++) {
+                cluster.publish(heartbeat(new ChargingStationId("CS-" + station), i));
+            }
+        }
+
+        assertTrue(done.await(30, TimeUnit.SECONDS));
+        for (List<Integer> sequence : handled.values()) {
+            for (int i = 0; i < eventsPerChargingStation; i++) {
+                assertEquals(Integer.valueOf(i), sequence.get(i));
+            }
+        }
+    }
+
+    @Test
+    public void pendingEventsAreCountedUntilHandled() throws InterruptedException {
+        final CountDownLatch release = new CountDownLatch(1);
+        cluster.subscribe(new EventListener() {
+            @Override
+            public void handle(EventMessage event) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+
+        cluster.publish(heartbeat(new ChargingStationId("CS-1"), 0), heartbeat(new ChargingStationId("CS-1"), 1));
+        assertEquals(2, cluster.getPendingEventCount());
+
+        release.countDown();
+        waitUntilNoEventsPending();
+
+        assertEquals(2, cluster.getProcessedEventCount());
+        assertEquals(0, cluster.getFailedEventCount());
+    }
+
+    @Test
+    public void failedEventsAreNoLongerPending() throws InterruptedException {
+        cluster.subscribe(new EventListener() {
+            @Override
+            public void handle(EventMessage event) {
+                throw new IllegalStateException("failure");
+            }
+        });
+
+        cluster.publish(heartbeat(new ChargingStationId("CS-1"), 0));
+        waitUntilNoEventsPending();
+
+        assertEquals(1, cluster.getFailedEventCount());
+    }
+
+    private void waitUntilNoEventsPending() throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10000;
+        while (cluster.getPendingEventCount() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(0, cluster.getPendingEventCount());
+    }
+
+    private EventMessage<?> heartbeat(ChargingStationId chargingStationId, int sequence) {
+        return new GenericEventMessage<>(new ChargingStationSentHeartbeatEvent(chargingStationId, NULL_USER_IDENTITY_CONTEXT), Collections.singletonMap("sequence", sequence));
+    }
+}
@@ -0,0 +1,164 @@
+/**
+ * Copyright (C) 2013 Motown.IO (info@motown.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.motown.domain.utils.axon;
+
+import io.motown.domain.api.chargingstation.ChargingStationId;
+import io.motown.domain.api.chargingstation.HeartbeatCommand;
+import org.axonframework.commandhandling.CommandHandler;
+import org.axonframework.commandhandling.CommandMessage;
+import org.axonframework.commandhandling.GenericCommandMessage;
+import org.axonframework.commandhandling.SimpleCommandBus;
+import org.axonframework.commandhandling.callbacks.FutureCallback;
+import org.axonframework.unitofwork.UnitOfWork;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static io.motown.domain.api.chargingstation.test.ChargingStationTestUtils.NULL_USER_IDENTITY_CONTEXT;
+import static org.junit.Assert.*;
+
+public class PartitionedCommandBusTest {
+
+    private static final int NUMBER_OF_PARTITIONS = 4;
+
+    private SimpleCommandBus localSegment;
+
+    private PartitionedCommandBus commandBus;
+
+    @Before
+    public void setUp() {
+        localSegment = new SimpleCommandBus();
+        commandBus = new PartitionedCommandBus(localSegment, NUMBER_OF_PARTITIONS, 100);
+    }
+
+    @After
+    public void tearDown() {
+        commandBus.shutdown();
+    }
+
+    @Test
+    public void commandsForSameChargingStationAreExecutedInOrder() throws InterruptedException {
+        final int numberOfChargingStations = 10;
+        final int commandsPerChargingStation = 500;
+        final Map<ChargingStationId, List<Integer>> executed = new ConcurrentHashMap<>();
+        final CountDownLatch done = new CountDownLatch(numberOfChargingStations * commandsPerChargingStation);
+        commandBus.subscribe(HeartbeatCommand.class.getName(), new CommandHandler<HeartbeatCommand>() {
+            @Override
+            public Object handle(CommandMessage<HeartbeatCommand> commandMessage, UnitOfWork unitOfWork) {
+                List<Integer> sequence = executed.get(commandMessage.getPayload().getChargingStationId());
+                sequence.add((Integer) commandMessage.getMetaData().get("sequence"));
+                done.countDown();
+                return null;
+            }
+        });
+
+        for (int station = 0; station < numberOfChargingStations; station++) {
+            executed.put(new ChargingStationId("CS-" + station), Collections.synchronizedList(new ArrayList<Integer>()));
+        }
+        for (int i = 0; i < commandsPerChargingStation; i++) {
+            for (int station = 0; station < numberOfChargingStations; station++) {
+                commandBus.dispatch(heartbeat(new ChargingStationId("CS-" + station)).andMetaData(Collections.singletonMap("sequence", i)));
+            }
+        }
+
+        assertTrue(done.await(30, TimeUnit.SECONDS));
+        for (List<Integer> sequence : executed.values()) {
+            assertEquals(commandsPerChargingStation, sequence.size());
+            for (int i = 0; i < commandsPerChargingStation; i++) {
+                assertEquals(Integer.valueOf(i), sequence.get(i));
+            }
+        }
+        assertEquals(numberOfChargingStations * commandsPerChargingStation, commandBus.getExecutedCommandCount());
+    }
+
+    @Test
+    public void commandsForDifferentPartitionsAreExecutedInParallel() throws Exception {
+        final ChargingStationId blockedChargingStationId = new ChargingStationId("CS-0");
+        ChargingStationId otherChargingStationId = chargingStationIdInOtherPartition(blockedChargingStationId);
+        final CountDownLatch release = new CountDownLatch(1);
+        commandBus.subscribe(HeartbeatCommand.class.getName(), new CommandHandler<HeartbeatCommand>() {
+            @Override
+            public Object handle(CommandMessage<HeartbeatCommand> commandMessage, UnitOfWork unitOfWork) throws InterruptedException {
+                if (blockedChargingStationId.equals(commandMessage.getPayload().getChargingStationId())) {
+                    release.await();
+                }
+                return commandMessage.getPayload().getChargingStationId();
+            }
+        });
+
+        FutureCallback<ChargingStationId> blocked = new FutureCallback<>();
+        commandBus.dispatch(heartbeat(blockedChargingStationId), blocked);
+        FutureCallback<ChargingStationId> other = new FutureCallback<>();
+        commandBus.dispatch(heartbeat(otherChargingStationId), other);
+
+        try {
+            assertEquals(otherChargingStationId, other.get(10, TimeUnit.SECONDS));
+            assertFalse(blocked.isDone());
+        } finally {
+            release.countDown();
+        }
+        assertEquals(blockedChargingStationId, blocked.get(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void commandWithoutTargetIsExecutedOnCallingThread() {
+        final List<Thread> threads = new ArrayList<>();
+        commandBus.subscribe(String.class.getName(), new CommandHandler<String>() {
+            @Override
+            public Object handle(CommandMessage<String> commandMessage, UnitOfWork unitOfWork) {
+                threads.add(Thread.currentThread());
+                return null;
+            }
+        });
+
+        commandBus.dispatch(GenericCommandMessage.asCommandMessage("no target"));
+
+        assertEquals(Collections.singletonList(Thread.currentThread()), threads);
+    }
+
+    @Test
+    public void unsubscribedHandlerIsRemovedFromLocalSegment() {
+        CommandHandler<Object> handler = new CommandHandler<Object>() {
+            @Override
+            public Object handle(CommandMessage<Object> commandMessage, UnitOfWork unitOfWork) {
+                return null;
+            }
+        };
+        commandBus.subscribe(HeartbeatCommand.class.getName(), handler);
+
+        assertTrue(commandBus.unsubscribe(HeartbeatCommand.class.getName(), handler));
+        assertFalse(localSegment.unsubscribe(HeartbeatCommand.class.getName(), handler));
+    }
+
+    private CommandMessage<HeartbeatCommand> heartbeat(ChargingStationId chargingStationId) {
+        return new GenericCommandMessage<>(new HeartbeatCommand(chargingStationId, NULL_USER_IDENTITY_CONTEXT));
+    }
+
+    private ChargingStationId chargingStationIdInOtherPartition(ChargingStationId chargingStationId) {
+        int partition = (chargingStationId.hashCode() & Integer.MAX_VALUE) % NUMBER_OF_PARTITIONS;
+        for (int i = 1; ; i++) {
+            ChargingStationId other = new ChargingStationId("CS-" + i);
+            if ((other.hashCode() & Integer.MAX_VALUE) % NUMBER_OF_PARTITIONS != partition) {
+                return other;
+            }
+        }
+    }
+}
@@ -0,0 +1,65 @@
+/**
+ * Copyright (C) 2013 Motown.IO (info@motown.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.motown.domain.utils.concurrent;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.concurrent.ScheduledFuture;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+public class ClosableBatchTest {
+
+    @Test
+    public void addReturnsNumberOfItems() {
+        ClosableBatch<String> batch = new ClosableBatch<>();
+
+        assertEquals(1, batch.add("a"));
+        assertEquals(3, batch.addAll(Arrays.asList("b", "c")));
+    }
+
+    @Test
+    public void closeReturnsItemsOnlyOnce() {
+        ClosableBatch<String> batch = new ClosableBatch<>();
+        batch.add("a");
+
+        assertEquals(Arrays.asList("a"), batch.close());
+        assertNull(batch.close());
+    }
+
+    @Test
+    public void closedBatchDoesNotAcceptItems() {
+        ClosableBatch<String> batch = new ClosableBatch<>();
+        batch.close();
+
+        assertEquals(-1, batch.add("a"));
+        assertEquals(-1, batch.addAll(Arrays.asList("b")));
+    }
+
+    @Test
+    public void closeCancelsFlush() {
+        ClosableBatch<String> batch = new ClosableBatch<>();
+        ScheduledFuture<?> flush = mock(ScheduledFuture.class);
+        batch.setFlush(flush);
+
+        batch.close();
+
+        verify(flush).cancel(false);
+    }
+}
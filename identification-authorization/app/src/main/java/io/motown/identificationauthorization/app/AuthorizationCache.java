@@ -0,0 +1,158 @@
+/**
+ * Copyright (C) 2013 Motown.IO (info@motown.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.motown.identificationauthorization.app;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import io.motown.domain.api.chargingstation.IdentifyingToken;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cache of recent authorization results, key is the token of the identification. Accepted and rejected tokens expire
+ * separately so a token which has been rejected can be retried sooner than an accepted token is checked again. Both
+ * are bounded in size, the least recently used tokens are evicted first.
+ * <p/>
+ * Every invalidation increments the generation of the cache. A result is only cached if no invalidation has happened
+ * since its lookup started, so a lookup which raced with a change of the authorization list cannot cache an outdated
+ * result.
+ */
+public class AuthorizationCache {
+
+    private final Cache<String, Boolean> acceptedTokens;
+
+    private final Cache<String, Boolean> rejectedTokens;
+
+    private final AtomicLong hitCount = new AtomicLong();
+
+    private final AtomicLong missCount = new AtomicLong();
+
+    private final AtomicLong generation = new AtomicLong();
+
+    /**
+     * Creates a cache.
+     *
+     * @param acceptedTokenTtlInSeconds the number of seconds an accepted token is cached.
+     * @param rejectedTokenTtlInSeconds the number of seconds a rejected token is cached.
+     * @param maximumSize               the maximum number of accepted and the maximum number of rejected tokens cached.
+     */
+    public AuthorizationCache(long acceptedTokenTtlInSeconds, long rejectedTokenTtlInSeconds, long maximumSize) {
+        this.acceptedTokens = CacheBuilder.newBuilder().expireAfterWrite(acceptedTokenTtlInSeconds, TimeUnit.SECONDS).maximumSize(maximumSize).build();
+        this.rejectedTokens = CacheBuilder.newBuilder().expireAfterWrite(rejectedTokenTtlInSeconds, TimeUnit.SECONDS).maximumSize(maximumSize).build();
+    }
+
+    /**
+     * Gets the cached authorization result of a token.
+     *
+     * @param token the identifying token.
+     * @return true if the token has been accepted, false if it has been rejected, or null if no result is cached.
+     */
+    public Boolean get(IdentifyingToken token) {
+        Boolean valid = acceptedTokens.getIfPresent(token.getToken()) != null ? Boolean.TRUE :
+                (rejectedTokens.getIfPresent(token.getToken()) != null ? Boolean.FALSE : null);
+
+        if (valid != null) {
+            hitCount.incrementAndGet();
+        } else {
+            missCount.incrementAndGet();
+        }
+
+        return valid;
+    }
+
+    /**
+     * Gets the current generation of the cache, which should be read before the lookup of a result starts.
+     *
+     * @return the generation.
+     */
+    public long getGeneration() {
+        return generation.get();
+    }
+
+    /**
+     * Caches the authorization result of a token, replacing an earlier result. The result is not cached if the cache
+     * has been invalidated since the given generation.
+     *
+     * @param token      the identifying token.
+     * @param valid      whether the token has been accepted.
+     * @param generation the generation of the cache when the lookup of the result started.
+     * @return true if the result has been cached.
+     */
+    public synchronized boolean put(IdentifyingToken token, boolean valid, long generation) {
+        if (this.generation.get() != generation) {
+            return false;
+        }
+
+        if (valid) {
+            rejectedTokens.invalidate(token.getToken());
+            acceptedTokens.put(token.getToken(), Boolean.TRUE);
+        } else {
+            acceptedTokens.invalidate(token.getToken());
+            rejectedTokens.put(token.getToken(), Boolean.FALSE);
+        }
+        return true;
+    }
+
+    /**
+     * Removes the cached results of tokens.
+     *
+     * @param tokens the identifying tokens.
+     */
+    public synchronized void invalidate(Iterable<IdentifyingToken> tokens) {
+        generation.incrementAndGet();
+        for (IdentifyingToken token : tokens) {
+            acceptedTokens.invalidate(token.getToken());
+            rejectedTokens.invalidate(token.getToken());
+        }
+    }
+
+    /**
+     * Removes all cached results.
+     */
+    public synchronized void invalidateAll() {
+        generation.incrementAndGet();
+        acceptedTokens.invalidateAll();
+        rejectedTokens.invalidateAll();
+    }
+
+    /**
+     * Gets the number of lookups which found a cached result, since startup.
+     *
+     * @return the number of hits.
+     */
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    /**
+     * Gets the number of lookups which did not find a cached result, since startup.
+     *
+     * @return the number of misses.
+     */
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    /**
+     * Gets the number of tokens currently cached, including tokens which have expired but have not been cleaned up yet.
+     *
+     * @return the number of cached tokens.
+     */
+    public long getSize() {
+        return acceptedTokens.size() + rejectedTokens.size();
+    }
+}
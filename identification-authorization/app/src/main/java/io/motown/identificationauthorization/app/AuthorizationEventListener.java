@@ -15,6 +15,8 @@
  */
 package io.motown.identificationauthorization.app;
 
+import io.motown.domain.api.chargingstation.AuthorizationListChangedEvent;
+import io.motown.domain.api.chargingstation.AuthorizationListUpdateType;
 import io.motown.domain.api.chargingstation.AuthorizationRequestedEvent;
 import io.motown.domain.api.chargingstation.CorrelationToken;
 import io.motown.domain.api.chargingstation.DenyAuthorizationCommand;
@@ -26,13 +28,19 @@ import io.motown.domain.api.security.TypeBasedAddOnIdentity;
 import org.axonframework.commandhandling.CommandMessage;
 import org.axonframework.common.annotation.MetaData;
 import org.axonframework.eventhandling.annotation.EventHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.util.Collections;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 
 import static org.axonframework.commandhandling.GenericCommandMessage.asCommandMessage;
 
 public class AuthorizationEventListener {
 
+    private static final Logger LOG = LoggerFactory.getLogger(AuthorizationEventListener.class);
+
     private IdentificationAuthorizationService identificationAuthorizationService;
 
     private AuthorizationCommandGateway commandGateway;
@@ -41,18 +49,50 @@ public class AuthorizationEventListener {
 
     private AddOnIdentity addOnIdentity;
 
+    /**
+     * Executor on which authorizations are executed, null to execute them on the event handling thread.
+     */
+    private Executor executor;
+
     /**
      * Listens for {@code AuthorizationRequestedEvent} and requests the {@code IdentificationAuthorizationService} to
      * execute the authorization. Sends a {@code GrantAuthorizationCommand} if identification is successful,
      * {@code DenyAuthorizationCommand} if not. The passed correlation id will be added to the outgoing command if
      * it's not null or empty.
+     * <p/>
+     * If an executor is set the authorization is executed on that executor and the command is sent from there, so the
+     * event handling thread does not wait for the authorization providers.
      *
      * @param event            the authorization request event.
      * @param correlationToken correlation token which will be added to outgoing command if it's not null or empty.
      */
     @EventHandler
-    protected void onEvent(AuthorizationRequestedEvent event,
-                           @MetaData(value = CorrelationToken.KEY, required = false) CorrelationToken correlationToken) {
+    protected void onEvent(final AuthorizationRequestedEvent event,
+                           @MetaData(value = CorrelationToken.KEY, required = false) final CorrelationToken correlationToken) {
+        if (executor != null) {
+            try {
+                executor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        authorize(event, correlationToken);
+                    }
+                });
+                return;
+            } catch (RejectedExecutionException e) {
+                LOG.warn("Executor rejected authorization of [{}], authorizing on the event handling thread", event.getIdentifyingToken().getToken(), e);
+            }
+        }
+
+        authorize(event, correlationToken);
+    }
+
+    /**
+     * Validates the identification of the event and sends the resulting command.
+     *
+     * @param event            the authorization request event.
+     * @param correlationToken correlation token which will be added to outgoing command if it's not null.
+     */
+    private void authorize(AuthorizationRequestedEvent event, CorrelationToken correlationToken) {
         boolean valid = identificationAuthorizationService.isValid(event.getIdentifyingToken());
 
         CommandMessage commandMessage;
@@ -70,6 +110,21 @@ public class AuthorizationEventListener {
         commandGateway.send(commandMessage);
     }
 
+    /**
+     * Listens for {@code AuthorizationListChangedEvent} and removes the cached authorization results of the changed
+     * tokens. A full update replaces the whole list, in which case all cached results are removed.
+     *
+     * @param event the authorization list changed event.
+     */
+    @EventHandler
+    protected void onEvent(AuthorizationListChangedEvent event) {
+        if (event.getUpdateType() == AuthorizationListUpdateType.FULL) {
+            identificationAuthorizationService.invalidateAll();
+        } else {
+            identificationAuthorizationService.invalidate(event.getIdentifyingTokens());
+        }
+    }
+
     public void setIdentificationAuthorizationService(IdentificationAuthorizationService identificationAuthorizationService) {
         this.identificationAuthorizationService = identificationAuthorizationService;
     }
@@ -78,6 +133,16 @@ public class AuthorizationEventListener {
         this.commandGateway = commandGateway;
     }
 
+    /**
+     * Sets the executor on which authorizations are executed. If no executor is set authorizations are executed on the
+     * event handling thread.
+     *
+     * @param executor the executor.
+     */
+    public void setExecutor(Executor executor) {
+        this.executor = executor;
+    }
+
     public void setAddOnIdentity(String addOnIdentity) {
         this.addOnIdentity = new TypeBasedAddOnIdentity(ADD_ON_TYPE, addOnIdentity);
     }
@@ -17,25 +17,156 @@ package io.motown.identificationauthorization.app;
 
 import io.motown.domain.api.chargingstation.IdentifyingToken;
 import io.motown.identificationauthorization.pluginapi.AuthorizationProvider;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class IdentificationAuthorizationService {
 
+    private static final Logger LOG = LoggerFactory.getLogger(IdentificationAuthorizationService.class);
+
     private Set<AuthorizationProvider> providers;
 
+    /**
+     * Executor on which the providers are queried concurrently, null to query them one after another on the calling
+     * thread.
+     */
+    private ExecutorService executor;
+
+    /**
+     * The maximum time in milliseconds the providers get to accept a token when they are queried concurrently. Should
+     * be lower than the time the charging station side waits for the authorization result.
+     */
+    private long timeoutInMillis = 8000;
+
+    private AuthorizationCache cache;
+
+    private final AtomicLong providerLookupCount = new AtomicLong();
+
+    private volatile long lastProviderLookupTimeInMillis;
+
+    private volatile long maxProviderLookupTimeInMillis;
+
     public void setProviders(Set<AuthorizationProvider> providers) {
         this.providers = providers;
     }
 
+    /**
+     * Sets the executor on which the providers are queried concurrently. The executor should be bounded, a validation
+     * which cannot be submitted is considered invalid. If no executor is set the providers are queried one after
+     * another.
+     *
+     * @param executor the executor.
+     */
+    public void setExecutor(ExecutorService executor) {
+        this.executor = executor;
+    }
+
+    public void setTimeoutInMillis(long timeoutInMillis) {
+        this.timeoutInMillis = timeoutInMillis;
+    }
+
+    /**
+     * Sets the cache of recent authorization results. If no cache is set every validation is passed to the providers.
+     *
+     * @param cache the cache.
+     */
+    public void setCache(AuthorizationCache cache) {
+        this.cache = cache;
+    }
+
     /**
      * Validates the token with the configured authentication providers, as soon as one provider indicates the
-     * identification is valid this will be the result.
+     * identification is valid this will be the result. If a cache is set and it holds a recent result for the token,
+     * that result is returned without consulting the providers.
+     * <p/>
+     * If an executor is set the providers are queried concurrently, the validation completes as soon as one of them
+     * accepts the token. A token which is not accepted before the timeout passes is considered invalid, this result is
+     * not cached as not all providers have answered. Neither is a result of a lookup during which the cache has been
+     * invalidated, as it may be based on an outdated authorization list.
      *
      * @param token identifying token to be validated.
      * @return true if one of the authentication providers indicates the identification is valid, otherwise false.
      */
     public boolean isValid(IdentifyingToken token) {
+        long cacheGeneration = 0;
+        if (cache != null) {
+            // read before the lookup, an invalidation during the lookup then prevents caching its result
+            cacheGeneration = cache.getGeneration();
+            Boolean cached = cache.get(token);
+            if (cached != null) {
+                return cached;
+            }
+        }
+
+        long start = System.nanoTime();
+        Boolean valid = executor != null ? isValidAccordingToProvidersInParallel(token) : Boolean.valueOf(isValidAccordingToProviders(token));
+        recordProviderLookupTime(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+
+        if (valid == null) {
+            return false;
+        }
+
+        if (cache != null) {
+            cache.put(token, valid, cacheGeneration);
+        }
+
+        return valid;
+    }
+
+    /**
+     * Removes the cached results of tokens, so their next validation is passed to the providers.
+     *
+     * @param tokens the identifying tokens.
+     */
+    public void invalidate(Set<IdentifyingToken> tokens) {
+        if (cache != null) {
+            cache.invalidate(tokens);
+        }
+    }
+
+    /**
+     * Removes all cached results.
+     */
+    public void invalidateAll() {
+        if (cache != null) {
+            cache.invalidateAll();
+        }
+    }
+
+    /**
+     * Gets the number of validations which have been passed to the providers, since startup.
+     *
+     * @return the number of provider lookups.
+     */
+    public long getProviderLookupCount() {
+        return providerLookupCount.get();
+    }
+
+    /**
+     * Gets the time the last validation by the providers took.
+     *
+     * @return the lookup time in milliseconds.
+     */
+    public long getLastProviderLookupTimeInMillis() {
+        return lastProviderLookupTimeInMillis;
+    }
+
+    /**
+     * Gets the longest time a validation by the providers took, since startup.
+     *
+     * @return the lookup time in milliseconds.
+     */
+    public long getMaxProviderLookupTimeInMillis() {
+        return maxProviderLookupTimeInMillis;
+    }
+
+    private boolean isValidAccordingToProviders(IdentifyingToken token) {
         boolean valid = false;
 
         for(AuthorizationProvider provider : providers) {
@@ -48,4 +179,65 @@ public class IdentificationAuthorizationService {
         return valid;
     }
 
+    /**
+     * Queries the providers concurrently.
+     *
+     * @param token identifying token to be validated.
+     * @return true as soon as a provider accepted the token, false if all providers rejected it, or null if not all
+     * providers answered before the timeout.
+     */
+    private Boolean isValidAccordingToProvidersInParallel(final IdentifyingToken token) {
+        CompletionService<Boolean> completionService = new ExecutorCompletionService<>(executor);
+        List<Future<Boolean>> futures = new ArrayList<>(providers.size());
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutInMillis);
+
+        try {
+            for (final AuthorizationProvider provider : providers) {
+                futures.add(completionService.submit(new Callable<Boolean>() {
+                    @Override
+                    public Boolean call() {
+                        return provider.isValid(token);
+                    }
+                }));
+            }
+
+            boolean allAnswered = true;
+            for (int i = 0; i < futures.size(); i++) {
+                Future<Boolean> future = completionService.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                if (future == null) {
+                    LOG.warn("Not all providers answered within [{}] ms, considering identification [{}] invalid", timeoutInMillis, token.getToken());
+                    return null;
+                }
+
+                try {
+                    if (future.get()) {
+                        return true;
+                    }
+                } catch (ExecutionException e) {
+                    LOG.error("Exception while validating identification [{}]", token.getToken(), e.getCause());
+                    allAnswered = false;
+                }
+            }
+
+            return allAnswered ? Boolean.FALSE : null;
+        } catch (RejectedExecutionException e) {
+            LOG.warn("Executor rejected validation of identification [{}], considering it invalid", token.getToken(), e);
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } finally {
+            for (Future<Boolean> future : futures) {
+                future.cancel(true);
+            }
+        }
+    }
+
+    private void recordProviderLookupTime(long lookupTimeInMillis) {
+        providerLookupCount.incrementAndGet();
+        lastProviderLookupTimeInMillis = lookupTimeInMillis;
+        if (lookupTimeInMillis > maxProviderLookupTimeInMillis) {
+            maxProviderLookupTimeInMillis = lookupTimeInMillis;
+        }
+    }
 }
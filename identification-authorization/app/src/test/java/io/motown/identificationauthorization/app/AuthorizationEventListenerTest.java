@@ -15,7 +15,10 @@
  */
 package io.motown.identificationauthorization.app;
 
+import io.motown.domain.api.chargingstation.AuthorizationListChangedEvent;
+import io.motown.domain.api.chargingstation.AuthorizationListUpdateType;
 import io.motown.domain.api.chargingstation.AuthorizationRequestedEvent;
+import io.motown.domain.api.chargingstation.IdentifyingToken;
 import io.motown.domain.api.chargingstation.CorrelationToken;
 import io.motown.domain.api.chargingstation.DenyAuthorizationCommand;
 import io.motown.domain.api.chargingstation.GrantAuthorizationCommand;
@@ -29,6 +32,9 @@ import org.junit.Test;
 import org.mockito.ArgumentMatcher;
 
 import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import static io.motown.domain.api.chargingstation.test.ChargingStationTestUtils.*;
 import static org.axonframework.commandhandling.GenericCommandMessage.asCommandMessage;
@@ -129,4 +135,35 @@ public class AuthorizationEventListenerTest {
         }));
     }
 
+    @Test
+    public void testDifferentialAuthorizationListChangeInvalidatesChangedTokens() {
+        Set<IdentifyingToken> tokens = Collections.<IdentifyingToken>singleton(IDENTIFYING_TOKEN);
+
+        eventListener.onEvent(new AuthorizationListChangedEvent(CHARGING_STATION_ID, 1, AuthorizationListUpdateType.DIFFERENTIAL, tokens, identityContext));
+
+        verify(service).invalidate(tokens);
+        verify(service, never()).invalidateAll();
+    }
+
+    @Test
+    public void testFullAuthorizationListChangeInvalidatesAllTokens() {
+        eventListener.onEvent(new AuthorizationListChangedEvent(CHARGING_STATION_ID, 1, AuthorizationListUpdateType.FULL, Collections.<IdentifyingToken>singleton(IDENTIFYING_TOKEN), identityContext));
+
+        verify(service).invalidateAll();
+    }
+
+    @Test
+    public void testAuthorizationIsExecutedOnExecutor() {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        eventListener.setExecutor(executor);
+
+        try {
+            eventListener.onEvent(new AuthorizationRequestedEvent(CHARGING_STATION_ID, IDENTIFYING_TOKEN, identityContext), null);
+
+            verify(gateway, timeout(5000)).send(any(CommandMessage.class));
+            verify(service).isValid(IDENTIFYING_TOKEN);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
 }
@@ -16,11 +16,20 @@
 package io.motown.identificationauthorization.app;
 
 import com.google.common.collect.ImmutableSet;
+import io.motown.domain.api.chargingstation.IdentifyingToken;
 import io.motown.identificationauthorization.pluginapi.AuthorizationProvider;
 import org.junit.Before;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
 import org.junit.Test;
 
+import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
 import static io.motown.domain.api.chargingstation.test.ChargingStationTestUtils.*;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.*;
@@ -74,4 +83,128 @@ public class IdentificationAuthorizationServiceTest {
         verify(secondProvider).isValid(INVALID_IDENTIFYING_TOKEN);
     }
 
+    @Test
+    public void testCachedResultIsReturnedWithoutConsultingProviders() {
+        AuthorizationCache cache = new AuthorizationCache(60, 60, 100);
+        service.setCache(cache);
+
+        assertTrue(service.isValid(IDENTIFYING_TOKEN));
+        assertTrue(service.isValid(IDENTIFYING_TOKEN));
+        assertFalse(service.isValid(INVALID_IDENTIFYING_TOKEN));
+        assertFalse(service.isValid(INVALID_IDENTIFYING_TOKEN));
+
+        verify(firstProvider, times(1)).isValid(IDENTIFYING_TOKEN);
+        verify(secondProvider, times(1)).isValid(INVALID_IDENTIFYING_TOKEN);
+        assertEquals(2, cache.getHitCount());
+        assertEquals(2, cache.getMissCount());
+        assertEquals(2, service.getProviderLookupCount());
+    }
+
+    @Test
+    public void testRejectedTokensExpireSeparately() {
+        service.setCache(new AuthorizationCache(60, 0, 100));
+
+        service.isValid(IDENTIFYING_TOKEN);
+        service.isValid(IDENTIFYING_TOKEN);
+        service.isValid(INVALID_IDENTIFYING_TOKEN);
+        service.isValid(INVALID_IDENTIFYING_TOKEN);
+
+        verify(firstProvider, times(1)).isValid(IDENTIFYING_TOKEN);
+        verify(firstProvider, times(2)).isValid(INVALID_IDENTIFYING_TOKEN);
+    }
+
+    @Test
+    public void testInvalidatedTokenIsValidatedAgain() {
+        service.setCache(new AuthorizationCache(60, 60, 100));
+
+        service.isValid(IDENTIFYING_TOKEN);
+        service.invalidate(Collections.<IdentifyingToken>singleton(IDENTIFYING_TOKEN));
+        service.isValid(IDENTIFYING_TOKEN);
+        service.invalidateAll();
+        service.isValid(IDENTIFYING_TOKEN);
+
+        verify(firstProvider, times(3)).isValid(IDENTIFYING_TOKEN);
+    }
+
+    @Test
+    public void testResultOfLookupDuringInvalidationIsNotCached() {
+        AuthorizationCache cache = new AuthorizationCache(60, 60, 100);
+        service.setCache(cache);
+        when(firstProvider.isValid(IDENTIFYING_TOKEN)).thenAnswer(new Answer<Boolean>() {
+            @Override
+            public Boolean answer(InvocationOnMock invocation) {
+                // the authorization list changes while the provider is consulted
+                service.invalidate(Collections.<IdentifyingToken>singleton(IDENTIFYING_TOKEN));
+                return true;
+            }
+        });
+
+        assertTrue(service.isValid(IDENTIFYING_TOKEN));
+
+        assertEquals(0, cache.getSize());
+    }
+
+    @Test
+    public void testParallelProvidersCompleteWhenOneAccepts() {
+        CountDownLatch release = new CountDownLatch(1);
+        AuthorizationProvider blockingProvider = blockingProvider(release);
+        service.setProviders(ImmutableSet.of(blockingProvider, secondProvider));
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        service.setExecutor(executor);
+
+        try {
+            assertTrue(service.isValid(ANOTHER_IDENTIFYING_TOKEN));
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testParallelProvidersRejectWhenNoneAccepts() {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        service.setExecutor(executor);
+
+        try {
+            assertFalse(service.isValid(INVALID_IDENTIFYING_TOKEN));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testParallelProvidersRejectWhenTimeoutPassesWithoutCaching() {
+        CountDownLatch release = new CountDownLatch(1);
+        AuthorizationProvider blockingProvider = blockingProvider(release);
+        service.setProviders(ImmutableSet.of(blockingProvider, firstProvider));
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        service.setExecutor(executor);
+        service.setTimeoutInMillis(100);
+        AuthorizationCache cache = new AuthorizationCache(60, 60, 100);
+        service.setCache(cache);
+
+        try {
+            assertFalse(service.isValid(INVALID_IDENTIFYING_TOKEN));
+            assertEquals(0, cache.getSize());
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Creates a provider which does not answer until it is released, and then rejects the token.
+     */
+    private AuthorizationProvider blockingProvider(final CountDownLatch release) {
+        AuthorizationProvider provider = mock(AuthorizationProvider.class);
+        when(provider.isValid(any(IdentifyingToken.class))).thenAnswer(new Answer<Boolean>() {
+            @Override
+            public Boolean answer(InvocationOnMock invocation) throws InterruptedException {
+                release.await();
+                return false;
+            }
+        });
+        return provider;
+    }
+
 }
@@ -0,0 +1,92 @@
+/**
+ * Copyright (C) 2013 Motown.IO (info@motown.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.motown.identificationauthorization.cirplugin;
+
+import java.util.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cards which are inquired at CIR in a single call, together with the results of that call. Threads which requested
+ * the validation of one of the cards wait for the batch to complete.
+ */
+class CardInquiryBatch {
+
+    private final Set<String> cardIds = new LinkedHashSet<>();
+
+    private final CountDownLatch completed = new CountDownLatch(1);
+
+    private volatile Map<String, Boolean> results = Collections.emptyMap();
+
+    /**
+     * Adds a card to the batch. Should only be called before the batch is sent and while holding the lock which guards
+     * the batch.
+     *
+     * @param cardId the card id.
+     */
+    void addCardId(String cardId) {
+        cardIds.add(cardId);
+    }
+
+    List<String> getCardIds() {
+        return new ArrayList<>(cardIds);
+    }
+
+    int size() {
+        return cardIds.size();
+    }
+
+    /**
+     * Completes the batch, releasing all threads waiting for a result.
+     *
+     * @param results the validity of the cards, key is card id. Cards which are not in the map are invalid.
+     */
+    void complete(Map<String, Boolean> results) {
+        this.results = results;
+        completed.countDown();
+    }
+
+    /**
+     * Waits for the batch to complete, at most the given time.
+     *
+     * @param timeoutInMillis the maximum time to wait in milliseconds.
+     * @return true if the batch has completed, false if the time passed or the thread was interrupted while waiting.
+     */
+    boolean awaitCompletion(long timeoutInMillis) {
+        try {
+            return completed.await(timeoutInMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * Waits for the batch to complete.
+     *
+     * @param cardId the card id.
+     * @return true if CIR responded the card is valid, false otherwise or if the thread was interrupted while waiting.
+     */
+    boolean awaitResult(String cardId) {
+        try {
+            completed.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+        return Boolean.TRUE.equals(results.get(cardId));
+    }
+}
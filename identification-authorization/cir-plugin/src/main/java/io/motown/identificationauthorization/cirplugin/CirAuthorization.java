@@ -24,6 +24,11 @@ import org.slf4j.LoggerFactory;
 
 import javax.xml.ws.BindingProvider;
 import javax.xml.ws.Holder;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class CirAuthorization implements AuthorizationProvider {
 
@@ -37,6 +42,32 @@ public class CirAuthorization implements AuthorizationProvider {
 
     private ServiceSoap cirService;
 
+    /**
+     * The time in milliseconds the first request of a batch waits for other requests to join.
+     */
+    private long coalescingWindowInMillis = 5;
+
+    /**
+     * The maximum number of cards inquired in a single call.
+     */
+    private int maxCardsPerInquiry = 50;
+
+    private final Object batchLock = new Object();
+
+    /**
+     * The batch which is collecting cards, null if no request is waiting for the coalescing window to pass.
+     */
+    private CardInquiryBatch openBatch;
+
+    /**
+     * Batches which have not completed yet, key is card id.
+     */
+    private final Map<String, CardInquiryBatch> pendingCards = new HashMap<>();
+
+    private final AtomicLong inquiryCount = new AtomicLong();
+
+    private final AtomicLong coalescedRequestCount = new AtomicLong();
+
     public void setUsername(String username) {
         this.username = username;
     }
@@ -55,6 +86,10 @@ public class CirAuthorization implements AuthorizationProvider {
 
     /**
      * Validates the identification against the CIR service.
+     * <p/>
+     * Concurrent validations are coalesced: the first request waits for the coalescing window, after which all cards
+     * requested in the meantime are inquired in a single call. A card which is already part of a batch that has not
+     * completed yet is not inquired again, the request shares the result of that batch instead.
      *
      * @param identification identification to verify.
      * @return true if identification is valid according to CIR. False if CIR cannot be reached or
@@ -62,23 +97,153 @@ public class CirAuthorization implements AuthorizationProvider {
      */
     @Override
     public boolean isValid(IdentifyingToken identification) {
-        Card card = new Card();
-        card.setCardID(identification.getToken());
+        String cardId = identification.getToken();
+        CardInquiryBatch batch;
+        boolean opened = false;
+        boolean full = false;
+
+        synchronized (batchLock) {
+            batch = pendingCards.get(cardId);
+
+            if (batch == null) {
+                if (openBatch == null) {
+                    openBatch = new CardInquiryBatch();
+                    opened = true;
+                }
+                batch = openBatch;
+                batch.addCardId(cardId);
+                pendingCards.put(cardId, batch);
+
+                if (batch.size() >= maxCardsPerInquiry) {
+                    openBatch = null;
+                    full = true;
+                }
+            } else {
+                coalescedRequestCount.incrementAndGet();
+            }
+        }
+
+        if (full) {
+            inquire(batch);
+        } else if (opened && closeAfterCoalescingWindow(batch)) {
+            inquire(batch);
+        }
+
+        return batch.awaitResult(cardId);
+    }
+
+    public void setCirService(ServiceSoap service) {
+        this.cirService = service;
+    }
+
+    /**
+     * Sets the time in milliseconds the first request of a batch waits for other requests to join, 0 to inquire
+     * immediately.
+     *
+     * @param coalescingWindowInMillis the coalescing window.
+     */
+    public void setCoalescingWindowInMillis(long coalescingWindowInMillis) {
+        this.coalescingWindowInMillis = coalescingWindowInMillis;
+    }
+
+    /**
+     * Sets the maximum number of cards inquired in a single call, a batch which reaches this size is sent without
+     * waiting for the coalescing window to pass.
+     *
+     * @param maxCardsPerInquiry the maximum number of cards per inquiry.
+     */
+    public void setMaxCardsPerInquiry(int maxCardsPerInquiry) {
+        this.maxCardsPerInquiry = maxCardsPerInquiry;
+    }
 
+    /**
+     * Gets the number of inquiries sent to CIR since startup.
+     *
+     * @return the number of inquiries.
+     */
+    public long getInquiryCount() {
+        return inquiryCount.get();
+    }
+
+    /**
+     * Gets the number of requests which shared the result of a pending inquiry for the same card, since startup.
+     *
+     * @return the number of coalesced requests.
+     */
+    public long getCoalescedRequestCount() {
+        return coalescedRequestCount.get();
+    }
+
+    /**
+     * Waits for the coalescing window to pass and closes the batch, unless it has been closed in the meantime because
+     * it reached the maximum size.
+     *
+     * @param batch the batch.
+     * @return true if the batch has been closed by this invocation and should be sent by the caller.
+     */
+    private boolean closeAfterCoalescingWindow(CardInquiryBatch batch) {
+        if (coalescingWindowInMillis > 0 && batch.awaitCompletion(coalescingWindowInMillis)) {
+            // the batch reached the maximum size and has been sent by another request
+            return false;
+        }
+
+        synchronized (batchLock) {
+            if (openBatch == batch) {
+                openBatch = null;
+                return true;
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Inquires the cards of a batch at CIR and completes the batch.
+     *
+     * @param batch the batch.
+     */
+    private void inquire(CardInquiryBatch batch) {
+        List<String> cardIds = batch.getCardIds();
+        Map<String, Boolean> results = Collections.emptyMap();
+        try {
+            results = inquire(cardIds);
+        } finally {
+            synchronized (batchLock) {
+                for (String cardId : cardIds) {
+                    if (pendingCards.get(cardId) == batch) {
+                        pendingCards.remove(cardId);
+                    }
+                }
+            }
+            batch.complete(results);
+        }
+    }
+
+    /**
+     * Inquires cards at CIR in a single call.
+     *
+     * @param cardIds the card ids.
+     * @return the validity of the cards, key is card id. Cards CIR did not respond about are not in the map.
+     */
+    private Map<String, Boolean> inquire(List<String> cardIds) {
         ArrayOfCard arrayOfCard = new ArrayOfCard();
-        arrayOfCard.getCard().add(card);
+        for (String cardId : cardIds) {
+            Card card = new Card();
+            card.setCardID(cardId);
+            arrayOfCard.getCard().add(card);
+        }
 
         ServiceSoap serviceSoap = getCirService();
         InquireResult inquireResult = null;
         try {
+            inquiryCount.incrementAndGet();
             inquireResult = serviceSoap.inquire(arrayOfCard, getHolder());
         } catch (Exception e) {
             LOG.error("Exception calling CIR", e);
         }
 
         if (inquireResult == null) {
-            LOG.info("No result while querying CIR. Returning 'false' for identification: {}", identification);
-            return false;
+            LOG.info("No result while querying CIR. Returning 'false' for identifications: {}", cardIds);
+            return Collections.emptyMap();
         }
 
         Error error = inquireResult.getError();
@@ -86,19 +251,20 @@ public class CirAuthorization implements AuthorizationProvider {
             LOG.warn("Received error while querying CIR, ErrorCode: {}, ErrorTest: {}", error.getErrorCode(), error.getErrorText());
         }
 
-        boolean valid = false;
-        if (inquireResult.getCards() != null && inquireResult.getCards().getCard() != null
-                && inquireResult.getCards().getCard().get(0) != null) {
-            valid = inquireResult.getCards().getCard().get(0).isValid();
-        } else {
-            LOG.warn("CIR response didn't contain result. Returning 'false' for identification: {}", identification);
+        Map<String, Boolean> results = new HashMap<>();
+        if (inquireResult.getCards() != null && inquireResult.getCards().getCard() != null) {
+            for (Card card : inquireResult.getCards().getCard()) {
+                if (card != null && card.getCardID() != null) {
+                    results.put(card.getCardID(), card.isValid());
+                }
+            }
         }
 
-        return valid;
-    }
+        if (results.size() < cardIds.size()) {
+            LOG.warn("CIR response didn't contain result for all identifications. Returning 'false' for missing identifications of: {}", cardIds);
+        }
 
-    public void setCirService(ServiceSoap service) {
-        this.cirService = service;
+        return results;
     }
 
     /**
@@ -15,12 +15,17 @@
  */
 package io.motown.identificationauthorization.cirplugin;
 
+import io.motown.domain.api.chargingstation.TextualToken;
 import io.motown.identificationauthorization.cirplugin.cir.schema.*;
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.ArgumentCaptor;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
 
 import javax.xml.ws.Holder;
+import java.util.Map;
+import java.util.concurrent.*;
 
 import static io.motown.domain.api.chargingstation.test.ChargingStationTestUtils.IDENTIFYING_TOKEN;
 import static io.motown.identificationauthorization.cirplugin.CirPluginTestUtils.*;
@@ -107,4 +112,90 @@ public class CirAuthorizationTest {
         assertFalse(unreachableCirAuthorization.isValid(IDENTIFYING_TOKEN));
     }
 
+    @Test
+    public void testConcurrentRequestsAreInquiredInOneCall() throws Exception {
+        cirAuthorization.setCoalescingWindowInMillis(500);
+        when(serviceSoap.inquire(any(ArrayOfCard.class), any(Holder.class))).thenAnswer(new ValidWhenPrefixedAnswer());
+
+        Map<String, Future<Boolean>> results = validateConcurrently("VALID-1", "INVALID-2", "VALID-3");
+
+        assertTrue(results.get("VALID-1").get(5, TimeUnit.SECONDS));
+        assertFalse(results.get("INVALID-2").get(5, TimeUnit.SECONDS));
+        assertTrue(results.get("VALID-3").get(5, TimeUnit.SECONDS));
+
+        ArgumentCaptor<ArrayOfCard> arrayOfCardArgument = ArgumentCaptor.forClass(ArrayOfCard.class);
+        verify(serviceSoap).inquire(arrayOfCardArgument.capture(), any(Holder.class));
+        assertEquals(3, arrayOfCardArgument.getValue().getCard().size());
+        assertEquals(1, cirAuthorization.getInquiryCount());
+    }
+
+    @Test
+    public void testIdenticalConcurrentRequestsAreDeduplicated() throws Exception {
+        cirAuthorization.setCoalescingWindowInMillis(500);
+        when(serviceSoap.inquire(any(ArrayOfCard.class), any(Holder.class))).thenAnswer(new ValidWhenPrefixedAnswer());
+
+        ExecutorService executorService = Executors.newFixedThreadPool(2);
+        Future<Boolean> first = executorService.submit(validate("VALID-1"));
+        Future<Boolean> second = executorService.submit(validate("VALID-1"));
+
+        assertTrue(first.get(5, TimeUnit.SECONDS));
+        assertTrue(second.get(5, TimeUnit.SECONDS));
+        executorService.shutdown();
+
+        ArgumentCaptor<ArrayOfCard> arrayOfCardArgument = ArgumentCaptor.forClass(ArrayOfCard.class);
+        verify(serviceSoap).inquire(arrayOfCardArgument.capture(), any(Holder.class));
+        assertEquals(1, arrayOfCardArgument.getValue().getCard().size());
+        assertEquals(1, cirAuthorization.getCoalescedRequestCount());
+    }
+
+    @Test
+    public void testFullBatchIsInquiredWithoutWaitingForWindow() throws Exception {
+        cirAuthorization.setCoalescingWindowInMillis(60000);
+        cirAuthorization.setMaxCardsPerInquiry(2);
+        when(serviceSoap.inquire(any(ArrayOfCard.class), any(Holder.class))).thenAnswer(new ValidWhenPrefixedAnswer());
+
+        Map<String, Future<Boolean>> results = validateConcurrently("VALID-1", "VALID-2");
+
+        assertTrue(results.get("VALID-1").get(5, TimeUnit.SECONDS));
+        assertTrue(results.get("VALID-2").get(5, TimeUnit.SECONDS));
+        verify(serviceSoap).inquire(any(ArrayOfCard.class), any(Holder.class));
+    }
+
+    private Map<String, Future<Boolean>> validateConcurrently(String... cardIds) {
+        ExecutorService executorService = Executors.newFixedThreadPool(cardIds.length);
+        Map<String, Future<Boolean>> results = new ConcurrentHashMap<>();
+        for (String cardId : cardIds) {
+            results.put(cardId, executorService.submit(validate(cardId)));
+        }
+        executorService.shutdown();
+        return results;
+    }
+
+    private Callable<Boolean> validate(final String cardId) {
+        return new Callable<Boolean>() {
+            @Override
+            public Boolean call() {
+                return cirAuthorization.isValid(new TextualToken(cardId));
+            }
+        };
+    }
+
+    /**
+     * Responds to an inquiry with all requested cards, cards are valid if their id starts with 'VALID'.
+     */
+    private static class ValidWhenPrefixedAnswer implements Answer<InquireResult> {
+        @Override
+        public InquireResult answer(InvocationOnMock invocation) {
+            ArrayOfCard cards = new ArrayOfCard();
+            for (Card requested : ((ArrayOfCard) invocation.getArguments()[0]).getCard()) {
+                Card card = new Card();
+                card.setCardID(requested.getCardID());
+                card.setValid(requested.getCardID().startsWith("VALID"));
+                cards.getCard().add(card);
+            }
+            InquireResult result = new InquireResult();
+            result.setCards(cards);
+            return result;
+        }
+    }
 }
@@ -0,0 +1,285 @@
+/**
+ * Copyright (C) 2013 Motown.IO (info@motown.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.motown.ocpp.v15.soap;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import io.motown.domain.api.chargingstation.ChargingStationId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Executes requests to charging stations on a pool of worker threads, so the thread handling the event which triggered
+ * a request does not have to wait for the charging station to respond. One slow or unreachable charging station
+ * therefore only occupies a worker thread instead of stalling all other requests.
+ * <p/>
+ * Requests to the same charging station are executed one after another in the order they have been queued, as a
+ * charging station may depend on the order of requests (e.g. a change of configuration followed by a reset). Requests
+ * to different charging stations are executed concurrently.
+ * <p/>
+ * The number of requests which are queued or being executed is capped per charging station, and the queue of the pool
+ * is bounded. Requests exceeding either limit are rejected instead of piling up. A charging station's queue is removed
+ * once all its requests have been executed, so only charging stations with pending requests take up memory.
+ */
+public class ChargingStationRequestExecutor {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ChargingStationRequestExecutor.class);
+
+    private static final int DEFAULT_NUMBER_OF_THREADS = 16;
+
+    private static final int DEFAULT_QUEUE_CAPACITY = 10000;
+
+    private final ThreadPoolExecutor executor;
+
+    private final ConcurrentMap<ChargingStationId, RequestQueue> requestQueues = new ConcurrentHashMap<>();
+
+    private final AtomicLong rejectedRequestCount = new AtomicLong();
+
+    /**
+     * The maximum number of requests which can be queued or executed for a single charging station.
+     */
+    private int maxPendingRequestsPerChargingStation = 10;
+
+    public ChargingStationRequestExecutor() {
+        this(DEFAULT_NUMBER_OF_THREADS, DEFAULT_QUEUE_CAPACITY);
+    }
+
+    /**
+     * Creates a request executor.
+     *
+     * @param numberOfThreads the number of worker threads, which is the maximum number of requests awaiting a response.
+     * @param queueCapacity   the maximum number of charging stations with requests waiting for a worker thread.
+     */
+    public ChargingStationRequestExecutor(int numberOfThreads, int queueCapacity) {
+        this.executor = new ThreadPoolExecutor(numberOfThreads, numberOfThreads, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<Runnable>(queueCapacity),
+                new ThreadFactoryBuilder().setDaemon(true).setNameFormat("ocpp-soap-request-%d").build());
+    }
+
+    /**
+     * Queues a request to a charging station. The request is executed after all requests which have been queued
+     * earlier for the same charging station.
+     *
+     * @param chargingStationId the charging station's id.
+     * @param request           the request.
+     * @return true if the request has been queued, false if it has been rejected.
+     */
+    public boolean execute(ChargingStationId chargingStationId, Runnable request) {
+        while (true) {
+            RequestQueue requestQueue = getRequestQueue(chargingStationId);
+
+            synchronized (requestQueue) {
+                if (requestQueue.removed) {
+                    // the queue has been emptied and removed after it was looked up, look up its successor
+                    continue;
+                }
+
+                if (requestQueue.pendingRequestCount >= maxPendingRequestsPerChargingStation) {
+                    rejectedRequestCount.incrementAndGet();
+                    LOG.warn("Rejecting request to charging station [{}] as it has reached the maximum of [{}] pending requests", chargingStationId.getId(), maxPendingRequestsPerChargingStation);
+                    return false;
+                }
+
+                if (!requestQueue.draining) {
+                    if (!submitDrain(requestQueue)) {
+                        rejectedRequestCount.incrementAndGet();
+                        LOG.warn("Rejecting request to charging station [{}] as the request queue is full", chargingStationId.getId());
+                        if (requestQueue.requests.isEmpty()) {
+                            remove(requestQueue);
+                        }
+                        return false;
+                    }
+                    requestQueue.draining = true;
+                }
+
+                requestQueue.requests.add(request);
+                requestQueue.pendingRequestCount++;
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Stops accepting requests. Requests which have already been queued are still executed.
+     */
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    public void setMaxPendingRequestsPerChargingStation(int maxPendingRequestsPerChargingStation) {
+        this.maxPendingRequestsPerChargingStation = maxPendingRequestsPerChargingStation;
+    }
+
+    /**
+     * Gets the number of requests to a charging station which are queued or being executed.
+     *
+     * @param chargingStationId the charging station's id.
+     * @return the number of pending requests.
+     */
+    public int getPendingRequestCount(ChargingStationId chargingStationId) {
+        RequestQueue requestQueue = requestQueues.get(chargingStationId);
+        if (requestQueue == null) {
+            return 0;
+        }
+        synchronized (requestQueue) {
+            return requestQueue.pendingRequestCount;
+        }
+    }
+
+    /**
+     * Gets the number of charging stations with requests which are queued or being executed.
+     *
+     * @return the number of charging stations with pending requests.
+     */
+    public int getChargingStationCount() {
+        return requestQueues.size();
+    }
+
+    /**
+     * Gets the number of charging stations with requests waiting for a worker thread.
+     *
+     * @return the number of queued charging stations.
+     */
+    public int getQueuedRequestCount() {
+        return executor.getQueue().size();
+    }
+
+    /**
+     * Gets the number of requests which have been rejected because a limit was reached, since startup.
+     *
+     * @return the number of rejected requests.
+     */
+    public long getRejectedRequestCount() {
+        return rejectedRequestCount.get();
+    }
+
+    /**
+     * Submits a task to the pool which executes the queued requests of a charging station. Must be called while holding
+     * the lock of the queue; this is safe as the pool queue is bounded, so submitting never blocks.
+     *
+     * @param requestQueue the queue of the charging station.
+     * @return true if the task has been submitted, false if the pool rejected it.
+     */
+    private boolean submitDrain(final RequestQueue requestQueue) {
+        try {
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    drain(requestQueue);
+                }
+            });
+            return true;
+        } catch (RejectedExecutionException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Executes the requests of a charging station until its queue is empty, and then removes the queue.
+     *
+     * @param requestQueue the queue of the charging station.
+     */
+    private void drain(RequestQueue requestQueue) {
+        while (true) {
+            Runnable request;
+            synchronized (requestQueue) {
+                request = requestQueue.requests.poll();
+                if (request == null) {
+                    requestQueue.draining = false;
+                    remove(requestQueue);
+                    return;
+                }
+            }
+
+            try {
+                request.run();
+            } catch (RuntimeException e) {
+                LOG.error("Exception while executing request to charging station", e);
+            } catch (Error e) {
+                // this worker thread ends, continue with the remaining requests on another one
+                synchronized (requestQueue) {
+                    if (requestQueue.requests.isEmpty()) {
+                        requestQueue.draining = false;
+                        remove(requestQueue);
+                    } else if (!submitDrain(requestQueue)) {
+                        requestQueue.draining = false;
+                        LOG.error("Unable to continue executing the remaining [{}] requests to charging station [{}], they are executed with the next request", requestQueue.requests.size(), requestQueue.chargingStationId.getId());
+                    }
+                }
+                throw e;
+            } finally {
+                synchronized (requestQueue) {
+                    requestQueue.pendingRequestCount--;
+                }
+            }
+        }
+    }
+
+    /**
+     * Removes an empty queue. Must be called while holding the lock of the queue.
+     *
+     * @param requestQueue the queue of the charging station.
+     */
+    private void remove(RequestQueue requestQueue) {
+        requestQueue.removed = true;
+        requestQueues.remove(requestQueue.chargingStationId, requestQueue);
+    }
+
+    private RequestQueue getRequestQueue(ChargingStationId chargingStationId) {
+        RequestQueue requestQueue = requestQueues.get(chargingStationId);
+        if (requestQueue == null) {
+            RequestQueue created = new RequestQueue(chargingStationId);
+            requestQueue = requestQueues.putIfAbsent(chargingStationId, created);
+            if (requestQueue == null) {
+                requestQueue = created;
+            }
+        }
+        return requestQueue;
+    }
+
+    /**
+     * Requests of a single charging station, guarded by the lock of the queue itself.
+     */
+    private static final class RequestQueue {
+
+        private final ChargingStationId chargingStationId;
+
+        private final Queue<Runnable> requests = new ArrayDeque<>();
+
+        /**
+         * The number of requests which are queued or being executed.
+         */
+        private int pendingRequestCount;
+
+        /**
+         * Whether a worker thread has been submitted to execute the queued requests.
+         */
+        private boolean draining;
+
+        /**
+         * Whether the queue has been removed, a removed queue no longer accepts requests.
+         */
+        private boolean removed;
+
+        private RequestQueue(ChargingStationId chargingStationId) {
+            this.chargingStationId = chargingStationId;
+        }
+    }
+}
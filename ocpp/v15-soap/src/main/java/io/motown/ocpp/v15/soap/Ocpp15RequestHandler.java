@@ -26,6 +26,9 @@ import org.axonframework.common.annotation.MetaData;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.xml.ws.WebServiceException;
+import javax.xml.ws.soap.SOAPFaultException;
+import java.net.SocketTimeoutException;
 import java.util.Map;
 import java.util.Set;
 
@@ -38,280 +41,385 @@ public class Ocpp15RequestHandler implements OcppRequestHandler {
     private ChargingStationOcpp15Client chargingStationOcpp15Client;
     private AddOnIdentity addOnIdentity;
 
-    @Override
-    public void handle(ConfigurationItemsRequestedEvent event) {
-        LOG.info("Handling ConfigurationItemsRequestedEvent");
-        Map<String, String> configurationItemMap = chargingStationOcpp15Client.getConfiguration(event.getChargingStationId(), event.getKeys());
+    /**
+     * Optional executor for the requests to charging stations, if not set requests are executed on the thread
+     * handling the event.
+     */
+    private ChargingStationRequestExecutor requestExecutor;
 
-        domainService.receiveConfigurationItems(event.getChargingStationId(), toConfigurationItems(configurationItemMap), addOnIdentity);
+    @Override
+    public void handle(final ConfigurationItemsRequestedEvent event) {
+        dispatch(event.getChargingStationId(), null, new Runnable() {
+            @Override
+            public void run() {
+                LOG.info("Handling ConfigurationItemsRequestedEvent");
+                Map<String, String> configurationItemMap = chargingStationOcpp15Client.getConfiguration(event.getChargingStationId(), event.getKeys());
+
+                domainService.receiveConfigurationItems(event.getChargingStationId(), toConfigurationItems(configurationItemMap), addOnIdentity);
+            }
+        });
     }
 
     /**
      * {@inheritDoc}
      */
     @Override
-    public void handle(StopTransactionRequestedEvent event, CorrelationToken correlationToken) {
-        LOG.info("StopTransactionRequestedEvent");
-
-        if (event.getTransactionId() instanceof NumberedTransactionId) {
-            NumberedTransactionId transactionId = (NumberedTransactionId) event.getTransactionId();
-            chargingStationOcpp15Client.stopTransaction(event.getChargingStationId(), transactionId.getNumber());
-        } else {
-            LOG.warn("StopTransactionRequestedEvent does not contain a NumberedTransactionId. Event: {}", event);
-        }
+    public void handle(final StopTransactionRequestedEvent event, final CorrelationToken correlationToken) {
+        dispatch(event.getChargingStationId(), correlationToken, new Runnable() {
+            @Override
+            public void run() {
+                LOG.info("StopTransactionRequestedEvent");
+
+                if (event.getTransactionId() instanceof NumberedTransactionId) {
+                    NumberedTransactionId transactionId = (NumberedTransactionId) event.getTransactionId();
+                    chargingStationOcpp15Client.stopTransaction(event.getChargingStationId(), transactionId.getNumber());
+                } else {
+                    LOG.warn("StopTransactionRequestedEvent does not contain a NumberedTransactionId. Event: {}", event);
+                }
+            }
+        });
     }
 
     /**
      * {@inheritDoc}
      */
     @Override
-    public void handle(SoftResetChargingStationRequestedEvent event, CorrelationToken correlationToken) {
-        LOG.info("SoftResetChargingStationRequestedEvent");
-        chargingStationOcpp15Client.softReset(event.getChargingStationId());
+    public void handle(final SoftResetChargingStationRequestedEvent event, final CorrelationToken correlationToken) {
+        dispatch(event.getChargingStationId(), correlationToken, new Runnable() {
+            @Override
+            public void run() {
+                LOG.info("SoftResetChargingStationRequestedEvent");
+                chargingStationOcpp15Client.softReset(event.getChargingStationId());
+            }
+        });
     }
 
     /**
      * {@inheritDoc}
      */
     @Override
-    public void handle(HardResetChargingStationRequestedEvent event, CorrelationToken correlationToken) {
-        LOG.info("HardResetChargingStationRequestedEvent");
-        chargingStationOcpp15Client.hardReset(event.getChargingStationId());
+    public void handle(final HardResetChargingStationRequestedEvent event, final CorrelationToken correlationToken) {
+        dispatch(event.getChargingStationId(), correlationToken, new Runnable() {
+            @Override
+            public void run() {
+                LOG.info("HardResetChargingStationRequestedEvent");
+                chargingStationOcpp15Client.hardReset(event.getChargingStationId());
+            }
+        });
     }
 
     /**
      * {@inheritDoc}
      */
     @Override
-    public void handle(StartTransactionRequestedEvent event, CorrelationToken correlationToken) {
-        LOG.info("StartTransactionRequestedEvent");
-        chargingStationOcpp15Client.startTransaction(event.getChargingStationId(), event.getIdentifyingToken(), event.getEvseId());
+    public void handle(final StartTransactionRequestedEvent event, final CorrelationToken correlationToken) {
+        dispatch(event.getChargingStationId(), correlationToken, new Runnable() {
+            @Override
+            public void run() {
+                LOG.info("StartTransactionRequestedEvent");
+                chargingStationOcpp15Client.startTransaction(event.getChargingStationId(), event.getIdentifyingToken(), event.getEvseId());
+            }
+        });
     }
 
     @Override
-    public void handle(UnlockEvseRequestedEvent event, CorrelationToken correlationToken) {
-        LOG.info("UnlockEvseRequestedEvent");
-        RequestResult requestResult = chargingStationOcpp15Client.unlockConnector(event.getChargingStationId(), event.getEvseId());
-
-        switch (requestResult) {
-            case SUCCESS:
-                domainService.informUnlockEvse(event.getChargingStationId(), event.getEvseId(), correlationToken, addOnIdentity);
-                break;
-            case FAILURE:
-                LOG.info("Failed to unlock evse {} on chargingstation {}", event.getEvseId(), event.getChargingStationId().getId());
-                break;
-            default:
-                throw new AssertionError(String.format("Unkown unlock evse response status: '%s'", requestResult));
-        }
+    public void handle(final UnlockEvseRequestedEvent event, final CorrelationToken correlationToken) {
+        dispatch(event.getChargingStationId(), correlationToken, new Runnable() {
+            @Override
+            public void run() {
+                LOG.info("UnlockEvseRequestedEvent");
+                RequestResult requestResult = chargingStationOcpp15Client.unlockConnector(event.getChargingStationId(), event.getEvseId());
+
+                switch (requestResult) {
+                    case SUCCESS:
+                        domainService.informUnlockEvse(event.getChargingStationId(), event.getEvseId(), correlationToken, addOnIdentity);
+                        break;
+                    case FAILURE:
+                        LOG.info("Failed to unlock evse {} on chargingstation {}", event.getEvseId(), event.getChargingStationId().getId());
+                        break;
+                    default:
+                        throw new AssertionError(String.format("Unkown unlock evse response status: '%s'", requestResult));
+                }
+            }
+        });
     }
 
     @Override
-    public void handle(ChangeChargingStationAvailabilityToInoperativeRequestedEvent event, CorrelationToken correlationToken) {
-        LOG.info("OCPP 1.5 ChangeChargingStationAvailabilityToInoperativeRequestedEvent");
-        EvseId chargingStationEvseId = new EvseId(0);
-        RequestResult requestResult = chargingStationOcpp15Client.changeAvailabilityToInoperative(event.getChargingStationId(), chargingStationEvseId);
-
-        switch (requestResult) {
-            case SUCCESS:
-                domainService.changeChargingStationAvailabilityToInoperative(event.getChargingStationId(), correlationToken, addOnIdentity);
-                break;
-            case FAILURE:
-                LOG.info("Failed to set availability of chargingstation {} to inoperative", event.getChargingStationId().getId());
-                break;
-            default:
-                throw new AssertionError(String.format("Unkown status for change availability to inoperative: '%s'", requestResult));
-        }
+    public void handle(final ChangeChargingStationAvailabilityToInoperativeRequestedEvent event, final CorrelationToken correlationToken) {
+        dispatch(event.getChargingStationId(), correlationToken, new Runnable() {
+            @Override
+            public void run() {
+                LOG.info("OCPP 1.5 ChangeChargingStationAvailabilityToInoperativeRequestedEvent");
+                EvseId chargingStationEvseId = new EvseId(0);
+                RequestResult requestResult = chargingStationOcpp15Client.changeAvailabilityToInoperative(event.getChargingStationId(), chargingStationEvseId);
+
+                switch (requestResult) {
+                    case SUCCESS:
+                        domainService.changeChargingStationAvailabilityToInoperative(event.getChargingStationId(), correlationToken, addOnIdentity);
+                        break;
+                    case FAILURE:
+                        LOG.info("Failed to set availability of chargingstation {} to inoperative", event.getChargingStationId().getId());
+                        break;
+                    default:
+                        throw new AssertionError(String.format("Unkown status for change availability to inoperative: '%s'", requestResult));
+                }
+            }
+        });
     }
 
     @Override
-    public void handle(ChangeChargingStationAvailabilityToOperativeRequestedEvent event, @MetaData(CorrelationToken.KEY) CorrelationToken correlationToken) {
-        LOG.info("OCPP 1.5 ChangeChargingStationAvailabilityToOperativeRequestedEvent");
-        EvseId chargingStationEvseId = new EvseId(0);
-        RequestResult requestResult = chargingStationOcpp15Client.changeAvailabilityToOperative(event.getChargingStationId(), chargingStationEvseId);
-
-        switch (requestResult) {
-            case SUCCESS:
-                domainService.changeChargingStationAvailabilityToOperative(event.getChargingStationId(), correlationToken, addOnIdentity);
-                break;
-            case FAILURE:
-                LOG.info("Failed to set availability of chargingstation {} to operative", event.getChargingStationId().getId());
-                break;
-            default:
-                throw new AssertionError(String.format("Unkown status for change availability to operative: '%s'", requestResult));
-        }
+    public void handle(final ChangeChargingStationAvailabilityToOperativeRequestedEvent event, @MetaData(CorrelationToken.KEY) final CorrelationToken correlationToken) {
+        dispatch(event.getChargingStationId(), correlationToken, new Runnable() {
+            @Override
+            public void run() {
+                LOG.info("OCPP 1.5 ChangeChargingStationAvailabilityToOperativeRequestedEvent");
+                EvseId chargingStationEvseId = new EvseId(0);
+                RequestResult requestResult = chargingStationOcpp15Client.changeAvailabilityToOperative(event.getChargingStationId(), chargingStationEvseId);
+
+                switch (requestResult) {
+                    case SUCCESS:
+                        domainService.changeChargingStationAvailabilityToOperative(event.getChargingStationId(), correlationToken, addOnIdentity);
+                        break;
+                    case FAILURE:
+                        LOG.info("Failed to set availability of chargingstation {} to operative", event.getChargingStationId().getId());
+                        break;
+                    default:
+                        throw new AssertionError(String.format("Unkown status for change availability to operative: '%s'", requestResult));
+                }
+            }
+        });
     }
 
     @Override
-    public void handle(ChangeComponentAvailabilityToInoperativeRequestedEvent event, @MetaData(CorrelationToken.KEY) CorrelationToken correlationToken) {
-        LOG.info("OCPP 1.5 ChangeComponentAvailabilityToInoperativeRequestedEvent");
-        RequestResult requestResult = chargingStationOcpp15Client.changeAvailabilityToInoperative(event.getChargingStationId(), (EvseId) event.getComponentId());
-
-        switch (requestResult) {
-            case SUCCESS:
-                domainService.changeComponentAvailabilityToInoperative(event.getChargingStationId(), event.getComponentId(), ChargingStationComponent.EVSE, correlationToken, addOnIdentity);
-                break;
-            case FAILURE:
-                LOG.info("Failed to set availability of evse {} on chargingstation {} to inoperative", event.getComponentId().getId(), event.getChargingStationId().getId());
-                break;
-            default:
-                throw new AssertionError(String.format("Unkown status for change component availability to inoperative: '%s'", requestResult));
-        }
+    public void handle(final ChangeComponentAvailabilityToInoperativeRequestedEvent event, @MetaData(CorrelationToken.KEY) final CorrelationToken correlationToken) {
+        dispatch(event.getChargingStationId(), correlationToken, new Runnable() {
+            @Override
+            public void run() {
+                LOG.info("OCPP 1.5 ChangeComponentAvailabilityToInoperativeRequestedEvent");
+                RequestResult requestResult = chargingStationOcpp15Client.changeAvailabilityToInoperative(event.getChargingStationId(), (EvseId) event.getComponentId());
+
+                switch (requestResult) {
+                    case SUCCESS:
+                        domainService.changeComponentAvailabilityToInoperative(event.getChargingStationId(), event.getComponentId(), ChargingStationComponent.EVSE, correlationToken, addOnIdentity);
+                        break;
+                    case FAILURE:
+                        LOG.info("Failed to set availability of evse {} on chargingstation {} to inoperative", event.getComponentId().getId(), event.getChargingStationId().getId());
+                        break;
+                    default:
+                        throw new AssertionError(String.format("Unkown status for change component availability to inoperative: '%s'", requestResult));
+                }
+            }
+        });
     }
 
     @Override
-    public void handle(ChangeComponentAvailabilityToOperativeRequestedEvent event, CorrelationToken correlationToken) {
-        LOG.info("OCPP 1.5 ChangeComponentAvailabilityToOperativeRequestedEvent");
-        RequestResult requestResult = chargingStationOcpp15Client.changeAvailabilityToOperative(event.getChargingStationId(), (EvseId) event.getComponentId());
-
-        switch (requestResult) {
-            case SUCCESS:
-                domainService.changeComponentAvailabilityToOperative(event.getChargingStationId(), event.getComponentId(), ChargingStationComponent.EVSE, correlationToken, addOnIdentity);
-                break;
-            case FAILURE:
-                LOG.info("Failed to set availability of evse {} on chargingstation {} to operative", event.getComponentId().getId(), event.getChargingStationId().getId());
-                break;
-            default:
-                throw new AssertionError(String.format("Unkown status for change component availability to operative: '%s'", requestResult));
-        }
+    public void handle(final ChangeComponentAvailabilityToOperativeRequestedEvent event, final CorrelationToken correlationToken) {
+        dispatch(event.getChargingStationId(), correlationToken, new Runnable() {
+            @Override
+            public void run() {
+                LOG.info("OCPP 1.5 ChangeComponentAvailabilityToOperativeRequestedEvent");
+                RequestResult requestResult = chargingStationOcpp15Client.changeAvailabilityToOperative(event.getChargingStationId(), (EvseId) event.getComponentId());
+
+                switch (requestResult) {
+                    case SUCCESS:
+                        domainService.changeComponentAvailabilityToOperative(event.getChargingStationId(), event.getComponentId(), ChargingStationComponent.EVSE, correlationToken, addOnIdentity);
+                        break;
+                    case FAILURE:
+                        LOG.info("Failed to set availability of evse {} on chargingstation {} to operative", event.getComponentId().getId(), event.getChargingStationId().getId());
+                        break;
+                    default:
+                        throw new AssertionError(String.format("Unkown status for change component availability to operative: '%s'", requestResult));
+                }
+            }
+        });
     }
 
     @Override
-    public void handle(DataTransferRequestedEvent event, CorrelationToken correlationToken) {
-        LOG.info("DataTransferRequestedEvent");
-        DataTransferRequestResult result = chargingStationOcpp15Client.dataTransfer(event.getChargingStationId(), event.getDataTransferMessage());
-
-        if (result.isSuccessful()) {
-            String responseData = result.getData();
-            if (responseData != null) {
-                domainService.informDataTransferResponse(event.getChargingStationId(), responseData, correlationToken, addOnIdentity);
+    public void handle(final DataTransferRequestedEvent event, final CorrelationToken correlationToken) {
+        dispatch(event.getChargingStationId(), correlationToken, new Runnable() {
+            @Override
+            public void run() {
+                LOG.info("DataTransferRequestedEvent");
+                DataTransferRequestResult result = chargingStationOcpp15Client.dataTransfer(event.getChargingStationId(), event.getDataTransferMessage());
+
+                if (result.isSuccessful()) {
+                    String responseData = result.getData();
+                    if (responseData != null) {
+                        domainService.informDataTransferResponse(event.getChargingStationId(), responseData, correlationToken, addOnIdentity);
+                    }
+                } else {
+                    LOG.info("Failed to request datatransfer to chargingstation {}", event.getChargingStationId().getId());
+                }
             }
-        } else {
-            LOG.info("Failed to request datatransfer to chargingstation {}", event.getChargingStationId().getId());
-        }
+        });
     }
 
     /**
      * {@inheritDoc}
      */
     @Override
-    public void handle(ChangeConfigurationItemRequestedEvent event, CorrelationToken correlationToken) {
-        boolean hasConfigurationChanged = chargingStationOcpp15Client.changeConfiguration(event.getChargingStationId(), event.getConfigurationItem());
-
-        if (hasConfigurationChanged) {
-            domainService.changeConfiguration(event.getChargingStationId(), event.getConfigurationItem(), correlationToken, addOnIdentity);
-        }
+    public void handle(final ChangeConfigurationItemRequestedEvent event, final CorrelationToken correlationToken) {
+        dispatch(event.getChargingStationId(), correlationToken, new Runnable() {
+            @Override
+            public void run() {
+                boolean hasConfigurationChanged = chargingStationOcpp15Client.changeConfiguration(event.getChargingStationId(), event.getConfigurationItem());
+
+                if (hasConfigurationChanged) {
+                    domainService.changeConfiguration(event.getChargingStationId(), event.getConfigurationItem(), correlationToken, addOnIdentity);
+                }
+            }
+        });
     }
 
     @Override
-    public void handle(DiagnosticsRequestedEvent event, CorrelationToken correlationToken) {
-        LOG.info("DiagnosticsRequestedEvent");
-        String diagnosticsFilename = chargingStationOcpp15Client.getDiagnostics(event.getChargingStationId(), event.getDiagnosticsUploadSettings());
-
-        domainService.diagnosticsFileNameReceived(event.getChargingStationId(), diagnosticsFilename, correlationToken, addOnIdentity);
+    public void handle(final DiagnosticsRequestedEvent event, final CorrelationToken correlationToken) {
+        dispatch(event.getChargingStationId(), correlationToken, new Runnable() {
+            @Override
+            public void run() {
+                LOG.info("DiagnosticsRequestedEvent");
+                String diagnosticsFilename = chargingStationOcpp15Client.getDiagnostics(event.getChargingStationId(), event.getDiagnosticsUploadSettings());
+
+                domainService.diagnosticsFileNameReceived(event.getChargingStationId(), diagnosticsFilename, correlationToken, addOnIdentity);
+            }
+        });
     }
 
     @Override
-    public void handle(ClearCacheRequestedEvent event, CorrelationToken correlationToken) {
-        LOG.info("ClearCacheRequestedEvent");
-        boolean result = chargingStationOcpp15Client.clearCache(event.getChargingStationId());
-
-        if (result) {
-            domainService.informCacheCleared(event.getChargingStationId(), correlationToken, addOnIdentity);
-        } else {
-            LOG.info("Unable to clear cache for [{}]", event.getChargingStationId());
-        }
+    public void handle(final ClearCacheRequestedEvent event, final CorrelationToken correlationToken) {
+        dispatch(event.getChargingStationId(), correlationToken, new Runnable() {
+            @Override
+            public void run() {
+                LOG.info("ClearCacheRequestedEvent");
+                boolean result = chargingStationOcpp15Client.clearCache(event.getChargingStationId());
+
+                if (result) {
+                    domainService.informCacheCleared(event.getChargingStationId(), correlationToken, addOnIdentity);
+                } else {
+                    LOG.info("Unable to clear cache for [{}]", event.getChargingStationId());
+                }
+            }
+        });
     }
 
     @Override
-    public void handle(FirmwareUpdateRequestedEvent event) {
-        LOG.info("FirmwareUpdateRequestedEvent");
-        Map<String, String> attributes = event.getAttributes();
-
-        String attrNumRetries = null;
-        String attrRetryInterval = null;
-        if (attributes != null) {
-            attrNumRetries = attributes.get(FirmwareUpdateAttributeKey.NUM_RETRIES);
-            attrRetryInterval = attributes.get(FirmwareUpdateAttributeKey.RETRY_INTERVAL);
-        }
-        Integer numRetries = (attrNumRetries != null && !"".equals(attrNumRetries)) ? Integer.parseInt(attrNumRetries) : null;
-        Integer retryInterval = (attrRetryInterval != null && !"".equals(attrRetryInterval)) ? Integer.parseInt(attrRetryInterval) : null;
-
-        chargingStationOcpp15Client.updateFirmware(event.getChargingStationId(), event.getUpdateLocation(), event.getRetrieveDate(), numRetries, retryInterval);
+    public void handle(final FirmwareUpdateRequestedEvent event) {
+        dispatch(event.getChargingStationId(), null, new Runnable() {
+            @Override
+            public void run() {
+                LOG.info("FirmwareUpdateRequestedEvent");
+                Map<String, String> attributes = event.getAttributes();
+
+                String attrNumRetries = null;
+                String attrRetryInterval = null;
+                if (attributes != null) {
+                    attrNumRetries = attributes.get(FirmwareUpdateAttributeKey.NUM_RETRIES);
+                    attrRetryInterval = attributes.get(FirmwareUpdateAttributeKey.RETRY_INTERVAL);
+                }
+                Integer numRetries = (attrNumRetries != null && !"".equals(attrNumRetries)) ? Integer.parseInt(attrNumRetries) : null;
+                Integer retryInterval = (attrRetryInterval != null && !"".equals(attrRetryInterval)) ? Integer.parseInt(attrRetryInterval) : null;
+
+                chargingStationOcpp15Client.updateFirmware(event.getChargingStationId(), event.getUpdateLocation(), event.getRetrieveDate(), numRetries, retryInterval);
+            }
+        });
     }
 
     @Override
-    public void handle(AuthorizationListVersionRequestedEvent event, CorrelationToken correlationToken) {
-        LOG.info("AuthorizationListVersionRequestedEvent");
+    public void handle(final AuthorizationListVersionRequestedEvent event, final CorrelationToken correlationToken) {
+        dispatch(event.getChargingStationId(), correlationToken, new Runnable() {
+            @Override
+            public void run() {
+                LOG.info("AuthorizationListVersionRequestedEvent");
 
-        int currentVersion = chargingStationOcpp15Client.getAuthorizationListVersion(event.getChargingStationId());
+                int currentVersion = chargingStationOcpp15Client.getAuthorizationListVersion(event.getChargingStationId());
 
-        domainService.authorizationListVersionReceived(event.getChargingStationId(), currentVersion, correlationToken, addOnIdentity);
+                domainService.authorizationListVersionReceived(event.getChargingStationId(), currentVersion, correlationToken, addOnIdentity);
+            }
+        });
     }
 
     @Override
-    public void handle(SendAuthorizationListRequestedEvent event, CorrelationToken correlationToken) {
-        LOG.info("SendAuthorizationListRequestedEvent");
-
-        RequestResult requestResult = chargingStationOcpp15Client.sendAuthorizationList(event.getChargingStationId(), event.getAuthorizationListHash(), event.getAuthorizationListVersion(), event.getAuthorizationList(), event.getUpdateType());
-
-        switch (requestResult) {
-            case SUCCESS:
-                domainService.authorizationListChange(event.getChargingStationId(), event.getAuthorizationListVersion(), event.getUpdateType(), event.getAuthorizationList(), correlationToken, addOnIdentity);
-                break;
-            case FAILURE:
-                LOG.info("Failed to send authorization list to charging station {}", event.getChargingStationId().getId());
-                break;
-            default:
-                throw new AssertionError(String.format("Unkown send authorization list response status: '%s'", requestResult));
-        }
+    public void handle(final SendAuthorizationListRequestedEvent event, final CorrelationToken correlationToken) {
+        dispatch(event.getChargingStationId(), correlationToken, new Runnable() {
+            @Override
+            public void run() {
+                LOG.info("SendAuthorizationListRequestedEvent");
+
+                RequestResult requestResult = chargingStationOcpp15Client.sendAuthorizationList(event.getChargingStationId(), event.getAuthorizationListHash(), event.getAuthorizationListVersion(), event.getAuthorizationList(), event.getUpdateType());
+
+                switch (requestResult) {
+                    case SUCCESS:
+                        domainService.authorizationListChange(event.getChargingStationId(), event.getAuthorizationListVersion(), event.getUpdateType(), event.getAuthorizationList(), correlationToken, addOnIdentity);
+                        break;
+                    case FAILURE:
+                        LOG.info("Failed to send authorization list to charging station {}", event.getChargingStationId().getId());
+                        break;
+                    default:
+                        throw new AssertionError(String.format("Unkown send authorization list response status: '%s'", requestResult));
+                }
+            }
+        });
     }
 
     @Override
-    public void handle(ReserveNowRequestedEvent event, CorrelationToken correlationToken) {
-        LOG.info("ReserveNowRequestedEvent");
-
-        NumberedReservationId reservationIdentifier = domainService.generateReservationIdentifier(event.getChargingStationId(), event.getProtocol());
-
-        ReservationStatus reservationStatus = chargingStationOcpp15Client.reserveNow(event.getChargingStationId(), event.getEvseId(), event.getIdentifyingToken(), event.getExpiryDate(), event.getParentIdentifyingToken(), reservationIdentifier.getNumber());
-
-        switch (reservationStatus) {
-            case ACCEPTED:
-                domainService.informReserved(event.getChargingStationId(), reservationIdentifier, event.getEvseId(), event.getExpiryDate(), correlationToken, addOnIdentity);
-                break;
-            case FAULTED:
-            case OCCUPIED:
-            case UNAVAILABLE:
-            case REJECTED:
-                String reservationStatusMessage = reservationStatus.name();
-                LOG.info("Failed to reserve evse {} on charging station {}: {}", event.getEvseId().getId(), event.getChargingStationId().getId(), reservationStatusMessage);
-                break;
-            default:
-                throw new AssertionError(String.format("Unkown reserve now response response status: '%s'", reservationStatus));
-        }
+    public void handle(final ReserveNowRequestedEvent event, final CorrelationToken correlationToken) {
+        dispatch(event.getChargingStationId(), correlationToken, new Runnable() {
+            @Override
+            public void run() {
+                LOG.info("ReserveNowRequestedEvent");
+
+                NumberedReservationId reservationIdentifier = domainService.generateReservationIdentifier(event.getChargingStationId(), event.getProtocol());
+
+                ReservationStatus reservationStatus = chargingStationOcpp15Client.reserveNow(event.getChargingStationId(), event.getEvseId(), event.getIdentifyingToken(), event.getExpiryDate(), event.getParentIdentifyingToken(), reservationIdentifier.getNumber());
+
+                switch (reservationStatus) {
+                    case ACCEPTED:
+                        domainService.informReserved(event.getChargingStationId(), reservationIdentifier, event.getEvseId(), event.getExpiryDate(), correlationToken, addOnIdentity);
+                        break;
+                    case FAULTED:
+                    case OCCUPIED:
+                    case UNAVAILABLE:
+                    case REJECTED:
+                        String reservationStatusMessage = reservationStatus.name();
+                        LOG.info("Failed to reserve evse {} on charging station {}: {}", event.getEvseId().getId(), event.getChargingStationId().getId(), reservationStatusMessage);
+                        break;
+                    default:
+                        throw new AssertionError(String.format("Unkown reserve now response response status: '%s'", reservationStatus));
+                }
+            }
+        });
     }
 
     @Override
-    public void handle(CancelReservationRequestedEvent event, CorrelationToken correlationToken) {
-        LOG.info("CancelReservationRequestedEvent");
-
-        RequestResult requestResult = chargingStationOcpp15Client.cancelReservation(event.getChargingStationId(), ((NumberedReservationId) event.getReservationId()).getNumber());
-
-        switch (requestResult) {
-            case SUCCESS:
-                domainService.informReservationCancelled(event.getChargingStationId(), event.getReservationId(), correlationToken, addOnIdentity);
-                break;
-            case FAILURE:
-                LOG.info("Failed to cancel reservation with reservationId {}", event.getReservationId().getId());
-                break;
-            default:
-                throw new AssertionError(String.format("Unkown cancel reservation response status: '%s'", requestResult));
-        }
+    public void handle(final CancelReservationRequestedEvent event, final CorrelationToken correlationToken) {
+        dispatch(event.getChargingStationId(), correlationToken, new Runnable() {
+            @Override
+            public void run() {
+                LOG.info("CancelReservationRequestedEvent");
+
+                RequestResult requestResult = chargingStationOcpp15Client.cancelReservation(event.getChargingStationId(), ((NumberedReservationId) event.getReservationId()).getNumber());
+
+                switch (requestResult) {
+                    case SUCCESS:
+                        domainService.informReservationCancelled(event.getChargingStationId(), event.getReservationId(), correlationToken, addOnIdentity);
+                        break;
+                    case FAILURE:
+                        LOG.info("Failed to cancel reservation with reservationId {}", event.getReservationId().getId());
+                        break;
+                    default:
+                        throw new AssertionError(String.format("Unkown cancel reservation response status: '%s'", requestResult));
+                }
+            }
+        });
     }
 
     public void setChargingStationOcpp15Client(ChargingStationOcpp15Client chargingStationOcpp15Client) {
         this.chargingStationOcpp15Client = chargingStationOcpp15Client;
     }
 
+    public void setRequestExecutor(ChargingStationRequestExecutor requestExecutor) {
+        this.requestExecutor = requestExecutor;
+    }
+
     public void setDomainService(DomainService domainService) {
         this.domainService = domainService;
     }
@@ -326,6 +434,63 @@ public class Ocpp15RequestHandler implements OcppRequestHandler {
         addOnIdentity = new TypeBasedAddOnIdentity(ADD_ON_TYPE, id);
     }
 
+    /**
+     * Executes a request to a charging station, either right away or through the request executor. When executed
+     * through the executor, failures are reported to the domain instead of propagated to the caller, so a caller waiting
+     * for the result does not have to wait until it times out.
+     *
+     * @param chargingStationId the charging station's id.
+     * @param correlationToken  the token of the event which triggered the request, can be null.
+     * @param request           the request.
+     */
+    private void dispatch(final ChargingStationId chargingStationId, final CorrelationToken correlationToken, final Runnable request) {
+        if (requestExecutor == null) {
+            request.run();
+            return;
+        }
+
+        boolean queued = requestExecutor.execute(chargingStationId, new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    request.run();
+                } catch (WebServiceException e) {
+                    LOG.warn("Request to charging station [{}] failed", chargingStationId.getId(), e);
+                    informRequestFailed(chargingStationId, toRequestFailureReason(e), correlationToken);
+                } catch (RuntimeException | AssertionError e) {
+                    // the client throws assertion errors on responses it does not understand
+                    LOG.error("Request to charging station [{}] failed", chargingStationId.getId(), e);
+                    informRequestFailed(chargingStationId, RequestFailureReason.ERROR_RESPONSE, correlationToken);
+                }
+            }
+        });
+
+        if (!queued) {
+            informRequestFailed(chargingStationId, RequestFailureReason.NOT_DELIVERED, correlationToken);
+        }
+    }
+
+    private void informRequestFailed(ChargingStationId chargingStationId, RequestFailureReason reason, CorrelationToken correlationToken) {
+        // without a correlation token nobody is waiting for the result of the request
+        if (correlationToken != null) {
+            domainService.informRequestFailed(chargingStationId, reason, correlationToken, addOnIdentity);
+        }
+    }
+
+    private RequestFailureReason toRequestFailureReason(WebServiceException e) {
+        if (e instanceof SOAPFaultException) {
+            return RequestFailureReason.ERROR_RESPONSE;
+        }
+
+        for (Throwable cause = e.getCause(); cause != null; cause = cause.getCause()) {
+            if (cause instanceof SocketTimeoutException) {
+                return RequestFailureReason.TIMEOUT;
+            }
+        }
+
+        return RequestFailureReason.NOT_DELIVERED;
+    }
+
     /**
      * Converts a {@code Map} of {@code String}s and {@code String}s to a {@code Set} of {@code ConfigurationItem}s.
      *
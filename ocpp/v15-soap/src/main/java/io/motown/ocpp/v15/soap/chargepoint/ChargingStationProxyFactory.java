@@ -15,6 +15,9 @@
  */
 package io.motown.ocpp.v15.soap.chargepoint;
 
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
 import io.motown.ocpp.v15.soap.chargepoint.schema.ChargePointService;
 import org.apache.cxf.binding.soap.Soap12;
 import org.apache.cxf.binding.soap.SoapBindingConfiguration;
@@ -22,16 +25,61 @@ import org.apache.cxf.jaxws.JaxWsProxyFactoryBean;
 import org.apache.cxf.ws.addressing.WSAddressingFeature;
 
 import javax.xml.ws.BindingProvider;
+import java.util.concurrent.TimeUnit;
 
+/**
+ * Creates the web service proxies of charging stations. Creating a proxy means building the service model from the
+ * service class, which takes far longer than the call itself, so proxies are cached per address. A proxy is only
+ * configured when it is created, after which it can be shared between threads.
+ */
 public class ChargingStationProxyFactory {
 
+    private static final int DEFAULT_MAXIMUM_CACHE_SIZE = 10000;
+
+    private static final long DEFAULT_CACHE_EXPIRY_IN_SECONDS = 3600;
+
+    private final LoadingCache<String, ChargePointService> proxies;
+
+    public ChargingStationProxyFactory() {
+        this(DEFAULT_MAXIMUM_CACHE_SIZE, DEFAULT_CACHE_EXPIRY_IN_SECONDS);
+    }
+
+    /**
+     * Creates a proxy factory.
+     *
+     * @param maximumCacheSize     the maximum number of proxies to keep.
+     * @param cacheExpiryInSeconds the time in seconds after which an unused proxy is discarded.
+     */
+    public ChargingStationProxyFactory(int maximumCacheSize, long cacheExpiryInSeconds) {
+        this.proxies = CacheBuilder.newBuilder()
+                .maximumSize(maximumCacheSize)
+                .expireAfterAccess(cacheExpiryInSeconds, TimeUnit.SECONDS)
+                .build(new CacheLoader<String, ChargePointService>() {
+                    @Override
+                    public ChargePointService load(String chargingStationAddress) {
+                        return createProxy(chargingStationAddress);
+                    }
+                });
+    }
+
     /**
-     * Creates a charging station web service proxy.
+     * Gets the charging station web service proxy for an address, the proxy is created if there is none yet.
      *
      * @param chargingStationAddress address of the charging station.
      * @return charging station web service proxy
      */
     public ChargePointService createChargingStationService(String chargingStationAddress) {
+        return proxies.getUnchecked(chargingStationAddress);
+    }
+
+    /**
+     * Discards all cached proxies.
+     */
+    public void clearCache() {
+        proxies.invalidateAll();
+    }
+
+    private ChargePointService createProxy(String chargingStationAddress) {
         JaxWsProxyFactoryBean factory = new JaxWsProxyFactoryBean();
         factory.setServiceClass(ChargePointService.class);
 
@@ -0,0 +1,206 @@
+/**
+ * Copyright (C) 2013 Motown.IO (info@motown.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.motown.ocpp.v15.soap;
+
+import io.motown.domain.api.chargingstation.ChargingStationId;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static io.motown.domain.api.chargingstation.test.ChargingStationTestUtils.CHARGING_STATION_ID;
+import static org.junit.Assert.*;
+
+public class ChargingStationRequestExecutorTest {
+
+    private ChargingStationRequestExecutor executor;
+
+    private CountDownLatch release;
+
+    @Before
+    public void setUp() {
+        executor = new ChargingStationRequestExecutor(2, 10);
+        release = new CountDownLatch(1);
+    }
+
+    @After
+    public void tearDown() {
+        release.countDown();
+        executor.shutdown();
+    }
+
+    @Test
+    public void requestIsExecuted() throws InterruptedException {
+        final CountDownLatch executed = new CountDownLatch(1);
+
+        assertTrue(executor.execute(CHARGING_STATION_ID, new Runnable() {
+            @Override
+            public void run() {
+                executed.countDown();
+            }
+        }));
+
+        assertTrue(executed.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void requestIsRejectedWhenChargingStationMaximumIsReached() {
+        executor.setMaxPendingRequestsPerChargingStation(1);
+
+        assertTrue(executor.execute(CHARGING_STATION_ID, blockingRequest()));
+        assertFalse(executor.execute(CHARGING_STATION_ID, blockingRequest()));
+        assertTrue(executor.execute(new ChargingStationId("OTHER"), blockingRequest()));
+
+        assertEquals(1, executor.getPendingRequestCount(CHARGING_STATION_ID));
+        assertEquals(1, executor.getRejectedRequestCount());
+    }
+
+    @Test
+    public void requestIsRejectedWhenQueueIsFull() {
+        executor = new ChargingStationRequestExecutor(1, 1);
+        ChargingStationId queuedChargingStationId = new ChargingStationId("QUEUED");
+        ChargingStationId rejectedChargingStationId = new ChargingStationId("REJECTED");
+
+        assertTrue(executor.execute(CHARGING_STATION_ID, blockingRequest()));
+        assertTrue(executor.execute(queuedChargingStationId, blockingRequest()));
+        assertFalse(executor.execute(rejectedChargingStationId, blockingRequest()));
+
+        assertEquals(1, executor.getPendingRequestCount(queuedChargingStationId));
+        assertEquals(0, executor.getPendingRequestCount(rejectedChargingStationId));
+        assertEquals(1, executor.getRejectedRequestCount());
+        assertEquals(2, executor.getChargingStationCount());
+    }
+
+    @Test
+    public void requestsToSameChargingStationAreExecutedInOrder() throws InterruptedException {
+        executor = new ChargingStationRequestExecutor(4, 10);
+        final List<Integer> executed = Collections.synchronizedList(new ArrayList<Integer>());
+        final CountDownLatch done = new CountDownLatch(5);
+
+        assertTrue(executor.execute(CHARGING_STATION_ID, blockingRequest()));
+        for (int i = 0; i < 5; i++) {
+            final int request = i;
+            assertTrue(executor.execute(CHARGING_STATION_ID, new Runnable() {
+                @Override
+                public void run() {
+                    executed.add(request);
+                    done.countDown();
+                }
+            }));
+        }
+        release.countDown();
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(Arrays.asList(0, 1, 2, 3, 4), executed);
+    }
+
+    @Test
+    public void requestsToSameChargingStationAreNotExecutedConcurrently() throws InterruptedException {
+        assertTrue(executor.execute(CHARGING_STATION_ID, blockingRequest()));
+        final CountDownLatch executed = new CountDownLatch(1);
+        assertTrue(executor.execute(CHARGING_STATION_ID, new Runnable() {
+            @Override
+            public void run() {
+                executed.countDown();
+            }
+        }));
+
+        assertFalse(executed.await(100, TimeUnit.MILLISECONDS));
+        release.countDown();
+        assertTrue(executed.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void failedRequestIsNoLongerPending() throws InterruptedException {
+        final CountDownLatch executed = new CountDownLatch(1);
+
+        executor.execute(CHARGING_STATION_ID, new Runnable() {
+            @Override
+            public void run() {
+                executed.countDown();
+                throw new IllegalStateException();
+            }
+        });
+
+        assertTrue(executed.await(5, TimeUnit.SECONDS));
+        long deadline = System.currentTimeMillis() + 5000;
+        while (executor.getPendingRequestCount(CHARGING_STATION_ID) > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(0, executor.getPendingRequestCount(CHARGING_STATION_ID));
+    }
+
+    @Test
+    public void remainingRequestsAreExecutedAfterError() throws InterruptedException {
+        final CountDownLatch executed = new CountDownLatch(1);
+
+        assertTrue(executor.execute(CHARGING_STATION_ID, new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                throw new AssertionError("request failed");
+            }
+        }));
+        assertTrue(executor.execute(CHARGING_STATION_ID, new Runnable() {
+            @Override
+            public void run() {
+                executed.countDown();
+            }
+        }));
+        release.countDown();
+
+        assertTrue(executed.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void queueIsRemovedWhenAllRequestsHaveBeenExecuted() throws InterruptedException {
+        assertTrue(executor.execute(CHARGING_STATION_ID, blockingRequest()));
+        assertEquals(1, executor.getChargingStationCount());
+
+        release.countDown();
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (executor.getChargingStationCount() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(0, executor.getChargingStationCount());
+        assertTrue(executor.execute(CHARGING_STATION_ID, blockingRequest()));
+        assertEquals(1, executor.getPendingRequestCount(CHARGING_STATION_ID));
+    }
+
+    private Runnable blockingRequest() {
+        return new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+    }
+}
@@ -30,6 +30,8 @@ import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
 
 import javax.persistence.EntityManager;
 import javax.persistence.EntityManagerFactory;
+import javax.xml.ws.WebServiceException;
+import java.net.SocketTimeoutException;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
@@ -267,4 +269,64 @@ public class Ocpp15RequestHandlerTest {
         verify(client).sendAuthorizationList(CHARGING_STATION_ID, V15SOAPTestUtils.getAuthorizationListHash(), V15SOAPTestUtils.getAuthorizationListVersion(), V15SOAPTestUtils.getAuthorizationList(), V15SOAPTestUtils.getAuthorizationListUpdateType());
     }
 
+    @Test
+    public void requestIsExecutedByRequestExecutor() {
+        ChargingStationRequestExecutor requestExecutor = new ChargingStationRequestExecutor();
+        requestHandler.setRequestExecutor(requestExecutor);
+        when(client.unlockConnector(CHARGING_STATION_ID, EVSE_ID)).thenReturn(RequestResult.SUCCESS);
+
+        requestHandler.handle(new UnlockEvseRequestedEvent(CHARGING_STATION_ID, PROTOCOL, EVSE_ID, ROOT_IDENTITY_CONTEXT), CORRELATION_TOKEN);
+
+        verify(service, timeout(5000)).informUnlockEvse(CHARGING_STATION_ID, EVSE_ID, CORRELATION_TOKEN, addOnIdentity);
+        requestExecutor.shutdown();
+    }
+
+    @Test
+    public void failedRequestIsReportedWhenExecutedByRequestExecutor() {
+        ChargingStationRequestExecutor requestExecutor = new ChargingStationRequestExecutor();
+        requestHandler.setRequestExecutor(requestExecutor);
+        when(client.clearCache(CHARGING_STATION_ID)).thenThrow(new WebServiceException(new SocketTimeoutException()));
+
+        requestHandler.handle(new ClearCacheRequestedEvent(CHARGING_STATION_ID, PROTOCOL, ROOT_IDENTITY_CONTEXT), CORRELATION_TOKEN);
+
+        verify(service, timeout(5000)).informRequestFailed(CHARGING_STATION_ID, RequestFailureReason.TIMEOUT, CORRELATION_TOKEN, addOnIdentity);
+        requestExecutor.shutdown();
+    }
+
+    @Test
+    public void unexpectedExceptionIsReportedWhenExecutedByRequestExecutor() {
+        ChargingStationRequestExecutor requestExecutor = new ChargingStationRequestExecutor();
+        requestHandler.setRequestExecutor(requestExecutor);
+        when(client.clearCache(CHARGING_STATION_ID)).thenThrow(new IllegalStateException());
+
+        requestHandler.handle(new ClearCacheRequestedEvent(CHARGING_STATION_ID, PROTOCOL, ROOT_IDENTITY_CONTEXT), CORRELATION_TOKEN);
+
+        verify(service, timeout(5000)).informRequestFailed(CHARGING_STATION_ID, RequestFailureReason.ERROR_RESPONSE, CORRELATION_TOKEN, addOnIdentity);
+        requestExecutor.shutdown();
+    }
+
+    @Test
+    public void assertionErrorOfClientIsReportedWhenExecutedByRequestExecutor() {
+        ChargingStationRequestExecutor requestExecutor = new ChargingStationRequestExecutor();
+        requestHandler.setRequestExecutor(requestExecutor);
+        when(client.clearCache(CHARGING_STATION_ID)).thenThrow(new AssertionError("Unknown clearCache status"));
+
+        requestHandler.handle(new ClearCacheRequestedEvent(CHARGING_STATION_ID, PROTOCOL, ROOT_IDENTITY_CONTEXT), CORRELATION_TOKEN);
+
+        verify(service, timeout(5000)).informRequestFailed(CHARGING_STATION_ID, RequestFailureReason.ERROR_RESPONSE, CORRELATION_TOKEN, addOnIdentity);
+        requestExecutor.shutdown();
+    }
+
+    @Test
+    public void rejectedRequestIsReported() {
+        ChargingStationRequestExecutor requestExecutor = new ChargingStationRequestExecutor();
+        requestExecutor.setMaxPendingRequestsPerChargingStation(0);
+        requestHandler.setRequestExecutor(requestExecutor);
+
+        requestHandler.handle(new ClearCacheRequestedEvent(CHARGING_STATION_ID, PROTOCOL, ROOT_IDENTITY_CONTEXT), CORRELATION_TOKEN);
+
+        verify(service).informRequestFailed(CHARGING_STATION_ID, RequestFailureReason.NOT_DELIVERED, CORRELATION_TOKEN, addOnIdentity);
+        verifyZeroInteractions(client);
+        requestExecutor.shutdown();
+    }
 }
@@ -19,6 +19,8 @@ import io.motown.ocpp.v15.soap.chargepoint.schema.ChargePointService;
 import org.junit.Test;
 
 import static junit.framework.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
 
 public class ChargingStationProxyFactoryTest {
 
@@ -31,4 +33,12 @@ public class ChargingStationProxyFactoryTest {
         assertNotNull(chargingStationService);
     }
 
+    @Test
+    public void proxyIsReusedForSameAddress() {
+        ChargePointService chargingStationService = factory.createChargingStationService("http://localhost");
+
+        assertSame(chargingStationService, factory.createChargingStationService("http://localhost"));
+        assertNotSame(chargingStationService, factory.createChargingStationService("http://otherhost"));
+    }
+
 }
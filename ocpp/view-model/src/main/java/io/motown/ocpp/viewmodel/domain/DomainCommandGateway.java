@@ -80,5 +80,7 @@ interface DomainCommandGateway {
     void send(ClearCacheCommand command, @MetaData(CorrelationToken.KEY) CorrelationToken correlationToken);
 
     void send(UnlockEvseCommand command, @MetaData(CorrelationToken.KEY) CorrelationToken correlationToken);
+
+    void send(RequestFailedCommand command, @MetaData(CorrelationToken.KEY) CorrelationToken correlationToken);
 }
 
@@ -24,7 +24,6 @@ import io.motown.domain.utils.AttributeMap;
 import io.motown.domain.utils.AttributeMapKeys;
 import io.motown.domain.utils.axon.EventWaitingGateway;
 import io.motown.ocpp.viewmodel.persistence.entities.ChargingStation;
-import io.motown.ocpp.viewmodel.persistence.entities.ReservationIdentifier;
 import io.motown.ocpp.viewmodel.persistence.entities.Transaction;
 import io.motown.ocpp.viewmodel.persistence.repositories.ChargingStationRepository;
 import io.motown.ocpp.viewmodel.persistence.repositories.ReservationIdentifierRepository;
@@ -58,6 +57,11 @@ public class DomainService {
 
     private EventWaitingGateway eventWaitingGateway;
 
+    /**
+     * Optional batcher which coalesces meter values, if not set every meter values request is sent as a separate command.
+     */
+    private MeterValueBatcher meterValueBatcher;
+
     /**
      * The timeout in milliseconds to wait for the authorization response events
      */
@@ -117,7 +121,11 @@ public class DomainService {
 
         IdentityContext identityContext = new IdentityContext(addOnIdentity, new NullUserIdentity());
 
-        commandGateway.send(new ProcessMeterValueCommand(chargingStationId, transactionId, evseId, meterValues, identityContext));
+        if (meterValueBatcher != null) {
+            meterValueBatcher.add(chargingStationId, transactionId, evseId, meterValues, identityContext);
+        } else {
+            commandGateway.send(new ProcessMeterValueCommand(chargingStationId, transactionId, evseId, meterValues, identityContext));
+        }
     }
 
     public void diagnosticsFileNameReceived(ChargingStationId chargingStationId, String diagnosticsFileName, CorrelationToken correlationToken, AddOnIdentity addOnIdentity) {
@@ -227,6 +235,11 @@ public class DomainService {
 
         IdentityContext identityContext = new IdentityContext(addOnIdentity, new NullUserIdentity());
 
+        if (meterValueBatcher != null) {
+            // meter values of the transaction which are still held back have to be processed before the stop
+            meterValueBatcher.flush(chargingStationId, transactionId);
+        }
+
         StopTransactionCommand command = new StopTransactionCommand(chargingStationId, transactionId, idTag, meterValueStop, timeStamp, identityContext);
         commandGateway.send(command);
 
@@ -305,6 +318,20 @@ public class DomainService {
         commandGateway.send(new UnlockEvseCommand(chargingStationId, evseId, identityContext), correlationToken);
     }
 
+    /**
+     * Informs the domain that a request to the charging station did not result in a response.
+     *
+     * @param chargingStationId the charging station id.
+     * @param reason            the reason the request failed.
+     * @param correlationToken  the token of the failed request.
+     * @param addOnIdentity     the identity of the add-on.
+     */
+    public void informRequestFailed(ChargingStationId chargingStationId, RequestFailureReason reason, CorrelationToken correlationToken, AddOnIdentity addOnIdentity) {
+        IdentityContext identityContext = new IdentityContext(addOnIdentity, new NullUserIdentity());
+
+        commandGateway.send(new RequestFailedCommand(chargingStationId, reason, identityContext), correlationToken);
+    }
+
     public void authorizationListChange(ChargingStationId chargingStationId, int version, AuthorizationListUpdateType updateType, Set<IdentifyingToken> identifyingTokens, CorrelationToken correlationToken, AddOnIdentity addOnIdentity) {
         IdentityContext identityContext = new IdentityContext(addOnIdentity, new NullUserIdentity());
         commandGateway.send(new ChangeAuthorizationListCommand(chargingStationId, version, updateType, identifyingTokens, identityContext), correlationToken);
@@ -318,6 +345,10 @@ public class DomainService {
         this.eventWaitingGateway = eventWaitingGateway;
     }
 
+    public void setMeterValueBatcher(MeterValueBatcher meterValueBatcher) {
+        this.meterValueBatcher = meterValueBatcher;
+    }
+
     public void setChargingStationRepository(ChargingStationRepository chargingStationRepository) {
         this.chargingStationRepository = chargingStationRepository;
     }
@@ -360,15 +391,7 @@ public class DomainService {
      * @return reservation identifier based on the charging station, module and auto-incremented number.
      */
     public NumberedReservationId generateReservationIdentifier(ChargingStationId chargingStationId, String protocolIdentifier) {
-        ReservationIdentifier reservationIdentifier = new ReservationIdentifier();
-
-        reservationIdentifierRepository.insert(reservationIdentifier);
-
-        /* TODO JPA's identity generator creates longs, while OCPP and Motown supports ints. Where should we translate
-         * between these and how should we handle error cases? - Mark van den Bergh, Januari 7th 2013
-         */
-        Long identifier = (Long) entityManagerFactory.getPersistenceUnitUtil().getIdentifier(reservationIdentifier);
-        return new NumberedReservationId(chargingStationId, protocolIdentifier, identifier.intValue());
+        return new NumberedReservationId(chargingStationId, protocolIdentifier, reservationIdentifierRepository.nextIdentifier());
     }
 
     /**
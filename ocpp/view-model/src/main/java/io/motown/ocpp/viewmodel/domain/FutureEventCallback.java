@@ -69,6 +69,15 @@ public abstract class FutureEventCallback<T> implements Future<T>, EventCallback
         }
     }
 
+    /**
+     * Releases the threads waiting for the result, the result stays null. Subclasses which need to respond to a timeout
+     * should call this method as well.
+     */
+    @Override
+    public void onTimeout() {
+        countDownLatch();
+    }
+
     public void setResult(T result) {
         this.result = result;
     }
@@ -0,0 +1,305 @@
+/**
+ * Copyright (C) 2013 Motown.IO (info@motown.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.motown.ocpp.viewmodel.domain;
+
+import io.motown.domain.api.chargingstation.*;
+import io.motown.domain.api.security.IdentityContext;
+import io.motown.domain.utils.concurrent.ClosableBatch;
+import io.motown.domain.utils.concurrent.Timers;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nullable;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Coalesces meter values of the same charging station, transaction and evse into a single
+ * {@code ProcessMeterValueCommand}. Every command loads the charging station aggregate and stores an event, so sending
+ * one command for a number of meter values requests saves most of that work for the highest-volume message type.
+ * <p/>
+ * A batch is sent once it holds {@code maxBatchSize} meter values, or {@code flushIntervalInMillis} after its first
+ * meter values were added, whichever comes first. When {@code maxPendingMeterValues} meter values are waiting to be
+ * sent, new meter values are sent right away instead of being batched, so a slow command bus cannot exhaust the heap.
+ * If a batch for the same charging station, transaction and evse is open at that moment, it is sent together with the
+ * new meter values, so meter values are never sent out of order.
+ */
+public class MeterValueBatcher {
+
+    private static final Logger LOG = LoggerFactory.getLogger(MeterValueBatcher.class);
+
+    private final ConcurrentMap<BatchKey, Batch> batches = new ConcurrentHashMap<>();
+
+    private final ScheduledThreadPoolExecutor timer;
+
+    private final AtomicInteger pendingMeterValueCount = new AtomicInteger();
+
+    private final AtomicLong batchedRequestCount = new AtomicLong();
+
+    private final AtomicLong sentCommandCount = new AtomicLong();
+
+    private final AtomicLong bypassedRequestCount = new AtomicLong();
+
+    private DomainCommandGateway commandGateway;
+
+    /**
+     * The maximum time in milliseconds meter values are held back before they are sent.
+     */
+    private long flushIntervalInMillis = 1000;
+
+    /**
+     * The number of meter values after which a batch is sent without waiting for the flush interval.
+     */
+    private int maxBatchSize = 100;
+
+    /**
+     * The maximum number of meter values which can wait to be sent for all charging stations together.
+     */
+    private int maxPendingMeterValues = 100000;
+
+    public MeterValueBatcher() {
+        this.timer = Timers.newTimer("ocpp-meter-value-flush-%d");
+    }
+
+    /**
+     * Adds meter values to the batch of the charging station, transaction and evse.
+     *
+     * @param chargingStationId the charging station's id.
+     * @param transactionId     the transaction's id, or null if the meter values do not belong to a transaction.
+     * @param evseId            the evse's id.
+     * @param meterValues       the meter values.
+     * @param identityContext   the identity context.
+     */
+    public void add(ChargingStationId chargingStationId, @Nullable TransactionId transactionId, EvseId evseId, List<MeterValue> meterValues, IdentityContext identityContext) {
+        BatchKey key = new BatchKey(chargingStationId, transactionId, evseId, identityContext);
+
+        if (pendingMeterValueCount.addAndGet(meterValues.size()) > maxPendingMeterValues) {
+            LOG.debug("Maximum of [{}] pending meter values has been reached, sending meter values of charging station [{}] without batching", maxPendingMeterValues, chargingStationId.getId());
+            bypassedRequestCount.incrementAndGet();
+
+            // an open batch holds earlier meter values, send the new ones along with it so they do not overtake those
+            Batch batch = batches.get(key);
+            if (batch != null && batch.addAll(meterValues) >= 0) {
+                flush(batch);
+                return;
+            }
+
+            pendingMeterValueCount.addAndGet(-meterValues.size());
+            send(key, meterValues);
+            return;
+        }
+
+        while (true) {
+            Batch batch = batches.get(key);
+            if (batch == null) {
+                Batch created = new Batch(key);
+                batch = batches.putIfAbsent(key, created);
+                if (batch == null) {
+                    batch = created;
+                    scheduleFlush(created);
+                }
+            }
+
+            int batchSize = batch.addAll(meterValues);
+            if (batchSize >= 0) {
+                batchedRequestCount.incrementAndGet();
+                if (batchSize >= maxBatchSize) {
+                    flush(batch);
+                }
+                return;
+            }
+
+            // the batch has been sent while we were adding to it, start a new one
+            batches.remove(key, batch);
+        }
+    }
+
+    /**
+     * Sends the pending meter values of a transaction. Should be called before the transaction is stopped, so the
+     * meter values of the transaction arrive before its stop.
+     *
+     * @param chargingStationId the charging station's id.
+     * @param transactionId     the transaction's id.
+     */
+    public void flush(ChargingStationId chargingStationId, TransactionId transactionId) {
+        for (Batch batch : batches.values()) {
+            if (batch.key.chargingStationId.equals(chargingStationId) && transactionId.equals(batch.key.transactionId)) {
+                flush(batch);
+            }
+        }
+    }
+
+    /**
+     * Sends all pending meter values.
+     */
+    public void flushAll() {
+        for (Batch batch : batches.values()) {
+            flush(batch);
+        }
+    }
+
+    /**
+     * Stops the flush timer and sends all pending meter values.
+     */
+    public void shutdown() {
+        timer.shutdownNow();
+        flushAll();
+    }
+
+    public void setCommandGateway(DomainCommandGateway commandGateway) {
+        this.commandGateway = commandGateway;
+    }
+
+    public void setFlushIntervalInMillis(long flushIntervalInMillis) {
+        this.flushIntervalInMillis = flushIntervalInMillis;
+    }
+
+    public void setMaxBatchSize(int maxBatchSize) {
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    public void setMaxPendingMeterValues(int maxPendingMeterValues) {
+        this.maxPendingMeterValues = maxPendingMeterValues;
+    }
+
+    /**
+     * Gets the number of meter values currently waiting to be sent.
+     *
+     * @return the number of pending meter values.
+     */
+    public int getPendingMeterValueCount() {
+        return pendingMeterValueCount.get();
+    }
+
+    /**
+     * Gets the number of meter values requests which have been added to a batch, since startup.
+     *
+     * @return the number of batched requests.
+     */
+    public long getBatchedRequestCount() {
+        return batchedRequestCount.get();
+    }
+
+    /**
+     * Gets the number of commands which have been sent for batches, since startup. Together with
+     * {@link #getBatchedRequestCount()} this shows how many requests are coalesced into a single command.
+     *
+     * @return the number of sent commands.
+     */
+    public long getSentCommandCount() {
+        return sentCommandCount.get();
+    }
+
+    /**
+     * Gets the number of meter values requests which have been sent without batching because the maximum of pending
+     * meter values was reached, since startup.
+     *
+     * @return the number of bypassed requests.
+     */
+    public long getBypassedRequestCount() {
+        return bypassedRequestCount.get();
+    }
+
+    private void scheduleFlush(final Batch batch) {
+        try {
+            batch.setFlush(timer.schedule(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        flush(batch);
+                    } catch (RuntimeException e) {
+                        LOG.error("Exception while sending meter values of charging station [{}]", batch.key.chargingStationId.getId(), e);
+                    }
+                }
+            }, flushIntervalInMillis, TimeUnit.MILLISECONDS));
+        } catch (RejectedExecutionException e) {
+            // shut down, nothing will flush the batch later on
+            flush(batch);
+        }
+    }
+
+    private void flush(Batch batch) {
+        List<MeterValue> meterValues = batch.close();
+        if (meterValues == null) {
+            return;
+        }
+
+        batches.remove(batch.key, batch);
+
+        if (!meterValues.isEmpty()) {
+            pendingMeterValueCount.addAndGet(-meterValues.size());
+            sentCommandCount.incrementAndGet();
+            send(batch.key, meterValues);
+        }
+    }
+
+    private void send(BatchKey key, List<MeterValue> meterValues) {
+        commandGateway.send(new ProcessMeterValueCommand(key.chargingStationId, key.transactionId, key.evseId, meterValues, key.identityContext));
+    }
+
+    /**
+     * Identifies the meter values which can be sent in a single command.
+     */
+    private static final class BatchKey {
+
+        private final ChargingStationId chargingStationId;
+
+        private final TransactionId transactionId;
+
+        private final EvseId evseId;
+
+        private final IdentityContext identityContext;
+
+        private BatchKey(ChargingStationId chargingStationId, @Nullable TransactionId transactionId, EvseId evseId, IdentityContext identityContext) {
+            this.chargingStationId = chargingStationId;
+            this.transactionId = transactionId;
+            this.evseId = evseId;
+            this.identityContext = identityContext;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(chargingStationId, transactionId, evseId, identityContext);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (obj == null || getClass() != obj.getClass()) {
+                return false;
+            }
+            final BatchKey other = (BatchKey) obj;
+            return Objects.equals(this.chargingStationId, other.chargingStationId) && Objects.equals(this.transactionId, other.transactionId) && Objects.equals(this.evseId, other.evseId) && Objects.equals(this.identityContext, other.identityContext);
+        }
+    }
+
+    /**
+     * Meter values waiting to be sent in a single command.
+     */
+    private static final class Batch extends ClosableBatch<MeterValue> {
+
+        private final BatchKey key;
+
+        private Batch(BatchKey key) {
+            this.key = key;
+        }
+    }
+}
@@ -46,6 +46,20 @@ public class ChargingStation {
         this.ipAddress = ipAddress;
     }
 
+    /**
+     * Creates a copy of a charging station.
+     *
+     * @param chargingStation the charging station to copy.
+     */
+    public ChargingStation(ChargingStation chargingStation) {
+        this.id = chargingStation.id;
+        this.ipAddress = chargingStation.ipAddress;
+        this.isRegistered = chargingStation.isRegistered;
+        this.isConfigured = chargingStation.isConfigured;
+        this.numberOfEvses = chargingStation.numberOfEvses;
+        this.protocol = chargingStation.protocol;
+    }
+
     public String getId() {
         return id;
     }
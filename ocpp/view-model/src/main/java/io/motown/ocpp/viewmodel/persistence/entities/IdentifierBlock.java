@@ -0,0 +1,54 @@
+/**
+ * Copyright (C) 2013 Motown.IO (info@motown.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.motown.ocpp.viewmodel.persistence.entities;
+
+import javax.persistence.Entity;
+import javax.persistence.Id;
+
+/**
+ * Next free value of a sequence of identifiers. Nodes reserve blocks of identifiers by incrementing the next value, so
+ * identifiers are unique across nodes while each node hands out the identifiers of its block without a database round
+ * trip.
+ */
+@Entity
+public class IdentifierBlock {
+
+    @Id
+    private String name;
+
+    private long nextValue;
+
+    private IdentifierBlock() {
+        // Private no-arg constructor for Hibernate.
+    }
+
+    public IdentifierBlock(String name, long nextValue) {
+        this.name = name;
+        this.nextValue = nextValue;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getNextValue() {
+        return nextValue;
+    }
+
+    public void setNextValue(long nextValue) {
+        this.nextValue = nextValue;
+    }
+}
@@ -18,14 +18,15 @@ package io.motown.ocpp.viewmodel.persistence.entities;
 import io.motown.domain.api.chargingstation.EvseId;
 
 import javax.persistence.Entity;
-import javax.persistence.GeneratedValue;
-import javax.persistence.GenerationType;
 import javax.persistence.Id;
 
 @Entity
 public class Transaction {
 
-    @Id @GeneratedValue(strategy = GenerationType.IDENTITY)
+    /**
+     * Assigned by the {@code TransactionRepository} from a block of identifiers.
+     */
+    @Id
     private Long id;
 
     private String evseId;
@@ -34,6 +35,10 @@ public class Transaction {
         return id;
     }
 
+    public void setId(Long id) {
+        this.id = id;
+    }
+
     public EvseId getEvseId() {
         return new EvseId(Integer.valueOf(evseId));
     }
@@ -0,0 +1,145 @@
+/**
+ * Copyright (C) 2013 Motown.IO (info@motown.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.motown.ocpp.viewmodel.persistence.repositories;
+
+import io.motown.ocpp.viewmodel.persistence.entities.IdentifierBlock;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.EntityTransaction;
+import javax.persistence.LockModeType;
+import javax.persistence.PersistenceException;
+
+/**
+ * Allocates int identifiers from blocks reserved in the database. A block is reserved by incrementing the next value of
+ * the {@link IdentifierBlock} with a pessimistic lock, which makes blocks unique across all nodes sharing the database.
+ * The identifiers of a reserved block are handed out from memory, so only one in every block size identifiers costs a
+ * database round trip. Identifiers which are not handed out before a restart are lost, leaving gaps in the sequence.
+ * <p/>
+ * OCPP transaction and reservation identifiers are ints, the allocator refuses to hand out identifiers which do not
+ * fit in an int.
+ */
+public class BlockIdentifierAllocator {
+
+    private static final Logger LOG = LoggerFactory.getLogger(BlockIdentifierAllocator.class);
+
+    private static final int MAX_RESERVE_ATTEMPTS = 3;
+
+    private final String name;
+
+    private final Class<?> legacyEntityClass;
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    private final int blockSize;
+
+    private long next;
+
+    private long blockEnd;
+
+    /**
+     * Creates an allocator.
+     *
+     * @param name                 the name of the sequence of identifiers.
+     * @param legacyEntityClass    the entity which used to have a database generated id. If the sequence does not exist
+     *                             yet it starts after the highest id of this entity, so identifiers are not reused.
+     * @param entityManagerFactory the entity manager factory.
+     * @param blockSize            the number of identifiers to reserve at once.
+     */
+    public BlockIdentifierAllocator(String name, Class<?> legacyEntityClass, EntityManagerFactory entityManagerFactory, int blockSize) {
+        if (blockSize < 1) {
+            throw new IllegalArgumentException("Block size should be at least 1.");
+        }
+        this.name = name;
+        this.legacyEntityClass = legacyEntityClass;
+        this.entityManagerFactory = entityManagerFactory;
+        this.blockSize = blockSize;
+    }
+
+    /**
+     * Gets the next identifier.
+     *
+     * @return the identifier.
+     * @throws IllegalStateException if the identifiers are exhausted or if no block could be reserved.
+     */
+    public synchronized int next() {
+        if (next == blockEnd) {
+            next = reserveBlock();
+            blockEnd = next + blockSize;
+        }
+
+        if (next > Integer.MAX_VALUE) {
+            throw new IllegalStateException(String.format("Identifiers of [%s] are exhausted, [%d] does not fit in an int.", name, next));
+        }
+
+        return (int) next++;
+    }
+
+    private long reserveBlock() {
+        PersistenceException lastException = null;
+
+        // concurrent creation of the sequence by multiple nodes fails for all but one, those retry
+        for (int attempt = 0; attempt < MAX_RESERVE_ATTEMPTS; attempt++) {
+            try {
+                return tryReserveBlock();
+            } catch (PersistenceException e) {
+                LOG.warn("Failed to reserve block of identifiers for [{}], attempt {}.", name, attempt + 1);
+                lastException = e;
+            }
+        }
+
+        throw new IllegalStateException(String.format("Unable to reserve block of identifiers for [%s].", name), lastException);
+    }
+
+    private long tryReserveBlock() {
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        EntityTransaction transaction = entityManager.getTransaction();
+
+        if (!transaction.isActive()) {
+            transaction.begin();
+        }
+
+        try {
+            IdentifierBlock block = entityManager.find(IdentifierBlock.class, name, LockModeType.PESSIMISTIC_WRITE);
+            long start;
+
+            if (block == null) {
+                start = findHighestLegacyIdentifier(entityManager) + 1;
+                block = new IdentifierBlock(name, start + blockSize);
+                entityManager.persist(block);
+            } else {
+                start = block.getNextValue();
+                block.setNextValue(start + blockSize);
+            }
+
+            transaction.commit();
+            return start;
+        } finally {
+            if (transaction.isActive()) {
+                LOG.warn("Transaction is still active while it should not be, rolling back.");
+                transaction.rollback();
+            }
+            entityManager.close();
+        }
+    }
+
+    private long findHighestLegacyIdentifier(EntityManager entityManager) {
+        Number highest = entityManager.createQuery("SELECT MAX(e.id) FROM " + legacyEntityClass.getSimpleName() + " e", Number.class).getSingleResult();
+        return highest != null ? highest.longValue() : 0;
+    }
+}
@@ -15,6 +15,9 @@
  */
 package io.motown.ocpp.viewmodel.persistence.repositories;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
 import io.motown.ocpp.viewmodel.persistence.entities.ChargingStation;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -22,20 +25,56 @@ import org.slf4j.LoggerFactory;
 import javax.persistence.EntityManager;
 import javax.persistence.EntityManagerFactory;
 import javax.persistence.EntityTransaction;
+import java.util.concurrent.TimeUnit;
 
+/**
+ * Repository of the charging stations known to the OCPP add-on.
+ * <p/>
+ * The registration state of a charging station is checked for almost every message it sends, therefore charging
+ * stations are cached. The cache is read-through for {@link #findOne(String)} and write-through for
+ * {@link #createOrUpdate(ChargingStation)}. The event handlers which keep the charging stations up to date with the
+ * domain events write through this repository, so the cache follows the domain as long as the event handlers and the
+ * readers share the same repository instance. Entries expire after a while to pick up changes made by other means.
+ * <p/>
+ * The cache holds copies of the charging stations and callers get their own copy, so a caller changing its charging
+ * station does not affect other callers until the change has been stored through {@link #createOrUpdate(ChargingStation)}.
+ */
 public class ChargingStationRepository {
 
     private static final Logger LOG = LoggerFactory.getLogger(ChargingStationRepository.class);
 
+    private static final long DEFAULT_MAXIMUM_CACHE_SIZE = 50000;
+
+    private static final long DEFAULT_CACHE_EXPIRY_IN_SECONDS = 600;
+
     private EntityManagerFactory entityManagerFactory;
 
+    private long maximumCacheSize = DEFAULT_MAXIMUM_CACHE_SIZE;
+
+    private long cacheExpiryInSeconds = DEFAULT_CACHE_EXPIRY_IN_SECONDS;
+
+    private Cache<String, ChargingStation> cache = buildCache();
+
     public ChargingStation findOne(String id) {
-        EntityManager entityManager = getEntityManager();
-        try {
-            return entityManager.find(ChargingStation.class, id);
-        } finally {
-            entityManager.close();
+        ChargingStation chargingStation = cache.getIfPresent(id);
+
+        if (chargingStation != null) {
+            chargingStation = new ChargingStation(chargingStation);
+        } else {
+            EntityManager entityManager = getEntityManager();
+            try {
+                chargingStation = entityManager.find(ChargingStation.class, id);
+            } finally {
+                entityManager.close();
+            }
+
+            // unknown charging stations are not cached, they are expected to be created soon
+            if (chargingStation != null) {
+                cache.put(id, new ChargingStation(chargingStation));
+            }
         }
+
+        return chargingStation;
     }
 
     public ChargingStation createOrUpdate(ChargingStation chargingStation) {
@@ -57,15 +96,68 @@ public class ChargingStationRepository {
                 transaction.rollback();
             }
             entityManager.close();
+
+            if (storedChargingStation != null) {
+                cache.put(storedChargingStation.getId(), new ChargingStation(storedChargingStation));
+            } else {
+                // the update may have been stored before it failed
+                cache.invalidate(chargingStation.getId());
+            }
         }
         return storedChargingStation;
     }
 
+    /**
+     * Removes all charging stations from the cache, e.g. after the database has been changed directly.
+     */
+    public void clearCache() {
+        cache.invalidateAll();
+    }
+
+    /**
+     * Gets the statistics of the charging station cache, e.g. the hit rate and the number of evictions.
+     *
+     * @return the cache statistics.
+     */
+    public CacheStats getCacheStats() {
+        return cache.stats();
+    }
+
     public void setEntityManagerFactory(EntityManagerFactory entityManagerFactory) {
         this.entityManagerFactory = entityManagerFactory;
     }
 
+    /**
+     * Sets the maximum number of cached charging stations, the least recently used ones are evicted first. Setting the
+     * maximum size clears the cache.
+     *
+     * @param maximumCacheSize the maximum number of charging stations in the cache.
+     */
+    public void setMaximumCacheSize(long maximumCacheSize) {
+        this.maximumCacheSize = maximumCacheSize;
+        this.cache = buildCache();
+    }
+
+    /**
+     * Sets the time after which a cached charging station is read from the database again. Setting the expiry clears
+     * the cache.
+     *
+     * @param cacheExpiryInSeconds the expiry in seconds.
+     */
+    public void setCacheExpiryInSeconds(long cacheExpiryInSeconds) {
+        this.cacheExpiryInSeconds = cacheExpiryInSeconds;
+        this.cache = buildCache();
+    }
+
+    private Cache<String, ChargingStation> buildCache() {
+        return CacheBuilder.newBuilder()
+                .maximumSize(maximumCacheSize)
+                .expireAfterWrite(cacheExpiryInSeconds, TimeUnit.SECONDS)
+                .recordStats()
+                .build();
+    }
+
     private EntityManager getEntityManager() {
         return entityManagerFactory.createEntityManager();
     }
-}
\ No newline at end of file
+}
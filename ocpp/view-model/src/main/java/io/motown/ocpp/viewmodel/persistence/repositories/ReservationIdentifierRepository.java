@@ -16,44 +16,51 @@
 package io.motown.ocpp.viewmodel.persistence.repositories;
 
 import io.motown.ocpp.viewmodel.persistence.entities.ReservationIdentifier;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 
-import javax.persistence.EntityManager;
 import javax.persistence.EntityManagerFactory;
-import javax.persistence.EntityTransaction;
 
+/**
+ * Generates reservation identifiers. Reservation identifiers used to be generated by inserting a
+ * {@link ReservationIdentifier}, the highest of those is the starting point for the generated identifiers.
+ */
 public class ReservationIdentifierRepository {
 
-    private static final Logger LOG = LoggerFactory.getLogger(ReservationIdentifierRepository.class);
+    private static final int DEFAULT_IDENTIFIER_BLOCK_SIZE = 100;
 
     private EntityManagerFactory entityManagerFactory;
 
-    public void insert(ReservationIdentifier reservationIdentifier) {
-        EntityManager entityManager = getEntityManager();
-        EntityTransaction transaction = entityManager.getTransaction();
+    private int identifierBlockSize = DEFAULT_IDENTIFIER_BLOCK_SIZE;
 
-        if (!transaction.isActive()) {
-            transaction.begin();
-        }
+    private BlockIdentifierAllocator identifierAllocator;
 
-        try {
-            entityManager.persist(reservationIdentifier);
-            transaction.commit();
-        } finally {
-            if (transaction.isActive()) {
-                LOG.warn("Transaction is still active while it should not be, rolling back.");
-                transaction.rollback();
-            }
-            entityManager.close();
-        }
+    /**
+     * Generates a new reservation identifier.
+     *
+     * @return the reservation identifier.
+     */
+    public int nextIdentifier() {
+        return identifierAllocator.next();
     }
 
     public void setEntityManagerFactory(EntityManagerFactory entityManagerFactory) {
         this.entityManagerFactory = entityManagerFactory;
+        this.identifierAllocator = createIdentifierAllocator();
+    }
+
+    /**
+     * Sets the number of identifiers which are reserved at once. Larger blocks mean fewer database round trips, but
+     * more identifiers lost on restart.
+     *
+     * @param identifierBlockSize the number of identifiers to reserve at once.
+     */
+    public void setIdentifierBlockSize(int identifierBlockSize) {
+        this.identifierBlockSize = identifierBlockSize;
+        if (entityManagerFactory != null) {
+            this.identifierAllocator = createIdentifierAllocator();
+        }
     }
 
-    private EntityManager getEntityManager() {
-        return this.entityManagerFactory.createEntityManager();
+    private BlockIdentifierAllocator createIdentifierAllocator() {
+        return new BlockIdentifierAllocator("reservation", ReservationIdentifier.class, entityManagerFactory, identifierBlockSize);
     }
 }
\ No newline at end of file
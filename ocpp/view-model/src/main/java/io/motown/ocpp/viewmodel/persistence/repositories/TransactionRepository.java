@@ -27,8 +27,14 @@ public class TransactionRepository {
 
     private static final Logger LOG = LoggerFactory.getLogger(ReservationIdentifierRepository.class);
 
+    private static final int DEFAULT_IDENTIFIER_BLOCK_SIZE = 100;
+
     private EntityManagerFactory entityManagerFactory;
 
+    private int identifierBlockSize = DEFAULT_IDENTIFIER_BLOCK_SIZE;
+
+    private BlockIdentifierAllocator identifierAllocator;
+
     public Transaction findTransactionById(Long id) {
         EntityManager entityManager = getEntityManager();
         try {
@@ -38,7 +44,14 @@ public class TransactionRepository {
         }
     }
 
+    /**
+     * Inserts a transaction, the transaction is assigned a new identifier.
+     *
+     * @param transaction the transaction.
+     */
     public void insert(Transaction transaction) {
+        transaction.setId((long) identifierAllocator.next());
+
         EntityManager entityManager = getEntityManager();
         EntityTransaction entityTransaction = entityManager.getTransaction();
 
@@ -60,6 +73,24 @@ public class TransactionRepository {
 
     public void setEntityManagerFactory(EntityManagerFactory entityManagerFactory) {
         this.entityManagerFactory = entityManagerFactory;
+        this.identifierAllocator = createIdentifierAllocator();
+    }
+
+    /**
+     * Sets the number of identifiers which are reserved at once. Larger blocks mean fewer database round trips, but
+     * more identifiers lost on restart.
+     *
+     * @param identifierBlockSize the number of identifiers to reserve at once.
+     */
+    public void setIdentifierBlockSize(int identifierBlockSize) {
+        this.identifierBlockSize = identifierBlockSize;
+        if (entityManagerFactory != null) {
+            this.identifierAllocator = createIdentifierAllocator();
+        }
+    }
+
+    private BlockIdentifierAllocator createIdentifierAllocator() {
+        return new BlockIdentifierAllocator("transaction", Transaction.class, entityManagerFactory, identifierBlockSize);
     }
 
     private EntityManager getEntityManager() {
@@ -20,6 +20,7 @@ import io.motown.domain.utils.AttributeMap;
 import io.motown.domain.utils.AttributeMapKeys;
 import io.motown.domain.utils.axon.EventWaitingGateway;
 import io.motown.ocpp.viewmodel.persistence.entities.ChargingStation;
+import io.motown.ocpp.viewmodel.persistence.entities.IdentifierBlock;
 import io.motown.ocpp.viewmodel.persistence.entities.ReservationIdentifier;
 import io.motown.ocpp.viewmodel.persistence.entities.Transaction;
 import io.motown.ocpp.viewmodel.persistence.repositories.ChargingStationRepository;
@@ -29,6 +30,7 @@ import org.axonframework.commandhandling.CommandCallback;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.InOrder;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.test.context.ContextConfiguration;
@@ -38,6 +40,8 @@ import javax.persistence.EntityManager;
 import javax.persistence.EntityManagerFactory;
 import java.util.Collections;
 import java.util.Date;
+import java.util.HashSet;
+import java.util.Set;
 
 import static io.motown.domain.api.chargingstation.test.ChargingStationTestUtils.*;
 import static io.motown.ocpp.viewmodel.domain.OccpViewModelTestUtils.*;
@@ -45,7 +49,9 @@ import static junit.framework.Assert.assertNotNull;
 import static org.junit.Assert.*;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 
 @ContextConfiguration("classpath:ocpp-view-model-test-context.xml")
@@ -80,8 +86,12 @@ public class DomainServiceTest {
         EntityManager entityManager = entityManagerFactory.createEntityManager();
         entityManager.clear();
         deleteFromDatabase(entityManager, ChargingStation.class);
+        chargingStationRepository.clearCache();
         deleteFromDatabase(entityManager, Transaction.class);
         deleteFromDatabase(entityManager, ReservationIdentifier.class);
+        deleteFromDatabase(entityManager, IdentifierBlock.class);
+        // the repository is shared between tests, start with a fresh allocator as the identifier blocks have been deleted
+        reservationIdentifierRepository.setEntityManagerFactory(entityManagerFactory);
 
         domainService = new DomainService();
         domainService.setChargingStationRepository(chargingStationRepository);
@@ -202,6 +212,23 @@ public class DomainServiceTest {
         verify(gateway).send(new ProcessMeterValueCommand(REGISTERED_AND_CONFIGURED_CHARGING_STATION_ID, TRANSACTION_ID, EVSE_ID, METER_VALUES, NULL_USER_IDENTITY_CONTEXT));
     }
 
+    @Test
+    public void testMeterValuesWithBatcher() {
+        MeterValueBatcher meterValueBatcher = new MeterValueBatcher();
+        meterValueBatcher.setCommandGateway(gateway);
+        meterValueBatcher.setFlushIntervalInMillis(60000);
+        domainService.setMeterValueBatcher(meterValueBatcher);
+
+        domainService.meterValues(REGISTERED_AND_CONFIGURED_CHARGING_STATION_ID, TRANSACTION_ID, EVSE_ID, METER_VALUES, ADD_ON_IDENTITY);
+
+        verify(gateway, never()).send(any(ProcessMeterValueCommand.class));
+        assertEquals(METER_VALUES.size(), meterValueBatcher.getPendingMeterValueCount());
+
+        meterValueBatcher.shutdown();
+
+        verify(gateway).send(new ProcessMeterValueCommand(REGISTERED_AND_CONFIGURED_CHARGING_STATION_ID, TRANSACTION_ID, EVSE_ID, METER_VALUES, NULL_USER_IDENTITY_CONTEXT));
+    }
+
     @Test
     public void testDiagnosticsFileNameReceived() {
         CorrelationToken correlationToken = new CorrelationToken();
@@ -233,6 +260,14 @@ public class DomainServiceTest {
         verify(gateway).send(new ChangeConfigurationItemCommand(CHARGING_STATION_ID, CONFIGURATION_ITEM, NULL_USER_IDENTITY_CONTEXT), correlationToken);
     }
 
+    @Test
+    public void testInformRequestFailed() {
+        CorrelationToken correlationToken = new CorrelationToken();
+
+        domainService.informRequestFailed(CHARGING_STATION_ID, RequestFailureReason.TIMEOUT, correlationToken, ADD_ON_IDENTITY);
+        verify(gateway).send(new RequestFailedCommand(CHARGING_STATION_ID, RequestFailureReason.TIMEOUT, NULL_USER_IDENTITY_CONTEXT), correlationToken);
+    }
+
     @Test
     public void testDiagnosticsUploadStatusUpdate() {
         domainService.diagnosticsUploadStatusUpdate(REGISTERED_AND_CONFIGURED_CHARGING_STATION_ID, true, ADD_ON_IDENTITY);
@@ -334,6 +369,25 @@ public class DomainServiceTest {
         verify(gateway).send(new StopTransactionCommand(REGISTERED_AND_CONFIGURED_CHARGING_STATION_ID, transactionId, IDENTIFYING_TOKEN, meterStopValue, now, NULL_USER_IDENTITY_CONTEXT));
     }
 
+    @Test
+    public void testStopTransactionSendsBatchedMeterValuesFirst() {
+        MeterValueBatcher meterValueBatcher = new MeterValueBatcher();
+        meterValueBatcher.setCommandGateway(gateway);
+        meterValueBatcher.setFlushIntervalInMillis(60000);
+        domainService.setMeterValueBatcher(meterValueBatcher);
+        NumberedTransactionId transactionId = new NumberedTransactionId(REGISTERED_AND_CONFIGURED_CHARGING_STATION_ID, PROTOCOL, 0);
+        int meterStopValue = 1;
+        Date now = new Date();
+        domainService.meterValues(REGISTERED_AND_CONFIGURED_CHARGING_STATION_ID, transactionId, EVSE_ID, METER_VALUES, ADD_ON_IDENTITY);
+
+        domainService.stopTransaction(REGISTERED_AND_CONFIGURED_CHARGING_STATION_ID, transactionId, IDENTIFYING_TOKEN, meterStopValue, now, getEmptyMeterValuesList(), ADD_ON_IDENTITY);
+
+        InOrder inOrder = inOrder(gateway);
+        inOrder.verify(gateway).send(new ProcessMeterValueCommand(REGISTERED_AND_CONFIGURED_CHARGING_STATION_ID, transactionId, EVSE_ID, METER_VALUES, NULL_USER_IDENTITY_CONTEXT));
+        inOrder.verify(gateway).send(new StopTransactionCommand(REGISTERED_AND_CONFIGURED_CHARGING_STATION_ID, transactionId, IDENTIFYING_TOKEN, meterStopValue, now, NULL_USER_IDENTITY_CONTEXT));
+        meterValueBatcher.shutdown();
+    }
+
     /**
      * Stopping a transaction with meter values should trigger a 'ProcessMeterValueCommand' besides the 'StopTransactionCommand'.
      */
@@ -370,4 +424,42 @@ public class DomainServiceTest {
         assertNotNull(numberedReservationId.getNumber());
     }
 
+    @Test
+    public void testGeneratedReservationIdentifiersAreUniqueAcrossNodes() {
+        ReservationIdentifierRepository otherNodeRepository = new ReservationIdentifierRepository();
+        otherNodeRepository.setEntityManagerFactory(entityManagerFactory);
+        otherNodeRepository.setIdentifierBlockSize(3);
+        reservationIdentifierRepository.setIdentifierBlockSize(3);
+        Set<Integer> identifiers = new HashSet<>();
+
+        for (int i = 0; i < 10; i++) {
+            assertTrue(identifiers.add(domainService.generateReservationIdentifier(CHARGING_STATION_ID, PROTOCOL).getNumber()));
+            assertTrue(identifiers.add(otherNodeRepository.nextIdentifier()));
+        }
+    }
+
+    @Test
+    public void testCreatedTransactionIdentifiersAreUnique() {
+        Set<Long> identifiers = new HashSet<>();
+
+        for (int i = 0; i < 250; i++) {
+            Transaction transaction = domainService.createTransaction(EVSE_ID);
+            assertTrue(identifiers.add(transaction.getId()));
+            assertEquals(EVSE_ID, transactionRepository.findTransactionById(transaction.getId()).getEvseId());
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testGenerateReservationIdentifierBeyondIntRange() {
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        entityManager.getTransaction().begin();
+        entityManager.persist(new IdentifierBlock("reservation", Integer.MAX_VALUE));
+        entityManager.getTransaction().commit();
+        entityManager.close();
+        reservationIdentifierRepository.setIdentifierBlockSize(10);
+
+        assertEquals(Integer.MAX_VALUE, domainService.generateReservationIdentifier(CHARGING_STATION_ID, PROTOCOL).getNumber());
+        domainService.generateReservationIdentifier(CHARGING_STATION_ID, PROTOCOL);
+    }
+
 }
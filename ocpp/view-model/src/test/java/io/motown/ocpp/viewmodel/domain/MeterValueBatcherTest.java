@@ -0,0 +1,145 @@
+/**
+ * Copyright (C) 2013 Motown.IO (info@motown.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.motown.ocpp.viewmodel.domain;
+
+import com.google.common.collect.ImmutableList;
+import io.motown.domain.api.chargingstation.EvseId;
+import io.motown.domain.api.chargingstation.MeterValue;
+import io.motown.domain.api.chargingstation.ProcessMeterValueCommand;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Date;
+import java.util.List;
+
+import static io.motown.domain.api.chargingstation.test.ChargingStationTestUtils.*;
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.*;
+
+public class MeterValueBatcherTest {
+
+    private MeterValueBatcher batcher;
+
+    private DomainCommandGateway gateway;
+
+    @Before
+    public void setUp() {
+        gateway = mock(DomainCommandGateway.class);
+
+        batcher = new MeterValueBatcher();
+        batcher.setCommandGateway(gateway);
+        batcher.setFlushIntervalInMillis(60000);
+    }
+
+    @Test
+    public void meterValuesOfSameTransactionAreSentInSingleCommand() {
+        batcher.add(CHARGING_STATION_ID, TRANSACTION_ID, EVSE_ID, METER_VALUES, NULL_USER_IDENTITY_CONTEXT);
+        batcher.add(CHARGING_STATION_ID, TRANSACTION_ID, EVSE_ID, METER_VALUES, NULL_USER_IDENTITY_CONTEXT);
+        verifyZeroInteractions(gateway);
+
+        batcher.flushAll();
+
+        verify(gateway).send(new ProcessMeterValueCommand(CHARGING_STATION_ID, TRANSACTION_ID, EVSE_ID, twice(METER_VALUES), NULL_USER_IDENTITY_CONTEXT));
+        assertEquals(2, batcher.getBatchedRequestCount());
+        assertEquals(1, batcher.getSentCommandCount());
+        assertEquals(0, batcher.getPendingMeterValueCount());
+    }
+
+    @Test
+    public void meterValuesOfDifferentEvsesAreSentInSeparateCommands() {
+        EvseId otherEvseId = new EvseId(2);
+        batcher.add(CHARGING_STATION_ID, null, EVSE_ID, METER_VALUES, NULL_USER_IDENTITY_CONTEXT);
+        batcher.add(CHARGING_STATION_ID, null, otherEvseId, METER_VALUES, NULL_USER_IDENTITY_CONTEXT);
+
+        batcher.flushAll();
+
+        verify(gateway).send(new ProcessMeterValueCommand(CHARGING_STATION_ID, null, EVSE_ID, METER_VALUES, NULL_USER_IDENTITY_CONTEXT));
+        verify(gateway).send(new ProcessMeterValueCommand(CHARGING_STATION_ID, null, otherEvseId, METER_VALUES, NULL_USER_IDENTITY_CONTEXT));
+    }
+
+    @Test
+    public void fullBatchIsSentRightAway() {
+        batcher.setMaxBatchSize(METER_VALUES.size() * 2);
+
+        batcher.add(CHARGING_STATION_ID, TRANSACTION_ID, EVSE_ID, METER_VALUES, NULL_USER_IDENTITY_CONTEXT);
+        batcher.add(CHARGING_STATION_ID, TRANSACTION_ID, EVSE_ID, METER_VALUES, NULL_USER_IDENTITY_CONTEXT);
+
+        verify(gateway).send(new ProcessMeterValueCommand(CHARGING_STATION_ID, TRANSACTION_ID, EVSE_ID, twice(METER_VALUES), NULL_USER_IDENTITY_CONTEXT));
+        assertEquals(0, batcher.getPendingMeterValueCount());
+    }
+
+    @Test
+    public void batchIsSentAfterFlushInterval() {
+        batcher.setFlushIntervalInMillis(10);
+
+        batcher.add(CHARGING_STATION_ID, TRANSACTION_ID, EVSE_ID, METER_VALUES, NULL_USER_IDENTITY_CONTEXT);
+
+        verify(gateway, timeout(5000)).send(new ProcessMeterValueCommand(CHARGING_STATION_ID, TRANSACTION_ID, EVSE_ID, METER_VALUES, NULL_USER_IDENTITY_CONTEXT));
+    }
+
+    @Test
+    public void meterValuesAreNotBatchedWhenMaximumOfPendingMeterValuesIsReached() {
+        batcher.setMaxPendingMeterValues(METER_VALUES.size());
+
+        batcher.add(CHARGING_STATION_ID, TRANSACTION_ID, EVSE_ID, METER_VALUES, NULL_USER_IDENTITY_CONTEXT);
+        batcher.add(CHARGING_STATION_ID, null, EVSE_ID, METER_VALUES, NULL_USER_IDENTITY_CONTEXT);
+
+        verify(gateway).send(new ProcessMeterValueCommand(CHARGING_STATION_ID, null, EVSE_ID, METER_VALUES, NULL_USER_IDENTITY_CONTEXT));
+        verify(gateway, times(1)).send(any(ProcessMeterValueCommand.class));
+        assertEquals(1, batcher.getBypassedRequestCount());
+        assertEquals(METER_VALUES.size(), batcher.getPendingMeterValueCount());
+    }
+
+    @Test
+    public void openBatchIsSentWithMeterValuesWhenMaximumOfPendingMeterValuesIsReached() {
+        batcher.setMaxPendingMeterValues(METER_VALUES.size());
+        List<MeterValue> moreMeterValues = ImmutableList.of(new MeterValue(new Date(), "1"));
+
+        batcher.add(CHARGING_STATION_ID, TRANSACTION_ID, EVSE_ID, METER_VALUES, NULL_USER_IDENTITY_CONTEXT);
+        batcher.add(CHARGING_STATION_ID, TRANSACTION_ID, EVSE_ID, moreMeterValues, NULL_USER_IDENTITY_CONTEXT);
+
+        List<MeterValue> expected = ImmutableList.<MeterValue>builder().addAll(METER_VALUES).addAll(moreMeterValues).build();
+        verify(gateway).send(new ProcessMeterValueCommand(CHARGING_STATION_ID, TRANSACTION_ID, EVSE_ID, expected, NULL_USER_IDENTITY_CONTEXT));
+        verify(gateway, times(1)).send(any(ProcessMeterValueCommand.class));
+        assertEquals(1, batcher.getBypassedRequestCount());
+        assertEquals(0, batcher.getPendingMeterValueCount());
+    }
+
+    @Test
+    public void flushOfTransactionOnlySendsMeterValuesOfThatTransaction() {
+        batcher.add(CHARGING_STATION_ID, TRANSACTION_ID, EVSE_ID, METER_VALUES, NULL_USER_IDENTITY_CONTEXT);
+        batcher.add(CHARGING_STATION_ID, null, EVSE_ID, METER_VALUES, NULL_USER_IDENTITY_CONTEXT);
+
+        batcher.flush(CHARGING_STATION_ID, TRANSACTION_ID);
+
+        verify(gateway).send(new ProcessMeterValueCommand(CHARGING_STATION_ID, TRANSACTION_ID, EVSE_ID, METER_VALUES, NULL_USER_IDENTITY_CONTEXT));
+        verify(gateway, times(1)).send(any(ProcessMeterValueCommand.class));
+    }
+
+    @Test
+    public void shutdownSendsPendingMeterValues() {
+        batcher.add(CHARGING_STATION_ID, TRANSACTION_ID, EVSE_ID, METER_VALUES, NULL_USER_IDENTITY_CONTEXT);
+
+        batcher.shutdown();
+
+        verify(gateway).send(new ProcessMeterValueCommand(CHARGING_STATION_ID, TRANSACTION_ID, EVSE_ID, METER_VALUES, NULL_USER_IDENTITY_CONTEXT));
+    }
+
+    private static List<MeterValue> twice(List<MeterValue> meterValues) {
+        return ImmutableList.<MeterValue>builder().addAll(meterValues).addAll(meterValues).build();
+    }
+}
@@ -56,6 +56,7 @@ public class OcppEventHandlerTest {
         EntityManager entityManager = entityManagerFactory.createEntityManager();
         entityManager.clear();
         deleteFromDatabase(entityManager, ChargingStation.class);
+        chargingStationRepository.clearCache();
 
         eventHandler = new OcppEventHandler();
 
@@ -125,4 +126,25 @@ public class OcppEventHandlerTest {
         assertEquals(cs.getNumberOfEvses(), EVSES.size());
     }
 
+    @Test
+    public void cachedChargingStationFollowsEvents() {
+        eventHandler.handle(new ChargingStationCreatedEvent(CHARGING_STATION_ID, USER_IDENTITIES_WITH_ALL_PERMISSIONS, NULL_USER_IDENTITY_CONTEXT));
+        assertFalse(chargingStationRepository.findOne(CHARGING_STATION_ID.getId()).isRegistered());
+        long hitCount = chargingStationRepository.getCacheStats().hitCount();
+
+        eventHandler.handle(new ChargingStationAcceptedEvent(CHARGING_STATION_ID, ROOT_IDENTITY_CONTEXT));
+
+        assertTrue(chargingStationRepository.findOne(CHARGING_STATION_ID.getId()).isRegistered());
+        assertTrue(chargingStationRepository.getCacheStats().hitCount() > hitCount);
+    }
+
+    @Test
+    public void changesToFoundChargingStationDoNotAffectCachedChargingStation() {
+        eventHandler.handle(new ChargingStationCreatedEvent(CHARGING_STATION_ID, USER_IDENTITIES_WITH_ALL_PERMISSIONS, NULL_USER_IDENTITY_CONTEXT));
+
+        chargingStationRepository.findOne(CHARGING_STATION_ID.getId()).setRegistered(true);
+
+        assertFalse(chargingStationRepository.findOne(CHARGING_STATION_ID.getId()).isRegistered());
+    }
+
 }
@@ -26,6 +26,9 @@ import io.motown.ocpp.websocketjson.response.handler.*;
 import io.motown.ocpp.websocketjson.schema.MessageProcUri;
 import io.motown.ocpp.websocketjson.schema.SchemaValidator;
 import io.motown.ocpp.websocketjson.schema.generated.v15.*;
+import io.motown.ocpp.websocketjson.session.ChargingStationSession;
+import io.motown.ocpp.websocketjson.session.PendingCallListener;
+import io.motown.ocpp.websocketjson.session.SessionRegistry;
 import io.motown.ocpp.websocketjson.wamp.WampMessage;
 import io.motown.ocpp.websocketjson.wamp.WampMessageParser;
 import org.atmosphere.websocket.WebSocket;
@@ -37,6 +40,8 @@ import java.io.Reader;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 public class OcppJsonService {
 
@@ -49,19 +54,18 @@ public class OcppJsonService {
     private Gson gson;
     private AddOnIdentity addOnIdentity;
     /**
-     * Map of requestHandlers, key is lowercase procUri.
+     * Map of requestHandlers, key is procUri.
      */
-    private Map<MessageProcUri, RequestHandler> requestHandlers = new HashMap<>();
+    private final ConcurrentMap<MessageProcUri, RequestHandler> requestHandlers = new ConcurrentHashMap<>();
 
     /**
-     * Map of sockets, key is charging station identifier.
+     * Sessions of the connected charging stations, including the calls awaiting a response.
      */
-    private Map<String, WebSocket> sockets = new HashMap<>();
+    private SessionRegistry sessionRegistry;
 
-    /**
-     * Map of response handlers, key is call id.
-     */
-    private Map<String, ResponseHandler> responseHandlers = new HashMap<>();
+    public OcppJsonService() {
+        setSessionRegistry(new SessionRegistry());
+    }
 
     public void handleMessage(ChargingStationId chargingStationId, Reader reader) {
         try {
@@ -79,12 +83,18 @@ public class OcppJsonService {
 
                 processWampMessage(chargingStationId, wampMessage);
             } else if (WampMessage.CALL_RESULT == wampMessage.getMessageType()) {
-                ResponseHandler responseHandler = responseHandlers.get(wampMessage.getCallId());
+                // removing the handler before handling guarantees a response is handled only once
+                ResponseHandler responseHandler = sessionRegistry.removePendingCall(chargingStationId, wampMessage.getCallId());
                 if (responseHandler != null) {
                     responseHandler.handle(chargingStationId, wampMessage, gson, domainService, addOnIdentity);
-
-                    // handled so we remove the handler
-                    responseHandlers.remove(wampMessage.getCallId());
+                } else {
+                    LOG.warn("No response handler found for callId [{}]", wampMessage.getCallId());
+                }
+            } else if (WampMessage.CALL_ERROR == wampMessage.getMessageType()) {
+                ResponseHandler responseHandler = sessionRegistry.removePendingCall(chargingStationId, wampMessage.getCallId());
+                if (responseHandler != null) {
+                    LOG.warn("Call [{}] to [{}] failed with error [{}]: {}", wampMessage.getCallId(), chargingStationId.getId(), wampMessage.getErrorCode(), wampMessage.getErrorDescription());
+                    informRequestFailed(chargingStationId, responseHandler, RequestFailureReason.ERROR_RESPONSE);
                 } else {
                     LOG.warn("No response handler found for callId [{}]", wampMessage.getCallId());
                 }
@@ -110,10 +120,8 @@ public class OcppJsonService {
         changeConfigurationRequest.setKey(configurationItem.getKey());
         changeConfigurationRequest.setValue(configurationItem.getValue());
 
-        responseHandlers.put(correlationToken.getToken(), new ChangeConfigurationResponseHandler(configurationItem, correlationToken));
-
         WampMessage wampMessage = new WampMessage(WampMessage.CALL, correlationToken.getToken(), MessageProcUri.CHANGE_CONFIGURATION, changeConfigurationRequest);
-        sendWampMessage(wampMessage, chargingStationId);
+        sendCall(chargingStationId, wampMessage, new ChangeConfigurationResponseHandler(configurationItem, correlationToken));
     }
 
     public void getConfiguration(ChargingStationId chargingStationId, Set<String> keys) {
@@ -121,10 +129,8 @@ public class OcppJsonService {
         Getconfiguration getConfigurationRequest = new Getconfiguration();
         getConfigurationRequest.setKey(new ArrayList<>(keys));
 
-        responseHandlers.put(correlationToken.getToken(), new GetConfigurationResponseHandler(correlationToken));
-
         WampMessage wampMessage = new WampMessage(WampMessage.CALL, correlationToken.getToken(), MessageProcUri.GET_CONFIGURATION, getConfigurationRequest);
-        sendWampMessage(wampMessage, chargingStationId);
+        sendCall(chargingStationId, wampMessage, new GetConfigurationResponseHandler(correlationToken));
     }
 
     public void getDiagnostics(ChargingStationId chargingStationId, DiagnosticsUploadSettings diagnosticsUploadSettings, CorrelationToken correlationToken) {
@@ -136,11 +142,8 @@ public class OcppJsonService {
             getDiagnosticsRequest.setStartTime(diagnosticsUploadSettings.getPeriodStartTime());
             getDiagnosticsRequest.setStopTime(diagnosticsUploadSettings.getPeriodStopTime());
 
-            responseHandlers.put(correlationToken.getToken(), new GetDiagnosticsResponseHandler(correlationToken));
-
             WampMessage wampMessage = new WampMessage(WampMessage.CALL, correlationToken.getToken(), MessageProcUri.GET_DIAGNOSTICS, getDiagnosticsRequest);
-
-            sendWampMessage(wampMessage, chargingStationId);
+            sendCall(chargingStationId, wampMessage, new GetDiagnosticsResponseHandler(correlationToken));
         } catch (URISyntaxException e) {
             LOG.error("Unable to perform get diagnostics request due to an invalid upload URI.", e);
         }
@@ -192,11 +195,8 @@ public class OcppJsonService {
         sendLocalListRequest.setListVersion(authorizationListVersion);
         sendLocalListRequest.setHash(authorizationListHash);
 
-        responseHandlers.put(correlationToken.getToken(), new SendLocalListResponseHandler(authorizationListVersion, updateType, authorizationList, correlationToken));
-
         WampMessage wampMessage = new WampMessage(WampMessage.CALL, correlationToken.getToken(), MessageProcUri.SEND_LOCALLIST, sendLocalListRequest);
-
-        sendWampMessage(wampMessage, chargingStationId);
+        sendCall(chargingStationId, wampMessage, new SendLocalListResponseHandler(authorizationListVersion, updateType, authorizationList, correlationToken));
     }
 
     public void reserveNow(ChargingStationId chargingStationId, EvseId evseId, IdentifyingToken identifyingToken, IdentifyingToken parentIdentifyingToken, Date expiryDate, CorrelationToken correlationToken) {
@@ -211,22 +211,16 @@ public class OcppJsonService {
         reserveNowRequest.setExpiryDate(expiryDate);
         reserveNowRequest.setReservationId(reservationId.getNumber());
 
-        responseHandlers.put(correlationToken.getToken(), new ReserveNowResponseHandler(reservationId, evseId, expiryDate, correlationToken));
-
         WampMessage wampMessage = new WampMessage(WampMessage.CALL, correlationToken.getToken(), MessageProcUri.RESERVE_NOW, reserveNowRequest);
-
-        sendWampMessage(wampMessage, chargingStationId);
+        sendCall(chargingStationId, wampMessage, new ReserveNowResponseHandler(reservationId, evseId, expiryDate, correlationToken));
     }
 
     public void cancelReservation(ChargingStationId chargingStationId, NumberedReservationId reservationId, CorrelationToken correlationToken) {
         Cancelreservation cancelReservationRequest = new Cancelreservation();
         cancelReservationRequest.setReservationId(reservationId.getNumber());
 
-        responseHandlers.put(correlationToken.getToken(), new CancelReservationResponseHandler(reservationId, correlationToken));
-
         WampMessage wampMessage = new WampMessage(WampMessage.CALL, correlationToken.getToken(), MessageProcUri.CANCEL_RESERVATION, cancelReservationRequest);
-
-        sendWampMessage(wampMessage, chargingStationId);
+        sendCall(chargingStationId, wampMessage, new CancelReservationResponseHandler(reservationId, correlationToken));
     }
 
     /**
@@ -264,20 +258,16 @@ public class OcppJsonService {
         Reset softResetRequest = new Reset();
         softResetRequest.setType(Reset.Type.SOFT);
 
-        responseHandlers.put(correlationToken.getToken(), new ResetResponseHandler(correlationToken));
-
         WampMessage wampMessage = new WampMessage(WampMessage.CALL, correlationToken.getToken(), MessageProcUri.RESET, softResetRequest);
-        sendWampMessage(wampMessage, chargingStationId);
+        sendCall(chargingStationId, wampMessage, new ResetResponseHandler(correlationToken));
     }
 
     public void hardReset(ChargingStationId chargingStationId, CorrelationToken correlationToken) {
         Reset hardResetRequest = new Reset();
         hardResetRequest.setType(Reset.Type.HARD);
 
-        responseHandlers.put(correlationToken.getToken(), new ResetResponseHandler(correlationToken));
-
         WampMessage wampMessage = new WampMessage(WampMessage.CALL, correlationToken.getToken(), MessageProcUri.RESET, hardResetRequest);
-        sendWampMessage(wampMessage, chargingStationId);
+        sendCall(chargingStationId, wampMessage, new ResetResponseHandler(correlationToken));
     }
 
     public void remoteStartTransaction(ChargingStationId chargingStationId, EvseId evseId, IdentifyingToken identifyingToken, CorrelationToken correlationToken) {
@@ -285,10 +275,8 @@ public class OcppJsonService {
         remoteStartTransactionRequest.setConnectorId(evseId.getNumberedId());
         remoteStartTransactionRequest.setIdTag(identifyingToken.getToken());
 
-        responseHandlers.put(correlationToken.getToken(), new RemoteStartTransactionResponseHandler(correlationToken));
-
         WampMessage wampMessage = new WampMessage(WampMessage.CALL, correlationToken.getToken(), MessageProcUri.REMOTE_START_TRANSACTION, remoteStartTransactionRequest);
-        sendWampMessage(wampMessage, chargingStationId);
+        sendCall(chargingStationId, wampMessage, new RemoteStartTransactionResponseHandler(correlationToken));
     }
 
     public void remoteStopTransaction(ChargingStationId chargingStationId, TransactionId transactionId, CorrelationToken correlationToken) {
@@ -296,49 +284,38 @@ public class OcppJsonService {
         Remotestoptransaction remoteStopTransactionRequest = new Remotestoptransaction();
         remoteStopTransactionRequest.setTransactionId(transactionIdNumber.getNumber());
 
-        responseHandlers.put(correlationToken.getToken(), new RemoteStopTransactionResponseHandler(correlationToken));
-
         WampMessage wampMessage = new WampMessage(WampMessage.CALL, correlationToken.getToken(), MessageProcUri.REMOTE_STOP_TRANSACTION, remoteStopTransactionRequest);
-        sendWampMessage(wampMessage, chargingStationId);
+        sendCall(chargingStationId, wampMessage, new RemoteStopTransactionResponseHandler(correlationToken));
     }
 
     public void unlockEvse(ChargingStationId chargingStationId, EvseId evseId, CorrelationToken correlationToken) {
         Unlockconnector unlockConnectorRequest = new Unlockconnector();
         unlockConnectorRequest.setConnectorId(evseId.getNumberedId());
 
-        responseHandlers.put(correlationToken.getToken(), new UnlockConnectorResponseHandler(evseId, correlationToken));
-
         WampMessage wampMessage = new WampMessage(WampMessage.CALL, correlationToken.getToken(), MessageProcUri.UNLOCK_CONNECTOR, unlockConnectorRequest);
-
-        sendWampMessage(wampMessage, chargingStationId);
+        sendCall(chargingStationId, wampMessage, new UnlockConnectorResponseHandler(evseId, correlationToken));
     }
 
     public void getLocalListVersion(ChargingStationId chargingStationId, CorrelationToken correlationToken) {
         Getlocallistversion getlocallistversionRequest = new Getlocallistversion();
 
-        responseHandlers.put(correlationToken.getToken(), new GetLocalListVersionResponseHandler(correlationToken));
-
         WampMessage wampMessage = new WampMessage(WampMessage.CALL, correlationToken.getToken(), MessageProcUri.GET_LOCALLIST_VERSION, getlocallistversionRequest);
-        sendWampMessage(wampMessage, chargingStationId);
+        sendCall(chargingStationId, wampMessage, new GetLocalListVersionResponseHandler(correlationToken));
     }
 
     public void clearCache(ChargingStationId chargingStationId, CorrelationToken correlationToken) {
         Clearcache clearCacheRequest = new Clearcache();
 
-        responseHandlers.put(correlationToken.getToken(), new ClearCacheResponseHandler(correlationToken));
-
         WampMessage wampMessage = new WampMessage(WampMessage.CALL, correlationToken.getToken(), MessageProcUri.CLEAR_CACHE, clearCacheRequest);
-        sendWampMessage(wampMessage, chargingStationId);
+        sendCall(chargingStationId, wampMessage, new ClearCacheResponseHandler(correlationToken));
     }
 
     public void changeAvailability(ChargingStationId chargingStationId, EvseId evseId, Changeavailability.Type availabilityType, CorrelationToken correlationToken) {
         Changeavailability changeAvailabilityRequest = new Changeavailability();
         changeAvailabilityRequest.setConnectorId(evseId.getNumberedId());
         changeAvailabilityRequest.setType(availabilityType);
-        responseHandlers.put(correlationToken.getToken(), new ChangeAvailabilityResponseHandler(evseId, availabilityType, correlationToken));
-
         WampMessage wampMessage = new WampMessage(WampMessage.CALL, correlationToken.getToken(), MessageProcUri.CHANGE_AVAILABILITY, changeAvailabilityRequest);
-        sendWampMessage(wampMessage, chargingStationId);
+        sendCall(chargingStationId, wampMessage, new ChangeAvailabilityResponseHandler(evseId, availabilityType, correlationToken));
     }
 
     public void dataTransfer(ChargingStationId chargingStationId, DataTransferMessage dataTransferMessage, CorrelationToken correlationToken) {
@@ -347,23 +324,49 @@ public class OcppJsonService {
         dataTransferRequest.setMessageId(dataTransferMessage.getMessageId());
         dataTransferRequest.setData(dataTransferMessage.getData());
 
-        responseHandlers.put(correlationToken.getToken(), new DataTransferResponseHandler(correlationToken));
-
         WampMessage wampMessage = new WampMessage(WampMessage.CALL, correlationToken.getToken(), MessageProcUri.DATA_TRANSFER, dataTransferRequest);
-        sendWampMessage(wampMessage, chargingStationId);
+        sendCall(chargingStationId, wampMessage, new DataTransferResponseHandler(correlationToken));
     }
 
-    private void sendWampMessage(WampMessage wampMessage, ChargingStationId chargingStationId) {
-        WebSocket webSocket = sockets.get(chargingStationId.getId());
+    /**
+     * Sends a call which expects a response. If the call cannot be sent the domain is informed the request failed.
+     *
+     * @param chargingStationId the charging station's id.
+     * @param wampMessage       the call.
+     * @param responseHandler   the handler of the response.
+     */
+    private void sendCall(ChargingStationId chargingStationId, WampMessage wampMessage, ResponseHandler responseHandler) {
+        if (!sessionRegistry.addPendingCall(chargingStationId, wampMessage.getCallId(), responseHandler)) {
+            informRequestFailed(chargingStationId, responseHandler, RequestFailureReason.NOT_DELIVERED);
+            return;
+        }
+
+        if (!sendWampMessage(wampMessage, chargingStationId) && sessionRegistry.removePendingCall(chargingStationId, wampMessage.getCallId()) != null) {
+            informRequestFailed(chargingStationId, responseHandler, RequestFailureReason.NOT_DELIVERED);
+        }
+    }
+
+    private boolean sendWampMessage(WampMessage wampMessage, ChargingStationId chargingStationId) {
+        WebSocket webSocket = sessionRegistry.getWebSocket(chargingStationId);
         if (webSocket != null) {
             try {
                 webSocket.write(wampMessage.toJson(gson));
+                return true;
             } catch (IOException e) {
                 LOG.error("IOException while writing to web socket", e);
             }
         } else {
             LOG.error("No web socket found for charging station id [{}]", chargingStationId.getId());
         }
+        return false;
+    }
+
+    private void informRequestFailed(ChargingStationId chargingStationId, ResponseHandler responseHandler, RequestFailureReason reason) {
+        CorrelationToken correlationToken = responseHandler.getCorrelationToken();
+
+        if (correlationToken != null) {
+            domainService.informRequestFailed(chargingStationId, reason, correlationToken, addOnIdentity);
+        }
     }
 
     private void processWampMessage(ChargingStationId chargingStationId, WampMessage wampMessage) {
@@ -406,10 +409,13 @@ public class OcppJsonService {
                     throw new AssertionError("Unknown ProcUri: " + wampMessage.getProcUri());
             }
 
-            requestHandlers.put(procUri, requestHandler);
+            RequestHandler existingRequestHandler = requestHandlers.putIfAbsent(procUri, requestHandler);
+            if (existingRequestHandler != null) {
+                requestHandler = existingRequestHandler;
+            }
         }
 
-        requestHandler.handleRequest(chargingStationId, wampMessage.getCallId(), wampMessage.getPayloadAsString(), sockets.get(chargingStationId.getId()));
+        requestHandler.handleRequest(chargingStationId, wampMessage.getCallId(), wampMessage.getPayloadAsString(), sessionRegistry.getWebSocket(chargingStationId));
     }
 
     public void setWampMessageParser(WampMessageParser wampMessageParser) {
@@ -428,20 +434,41 @@ public class OcppJsonService {
         this.gson = gson;
     }
 
+    public void setSessionRegistry(SessionRegistry sessionRegistry) {
+        this.sessionRegistry = sessionRegistry;
+        this.sessionRegistry.setPendingCallListener(new PendingCallListener() {
+            @Override
+            public void onPendingCallFailed(ChargingStationId chargingStationId, String callId, ResponseHandler responseHandler, RequestFailureReason reason) {
+                informRequestFailed(chargingStationId, responseHandler, reason);
+            }
+        });
+    }
+
+    public SessionRegistry getSessionRegistry() {
+        return sessionRegistry;
+    }
+
     public void addWebSocket(String chargingStationIdentifier, WebSocket webSocket) {
-        WebSocket existingSocket = sockets.put(chargingStationIdentifier, webSocket);
+        ChargingStationSession existingSession = sessionRegistry.openSession(new ChargingStationId(chargingStationIdentifier), webSocket);
 
-        if (existingSocket != null) {
-            existingSocket.close();
+        if (existingSession != null && existingSession.getWebSocket() != webSocket) {
+            existingSession.getWebSocket().close();
         }
     }
 
-    public void removeWebSocket(String chargingStationIdentifier) {
-        sockets.remove(chargingStationIdentifier);
+    /**
+     * Removes the web socket of a charging station. If the charging station has reconnected in the meantime the
+     * session of the new connection is left untouched.
+     *
+     * @param chargingStationIdentifier the charging station's identifier.
+     * @param webSocket                 the web socket which has been disconnected.
+     */
+    public void removeWebSocket(String chargingStationIdentifier, WebSocket webSocket) {
+        sessionRegistry.closeSession(new ChargingStationId(chargingStationIdentifier), webSocket);
     }
 
-    public void addResponseHandler(String callId, ResponseHandler responseHandler) {
-        responseHandlers.put(callId, responseHandler);
+    public void addResponseHandler(ChargingStationId chargingStationId, String callId, ResponseHandler responseHandler) {
+        sessionRegistry.addPendingCall(chargingStationId, callId, responseHandler);
     }
 
     public void addRequestHandler(MessageProcUri procUri, RequestHandler requestHandler) {
@@ -28,7 +28,7 @@ public abstract class ResponseHandler {
 
     public abstract void handle(ChargingStationId chargingStationId, WampMessage wampMessage, Gson gson, DomainService domainService, AddOnIdentity addOnIdentity);
 
-    CorrelationToken getCorrelationToken() {
+    public CorrelationToken getCorrelationToken() {
         return correlationToken;
     }
 
@@ -21,51 +21,85 @@ import com.github.fge.jsonschema.exceptions.ProcessingException;
 import com.github.fge.jsonschema.main.JsonSchema;
 import com.github.fge.jsonschema.main.JsonSchemaFactory;
 import com.github.fge.jsonschema.report.ProcessingReport;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Maps;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
-import java.util.HashMap;
+import java.util.EnumMap;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
 
+/**
+ * Validates OCPP-J requests against the JSON schemas of the OCPP version.
+ * <p/>
+ * All schemas are loaded when the validator is created, after that the validator only reads immutable state and can
+ * be shared between threads. To lower the cost of validating high volume messages such as heartbeats and meter values
+ * a sample rate can be configured per procUri, in which case only one in every N requests is validated.
+ */
 public class SchemaValidator {
 
     private static final Logger LOG = LoggerFactory.getLogger(SchemaValidator.class);
 
-    private JsonSchemaFactory factory;
+    private static final String SCHEMA_LOCATION = "/schemas/v15/%s.json";
 
     /**
      * Key value is procUri (eg: BootNotification), value is JsonSchema for validation.
      */
-    private Map<MessageProcUri, JsonSchema> schemas = new HashMap<>();
+    private final Map<MessageProcUri, JsonSchema> schemas;
+
+    /**
+     * Key value is procUri, value is the number of requests received for it. Used to determine which requests are
+     * sampled for validation.
+     */
+    private final Map<MessageProcUri, AtomicLong> requestCounts;
+
+    /**
+     * Key value is procUri, value is N where one in every N requests is validated. ProcUris which are not in this map
+     * are always validated.
+     */
+    private Map<MessageProcUri, Integer> sampleRates = ImmutableMap.of();
 
     public SchemaValidator() {
-        factory = JsonSchemaFactory.byDefault();
+        JsonSchemaFactory factory = JsonSchemaFactory.byDefault();
+
+        Map<MessageProcUri, JsonSchema> loadedSchemas = new EnumMap<>(MessageProcUri.class);
+        Map<MessageProcUri, AtomicLong> counts = new EnumMap<>(MessageProcUri.class);
+        for (MessageProcUri procUri : MessageProcUri.values()) {
+            JsonSchema schema = loadSchema(factory, procUri);
+            if (schema != null) {
+                loadedSchemas.put(procUri, schema);
+            }
+            counts.put(procUri, new AtomicLong());
+        }
+
+        this.schemas = Maps.immutableEnumMap(loadedSchemas);
+        this.requestCounts = Maps.immutableEnumMap(counts);
     }
 
+    /**
+     * Validates a request against the schema of its procUri. Requests which are skipped because of the sample rate of
+     * their procUri are considered valid.
+     *
+     * @param request the request payload.
+     * @param procUri the procUri of the request.
+     * @return false if the request has been validated and is invalid, or if there is no schema for the procUri.
+     */
     public boolean isValidRequest(String request, MessageProcUri procUri) {
         JsonSchema schema = schemas.get(procUri);
 
-        ProcessingReport report = null;
-
-        if(schema == null) {
-            try {
-                String schemaName = procUri.toString().toLowerCase();
-
-                JsonNode fstabSchema = JsonLoader.fromResource("/schemas/v15/" + schemaName + ".json");
-
-                schema = factory.getJsonSchema(fstabSchema);
+        if (schema == null) {
+            LOG.error("No JSON schema available for procUri: " + procUri);
+            return false;
+        }
 
-                schemas.put(procUri, schema);
-           } catch (IOException e) {
-                LOG.error("IOException while loading schema for procUri: " + procUri, e);
-                return false;
-            } catch (ProcessingException e) {
-                LOG.error("ProcessingException getting JSON schema for procUri: " + procUri, e);
-                return false;
-            }
+        if (!isSampled(procUri)) {
+            return true;
         }
 
+        ProcessingReport report = null;
+
         try {
             JsonNode jsonNode = JsonLoader.fromString(request);
             report = schema.validate(jsonNode);
@@ -78,4 +112,33 @@ public class SchemaValidator {
         return report != null && report.isSuccess();
     }
 
+    /**
+     * Sets the sample rates of procUris, one in every N requests of a procUri is validated. A sample rate of 1 (or less)
+     * validates every request, which is the default for procUris which are not configured.
+     *
+     * @param sampleRates map of procUri to N.
+     */
+    public void setSampleRates(Map<MessageProcUri, Integer> sampleRates) {
+        this.sampleRates = Maps.immutableEnumMap(sampleRates);
+    }
+
+    private boolean isSampled(MessageProcUri procUri) {
+        Integer sampleRate = sampleRates.get(procUri);
+
+        return sampleRate == null || sampleRate <= 1 || requestCounts.get(procUri).getAndIncrement() % sampleRate == 0;
+    }
+
+    private JsonSchema loadSchema(JsonSchemaFactory factory, MessageProcUri procUri) {
+        try {
+            JsonNode schemaNode = JsonLoader.fromResource(String.format(SCHEMA_LOCATION, procUri.toString().toLowerCase()));
+
+            return factory.getJsonSchema(schemaNode);
+        } catch (IOException e) {
+            LOG.error("IOException while loading schema for procUri: " + procUri, e);
+        } catch (ProcessingException e) {
+            LOG.error("ProcessingException getting JSON schema for procUri: " + procUri, e);
+        }
+        return null;
+    }
+
 }
@@ -0,0 +1,99 @@
+/**
+ * Copyright (C) 2013 Motown.IO (info@motown.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.motown.ocpp.websocketjson.session;
+
+import io.motown.domain.api.chargingstation.ChargingStationId;
+import org.atmosphere.websocket.WebSocket;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Connection of a single charging station. Holds the web socket and the calls which have been sent over this socket
+ * and are still awaiting a response. Responses can only arrive over the socket the call was sent on, so the pending
+ * calls live and die with the session.
+ */
+public class ChargingStationSession {
+
+    private final ChargingStationId chargingStationId;
+
+    private final WebSocket webSocket;
+
+    /**
+     * Map of pending calls, key is call id.
+     */
+    private final ConcurrentMap<String, PendingCall> pendingCalls = new ConcurrentHashMap<>();
+
+    public ChargingStationSession(ChargingStationId chargingStationId, WebSocket webSocket) {
+        this.chargingStationId = chargingStationId;
+        this.webSocket = webSocket;
+    }
+
+    public ChargingStationId getChargingStationId() {
+        return chargingStationId;
+    }
+
+    public WebSocket getWebSocket() {
+        return webSocket;
+    }
+
+    PendingCall addPendingCall(PendingCall pendingCall) {
+        return pendingCalls.put(pendingCall.getCallId(), pendingCall);
+    }
+
+    /**
+     * Removes a pending call. Only one thread can remove a call for a given call id, which guarantees a response is
+     * never handled twice.
+     *
+     * @param callId the call id.
+     * @return the pending call, or null if no call with the call id is pending.
+     */
+    PendingCall removePendingCall(String callId) {
+        return pendingCalls.remove(callId);
+    }
+
+    /**
+     * Removes a pending call, but only if it has not been replaced or removed in the meantime.
+     *
+     * @param pendingCall the pending call.
+     * @return true if the call has been removed.
+     */
+    boolean removePendingCall(PendingCall pendingCall) {
+        return pendingCalls.remove(pendingCall.getCallId(), pendingCall);
+    }
+
+    /**
+     * Removes all pending calls.
+     *
+     * @return the calls which have been removed by this invocation.
+     */
+    List<PendingCall> removePendingCalls() {
+        List<PendingCall> removed = new ArrayList<>();
+        for (String callId : pendingCalls.keySet()) {
+            PendingCall pendingCall = pendingCalls.remove(callId);
+            if (pendingCall != null) {
+                removed.add(pendingCall);
+            }
+        }
+        return removed;
+    }
+
+    int getPendingCallCount() {
+        return pendingCalls.size();
+    }
+}
@@ -0,0 +1,60 @@
+/**
+ * Copyright (C) 2013 Motown.IO (info@motown.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.motown.ocpp.websocketjson.session;
+
+import io.motown.ocpp.websocketjson.response.handler.ResponseHandler;
+
+import java.util.concurrent.ScheduledFuture;
+
+/**
+ * Call which has been sent to a charging station and awaits a response, together with the timer which expires it.
+ */
+class PendingCall {
+
+    private final String callId;
+
+    private final ResponseHandler responseHandler;
+
+    private volatile ScheduledFuture<?> timeout;
+
+    PendingCall(String callId, ResponseHandler responseHandler) {
+        this.callId = callId;
+        this.responseHandler = responseHandler;
+    }
+
+    String getCallId() {
+        return callId;
+    }
+
+    ResponseHandler getResponseHandler() {
+        return responseHandler;
+    }
+
+    void setTimeout(ScheduledFuture<?> timeout) {
+        this.timeout = timeout;
+    }
+
+    /**
+     * Cancels the timer of this call. If the timer has not been set yet it will fire eventually, but by then the call
+     * is no longer pending and the timer has no effect.
+     */
+    void cancelTimeout() {
+        ScheduledFuture<?> scheduledTimeout = timeout;
+        if (scheduledTimeout != null) {
+            scheduledTimeout.cancel(false);
+        }
+    }
+}
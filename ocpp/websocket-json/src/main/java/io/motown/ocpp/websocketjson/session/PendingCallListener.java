@@ -0,0 +1,37 @@
+/**
+ * Copyright (C) 2013 Motown.IO (info@motown.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.motown.ocpp.websocketjson.session;
+
+import io.motown.domain.api.chargingstation.ChargingStationId;
+import io.motown.domain.api.chargingstation.RequestFailureReason;
+import io.motown.ocpp.websocketjson.response.handler.ResponseHandler;
+
+/**
+ * Listener which is notified when the {@link SessionRegistry} gives up on a pending call.
+ */
+public interface PendingCallListener {
+
+    /**
+     * Called when a pending call will not receive a response anymore, either because it timed out or because the
+     * session it was sent over has been closed.
+     *
+     * @param chargingStationId the charging station's id.
+     * @param callId            the call id.
+     * @param responseHandler   the handler which was waiting for the response.
+     * @param reason            the reason the call failed.
+     */
+    void onPendingCallFailed(ChargingStationId chargingStationId, String callId, ResponseHandler responseHandler, RequestFailureReason reason);
+}
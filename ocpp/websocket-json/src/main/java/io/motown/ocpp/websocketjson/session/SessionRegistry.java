@@ -0,0 +1,301 @@
+/**
+ * Copyright (C) 2013 Motown.IO (info@motown.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.motown.ocpp.websocketjson.session;
+
+import io.motown.domain.api.chargingstation.ChargingStationId;
+import io.motown.domain.api.chargingstation.RequestFailureReason;
+import io.motown.domain.utils.concurrent.Timers;
+import io.motown.ocpp.websocketjson.response.handler.ResponseHandler;
+import org.atmosphere.websocket.WebSocket;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Thread safe registry of the sessions of all connected charging stations. Sessions are opened and closed from the
+ * web socket I/O threads while calls are registered from the event handling threads, therefore all state is kept in
+ * concurrent maps and no operation locks more than a single station.
+ * <p/>
+ * Every pending call has a deadline. A single shared timer thread expires calls which have not been answered in time,
+ * and the number of pending calls is capped per charging station and globally, so calls that are never answered
+ * cannot exhaust the heap.
+ */
+public class SessionRegistry {
+
+    private static final Logger LOG = LoggerFactory.getLogger(SessionRegistry.class);
+
+    private static final int DEFAULT_INITIAL_CAPACITY = 1024;
+
+    private static final float DEFAULT_LOAD_FACTOR = 0.75f;
+
+    private static final int DEFAULT_CONCURRENCY_LEVEL = 64;
+
+    private final ConcurrentMap<ChargingStationId, ChargingStationSession> sessions;
+
+    private final ScheduledThreadPoolExecutor timer;
+
+    private final AtomicInteger pendingCallCount = new AtomicInteger();
+
+    private final AtomicLong expiredCallCount = new AtomicLong();
+
+    private final AtomicLong rejectedCallCount = new AtomicLong();
+
+    /**
+     * The time in milliseconds a charging station gets to respond to a call.
+     */
+    private long callTimeoutInMillis = 30000;
+
+    /**
+     * The maximum number of calls which can await a response from a single charging station.
+     */
+    private int maxPendingCallsPerChargingStation = 50;
+
+    /**
+     * The maximum number of calls which can await a response from all charging stations together.
+     */
+    private int maxPendingCalls = 100000;
+
+    private PendingCallListener pendingCallListener;
+
+    public SessionRegistry() {
+        this(DEFAULT_INITIAL_CAPACITY, DEFAULT_CONCURRENCY_LEVEL);
+    }
+
+    /**
+     * Creates a registry.
+     *
+     * @param initialCapacity  the number of charging stations expected to be connected.
+     * @param concurrencyLevel the estimated number of threads concurrently opening and closing sessions.
+     */
+    public SessionRegistry(int initialCapacity, int concurrencyLevel) {
+        this.sessions = new ConcurrentHashMap<>(initialCapacity, DEFAULT_LOAD_FACTOR, concurrencyLevel);
+
+        this.timer = Timers.newTimer("ocppj-call-timeout-%d");
+    }
+
+    /**
+     * Opens a session for a charging station. If the charging station already had a session, the previous session is
+     * replaced and returned so the caller can close its web socket. Calls which were pending on the replaced session
+     * are failed.
+     *
+     * @param chargingStationId the charging station's id.
+     * @param webSocket         the web socket of the new connection.
+     * @return the replaced session, or null if the charging station was not connected.
+     */
+    public ChargingStationSession openSession(ChargingStationId chargingStationId, WebSocket webSocket) {
+        ChargingStationSession replaced = sessions.put(chargingStationId, new ChargingStationSession(chargingStationId, webSocket));
+
+        if (replaced != null) {
+            failPendingCalls(replaced);
+        }
+
+        return replaced;
+    }
+
+    /**
+     * Closes the session of a charging station, but only if it still belongs to the given web socket. A disconnect of
+     * a connection which has already been replaced by a new one will therefore leave the new session intact. Calls
+     * which were pending on the closed session are failed.
+     *
+     * @param chargingStationId the charging station's id.
+     * @param webSocket         the web socket which has been disconnected.
+     * @return the closed session, or null if no session belonging to the web socket was found.
+     */
+    public ChargingStationSession closeSession(ChargingStationId chargingStationId, WebSocket webSocket) {
+        ChargingStationSession session = sessions.get(chargingStationId);
+
+        if (session != null && session.getWebSocket() == webSocket && sessions.remove(chargingStationId, session)) {
+            failPendingCalls(session);
+            return session;
+        }
+
+        return null;
+    }
+
+    public ChargingStationSession getSession(ChargingStationId chargingStationId) {
+        return sessions.get(chargingStationId);
+    }
+
+    /**
+     * Gets the web socket of a charging station.
+     *
+     * @param chargingStationId the charging station's id.
+     * @return the web socket, or null if the charging station is not connected.
+     */
+    public WebSocket getWebSocket(ChargingStationId chargingStationId) {
+        ChargingStationSession session = sessions.get(chargingStationId);
+        return session != null ? session.getWebSocket() : null;
+    }
+
+    /**
+     * Registers a call which awaits a response from the charging station. The call is not registered if the charging
+     * station is not connected or if registering it would exceed the maximum number of pending calls, in which case the
+     * call should not be sent.
+     *
+     * @param chargingStationId the charging station's id.
+     * @param callId            the call id.
+     * @param responseHandler   the handler of the response.
+     * @return true if the response handler has been registered.
+     */
+    public boolean addPendingCall(ChargingStationId chargingStationId, String callId, ResponseHandler responseHandler) {
+        final ChargingStationSession session = sessions.get(chargingStationId);
+
+        if (session == null) {
+            LOG.warn("Not registering call [{}] as charging station [{}] is not connected", callId, chargingStationId.getId());
+            return false;
+        }
+
+        if (session.getPendingCallCount() >= maxPendingCallsPerChargingStation) {
+            LOG.warn("Not registering call [{}] as charging station [{}] has reached the maximum of [{}] pending calls", callId, chargingStationId.getId(), maxPendingCallsPerChargingStation);
+            rejectedCallCount.incrementAndGet();
+            return false;
+        }
+
+        if (pendingCallCount.incrementAndGet() > maxPendingCalls) {
+            pendingCallCount.decrementAndGet();
+            LOG.warn("Not registering call [{}] for charging station [{}] as the maximum of [{}] pending calls has been reached", callId, chargingStationId.getId(), maxPendingCalls);
+            rejectedCallCount.incrementAndGet();
+            return false;
+        }
+
+        final PendingCall pendingCall = new PendingCall(callId, responseHandler);
+        PendingCall replaced = session.addPendingCall(pendingCall);
+        if (replaced != null) {
+            replaced.cancelTimeout();
+            pendingCallCount.decrementAndGet();
+        }
+
+        pendingCall.setTimeout(timer.schedule(new Runnable() {
+            @Override
+            public void run() {
+                expire(session, pendingCall);
+            }
+        }, callTimeoutInMillis, TimeUnit.MILLISECONDS));
+
+        return true;
+    }
+
+    /**
+     * Removes a pending call of a charging station.
+     *
+     * @param chargingStationId the charging station's id.
+     * @param callId            the call id.
+     * @return the response handler of the call, or null if no such call is pending.
+     */
+    public ResponseHandler removePendingCall(ChargingStationId chargingStationId, String callId) {
+        ChargingStationSession session = sessions.get(chargingStationId);
+        PendingCall pendingCall = session != null ? session.removePendingCall(callId) : null;
+
+        if (pendingCall == null) {
+            return null;
+        }
+
+        pendingCall.cancelTimeout();
+        pendingCallCount.decrementAndGet();
+
+        return pendingCall.getResponseHandler();
+    }
+
+    /**
+     * Stops the timer which expires pending calls.
+     */
+    public void shutdown() {
+        timer.shutdownNow();
+    }
+
+    public void setCallTimeoutInMillis(long callTimeoutInMillis) {
+        this.callTimeoutInMillis = callTimeoutInMillis;
+    }
+
+    public void setMaxPendingCallsPerChargingStation(int maxPendingCallsPerChargingStation) {
+        this.maxPendingCallsPerChargingStation = maxPendingCallsPerChargingStation;
+    }
+
+    public void setMaxPendingCalls(int maxPendingCalls) {
+        this.maxPendingCalls = maxPendingCalls;
+    }
+
+    public void setPendingCallListener(PendingCallListener pendingCallListener) {
+        this.pendingCallListener = pendingCallListener;
+    }
+
+    public int getSessionCount() {
+        return sessions.size();
+    }
+
+    /**
+     * Gets the number of calls currently awaiting a response.
+     *
+     * @return the number of pending calls.
+     */
+    public int getPendingCallCount() {
+        return pendingCallCount.get();
+    }
+
+    /**
+     * Gets the number of calls which have been expired because no response was received in time, since startup.
+     *
+     * @return the number of expired calls.
+     */
+    public long getExpiredCallCount() {
+        return expiredCallCount.get();
+    }
+
+    /**
+     * Gets the number of calls which have not been registered because a maximum of pending calls was reached, since
+     * startup.
+     *
+     * @return the number of rejected calls.
+     */
+    public long getRejectedCallCount() {
+        return rejectedCallCount.get();
+    }
+
+    private void expire(ChargingStationSession session, PendingCall pendingCall) {
+        if (session.removePendingCall(pendingCall)) {
+            pendingCallCount.decrementAndGet();
+            expiredCallCount.incrementAndGet();
+
+            LOG.warn("Call [{}] to charging station [{}] has not been answered within [{}] ms", pendingCall.getCallId(), session.getChargingStationId().getId(), callTimeoutInMillis);
+            notifyFailure(session, pendingCall, RequestFailureReason.TIMEOUT);
+        }
+    }
+
+    private void failPendingCalls(ChargingStationSession session) {
+        for (PendingCall pendingCall : session.removePendingCalls()) {
+            pendingCall.cancelTimeout();
+            pendingCallCount.decrementAndGet();
+
+            notifyFailure(session, pendingCall, RequestFailureReason.CONNECTION_LOST);
+        }
+    }
+
+    private void notifyFailure(ChargingStationSession session, PendingCall pendingCall, RequestFailureReason reason) {
+        if (pendingCallListener != null) {
+            try {
+                pendingCallListener.onPendingCallFailed(session.getChargingStationId(), pendingCall.getCallId(), pendingCall.getResponseHandler(), reason);
+            } catch (RuntimeException e) {
+                LOG.error("Exception while notifying failure of call [{}]", pendingCall.getCallId(), e);
+            }
+        }
+    }
+}
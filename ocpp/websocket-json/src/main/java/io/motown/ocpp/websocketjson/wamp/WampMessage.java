@@ -48,6 +48,11 @@ public class WampMessage {
 
     private static final String UNKNOWN_MESSAGE_TYPE_MESSAGE = "Unknown message type: %s";
 
+    /**
+     * Gson instances are thread safe, sharing one avoids rebuilding the type adapter caches for every payload.
+     */
+    private static final Gson GSON = new Gson();
+
     public WampMessage(List<Object> list) {
         messageType = ((Double) list.get(0)).intValue();
         callId = list.get(1).toString();
@@ -149,7 +154,7 @@ public class WampMessage {
         if (payload instanceof String) {
             return (String) payload;
         } else {
-            return new Gson().toJson(payload);
+            return GSON.toJson(payload);
         }
     }
 
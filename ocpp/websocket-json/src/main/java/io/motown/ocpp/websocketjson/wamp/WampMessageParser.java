@@ -19,12 +19,21 @@ import io.motown.ocpp.websocketjson.schema.MessageProcUri;
 
 import java.io.IOException;
 import java.io.Reader;
+import java.util.Arrays;
 
 /**
- * Wamp specific message parser
+ * Wamp specific message parser.
+ * <p/>
+ * The message is tokenized in a single pass over the characters read from the reader. Only the values which end up in
+ * the {@link WampMessage} are turned into Strings, the payload is kept as the raw JSON text it was received as so it
+ * can be handed to the schema validator and the response handlers without serializing it again.
+ * <p/>
+ * Instances are stateless and can be shared between threads.
  */
 public class WampMessageParser {
 
+    private static final int INITIAL_BUFFER_SIZE = 1024;
+
     public WampMessageParser() {
     }
 
@@ -33,83 +42,271 @@ public class WampMessageParser {
      * @param reader containing the message
      * @return WampMessage
      * @throws IOException in case the message could not be read
-     * @throws IllegalArgumentException in case an unknown wamp messageType is encountered
+     * @throws IllegalArgumentException in case the message is malformed or an unknown wamp messageType is encountered
      */
     public WampMessage parseMessage(Reader reader) throws IOException {
-        String rawMessage = this.convertToString(reader);
-
-        //In case a payload is present, it always is the last part of the message
-        int payloadStart = rawMessage.indexOf("{");
-        String payload = payloadStart > 0 ? rawMessage.substring(payloadStart) : null;
-        String metaData = payloadStart > 0 ? rawMessage.substring(0, payloadStart) : rawMessage;
-        String[] metaDataParts = metaData.split(",");
+        Tokenizer tokenizer = new Tokenizer(read(reader));
 
-        int messageType = Integer.parseInt(removeQuotesAndTrim(metaDataParts[0]));
-        String callId = removeQuotes(removeQuotesAndTrim(metaDataParts[1]));
+        tokenizer.consume('[');
+        int messageType = tokenizer.nextInt();
+        tokenizer.consume(',');
+        String callId = tokenizer.nextString().trim();
 
         WampMessage wampMessage;
         switch (messageType) {
             case WampMessage.CALL:
-                MessageProcUri procUri = MessageProcUri.fromValue(removeQuotesAndTrim(metaDataParts[2]));
-                wampMessage = new WampMessage(messageType, callId, procUri, payload);
+                tokenizer.consume(',');
+                MessageProcUri procUri = MessageProcUri.fromValue(tokenizer.nextString().trim());
+                wampMessage = new WampMessage(messageType, callId, procUri, nextPayload(tokenizer));
                 break;
             case WampMessage.CALL_RESULT:
-                wampMessage = new WampMessage(messageType, callId, payload);
+                wampMessage = new WampMessage(messageType, callId, nextPayload(tokenizer));
                 break;
             case WampMessage.CALL_ERROR:
-                String errorCode = removeQuotes(metaDataParts[2]);
-                String errorDescription = removeQuotes(metaDataParts[3]);
-                String errorDetails = removeQuotes(metaDataParts[4]);
+                tokenizer.consume(',');
+                String errorCode = tokenizer.nextString();
+                tokenizer.consume(',');
+                String errorDescription = tokenizer.nextString();
+                tokenizer.consume(',');
+                String errorDetails = tokenizer.nextStringOrRawValue();
                 wampMessage = new WampMessage(messageType, callId, errorCode, errorDescription, errorDetails);
                 break;
             default:
                 throw new IllegalArgumentException(String.format("Unknown WAMP messageType: %s", messageType));
         }
+
+        tokenizer.consume(']');
+        tokenizer.consumeEnd();
+
         return wampMessage;
     }
 
     /**
-     * Constructs a String by reading the characters from the Reader
+     * Reads the optional payload, which is always the last element of the message.
+     *
+     * @param tokenizer tokenizer positioned after the last element before the payload.
+     * @return the raw JSON text of the payload, or null if the message has no payload.
+     */
+    private String nextPayload(Tokenizer tokenizer) {
+        if (tokenizer.peek() == ']') {
+            return null;
+        }
+        tokenizer.consume(',');
+        return tokenizer.nextRawValue();
+    }
+
+    /**
+     * Reads all characters of the reader into a single buffer, the buffer is never copied into an intermediate String.
+     *
      * @param reader Reader to read from
-     * @return String containing the message
+     * @return the characters, the buffer is trimmed to the number of characters read
      * @throws IOException in case of read failure
      */
-    private String convertToString(Reader reader) throws IOException {
-        StringBuilder stringBuilder = new StringBuilder();
+    private char[] read(Reader reader) throws IOException {
+        char[] buffer = new char[INITIAL_BUFFER_SIZE];
+        int length = 0;
         int numChars;
-        char[] chars = new char[50];
-        do {
-            numChars = reader.read(chars, 0, chars.length);
-            if (numChars > 0) {
-                stringBuilder.append(chars, 0, numChars);
+        while ((numChars = reader.read(buffer, length, buffer.length - length)) != -1) {
+            length += numChars;
+            if (length == buffer.length) {
+                buffer = Arrays.copyOf(buffer, buffer.length * 2);
             }
-        } while (numChars != -1);
-
-        String result = stringBuilder.toString();
-        //Remove any leading or trailing spaces
-        result = result.trim();
-        //Strip off the leading '[' and trailing ']' characters
-        return result.substring(1,result.length()-1);
+        }
+        return length == buffer.length ? buffer : Arrays.copyOf(buffer, length);
     }
 
     /**
-     * Removes all single and double quotes from the given String.
-     * @param toReplace String to replace the quotes from
-     * @return String without quotes
+     * Minimal JSON tokenizer for the top level array of a WAMP message.
      */
-    private String removeQuotes(String toReplace) {
-        String noQuotes = toReplace.replaceAll("\"", "");
-        noQuotes = noQuotes.replaceAll("'", "");
-        return noQuotes;
-    }
+    private static final class Tokenizer {
 
-    /**
-     * Removes leading and trailing spaces next to the removal of quotes {@link #removeQuotes(String)}
-     * @param message the message to trim.
-     * @return String free of quotes and leading/trailing spaces
-     */
-    private String removeQuotesAndTrim(String message) {
-        return removeQuotes(message).trim();
-    }
+        private final char[] chars;
+
+        private int position;
+
+        private Tokenizer(char[] chars) {
+            this.chars = chars;
+        }
+
+        /**
+         * Returns the next non whitespace character without consuming it.
+         */
+        private char peek() {
+            skipWhitespace();
+            if (position >= chars.length) {
+                throw malformed("unexpected end of message");
+            }
+            return chars[position];
+        }
+
+        private void consume(char expected) {
+            if (peek() != expected) {
+                throw malformed(String.format("expected '%s'", expected));
+            }
+            position++;
+        }
+
+        private void consumeEnd() {
+            skipWhitespace();
+            if (position != chars.length) {
+                throw malformed("unexpected characters after end of message");
+            }
+        }
+
+        private int nextInt() {
+            peek();
+            int start = position;
+            int value = 0;
+            while (position < chars.length && chars[position] >= '0' && chars[position] <= '9') {
+                value = value * 10 + (chars[position] - '0');
+                position++;
+            }
+            if (position == start) {
+                throw malformed("expected a number");
+            }
+            return value;
+        }
+
+        private String nextString() {
+            consume('"');
+            int start = position;
+            while (position < chars.length) {
+                char c = chars[position];
+                if (c == '"') {
+                    return new String(chars, start, position++ - start);
+                }
+                if (c == '\\') {
+                    return nextEscapedString(start);
+                }
+                position++;
+            }
+            throw malformed("unterminated string");
+        }
+
+        /**
+         * Continues reading a string which contains escape sequences, only strings which actually contain escapes pay
+         * for the StringBuilder.
+         */
+        private String nextEscapedString(int start) {
+            StringBuilder builder = new StringBuilder(position - start + 16);
+            builder.append(chars, start, position - start);
+            while (position < chars.length) {
+                char c = chars[position++];
+                if (c == '"') {
+                    return builder.toString();
+                }
+                if (c != '\\') {
+                    builder.append(c);
+                    continue;
+                }
+                if (position >= chars.length) {
+                    break;
+                }
+                char escaped = chars[position++];
+                switch (escaped) {
+                    case 'b':
+                        builder.append('\b');
+                        break;
+                    case 'f':
+                        builder.append('\f');
+                        break;
+                    case 'n':
+                        builder.append('\n');
+                        break;
+                    case 'r':
+                        builder.append('\r');
+                        break;
+                    case 't':
+                        builder.append('\t');
+                        break;
+                    case 'u':
+                        if (position + 4 > chars.length) {
+                            throw malformed("invalid unicode escape");
+                        }
+                        try {
+                            builder.append((char) Integer.parseInt(new String(chars, position, 4), 16));
+                        } catch (NumberFormatException e) {
+                            throw malformed("invalid unicode escape");
+                        }
+                        position += 4;
+                        break;
+                    default:
+                        // '"', '\\' and '/'
+                        builder.append(escaped);
+                }
+            }
+            throw malformed("unterminated string");
+        }
+
+        /**
+         * Returns the next value as a String if it is a JSON string, or as raw JSON text otherwise.
+         */
+        private String nextStringOrRawValue() {
+            return peek() == '"' ? nextString() : nextRawValue();
+        }
 
+        /**
+         * Returns the raw JSON text of the next value, nested objects and arrays are skipped as a whole.
+         */
+        private String nextRawValue() {
+            peek();
+            int start = position;
+            int depth = 0;
+            while (position < chars.length) {
+                char c = chars[position];
+                if (c == '"') {
+                    skipString();
+                    if (depth == 0) {
+                        break;
+                    }
+                    continue;
+                }
+                if (c == '{' || c == '[') {
+                    depth++;
+                } else if (c == '}' || c == ']') {
+                    if (depth == 0) {
+                        break;
+                    }
+                    if (--depth == 0) {
+                        position++;
+                        break;
+                    }
+                } else if (depth == 0 && (c == ',' || Character.isWhitespace(c))) {
+                    break;
+                }
+                position++;
+            }
+            if (depth != 0) {
+                throw malformed("unterminated value");
+            }
+            if (position == start) {
+                throw malformed("expected a value");
+            }
+            return new String(chars, start, position - start);
+        }
+
+        private void skipString() {
+            position++;
+            while (position < chars.length) {
+                char c = chars[position++];
+                if (c == '"') {
+                    return;
+                }
+                if (c == '\\') {
+                    position++;
+                }
+            }
+            throw malformed("unterminated string");
+        }
+
+        private void skipWhitespace() {
+            while (position < chars.length && Character.isWhitespace(chars[position])) {
+                position++;
+            }
+        }
+
+        private IllegalArgumentException malformed(String reason) {
+            return new IllegalArgumentException(String.format("Malformed WAMP message at position %d: %s", position, reason));
+        }
+    }
 }
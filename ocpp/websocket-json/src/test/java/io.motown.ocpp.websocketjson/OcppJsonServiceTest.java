@@ -20,8 +20,10 @@ import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
 import com.google.gson.Gson;
 import io.motown.domain.api.chargingstation.*;
+import io.motown.domain.api.security.AddOnIdentity;
 import io.motown.ocpp.viewmodel.domain.DomainService;
 import io.motown.ocpp.websocketjson.request.handler.DataTransferRequestHandler;
+import io.motown.ocpp.websocketjson.response.handler.ResponseHandler;
 import io.motown.ocpp.websocketjson.schema.MessageProcUri;
 import io.motown.ocpp.websocketjson.schema.SchemaValidator;
 import io.motown.ocpp.websocketjson.schema.generated.v15.*;
@@ -44,6 +46,7 @@ import static io.motown.ocpp.websocketjson.OcppWebSocketJsonTestUtils.*;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.*;
 
 public class OcppJsonServiceTest {
@@ -54,6 +57,8 @@ public class OcppJsonServiceTest {
 
     private WebSocket mockWebSocket;
 
+    private DomainService domainService;
+
     private String createExpectedMessageCall(MessageProcUri messageProcUri, Object payload) {
         return String.format("[%d,\"%s\",\"%s\",%s]", WampMessage.CALL, CORRELATION_TOKEN.getToken(), messageProcUri.toString(), gson.toJson(payload)).replaceAll("\\s+", "");
     }
@@ -62,7 +67,7 @@ public class OcppJsonServiceTest {
     public void setup() {
         gson = getGson();
 
-        DomainService domainService = mock(DomainService.class);
+        domainService = mock(DomainService.class);
         when(domainService.generateReservationIdentifier(any(ChargingStationId.class), anyString())).thenReturn(RESERVATION_ID);
 
         mockWebSocket = getMockWebSocket();
@@ -125,6 +130,61 @@ public class OcppJsonServiceTest {
         service.handleMessage(CHARGING_STATION_ID, new StringReader(request));
     }
 
+    @Test
+    public void responseIsHandledOnlyOnce() {
+        String callId = UUID.randomUUID().toString();
+        ResponseHandler responseHandler = mock(ResponseHandler.class);
+        service.addResponseHandler(CHARGING_STATION_ID, callId, responseHandler);
+        String response = createAcceptedCallResult(callId);
+
+        service.handleMessage(CHARGING_STATION_ID, new StringReader(response));
+        service.handleMessage(CHARGING_STATION_ID, new StringReader(response));
+
+        verify(responseHandler, times(1)).handle(eq(CHARGING_STATION_ID), any(WampMessage.class), any(Gson.class), any(DomainService.class), any(AddOnIdentity.class));
+    }
+
+    @Test
+    public void callErrorInformsDomainRequestFailed() {
+        ResponseHandler responseHandler = mock(ResponseHandler.class);
+        when(responseHandler.getCorrelationToken()).thenReturn(CORRELATION_TOKEN);
+        service.addResponseHandler(CHARGING_STATION_ID, CORRELATION_TOKEN.getToken(), responseHandler);
+        String response = String.format("[%d,\"%s\",\"%s\",\"%s\",{}]", WampMessage.CALL_ERROR, CORRELATION_TOKEN.getToken(), "InternalError", "Failure");
+
+        service.handleMessage(CHARGING_STATION_ID, new StringReader(response));
+
+        verify(domainService).informRequestFailed(eq(CHARGING_STATION_ID), eq(RequestFailureReason.ERROR_RESPONSE), eq(CORRELATION_TOKEN), any(AddOnIdentity.class));
+        verify(responseHandler, never()).handle(any(ChargingStationId.class), any(WampMessage.class), any(Gson.class), any(DomainService.class), any(AddOnIdentity.class));
+    }
+
+    @Test
+    public void callToDisconnectedChargingStationInformsDomainRequestFailed() {
+        service.removeWebSocket(CHARGING_STATION_ID.getId(), mockWebSocket);
+
+        service.softReset(CHARGING_STATION_ID, CORRELATION_TOKEN);
+
+        verify(domainService).informRequestFailed(eq(CHARGING_STATION_ID), eq(RequestFailureReason.NOT_DELIVERED), eq(CORRELATION_TOKEN), any(AddOnIdentity.class));
+    }
+
+    @Test
+    public void disconnectFailsPendingCalls() {
+        service.softReset(CHARGING_STATION_ID, CORRELATION_TOKEN);
+
+        service.removeWebSocket(CHARGING_STATION_ID.getId(), mockWebSocket);
+
+        verify(domainService).informRequestFailed(eq(CHARGING_STATION_ID), eq(RequestFailureReason.CONNECTION_LOST), eq(CORRELATION_TOKEN), any(AddOnIdentity.class));
+    }
+
+    @Test
+    public void disconnectOfReplacedWebSocketKeepsNewWebSocket() throws IOException {
+        WebSocket webSocket = getMockWebSocket();
+        service.addWebSocket(CHARGING_STATION_ID.getId(), webSocket);
+        service.removeWebSocket(CHARGING_STATION_ID.getId(), mockWebSocket);
+
+        service.unlockEvse(CHARGING_STATION_ID, EVSE_ID, new CorrelationToken());
+
+        verify(webSocket).write(anyString());
+    }
+
     @Test
     public void noSocket() throws IOException {
         // no exception
@@ -164,7 +224,7 @@ public class OcppJsonServiceTest {
     public void removeWebSocketFromServiceVerifyNoCalls() throws IOException {
         WebSocket webSocket = getMockWebSocket();
         service.addWebSocket(CHARGING_STATION_ID.getId(), webSocket);
-        service.removeWebSocket(CHARGING_STATION_ID.getId());
+        service.removeWebSocket(CHARGING_STATION_ID.getId(), webSocket);
 
         // using 'cancelReservation' to trigger a write on the socket.. which should not occur
         service.cancelReservation(CHARGING_STATION_ID, RESERVATION_ID, CORRELATION_TOKEN);
@@ -15,6 +15,7 @@
  */
 package io.motown.ocpp.websocketjson.schema;
 
+import com.google.common.collect.ImmutableMap;
 import org.junit.Test;
 
 import static org.junit.Assert.assertFalse;
@@ -76,4 +77,33 @@ public class SchemaValidatorTest {
         assertFalse(validRequest);
     }
 
+    @Test
+    public void validateSampledRequests() {
+        SchemaValidator validator = new SchemaValidator();
+        validator.setSampleRates(ImmutableMap.of(MessageProcUri.DIAGNOSTICSS_STATUS_NOTIFICATION, 3));
+        String invalidRequest = "{\"status\": \"UPLOADED\"}";
+
+        assertFalse(validator.isValidRequest(invalidRequest, MessageProcUri.DIAGNOSTICSS_STATUS_NOTIFICATION));
+        assertTrue(validator.isValidRequest(invalidRequest, MessageProcUri.DIAGNOSTICSS_STATUS_NOTIFICATION));
+        assertTrue(validator.isValidRequest(invalidRequest, MessageProcUri.DIAGNOSTICSS_STATUS_NOTIFICATION));
+        assertFalse(validator.isValidRequest(invalidRequest, MessageProcUri.DIAGNOSTICSS_STATUS_NOTIFICATION));
+    }
+
+    @Test
+    public void validateRequestsWithoutSampleRate() {
+        SchemaValidator validator = new SchemaValidator();
+        validator.setSampleRates(ImmutableMap.of(MessageProcUri.HEARTBEAT, 10));
+        String invalidRequest = "{\"messageId\": \"GetChargeInstruction\",\"data\": \"\"}";
+
+        assertFalse(validator.isValidRequest(invalidRequest, MessageProcUri.DATA_TRANSFER));
+        assertFalse(validator.isValidRequest(invalidRequest, MessageProcUri.DATA_TRANSFER));
+    }
+
+    @Test
+    public void validateMalformedRequest() {
+        SchemaValidator validator = new SchemaValidator();
+
+        assertFalse(validator.isValidRequest("{\"status\": ", MessageProcUri.DIAGNOSTICSS_STATUS_NOTIFICATION));
+    }
+
 }
@@ -25,6 +25,7 @@ import java.io.StringReader;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 
 public class WampMessageParserTest {
 
@@ -90,4 +91,70 @@ public class WampMessageParserTest {
         assertEquals(errorDetails, wampMessage.getErrorDetails());
     }
 
+    @Test
+    public void processRequestKeepsRawPayload() throws IOException {
+        String payload = "{\"idTag\":\"A,B]C\\\"D\",\"nested\":{\"list\":[1,2,{}]}}";
+        Reader reader = new StringReader(String.format("[%d,\"%s\",\"%s\", %s ]", WampMessage.CALL, CALL_ID, MessageProcUri.AUTHORIZE.toString(), payload));
+
+        WampMessage wampMessage = parser.parseMessage(reader);
+
+        assertEquals(payload, wampMessage.getPayload());
+        assertEquals(payload, wampMessage.getPayloadAsString());
+    }
+
+    @Test
+    public void processResponseWithCommaAndEscapesInCallId() throws IOException {
+        Reader reader = new StringReader(String.format("[%d,\"%s\",{}]", WampMessage.CALL_RESULT, "12,\\\"34\\u0041"));
+
+        WampMessage wampMessage = parser.parseMessage(reader);
+
+        assertEquals("12,\"34A", wampMessage.getCallId());
+        assertEquals("{}", wampMessage.getPayload());
+    }
+
+    @Test
+    public void processResponseWithoutPayload() throws IOException {
+        Reader reader = new StringReader(String.format("[%d,\"%s\"]", WampMessage.CALL_RESULT, CALL_ID));
+
+        WampMessage wampMessage = parser.parseMessage(reader);
+
+        assertEquals(CALL_ID, wampMessage.getCallId());
+        assertNull(wampMessage.getPayload());
+    }
+
+    @Test
+    public void processErrorResponseWithObjectDetails() throws IOException {
+        Reader reader = new StringReader(String.format("[%d,\"%s\",\"%s\",\"%s\",%s]", WampMessage.CALL_ERROR, CALL_ID, "InternalError", "Failed, retry later", "{\"reason\":\"busy\"}"));
+
+        WampMessage wampMessage = parser.parseMessage(reader);
+
+        assertEquals("InternalError", wampMessage.getErrorCode());
+        assertEquals("Failed, retry later", wampMessage.getErrorDescription());
+        assertEquals("{\"reason\":\"busy\"}", wampMessage.getErrorDetails());
+    }
+
+    @Test
+    public void processLargeMessage() throws IOException {
+        StringBuilder data = new StringBuilder();
+        for (int i = 0; i < 5000; i++) {
+            data.append('x');
+        }
+        String payload = String.format("{\"vendorId\":\"motown\",\"data\":\"%s\"}", data);
+        Reader reader = new StringReader(String.format("[%d,\"%s\",\"%s\",%s]", WampMessage.CALL, CALL_ID, MessageProcUri.DATA_TRANSFER.toString(), payload));
+
+        WampMessage wampMessage = parser.parseMessage(reader);
+
+        assertEquals(payload, wampMessage.getPayload());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void processUnknownMessageType() throws IOException {
+        parser.parseMessage(new StringReader(String.format("[%d,\"%s\",{}]", 9, CALL_ID)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void processTruncatedMessage() throws IOException {
+        parser.parseMessage(new StringReader(String.format("[%d,\"%s\",{\"status\":", WampMessage.CALL_RESULT, CALL_ID)));
+    }
+
 }
@@ -0,0 +1,228 @@
+/**
+ * Copyright (C) 2013 Motown.IO (info@motown.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.motown.ocpp.websocketjson.session;
+
+import io.motown.domain.api.chargingstation.ChargingStationId;
+import io.motown.domain.api.chargingstation.RequestFailureReason;
+import io.motown.ocpp.websocketjson.response.handler.ResponseHandler;
+import org.atmosphere.websocket.WebSocket;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static io.motown.domain.api.chargingstation.test.ChargingStationTestUtils.CHARGING_STATION_ID;
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+public class SessionRegistryTest {
+
+    private static final String CALL_ID = "1234";
+
+    private SessionRegistry registry;
+
+    private PendingCallListener listener;
+
+    @Before
+    public void setup() {
+        listener = mock(PendingCallListener.class);
+
+        registry = new SessionRegistry();
+        registry.setPendingCallListener(listener);
+    }
+
+    @Test
+    public void openSessionReturnsReplacedSession() {
+        WebSocket webSocket = mock(WebSocket.class);
+        WebSocket newWebSocket = mock(WebSocket.class);
+
+        assertNull(registry.openSession(CHARGING_STATION_ID, webSocket));
+        ChargingStationSession replaced = registry.openSession(CHARGING_STATION_ID, newWebSocket);
+
+        assertEquals(webSocket, replaced.getWebSocket());
+        assertEquals(newWebSocket, registry.getWebSocket(CHARGING_STATION_ID));
+    }
+
+    @Test
+    public void closeSessionOfReplacedWebSocketKeepsNewSession() {
+        WebSocket webSocket = mock(WebSocket.class);
+        WebSocket newWebSocket = mock(WebSocket.class);
+        registry.openSession(CHARGING_STATION_ID, webSocket);
+        registry.openSession(CHARGING_STATION_ID, newWebSocket);
+
+        assertNull(registry.closeSession(CHARGING_STATION_ID, webSocket));
+        assertEquals(newWebSocket, registry.getWebSocket(CHARGING_STATION_ID));
+    }
+
+    @Test
+    public void closeSessionDiscardsPendingCalls() {
+        WebSocket webSocket = mock(WebSocket.class);
+        registry.openSession(CHARGING_STATION_ID, webSocket);
+        registry.addPendingCall(CHARGING_STATION_ID, CALL_ID, mock(ResponseHandler.class));
+
+        assertNotNull(registry.closeSession(CHARGING_STATION_ID, webSocket));
+        assertNull(registry.getWebSocket(CHARGING_STATION_ID));
+        assertEquals(0, registry.getPendingCallCount());
+    }
+
+    @Test
+    public void closeSessionFailsPendingCalls() {
+        WebSocket webSocket = mock(WebSocket.class);
+        ResponseHandler responseHandler = mock(ResponseHandler.class);
+        registry.openSession(CHARGING_STATION_ID, webSocket);
+        registry.addPendingCall(CHARGING_STATION_ID, CALL_ID, responseHandler);
+
+        registry.closeSession(CHARGING_STATION_ID, webSocket);
+
+        verify(listener).onPendingCallFailed(CHARGING_STATION_ID, CALL_ID, responseHandler, RequestFailureReason.CONNECTION_LOST);
+    }
+
+    @Test
+    public void replacedSessionFailsPendingCalls() {
+        ResponseHandler responseHandler = mock(ResponseHandler.class);
+        registry.openSession(CHARGING_STATION_ID, mock(WebSocket.class));
+        registry.addPendingCall(CHARGING_STATION_ID, CALL_ID, responseHandler);
+
+        registry.openSession(CHARGING_STATION_ID, mock(WebSocket.class));
+
+        verify(listener).onPendingCallFailed(CHARGING_STATION_ID, CALL_ID, responseHandler, RequestFailureReason.CONNECTION_LOST);
+        assertEquals(0, registry.getPendingCallCount());
+    }
+
+    @Test
+    public void pendingCallExpiresWhenNotAnsweredInTime() {
+        ResponseHandler responseHandler = mock(ResponseHandler.class);
+        registry.setCallTimeoutInMillis(10);
+        registry.openSession(CHARGING_STATION_ID, mock(WebSocket.class));
+        registry.addPendingCall(CHARGING_STATION_ID, CALL_ID, responseHandler);
+
+        verify(listener, timeout(5000)).onPendingCallFailed(CHARGING_STATION_ID, CALL_ID, responseHandler, RequestFailureReason.TIMEOUT);
+        assertNull(registry.removePendingCall(CHARGING_STATION_ID, CALL_ID));
+        assertEquals(0, registry.getPendingCallCount());
+        assertEquals(1, registry.getExpiredCallCount());
+    }
+
+    @Test
+    public void answeredPendingCallDoesNotExpire() throws InterruptedException {
+        registry.setCallTimeoutInMillis(50);
+        registry.openSession(CHARGING_STATION_ID, mock(WebSocket.class));
+        registry.addPendingCall(CHARGING_STATION_ID, CALL_ID, mock(ResponseHandler.class));
+        registry.removePendingCall(CHARGING_STATION_ID, CALL_ID);
+
+        Thread.sleep(200);
+
+        verifyZeroInteractions(listener);
+        assertEquals(0, registry.getExpiredCallCount());
+    }
+
+    @Test
+    public void pendingCallIsRejectedWhenChargingStationMaximumIsReached() {
+        registry.setMaxPendingCallsPerChargingStation(1);
+        registry.openSession(CHARGING_STATION_ID, mock(WebSocket.class));
+
+        assertTrue(registry.addPendingCall(CHARGING_STATION_ID, CALL_ID, mock(ResponseHandler.class)));
+        assertFalse(registry.addPendingCall(CHARGING_STATION_ID, "5678", mock(ResponseHandler.class)));
+        assertEquals(1, registry.getPendingCallCount());
+        assertEquals(1, registry.getRejectedCallCount());
+    }
+
+    @Test
+    public void pendingCallIsRejectedWhenGlobalMaximumIsReached() {
+        ChargingStationId otherChargingStationId = new ChargingStationId("OTHER");
+        registry.setMaxPendingCalls(1);
+        registry.openSession(CHARGING_STATION_ID, mock(WebSocket.class));
+        registry.openSession(otherChargingStationId, mock(WebSocket.class));
+
+        assertTrue(registry.addPendingCall(CHARGING_STATION_ID, CALL_ID, mock(ResponseHandler.class)));
+        assertFalse(registry.addPendingCall(otherChargingStationId, CALL_ID, mock(ResponseHandler.class)));
+        assertEquals(1, registry.getPendingCallCount());
+        assertEquals(1, registry.getRejectedCallCount());
+    }
+
+    @Test
+    public void pendingCallIsNotRegisteredWithoutSession() {
+        assertFalse(registry.addPendingCall(CHARGING_STATION_ID, CALL_ID, mock(ResponseHandler.class)));
+        assertEquals(0, registry.getPendingCallCount());
+    }
+
+    @Test
+    public void pendingCallCanOnlyBeRemovedOnce() {
+        ResponseHandler responseHandler = mock(ResponseHandler.class);
+        registry.openSession(CHARGING_STATION_ID, mock(WebSocket.class));
+        registry.addPendingCall(CHARGING_STATION_ID, CALL_ID, responseHandler);
+
+        assertEquals(responseHandler, registry.removePendingCall(CHARGING_STATION_ID, CALL_ID));
+        assertNull(registry.removePendingCall(CHARGING_STATION_ID, CALL_ID));
+    }
+
+    @Test
+    public void pendingCallsAreKeptPerChargingStation() {
+        ChargingStationId otherChargingStationId = new ChargingStationId("OTHER");
+        registry.openSession(CHARGING_STATION_ID, mock(WebSocket.class));
+        registry.openSession(otherChargingStationId, mock(WebSocket.class));
+        registry.addPendingCall(CHARGING_STATION_ID, CALL_ID, mock(ResponseHandler.class));
+
+        assertNull(registry.removePendingCall(otherChargingStationId, CALL_ID));
+        assertEquals(1, registry.getPendingCallCount());
+    }
+
+    @Test
+    public void concurrentlyAddedAndRemovedPendingCallsAreNotLost() throws InterruptedException {
+        final int numberOfThreads = 8;
+        final int callsPerThread = 1000;
+        registry.setMaxPendingCallsPerChargingStation(callsPerThread);
+        final AtomicInteger removed = new AtomicInteger();
+        final CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executorService = Executors.newFixedThreadPool(numberOfThreads);
+
+        for (int i = 0; i < numberOfThreads; i++) {
+            final ChargingStationId chargingStationId = new ChargingStationId("CS-" + i);
+            registry.openSession(chargingStationId, mock(WebSocket.class));
+            executorService.execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                    ResponseHandler responseHandler = mock(ResponseHandler.class);
+                    for (int call = 0; call < callsPerThread; call++) {
+                        registry.addPendingCall(chargingStationId, Integer.toString(call), responseHandler);
+                    }
+                    for (int call = 0; call < callsPerThread; call += 2) {
+                        if (registry.removePendingCall(chargingStationId, Integer.toString(call)) != null) {
+                            removed.incrementAndGet();
+                        }
+                    }
+                }
+            });
+        }
+
+        start.countDown();
+        executorService.shutdown();
+        assertTrue(executorService.awaitTermination(30, TimeUnit.SECONDS));
+
+        assertEquals(numberOfThreads * callsPerThread / 2, removed.get());
+        assertEquals(numberOfThreads * callsPerThread / 2, registry.getPendingCallCount());
+        assertEquals(numberOfThreads, registry.getSessionCount());
+    }
+}
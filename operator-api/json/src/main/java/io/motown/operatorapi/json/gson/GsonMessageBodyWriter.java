@@ -20,6 +20,7 @@ import com.google.gson.stream.JsonWriter;
 
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.core.StreamingOutput;
 import javax.ws.rs.ext.MessageBodyWriter;
 import javax.ws.rs.ext.Provider;
 import java.io.IOException;
@@ -37,7 +38,8 @@ public final class GsonMessageBodyWriter implements MessageBodyWriter<Object> {
 
     @Override
     public boolean isWriteable(Class<?> aClass, Type type, Annotation[] annotations, MediaType mediaType) {
-        return true;
+        // streamed responses write their own JSON
+        return !StreamingOutput.class.isAssignableFrom(aClass);
     }
 
     @Override
@@ -16,10 +16,15 @@
 package io.motown.operatorapi.json.queries;
 
 import io.motown.operatorapi.viewmodel.persistence.entities.ChargingStation;
+import io.motown.operatorapi.viewmodel.persistence.entities.MeterValue;
 import io.motown.operatorapi.viewmodel.persistence.entities.Transaction;
 import io.motown.operatorapi.viewmodel.persistence.repositories.ChargingStationRepository;
+import io.motown.operatorapi.viewmodel.persistence.repositories.MeterValueRepository;
+import io.motown.operatorapi.viewmodel.persistence.repositories.TransactionCallback;
 import io.motown.operatorapi.viewmodel.persistence.repositories.TransactionRepository;
 
+import java.io.IOException;
+import java.util.Date;
 import java.util.List;
 
 public class OperatorApiService {
@@ -28,10 +33,16 @@ public class OperatorApiService {
 
     private TransactionRepository transactionRepository;
 
+    private MeterValueRepository meterValueRepository;
+
     public List<ChargingStation> findAllChargingStations(int offset, int limit) {
         return repository.findAll(offset, limit);
     }
 
+    public List<ChargingStation> findChargingStationsAfter(String afterId, int maxResults) {
+        return repository.findAfter(afterId, maxResults);
+    }
+
     public Long getTotalNumberOfChargingStations() {
         return repository.getTotalNumberOfChargingStations();
     }
@@ -40,10 +51,22 @@ public class OperatorApiService {
         return transactionRepository.findAll(offset, limit);
     }
 
+    public List<Transaction> findTransactions(String chargingStationId, Date startedFrom, Date startedTo, Boolean open, Long afterId, int maxResults) {
+        return transactionRepository.findTransactions(chargingStationId, startedFrom, startedTo, open, afterId, maxResults);
+    }
+
+    public long exportTransactions(String chargingStationId, Date startedFrom, Date startedTo, Boolean open, TransactionCallback callback) throws IOException {
+        return transactionRepository.forEachTransaction(chargingStationId, startedFrom, startedTo, open, callback);
+    }
+
     public Long getTotalNumberOfTransactions() {
         return transactionRepository.getTotalNumberOfTransactions();
     }
 
+    public List<MeterValue> findMeterValues(String transactionId, int maxPoints) {
+        return meterValueRepository.findByTransactionId(transactionId, maxPoints);
+    }
+
     public void setRepository(ChargingStationRepository repository) {
         this.repository = repository;
     }
@@ -51,4 +74,8 @@ public class OperatorApiService {
     public void setTransactionRepository(TransactionRepository transactionRepository) {
         this.transactionRepository = transactionRepository;
     }
+
+    public void setMeterValueRepository(MeterValueRepository meterValueRepository) {
+        this.meterValueRepository = meterValueRepository;
+    }
 }
@@ -15,10 +15,12 @@
  */
 package io.motown.operatorapi.json.restapi;
 
+import com.google.common.base.Function;
 import io.motown.domain.api.security.SimpleUserIdentity;
 import io.motown.operatorapi.json.commands.JsonCommandService;
 import io.motown.operatorapi.json.exceptions.UserIdentityUnauthorizedException;
 import io.motown.operatorapi.json.queries.OperatorApiService;
+import io.motown.operatorapi.viewmodel.persistence.entities.ChargingStation;
 import io.motown.utils.rest.response.ResponseBuilder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -43,6 +45,13 @@ public final class ChargingStationResource {
 
     private static final String LIMIT_DEFAULT = "10";
 
+    private static final Function<ChargingStation, String> CHARGING_STATION_KEY = new Function<ChargingStation, String>() {
+        @Override
+        public String apply(ChargingStation chargingStation) {
+            return chargingStation.getId();
+        }
+    };
+
     private OperatorApiService service;
 
     private JsonCommandService commandService;
@@ -62,9 +71,29 @@ public final class ChargingStationResource {
         return Response.status(Response.Status.ACCEPTED).build();
     }
 
+    /**
+     * Gets a page of charging stations, selected by offset or, if a cursor is given (which is empty for the first
+     * page), by cursor. Paging by cursor does not need to count or skip the charging stations of previous pages.
+     */
     @GET
-    public Response getChargingStations(@Context HttpServletRequest request, @QueryParam(OFFSET_PARAMETER) @DefaultValue(OFFSET_DEFAULT) int offset, @QueryParam(LIMIT_PARAMETER) @DefaultValue(LIMIT_DEFAULT) int limit) {
-        return Response.ok(ResponseBuilder.buildResponse(request, offset, limit, service.getTotalNumberOfChargingStations(), service.findAllChargingStations(offset, limit))).build();
+    public Response getChargingStations(@Context HttpServletRequest request, @QueryParam(OFFSET_PARAMETER) @DefaultValue(OFFSET_DEFAULT) int offset, @QueryParam(LIMIT_PARAMETER) @DefaultValue(LIMIT_DEFAULT) int limit,
+                                        @QueryParam(ResponseBuilder.CURSOR_PARAMETER) String cursor) {
+        if (cursor == null) {
+            return Response.ok(ResponseBuilder.buildResponse(request, offset, limit, service.getTotalNumberOfChargingStations(), service.findAllChargingStations(offset, limit))).build();
+        }
+
+        String afterId;
+        try {
+            afterId = ResponseBuilder.decodeCursor(cursor);
+        } catch (IllegalArgumentException e) {
+            return Response.status(Response.Status.BAD_REQUEST).build();
+        }
+
+        if (limit <= 0) {
+            return Response.status(Response.Status.BAD_REQUEST).build();
+        }
+
+        return Response.ok(ResponseBuilder.buildCursorResponse(request, limit, service.findChargingStationsAfter(afterId, limit + 1), CHARGING_STATION_KEY)).build();
     }
 
     public void setService(OperatorApiService service) {
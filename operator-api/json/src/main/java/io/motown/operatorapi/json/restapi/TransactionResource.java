@@ -15,13 +15,27 @@
  */
 package io.motown.operatorapi.json.restapi;
 
+import com.google.common.base.Function;
+import com.google.gson.Gson;
+import com.google.gson.stream.JsonWriter;
 import io.motown.operatorapi.json.queries.OperatorApiService;
+import io.motown.operatorapi.viewmodel.persistence.entities.Transaction;
+import io.motown.operatorapi.viewmodel.persistence.repositories.TransactionCallback;
 import io.motown.utils.rest.response.ResponseBuilder;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.ws.rs.*;
 import javax.ws.rs.core.Context;
+import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
+import javax.xml.bind.DatatypeConverter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.zip.GZIPOutputStream;
 
 @Path("/transactions")
 @Produces(ApiVersion.V1_JSON)
@@ -35,14 +49,165 @@ public final class TransactionResource {
 
     private static final String LIMIT_DEFAULT = "10";
 
+    private static final String CHARGING_STATION_ID_PARAMETER = "chargingStationId";
+
+    private static final String STARTED_AFTER_PARAMETER = "startedAfter";
+
+    private static final String STARTED_BEFORE_PARAMETER = "startedBefore";
+
+    private static final String STATUS_PARAMETER = "status";
+
+    private static final String STATUS_OPEN = "open";
+
+    private static final String STATUS_CLOSED = "closed";
+
+    private static final String GZIP_PARAMETER = "gzip";
+
+    private static final String GZIP_DEFAULT = "false";
+
+    private static final String GZIP_ENCODING = "gzip";
+
+    private static final String MAX_POINTS_PARAMETER = "maxPoints";
+
+    private static final String MAX_POINTS_DEFAULT = "100";
+
+    private static final Function<Transaction, Long> TRANSACTION_KEY = new Function<Transaction, Long>() {
+        @Override
+        public Long apply(Transaction transaction) {
+            return transaction.getId();
+        }
+    };
+
     private OperatorApiService service;
 
+    private Gson gson;
+
+    /**
+     * Gets a page of transactions. Without a cursor or filter the page is selected by offset, as before. When a cursor
+     * (which is empty for the first page) or one of the filters is given the transactions are paged by cursor: the
+     * response contains a link to the next page instead of the total number of transactions, so neither a count nor
+     * skipping the previous pages is needed to serve it.
+     */
+    @GET
+    public Response getTransactions(@Context HttpServletRequest request, @QueryParam(OFFSET_PARAMETER) @DefaultValue(OFFSET_DEFAULT) int offset, @QueryParam(LIMIT_PARAMETER) @DefaultValue(LIMIT_DEFAULT) int limit,
+                                    @QueryParam(ResponseBuilder.CURSOR_PARAMETER) String cursor, @QueryParam(CHARGING_STATION_ID_PARAMETER) String chargingStationId,
+                                    @QueryParam(STARTED_AFTER_PARAMETER) String startedAfter, @QueryParam(STARTED_BEFORE_PARAMETER) String startedBefore, @QueryParam(STATUS_PARAMETER) String status) {
+        if (cursor == null && chargingStationId == null && startedAfter == null && startedBefore == null && status == null) {
+            return Response.ok(ResponseBuilder.buildResponse(request, offset, limit, service.getTotalNumberOfTransactions(), service.findAllTransactions(offset, limit))).build();
+        }
+
+        Long afterId;
+        Date startedFrom;
+        Date startedTo;
+        Boolean open;
+        try {
+            String key = ResponseBuilder.decodeCursor(cursor);
+            afterId = key != null ? Long.valueOf(key) : null;
+            startedFrom = parseDate(startedAfter);
+            startedTo = parseDate(startedBefore);
+            open = parseStatus(status);
+        } catch (IllegalArgumentException e) {
+            return Response.status(Response.Status.BAD_REQUEST).build();
+        }
+
+        if (limit <= 0) {
+            return Response.status(Response.Status.BAD_REQUEST).build();
+        }
+
+        return Response.ok(ResponseBuilder.buildCursorResponse(request, limit, service.findTransactions(chargingStationId, startedFrom, startedTo, open, afterId, limit + 1), TRANSACTION_KEY)).build();
+    }
+
+    /**
+     * Exports all transactions matching the filters as a JSON array. The transactions are read from a database cursor
+     * and written to the response one by one, so the memory used does not depend on the number of transactions. If
+     * gzip is requested the response is compressed while it is being written.
+     */
+    @GET
+    @Path("/export")
+    public Response exportTransactions(@QueryParam(CHARGING_STATION_ID_PARAMETER) final String chargingStationId, @QueryParam(STARTED_AFTER_PARAMETER) String startedAfter,
+                                       @QueryParam(STARTED_BEFORE_PARAMETER) String startedBefore, @QueryParam(STATUS_PARAMETER) String status,
+                                       @QueryParam(GZIP_PARAMETER) @DefaultValue(GZIP_DEFAULT) final boolean gzip) {
+        final Date startedFrom;
+        final Date startedTo;
+        final Boolean open;
+        try {
+            startedFrom = parseDate(startedAfter);
+            startedTo = parseDate(startedBefore);
+            open = parseStatus(status);
+        } catch (IllegalArgumentException e) {
+            return Response.status(Response.Status.BAD_REQUEST).build();
+        }
+
+        StreamingOutput output = new StreamingOutput() {
+            @Override
+            public void write(OutputStream outputStream) throws IOException {
+                final JsonWriter writer = new JsonWriter(new OutputStreamWriter(gzip ? new GZIPOutputStream(outputStream) : outputStream, StandardCharsets.UTF_8));
+
+                writer.beginArray();
+                service.exportTransactions(chargingStationId, startedFrom, startedTo, open, new TransactionCallback() {
+                    @Override
+                    public void handle(Transaction transaction) throws IOException {
+                        gson.toJson(transaction, Transaction.class, writer);
+                    }
+                });
+                writer.endArray();
+                writer.close();
+            }
+        };
+
+        Response.ResponseBuilder response = Response.ok(output);
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, GZIP_ENCODING);
+        }
+        return response.build();
+    }
+
     @GET
-    public Response getTransactions(@Context HttpServletRequest request, @QueryParam(OFFSET_PARAMETER) @DefaultValue(OFFSET_DEFAULT) int offset, @QueryParam(LIMIT_PARAMETER) @DefaultValue(LIMIT_DEFAULT) int limit) {
-        return Response.ok(ResponseBuilder.buildResponse(request, offset, limit, service.getTotalNumberOfTransactions(), service.findAllTransactions(offset, limit))).build();
+    @Path("/{transactionId}/meter-values")
+    public Response getMeterValues(@PathParam("transactionId") String transactionId, @QueryParam(MAX_POINTS_PARAMETER) @DefaultValue(MAX_POINTS_DEFAULT) int maxPoints) {
+        if (maxPoints <= 0) {
+            return Response.status(Response.Status.BAD_REQUEST).build();
+        }
+
+        return Response.ok(service.findMeterValues(transactionId, maxPoints)).build();
     }
 
     public void setService(OperatorApiService service) {
         this.service = service;
     }
+
+    public void setGson(Gson gson) {
+        this.gson = gson;
+    }
+
+    /**
+     * Parses an ISO 8601 date time.
+     *
+     * @param value the date time, or null.
+     * @return the date, or null if the value is null.
+     * @throws IllegalArgumentException if the value is not a valid date time.
+     */
+    private Date parseDate(String value) {
+        return value != null ? DatatypeConverter.parseDateTime(value).getTime() : null;
+    }
+
+    /**
+     * Parses the status filter.
+     *
+     * @param value 'open', 'closed' or null.
+     * @return true for open, false for closed or null if the value is null.
+     * @throws IllegalArgumentException if the value is not a valid status.
+     */
+    private Boolean parseStatus(String value) {
+        if (value == null) {
+            return null;
+        }
+        if (STATUS_OPEN.equals(value)) {
+            return Boolean.TRUE;
+        }
+        if (STATUS_CLOSED.equals(value)) {
+            return Boolean.FALSE;
+        }
+        throw new IllegalArgumentException("Unknown transaction status: " + value);
+    }
 }
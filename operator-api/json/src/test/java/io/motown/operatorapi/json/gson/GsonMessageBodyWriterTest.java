@@ -22,12 +22,14 @@ import org.junit.Test;
 
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.core.StreamingOutput;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.lang.annotation.Annotation;
 import java.util.Objects;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.mock;
 
@@ -49,6 +51,11 @@ public class GsonMessageBodyWriterTest {
         assertTrue(provider.isWriteable(MockObject.class, MockObject.class.getGenericSuperclass(), new Annotation[]{}, MediaType.APPLICATION_JSON_TYPE));
     }
 
+    @Test
+    public void testStreamingOutputIsNotWriteable() {
+        assertFalse(provider.isWriteable(StreamingOutput.class, StreamingOutput.class, new Annotation[]{}, MediaType.APPLICATION_JSON_TYPE));
+    }
+
     @Test
     public void testGetSize() {
         assertEquals(-1, provider.getSize(new MockObject(), MockObject.class, MockObject.class.getGenericSuperclass(), new Annotation[]{}, MediaType.APPLICATION_JSON_TYPE));
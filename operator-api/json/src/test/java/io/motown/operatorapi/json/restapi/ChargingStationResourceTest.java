@@ -82,7 +82,7 @@ public class ChargingStationResourceTest {
 
     @Test
     public void testGetChargingStations() {
-        Response response = resource.getChargingStations(request, ChargingStationTestUtils.OFFSET, ChargingStationTestUtils.LIMIT);
+        Response response = resource.getChargingStations(request, ChargingStationTestUtils.OFFSET, ChargingStationTestUtils.LIMIT, null);
         verify(service).findAllChargingStations(ChargingStationTestUtils.OFFSET, ChargingStationTestUtils.LIMIT);
 
         assertEquals(Response.Status.OK.getStatusCode(), response.getStatus());
@@ -91,6 +91,6 @@ public class ChargingStationResourceTest {
     @Test(expected = RuntimeException.class)
     public void testGetChargingStationsThrowsException() {
         doThrow(mock(PersistenceException.class)).when(service).findAllChargingStations(ChargingStationTestUtils.OFFSET, ChargingStationTestUtils.LIMIT);
-        resource.getChargingStations(request, ChargingStationTestUtils.OFFSET, ChargingStationTestUtils.LIMIT);
+        resource.getChargingStations(request, ChargingStationTestUtils.OFFSET, ChargingStationTestUtils.LIMIT, null);
     }
 }
@@ -75,4 +75,14 @@ public class ITTransactionTest extends JerseyTest {
 
         assertEquals(OK, response.getStatus());
     }
+
+    @Test
+    public void testExportTransactions() {
+        ClientResponse response = client().resource(BASE_URI + "/export")
+                .accept(ApiVersion.V1_JSON)
+                .get(ClientResponse.class);
+
+        assertEquals(OK, response.getStatus());
+        assertEquals("[]", response.getEntity(String.class));
+    }
 }
@@ -15,23 +15,43 @@
  */
 package io.motown.operatorapi.json.restapi;
 
+import com.google.gson.Gson;
+import io.motown.domain.api.chargingstation.EvseId;
 import io.motown.domain.api.chargingstation.test.ChargingStationTestUtils;
 import io.motown.operatorapi.json.queries.OperatorApiService;
+import io.motown.operatorapi.viewmodel.persistence.entities.Transaction;
+import io.motown.operatorapi.viewmodel.persistence.repositories.TransactionCallback;
+import io.motown.utils.rest.response.ResponseBuilder;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.Mock;
+import org.mockito.invocation.InvocationOnMock;
 import org.mockito.runners.MockitoJUnitRunner;
+import org.mockito.stubbing.Answer;
 
 import javax.persistence.PersistenceException;
 import javax.servlet.http.HttpServletRequest;
+import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.zip.GZIPInputStream;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
 import static org.mockito.Mockito.*;
 
 @RunWith(MockitoJUnitRunner.class)
 public class TransactionResourceTest {
+
+    private static final String TRANSACTION_ID = "TRANSACTION_1";
+
     private TransactionResource resource;
 
     @Mock
@@ -45,6 +65,7 @@ public class TransactionResourceTest {
         resource = new TransactionResource();
 
         resource.setService(service);
+        resource.setGson(new Gson());
 
         when(request.getRequestURI()).thenReturn("/operator-api/transactions");
         when(request.getQueryString()).thenReturn("?offset=0&limit=10");
@@ -52,7 +73,7 @@ public class TransactionResourceTest {
 
     @Test
     public void testGetTransactions() {
-        Response response = resource.getTransactions(request, ChargingStationTestUtils.OFFSET, ChargingStationTestUtils.LIMIT);
+        Response response = resource.getTransactions(request, ChargingStationTestUtils.OFFSET, ChargingStationTestUtils.LIMIT, null, null, null, null, null);
         verify(service).findAllTransactions(ChargingStationTestUtils.OFFSET, ChargingStationTestUtils.LIMIT);
 
         assertEquals(Response.Status.OK.getStatusCode(), response.getStatus());
@@ -61,6 +82,85 @@ public class TransactionResourceTest {
     @Test(expected = RuntimeException.class)
     public void testGetTransactionsThrowsException() {
         doThrow(mock(PersistenceException.class)).when(service).findAllTransactions(ChargingStationTestUtils.OFFSET, ChargingStationTestUtils.LIMIT);
-        resource.getTransactions(request, ChargingStationTestUtils.OFFSET, ChargingStationTestUtils.LIMIT);
+        resource.getTransactions(request, ChargingStationTestUtils.OFFSET, ChargingStationTestUtils.LIMIT, null, null, null, null, null);
+    }
+
+    @Test
+    public void testGetTransactionsByCursor() {
+        Response response = resource.getTransactions(request, 0, ChargingStationTestUtils.LIMIT, ResponseBuilder.encodeCursor("42"), "CS-1", "2014-01-01T00:00:00Z", null, "open");
+
+        verify(service).findTransactions("CS-1", new Date(1388534400000L), null, Boolean.TRUE, 42L, ChargingStationTestUtils.LIMIT + 1);
+        verify(service, never()).getTotalNumberOfTransactions();
+        assertEquals(Response.Status.OK.getStatusCode(), response.getStatus());
+    }
+
+    @Test
+    public void testGetTransactionsRejectsInvalidFilter() {
+        assertEquals(Response.Status.BAD_REQUEST.getStatusCode(), resource.getTransactions(request, 0, ChargingStationTestUtils.LIMIT, "", null, "yesterday", null, null).getStatus());
+        assertEquals(Response.Status.BAD_REQUEST.getStatusCode(), resource.getTransactions(request, 0, ChargingStationTestUtils.LIMIT, "", null, null, null, "pending").getStatus());
+        assertEquals(Response.Status.BAD_REQUEST.getStatusCode(), resource.getTransactions(request, 0, ChargingStationTestUtils.LIMIT, ResponseBuilder.encodeCursor("abc"), null, null, null, null).getStatus());
+        verifyZeroInteractions(service);
+    }
+
+    @Test
+    public void testExportTransactions() throws IOException {
+        exportTwoTransactions();
+
+        Response response = resource.exportTransactions("CS-1", null, null, "closed", false);
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        ((StreamingOutput) response.getEntity()).write(outputStream);
+
+        Transaction[] transactions = new Gson().fromJson(new String(outputStream.toByteArray(), StandardCharsets.UTF_8), Transaction[].class);
+        assertEquals(2, transactions.length);
+        assertEquals("TRANSACTION_2", transactions[1].getTransactionId());
+        assertNull(response.getMetadata().getFirst(HttpHeaders.CONTENT_ENCODING));
+        verify(service).exportTransactions(eq("CS-1"), isNull(Date.class), isNull(Date.class), eq(Boolean.FALSE), any(TransactionCallback.class));
+    }
+
+    @Test
+    public void testExportTransactionsGzipped() throws IOException {
+        exportTwoTransactions();
+
+        Response response = resource.exportTransactions(null, null, null, null, true);
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        ((StreamingOutput) response.getEntity()).write(outputStream);
+
+        InputStreamReader reader = new InputStreamReader(new GZIPInputStream(new ByteArrayInputStream(outputStream.toByteArray())), StandardCharsets.UTF_8);
+        assertEquals(2, new Gson().fromJson(reader, Transaction[].class).length);
+        assertEquals("gzip", response.getMetadata().getFirst(HttpHeaders.CONTENT_ENCODING));
+    }
+
+    @Test
+    public void testExportTransactionsRejectsInvalidFilter() {
+        assertEquals(Response.Status.BAD_REQUEST.getStatusCode(), resource.exportTransactions(null, null, null, "pending", false).getStatus());
+        verifyZeroInteractions(service);
+    }
+
+    @Test
+    public void testGetMeterValues() {
+        Response response = resource.getMeterValues(TRANSACTION_ID, 50);
+        verify(service).findMeterValues(TRANSACTION_ID, 50);
+
+        assertEquals(Response.Status.OK.getStatusCode(), response.getStatus());
+    }
+
+    @Test
+    public void testGetMeterValuesRejectsInvalidMaxPoints() {
+        Response response = resource.getMeterValues(TRANSACTION_ID, 0);
+
+        assertEquals(Response.Status.BAD_REQUEST.getStatusCode(), response.getStatus());
+        verifyZeroInteractions(service);
+    }
+
+    private void exportTwoTransactions() throws IOException {
+        when(service.exportTransactions(anyString(), any(Date.class), any(Date.class), anyBoolean(), any(TransactionCallback.class))).thenAnswer(new Answer<Long>() {
+            @Override
+            public Long answer(InvocationOnMock invocation) throws Throwable {
+                TransactionCallback callback = (TransactionCallback) invocation.getArguments()[4];
+                callback.handle(new Transaction("CS-1", "TRANSACTION_1", new EvseId(1), "ID_TAG", 0, new Date()));
+                callback.handle(new Transaction("CS-1", "TRANSACTION_2", new EvseId(1), "ID_TAG", 0, new Date()));
+                return 2L;
+            }
+        });
     }
 }
@@ -23,7 +23,9 @@ import io.motown.operatorapi.viewmodel.persistence.entities.Availability;
 import io.motown.operatorapi.viewmodel.persistence.entities.ChargingStation;
 import io.motown.operatorapi.viewmodel.persistence.entities.Evse;
 import io.motown.operatorapi.viewmodel.persistence.entities.LocalAuthorization;
+import io.motown.operatorapi.viewmodel.persistence.repositories.ChargingStationProjectionWriter;
 import io.motown.operatorapi.viewmodel.persistence.repositories.ChargingStationRepository;
+import io.motown.operatorapi.viewmodel.persistence.repositories.ChargingStationUpdate;
 import org.axonframework.eventhandling.annotation.EventHandler;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -41,40 +43,43 @@ public class ChargingStationEventListener {
 
     private ChargingStationRepository repository;
 
+    private ChargingStationProjectionWriter projectionWriter;
+
     @EventHandler
     public void handle(ChargingStationCreatedEvent event) {
         LOG.debug("ChargingStationCreatedEvent creates [{}] in operator api repo", event.getChargingStationId());
         ChargingStation station = new ChargingStation(event.getChargingStationId().getId());
-        repository.createOrUpdate(station);
+
+        if (projectionWriter != null) {
+            projectionWriter.create(station);
+        } else {
+            repository.createOrUpdate(station);
+        }
     }
 
     @EventHandler
-    public void handle(ChargingStationBootedEvent event) {
+    public void handle(final ChargingStationBootedEvent event) {
         LOG.debug("ChargingStationBootedEvent for [{}] received!", event.getChargingStationId());
 
-        ChargingStation chargingStation = repository.findOne(event.getChargingStationId().getId());
-
-        if (chargingStation != null) {
-            chargingStation.setProtocol(event.getProtocol());
-            chargingStation.setAttributes(event.getAttributes());
-            repository.createOrUpdate(chargingStation);
-        } else {
-            LOG.error("operator api repo COULD NOT FIND CHARGEPOINT {} and mark it as booted", event.getChargingStationId());
-        }
+        update(event.getChargingStationId(), new ChargingStationUpdate() {
+            @Override
+            public void apply(ChargingStation chargingStation) {
+                chargingStation.setProtocol(event.getProtocol());
+                chargingStation.setAttributes(event.getAttributes());
+            }
+        });
     }
 
     @EventHandler
     public void handle(ChargingStationAcceptedEvent event) {
         LOG.debug("ChargingStationAcceptedEvent for [{}] received!", event.getChargingStationId());
 
-        ChargingStation chargingStation = repository.findOne(event.getChargingStationId().getId());
-
-        if (chargingStation != null) {
-            chargingStation.setAccepted(true);
-            repository.createOrUpdate(chargingStation);
-        } else {
-            LOG.error("operator api repo COULD NOT FIND CHARGEPOINT {} and mark it as accepted", event.getChargingStationId());
-        }
+        update(event.getChargingStationId(), new ChargingStationUpdate() {
+            @Override
+            public void apply(ChargingStation chargingStation) {
+                chargingStation.setAccepted(true);
+            }
+        });
     }
 
     @EventHandler
@@ -108,29 +113,27 @@ public class ChargingStationEventListener {
     }
 
     @EventHandler
-    public void handle(ChargingStationConfiguredEvent event) {
+    public void handle(final ChargingStationConfiguredEvent event) {
         LOG.debug("ChargingStationConfiguredEvent for [{}] received!", event.getChargingStationId());
 
-        ChargingStation chargingStation = repository.findOne(event.getChargingStationId().getId());
-        if (chargingStation != null) {
-            for (io.motown.domain.api.chargingstation.Evse coreEvse : event.getEvses()) {
-                Evse evse = new Evse(coreEvse.getEvseId().getId());
-
-                for (Connector coreConnector : coreEvse.getConnectors()) {
-                    io.motown.operatorapi.viewmodel.persistence.entities.Connector connector = new io.motown.operatorapi.viewmodel.persistence.entities.Connector(
-                            coreConnector.getMaxAmp(), coreConnector.getPhase(), coreConnector.getVoltage(), coreConnector.getChargingProtocol(), coreConnector.getCurrent(), coreConnector.getConnectorType()
-                    );
-                    evse.getConnectors().add(connector);
+        update(event.getChargingStationId(), new ChargingStationUpdate() {
+            @Override
+            public void apply(ChargingStation chargingStation) {
+                for (io.motown.domain.api.chargingstation.Evse coreEvse : event.getEvses()) {
+                    Evse evse = new Evse(coreEvse.getEvseId().getId());
+
+                    for (Connector coreConnector : coreEvse.getConnectors()) {
+                        io.motown.operatorapi.viewmodel.persistence.entities.Connector connector = new io.motown.operatorapi.viewmodel.persistence.entities.Connector(
+                                coreConnector.getMaxAmp(), coreConnector.getPhase(), coreConnector.getVoltage(), coreConnector.getChargingProtocol(), coreConnector.getCurrent(), coreConnector.getConnectorType()
+                        );
+                        evse.getConnectors().add(connector);
+                    }
+                    chargingStation.getEvses().add(evse);
                 }
-                chargingStation.getEvses().add(evse);
-            }
-
-            chargingStation.setConfigured(true);
 
-            repository.createOrUpdate(chargingStation);
-        } else {
-            LOG.error("operator api repo COULD NOT FIND CHARGEPOINT {} and configure it", event.getChargingStationId());
-        }
+                chargingStation.setConfigured(true);
+            }
+        });
     }
 
     /**
@@ -159,13 +162,13 @@ public class ChargingStationEventListener {
      * @param event the event to handle.
      */
     @EventHandler
-    public void handle(ChargingStationStatusNotificationReceivedEvent event) {
-        ChargingStation chargingStation = repository.findOne(event.getChargingStationId().getId());
-
-        if (chargingStation != null) {
-            chargingStation.setStatus(event.getStatusNotification().getStatus());
-            repository.createOrUpdate(chargingStation);
-        }
+    public void handle(final ChargingStationStatusNotificationReceivedEvent event) {
+        update(event.getChargingStationId(), new ChargingStationUpdate() {
+            @Override
+            public void apply(ChargingStation chargingStation) {
+                chargingStation.setStatus(event.getStatusNotification().getStatus());
+            }
+        });
     }
 
 
@@ -175,14 +178,14 @@ public class ChargingStationEventListener {
      * @param event the event to handle.
      */
     @EventHandler
-    public void handle(ComponentStatusNotificationReceivedEvent event) {
+    public void handle(final ComponentStatusNotificationReceivedEvent event) {
         if (event.getComponent() == ChargingStationComponent.EVSE) {
-            ChargingStation chargingStation = repository.findOne(event.getChargingStationId().getId());
-
-            if (chargingStation != null) {
-                updateEvseStatus(chargingStation, event.getComponentId().getId(), event.getStatusNotification().getStatus());
-                repository.createOrUpdate(chargingStation);
-            }
+            update(event.getChargingStationId(), new ChargingStationUpdate() {
+                @Override
+                public void apply(ChargingStation chargingStation) {
+                    updateEvseStatus(chargingStation, event.getComponentId().getId(), event.getStatusNotification().getStatus());
+                }
+            });
         }
     }
 
@@ -192,13 +195,13 @@ public class ChargingStationEventListener {
      * @param event the event to handle.
      */
     @EventHandler
-    public void handle(ConfigurationItemsReceivedEvent event) {
-        ChargingStation chargingStation = repository.findOne(event.getChargingStationId().getId());
-
-        if (chargingStation != null) {
-            chargingStation.setConfigurationItems(toConfigurationItemMap(event.getConfigurationItems()));
-            repository.createOrUpdate(chargingStation);
-        }
+    public void handle(final ConfigurationItemsReceivedEvent event) {
+        update(event.getChargingStationId(), new ChargingStationUpdate() {
+            @Override
+            public void apply(ChargingStation chargingStation) {
+                chargingStation.setConfigurationItems(toConfigurationItemMap(event.getConfigurationItems()));
+            }
+        });
     }
 
     /**
@@ -207,13 +210,13 @@ public class ChargingStationEventListener {
      * @param event the event to handle.
      */
     @EventHandler
-    public void handle(AuthorizationListVersionReceivedEvent event) {
-        ChargingStation chargingStation = repository.findOne(event.getChargingStationId().getId());
-
-        if (chargingStation != null) {
-            chargingStation.setLocalAuthorizationListVersion(event.getVersion());
-            repository.createOrUpdate(chargingStation);
-        }
+    public void handle(final AuthorizationListVersionReceivedEvent event) {
+        update(event.getChargingStationId(), new ChargingStationUpdate() {
+            @Override
+            public void apply(ChargingStation chargingStation) {
+                chargingStation.setLocalAuthorizationListVersion(event.getVersion());
+            }
+        });
     }
 
     /**
@@ -222,20 +225,20 @@ public class ChargingStationEventListener {
      * @param event the event to handle.
      */
     @EventHandler
-    public void handle(AuthorizationListChangedEvent event) {
-        ChargingStation chargingStation = repository.findOne(event.getChargingStationId().getId());
-
-        if (chargingStation != null) {
-            Set<LocalAuthorization> updatedLocalAuthorizations = toLocalAuthorizationSet(event.getIdentifyingTokens());
+    public void handle(final AuthorizationListChangedEvent event) {
+        update(event.getChargingStationId(), new ChargingStationUpdate() {
+            @Override
+            public void apply(ChargingStation chargingStation) {
+                Set<LocalAuthorization> updatedLocalAuthorizations = toLocalAuthorizationSet(event.getIdentifyingTokens());
 
-            if(AuthorizationListUpdateType.FULL.equals(event.getUpdateType())) {
-                chargingStation.setLocalAuthorizations(updatedLocalAuthorizations);
-            } else {
-                updateAuthorizationList(chargingStation, updatedLocalAuthorizations);
+                if(AuthorizationListUpdateType.FULL.equals(event.getUpdateType())) {
+                    chargingStation.setLocalAuthorizations(updatedLocalAuthorizations);
+                } else {
+                    updateAuthorizationList(chargingStation, updatedLocalAuthorizations);
+                }
+                chargingStation.setLocalAuthorizationListVersion(event.getVersion());
             }
-            chargingStation.setLocalAuthorizationListVersion(event.getVersion());
-            repository.createOrUpdate(chargingStation);
-        }
+        });
     }
 
     private Set<LocalAuthorization> toLocalAuthorizationSet(Set<IdentifyingToken> identifyingTokens) {
@@ -338,13 +341,13 @@ public class ChargingStationEventListener {
      * @param chargingStationId the charging station's id.
      * @param availability      the charging station's new availability.
      */
-    private void updateChargingStationAvailability(ChargingStationId chargingStationId, Availability availability) {
-        ChargingStation chargingStation = repository.findOne(chargingStationId.getId());
-
-        if (chargingStation != null) {
-            chargingStation.setAvailability(availability);
-            repository.createOrUpdate(chargingStation);
-        }
+    private void updateChargingStationAvailability(ChargingStationId chargingStationId, final Availability availability) {
+        update(chargingStationId, new ChargingStationUpdate() {
+            @Override
+            public void apply(ChargingStation chargingStation) {
+                chargingStation.setAvailability(availability);
+            }
+        });
     }
 
     /**
@@ -355,22 +358,22 @@ public class ChargingStationEventListener {
      * @param component         the component type.
      * @param availability      the the charging station's new availability.
      */
-    private void updateComponentAvailability(ChargingStationId chargingStationId, ComponentId componentId, ChargingStationComponent component, Availability availability) {
+    private void updateComponentAvailability(ChargingStationId chargingStationId, final ComponentId componentId, ChargingStationComponent component, final Availability availability) {
         if (!component.equals(ChargingStationComponent.EVSE) || !(componentId instanceof EvseId)) {
             return;
         }
 
-        ChargingStation chargingStation = repository.findOne(chargingStationId.getId());
-
-        if (chargingStation != null) {
-            for (Evse evse : chargingStation.getEvses()) {
-                if (evse.getEvseId().equals(componentId.getId())) {
-                    evse.setAvailability(availability);
-                    break;
+        update(chargingStationId, new ChargingStationUpdate() {
+            @Override
+            public void apply(ChargingStation chargingStation) {
+                for (Evse evse : chargingStation.getEvses()) {
+                    if (evse.getEvseId().equals(componentId.getId())) {
+                        evse.setAvailability(availability);
+                        break;
+                    }
                 }
             }
-            repository.createOrUpdate(chargingStation);
-        }
+        });
     }
 
     /**
@@ -378,13 +381,15 @@ public class ChargingStationEventListener {
      *
      * @param event The event which contains the opening times.
      * @param clear Whether to clear the opening times or not.
-     * @return {@code true} if the update has been performed, {@code false} if the charging station can't be found.
      */
-    private boolean updateChargingStationOpeningTimes(ChargingStationOpeningTimesChangedEvent event, boolean clear) {
-        ChargingStation chargingStation = repository.findOne(event.getChargingStationId().getId());
+    private void updateChargingStationOpeningTimes(final ChargingStationOpeningTimesChangedEvent event, final boolean clear) {
+        if (event.getOpeningTimes().isEmpty()) {
+            return;
+        }
 
-        if (chargingStation != null) {
-            if (!event.getOpeningTimes().isEmpty()) {
+        update(event.getChargingStationId(), new ChargingStationUpdate() {
+            @Override
+            public void apply(ChargingStation chargingStation) {
                 if (clear) {
                     chargingStation.getOpeningTimes().clear();
                 }
@@ -397,49 +402,36 @@ public class ChargingStationEventListener {
                     io.motown.operatorapi.viewmodel.persistence.entities.OpeningTime openingTime = new io.motown.operatorapi.viewmodel.persistence.entities.OpeningTime(dayOfWeek, timeStart, timeStop);
                     chargingStation.getOpeningTimes().add(openingTime);
                 }
-
-                repository.createOrUpdate(chargingStation);
             }
-
-        } else {
-            LOG.error("operator api repo COULD NOT FIND CHARGEPOINT {} and update its opening times", event.getChargingStationId());
-        }
-
-        return chargingStation != null;
+        });
     }
 
     /**
      * Updates the location of the charging station.
      *
      * @param event The event which contains the data of the location.
-     * @return {@code true} if the update has been performed, {@code false} if the charging station can't be found.
      */
-    private boolean updateChargingStationLocation(ChargingStationLocationChangedEvent event) {
-        ChargingStation chargingStation = repository.findOne(event.getChargingStationId().getId());
+    private void updateChargingStationLocation(final ChargingStationLocationChangedEvent event) {
+        update(event.getChargingStationId(), new ChargingStationUpdate() {
+            @Override
+            public void apply(ChargingStation chargingStation) {
+                if (event.getCoordinates() != null) {
+                    chargingStation.setLatitude(event.getCoordinates().getLatitude());
+                    chargingStation.setLongitude(event.getCoordinates().getLongitude());
+                }
 
-        if (chargingStation != null) {
-            if (event.getCoordinates() != null) {
-                chargingStation.setLatitude(event.getCoordinates().getLatitude());
-                chargingStation.setLongitude(event.getCoordinates().getLongitude());
-            }
+                if (event.getAddress() != null) {
+                    chargingStation.setAddressLine1(event.getAddress().getAddressLine1());
+                    chargingStation.setAddressLine2(event.getAddress().getAddressLine2());
+                    chargingStation.setPostalCode(event.getAddress().getPostalCode());
+                    chargingStation.setCity(event.getAddress().getCity());
+                    chargingStation.setRegion(event.getAddress().getRegion());
+                    chargingStation.setCountry(event.getAddress().getCountry());
+                }
 
-            if (event.getAddress() != null) {
-                chargingStation.setAddressLine1(event.getAddress().getAddressLine1());
-                chargingStation.setAddressLine2(event.getAddress().getAddressLine2());
-                chargingStation.setPostalCode(event.getAddress().getPostalCode());
-                chargingStation.setCity(event.getAddress().getCity());
-                chargingStation.setRegion(event.getAddress().getRegion());
-                chargingStation.setCountry(event.getAddress().getCountry());
+                chargingStation.setAccessibility(event.getAccessibility());
             }
-
-            chargingStation.setAccessibility(event.getAccessibility());
-
-            repository.createOrUpdate(chargingStation);
-        } else {
-            LOG.error("operator api repo COULD NOT FIND CHARGEPOINT {} and update its location", event.getChargingStationId());
-        }
-
-        return chargingStation != null;
+        });
     }
 
     /**
@@ -448,12 +440,35 @@ public class ChargingStationEventListener {
      * @param chargingStationId the charging station to make reservable or not reservable.
      * @param reservable        true if reservable, false if not.
      */
-    private void setReservable(ChargingStationId chargingStationId, boolean reservable) {
+    private void setReservable(ChargingStationId chargingStationId, final boolean reservable) {
+        update(chargingStationId, new ChargingStationUpdate() {
+            @Override
+            public void apply(ChargingStation chargingStation) {
+                chargingStation.setReservable(reservable);
+            }
+        });
+    }
+
+    /**
+     * Applies a change to a charging station. If a projection writer has been set the change is queued and written in
+     * a batch together with other changes, otherwise the charging station is loaded and stored right away.
+     *
+     * @param chargingStationId the charging station's id.
+     * @param update            the change.
+     */
+    private void update(ChargingStationId chargingStationId, ChargingStationUpdate update) {
+        if (projectionWriter != null) {
+            projectionWriter.update(chargingStationId.getId(), update);
+            return;
+        }
+
         ChargingStation chargingStation = repository.findOne(chargingStationId.getId());
 
         if (chargingStation != null) {
-            chargingStation.setReservable(reservable);
+            update.apply(chargingStation);
             repository.createOrUpdate(chargingStation);
+        } else {
+            LOG.warn("operator api repo COULD NOT FIND CHARGEPOINT {} to apply update", chargingStationId.getId());
         }
     }
 
@@ -461,6 +476,16 @@ public class ChargingStationEventListener {
         this.repository = repository;
     }
 
+    /**
+     * Sets the writer which writes changes to charging stations in batches. Optional, without a writer every change is
+     * written in its own transaction.
+     *
+     * @param projectionWriter the projection writer.
+     */
+    public void setProjectionWriter(ChargingStationProjectionWriter projectionWriter) {
+        this.projectionWriter = projectionWriter;
+    }
+
     /**
      * Converts a {@code Set} of {@code ConfigurationItem}s to a {@code Map} of {@code String} and {@code String}.
      *
@@ -17,11 +17,13 @@ package io.motown.operatorapi.viewmodel;
 
 import io.motown.domain.api.chargingstation.*;
 import io.motown.operatorapi.viewmodel.persistence.entities.Transaction;
+import io.motown.operatorapi.viewmodel.persistence.repositories.MeterValueRepository;
 import io.motown.operatorapi.viewmodel.persistence.repositories.TransactionRepository;
 import org.axonframework.eventhandling.annotation.EventHandler;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
 import java.util.List;
 
 import static com.google.common.base.Preconditions.checkNotNull;
@@ -32,10 +34,16 @@ public class TransactionEventListener {
 
     private TransactionRepository repository;
 
+    private MeterValueRepository meterValueRepository;
+
     public void setRepository(TransactionRepository repository) {
         this.repository = repository;
     }
 
+    public void setMeterValueRepository(MeterValueRepository meterValueRepository) {
+        this.meterValueRepository = meterValueRepository;
+    }
+
     @EventHandler
     public void handle(TransactionStartedEvent event) {
         LOG.debug("TransactionStartedEvent for [{}] received!", event.getChargingStationId());
@@ -66,71 +74,64 @@ public class TransactionEventListener {
         checkNotNull(event);
 
         if (event.getTransactionId() != null) {
-            Transaction transaction = repository.findByTransactionId(event.getTransactionId().getId());
-
-            if (transaction != null) {
-                addMeterValuesToTransaction(transaction, event.getMeterValueList());
-                repository.createOrUpdate(transaction);
-            }
+            meterValueRepository.append(toOperatorApiMeterValues(event.getTransactionId().getId(), event.getMeterValueList()));
         }
     }
 
     /**
-     * Adds the {@code List} of {@code MeterValue}s to the {@code Transaction}.
-     *
-     * @param transaction the {@code Transaction} to which to add the {@code MeterValue}s.
-     * @param meterValues the {@code List} of {@code MeterValue}s to add.
-     */
-    private void addMeterValuesToTransaction(final Transaction transaction, final List<MeterValue> meterValues) {
-        for (MeterValue meterValue : meterValues) {
-            addMeterValueToTransaction(transaction, meterValue);
-        }
-    }
-
-    /**
-     * Adds a single {@code MeterValue} to the {@code Transaction}.
+     * Converts the {@code List} of {@code MeterValue}s to Operator API {@code MeterValue}s of the transaction. The
+     * meter values are appended to the transaction's meter value series, the transaction itself is not loaded.
      * <p/>
-     * If a {@code MeterValue} cannot be added this method will skip adding it, won't throw an exception, and log that
+     * If a {@code MeterValue} cannot be converted this method will skip it, won't throw an exception, and log that
      * this occurred and why.
      *
-     * @param transaction the {@code Transaction} to which to add the {@code MeterValue}.
-     * @param meterValue  the {@code MeterValue} to add.
+     * @param transactionId the transaction id.
+     * @param meterValues   the {@code List} of {@code MeterValue}s to convert.
+     * @return the Operator API {@code MeterValue}s.
      */
-    private void addMeterValueToTransaction(final Transaction transaction, final MeterValue meterValue) {
-        if (meterValue.getUnit() == UnitOfMeasure.WATT_HOUR || meterValue.getUnit() == UnitOfMeasure.KILOWATT_HOUR) {
-            try {
-                transaction.getMeterValues().add(toOperatorApiMeterValue(meterValue));
-            } catch (Throwable t) {
-                // Catching a Throwable here because we want to ensure other MeterValues are processed even if this one
-                // fails (for whatever reason!).
-                LOG.info(String.format("Skipping adding MeterValue [%s] to Transaction [%s] because an Exception was thrown", meterValue, transaction.getTransactionId()), t);
+    private List<io.motown.operatorapi.viewmodel.persistence.entities.MeterValue> toOperatorApiMeterValues(final String transactionId, final List<MeterValue> meterValues) {
+        List<io.motown.operatorapi.viewmodel.persistence.entities.MeterValue> operatorApiMeterValues = new ArrayList<>(meterValues.size());
+
+        for (MeterValue meterValue : meterValues) {
+            if (meterValue.getUnit() == UnitOfMeasure.WATT_HOUR || meterValue.getUnit() == UnitOfMeasure.KILOWATT_HOUR) {
+                try {
+                    operatorApiMeterValues.add(toOperatorApiMeterValue(transactionId, meterValue));
+                } catch (Throwable t) {
+                    // Catching a Throwable here because we want to ensure other MeterValues are processed even if this one
+                    // fails (for whatever reason!).
+                    LOG.info(String.format("Skipping adding MeterValue [%s] to Transaction [%s] because an Exception was thrown", meterValue, transactionId), t);
+                }
+            } else {
+                LOG.info("Skipping adding MeterValue [{}] to Transaction [{}] because UnitOfMeasure is not WATT_HOUR or KILOWATT_HOUR", meterValue, transactionId);
             }
-        } else {
-            LOG.info("Skipping adding MeterValue [{}] to Transaction [{}] because UnitOfMeasure is not WATT_HOUR or KILOWATT_HOUR", meterValue, transaction.getTransactionId());
         }
+
+        return operatorApiMeterValues;
     }
 
     /**
      * Converts the Core API's {@code MeterValue} to an Operator API's {@code MeterValue}.
      *
-     * @param meterValue the Core API {@code MeterValue}.
+     * @param transactionId the transaction id.
+     * @param meterValue    the Core API {@code MeterValue}.
      * @return the Operator API {@code MeterValue}.
      * @throws AssertionError if an unexpected {@code UnitOfMeasure} is encountered.
+     * @throws NumberFormatException if the value of the {@code MeterValue} is not a number.
      */
-    private io.motown.operatorapi.viewmodel.persistence.entities.MeterValue toOperatorApiMeterValue(MeterValue meterValue) {
-        String value;
+    private io.motown.operatorapi.viewmodel.persistence.entities.MeterValue toOperatorApiMeterValue(String transactionId, MeterValue meterValue) {
+        double value;
 
         switch (meterValue.getUnit()) {
             case WATT_HOUR:
-                value = meterValue.getValue();
+                value = Double.parseDouble(meterValue.getValue());
                 break;
             case KILOWATT_HOUR:
-                value = String.valueOf(Float.parseFloat(meterValue.getValue()) * 1000);
+                value = Double.parseDouble(meterValue.getValue()) * 1000;
                 break;
             default:
                 throw new AssertionError(String.format("Unexpected value for MeterValue's UnitOfMeasure [%s]", meterValue.getUnit()));
         }
 
-        return new io.motown.operatorapi.viewmodel.persistence.entities.MeterValue(meterValue.getTimestamp(), value);
+        return new io.motown.operatorapi.viewmodel.persistence.entities.MeterValue(transactionId, meterValue.getTimestamp(), value);
     }
 }
@@ -15,35 +15,62 @@
  */
 package io.motown.operatorapi.viewmodel.persistence.entities;
 
-import javax.persistence.Embeddable;
+import org.hibernate.annotations.Index;
+
+import javax.persistence.*;
 import java.util.Date;
 
-@Embeddable
+/**
+ * Energy meter reading of a transaction. Meter values are stored as a time series separate from their transaction:
+ * they are only ever appended, so storing a meter value does not require loading the transaction and all of its
+ * earlier meter values.
+ */
+@Entity
 public class MeterValue {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Index(name = "idx_meter_value_transaction_id")
+    @Column(nullable = false)
+    private String transactionId;
+
+    @Column(nullable = false)
     private Date timestamp;
-    private String wattHour;
 
-    public MeterValue() {
+    /**
+     * The timestamp as milliseconds since the epoch, which allows queries to do arithmetic on the time of meter values.
+     */
+    @Column(nullable = false)
+    private long timestampInMillis;
+
+    private double wattHour;
+
+    private MeterValue() {
+        // Private no-arg constructor for Hibernate.
     }
 
-    public MeterValue(Date timestamp, String wattHour) {
+    public MeterValue(String transactionId, Date timestamp, double wattHour) {
+        this.transactionId = transactionId;
         this.timestamp = timestamp != null ? new Date(timestamp.getTime()) : null;
+        this.timestampInMillis = timestamp != null ? timestamp.getTime() : 0;
         this.wattHour = wattHour;
     }
 
-    public Date getTimestamp() {
-        return timestamp != null ? new Date(timestamp.getTime()) : null;
+    public Long getId() {
+        return id;
     }
 
-    public void setTimestamp(Date timestamp) {
-        this.timestamp = timestamp != null ? new Date(timestamp.getTime()) : null;
+    public String getTransactionId() {
+        return transactionId;
     }
 
-    public String getWattHour() {
-        return wattHour;
+    public Date getTimestamp() {
+        return timestamp != null ? new Date(timestamp.getTime()) : null;
     }
 
-    public void setWattHour(String wattHour) {
-        this.wattHour = wattHour;
+    public double getWattHour() {
+        return wattHour;
     }
 }
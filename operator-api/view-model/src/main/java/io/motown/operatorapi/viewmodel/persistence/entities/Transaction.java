@@ -19,8 +19,6 @@ import io.motown.domain.api.chargingstation.EvseId;
 
 import javax.persistence.*;
 import java.util.Date;
-import java.util.HashSet;
-import java.util.Set;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 
@@ -33,6 +31,7 @@ public class Transaction {
     private Date updated;
     private Date created;
 
+    @org.hibernate.annotations.Index(name = "idx_transaction_charging_station_id")
     private String chargingStationId;
 
     @Column(unique = true)
@@ -48,13 +47,11 @@ public class Transaction {
     @AttributeOverride( name="id", column=@Column(name = "evseId") )
     private EvseId evseId;
 
+    @org.hibernate.annotations.Index(name = "idx_transaction_started_timestamp")
     private Date startedTimestamp;
 
     private Date stoppedTimestamp;
 
-    @ElementCollection(fetch = FetchType.EAGER)
-    private Set<MeterValue> meterValues = new HashSet<>();
-
     private Transaction() {
         // Private no-arg constructor for Hibernate.
     }
@@ -148,14 +145,6 @@ public class Transaction {
         return created != null ? new Date(created.getTime()) : null;
     }
 
-    public Set<MeterValue> getMeterValues() {
-        return meterValues;
-    }
-
-    public void setMeterValues(Set<MeterValue> meterValues) {
-        this.meterValues = meterValues;
-    }
-
     @PrePersist
     protected void onCreate() {
         Date now = new Date();
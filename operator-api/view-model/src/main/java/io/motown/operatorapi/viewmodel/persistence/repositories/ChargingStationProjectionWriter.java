@@ -0,0 +1,335 @@
+/**
+ * Copyright (C) 2013 Motown.IO (info@motown.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.motown.operatorapi.viewmodel.persistence.repositories;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import io.motown.operatorapi.viewmodel.persistence.entities.ChargingStation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.EntityTransaction;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Writes changes to the charging station projection in batches. Changes are queued and written by a single writer
+ * thread, which takes all changes which are queued at that moment (up to {@code maxBatchSize}) and writes them in a
+ * single transaction. As long as events arrive slower than they can be written every batch holds a single change, so
+ * batching does not add latency; during a burst the queue fills up and the batches grow, which is exactly when the
+ * cost per transaction matters.
+ * <p/>
+ * Within a batch the charging stations are loaded once, the entity manager of the batch serves later changes to the
+ * same charging station from its persistence context. Modified charging stations are written when the transaction
+ * commits, with JDBC batching if the persistence provider is configured for it (e.g. {@code hibernate.jdbc.batch_size}).
+ * <p/>
+ * A single writer thread applies the changes in the order they have been queued, so changes of one charging station
+ * are never reordered. If a batch fails it is rolled back and its changes are retried one by one, so a single failing
+ * change does not take the other changes of the batch down with it. When {@code maxQueuedUpdates} changes are waiting
+ * the caller is blocked until the writer has caught up, so a slow database cannot exhaust the heap.
+ */
+public class ChargingStationProjectionWriter {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ChargingStationProjectionWriter.class);
+
+    private static final long SHUTDOWN_TIMEOUT_IN_SECONDS = 30;
+
+    private static final long POLL_TIMEOUT_IN_MILLIS = 100;
+
+    private final BlockingQueue<Write> queue;
+
+    private final Thread writerThread;
+
+    private final AtomicLong writtenBatchCount = new AtomicLong();
+
+    private final AtomicLong writtenUpdateCount = new AtomicLong();
+
+    private final AtomicLong failedUpdateCount = new AtomicLong();
+
+    private volatile boolean running = true;
+
+    private volatile EntityManagerFactory entityManagerFactory;
+
+    /**
+     * The maximum number of changes which are written in a single transaction.
+     */
+    private volatile int maxBatchSize = 100;
+
+    public ChargingStationProjectionWriter() {
+        this(10000);
+    }
+
+    /**
+     * Creates a writer.
+     *
+     * @param maxQueuedUpdates the maximum number of changes which can wait to be written.
+     */
+    public ChargingStationProjectionWriter(int maxQueuedUpdates) {
+        this.queue = new LinkedBlockingQueue<>(maxQueuedUpdates);
+
+        this.writerThread = new ThreadFactoryBuilder().setDaemon(true).setNameFormat("operator-api-projection-writer-%d").build().newThread(new Runnable() {
+            @Override
+            public void run() {
+                writeBatches();
+            }
+        });
+        this.writerThread.start();
+    }
+
+    /**
+     * Queues the creation of a charging station. If the charging station already exists it is replaced.
+     *
+     * @param chargingStation the charging station.
+     */
+    public void create(final ChargingStation chargingStation) {
+        enqueue(new Write(chargingStation.getId()) {
+            @Override
+            void execute(EntityManager entityManager) {
+                entityManager.merge(chargingStation);
+            }
+        });
+    }
+
+    /**
+     * Queues a change of a charging station. The change is not applied if the charging station does not exist by the
+     * time the change is written.
+     *
+     * @param chargingStationId the charging station's id.
+     * @param update            the change.
+     */
+    public void update(final String chargingStationId, final ChargingStationUpdate update) {
+        enqueue(new Write(chargingStationId) {
+            @Override
+            void execute(EntityManager entityManager) {
+                ChargingStation chargingStation = entityManager.find(ChargingStation.class, chargingStationId);
+
+                if (chargingStation != null) {
+                    update.apply(chargingStation);
+                } else {
+                    LOG.warn("operator api repo COULD NOT FIND CHARGEPOINT {} to apply update", chargingStationId);
+                }
+            }
+        });
+    }
+
+    /**
+     * Waits until all changes which have been queued before this call have been written.
+     *
+     * @param timeout the maximum time to wait.
+     * @param unit    the unit of the timeout.
+     * @return true if the changes have been written, false if the timeout elapsed first.
+     * @throws InterruptedException if interrupted while waiting.
+     */
+    public boolean flush(long timeout, TimeUnit unit) throws InterruptedException {
+        final CountDownLatch written = new CountDownLatch(1);
+
+        enqueue(new Write(null) {
+            @Override
+            void execute(EntityManager entityManager) {
+                // nothing to write
+            }
+
+            @Override
+            void afterWrite() {
+                written.countDown();
+            }
+        });
+
+        return written.await(timeout, unit);
+    }
+
+    /**
+     * Writes the queued changes and stops the writer thread.
+     */
+    public void shutdown() {
+        running = false;
+
+        try {
+            writerThread.join(TimeUnit.SECONDS.toMillis(SHUTDOWN_TIMEOUT_IN_SECONDS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        if (!queue.isEmpty()) {
+            LOG.warn("[{}] changes to the operator api charging station projection have not been written on shutdown", queue.size());
+        }
+    }
+
+    public void setEntityManagerFactory(EntityManagerFactory entityManagerFactory) {
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    public void setMaxBatchSize(int maxBatchSize) {
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    /**
+     * Gets the number of changes which are waiting to be written.
+     *
+     * @return the number of queued changes.
+     */
+    public int getQueuedUpdateCount() {
+        return queue.size();
+    }
+
+    /**
+     * Gets the number of transactions in which changes have been written, since startup. Together with
+     * {@link #getWrittenUpdateCount()} this shows how many changes are written per transaction.
+     *
+     * @return the number of written batches.
+     */
+    public long getWrittenBatchCount() {
+        return writtenBatchCount.get();
+    }
+
+    /**
+     * Gets the number of changes which have been written, since startup.
+     *
+     * @return the number of written changes.
+     */
+    public long getWrittenUpdateCount() {
+        return writtenUpdateCount.get();
+    }
+
+    /**
+     * Gets the number of changes which could not be written, since startup.
+     *
+     * @return the number of failed changes.
+     */
+    public long getFailedUpdateCount() {
+        return failedUpdateCount.get();
+    }
+
+    private void enqueue(Write write) {
+        if (!running) {
+            throw new IllegalStateException("Projection writer has been shut down");
+        }
+
+        try {
+            queue.put(write);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while queueing change of charging station " + write.chargingStationId, e);
+        }
+    }
+
+    private void writeBatches() {
+        List<Write> batch = new ArrayList<>(maxBatchSize);
+
+        while (running || !queue.isEmpty()) {
+            Write first;
+            try {
+                first = queue.poll(POLL_TIMEOUT_IN_MILLIS, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                LOG.warn("Projection writer has been interrupted, changes which are still queued will not be written");
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (first == null) {
+                continue;
+            }
+            batch.add(first);
+
+            queue.drainTo(batch, maxBatchSize - 1);
+
+            try {
+                write(batch);
+            } catch (RuntimeException e) {
+                LOG.error("Unexpected exception while writing changes to the operator api charging station projection", e);
+            }
+            for (Write write : batch) {
+                write.afterWrite();
+            }
+            batch.clear();
+        }
+    }
+
+    private void write(List<Write> batch) {
+        if (writeInTransaction(batch)) {
+            writtenBatchCount.incrementAndGet();
+            writtenUpdateCount.addAndGet(batch.size());
+            return;
+        }
+
+        if (batch.size() == 1) {
+            failedUpdateCount.incrementAndGet();
+            return;
+        }
+
+        // find the change(s) which caused the batch to fail, and write the others
+        for (Write write : batch) {
+            if (writeInTransaction(Collections.singletonList(write))) {
+                writtenBatchCount.incrementAndGet();
+                writtenUpdateCount.incrementAndGet();
+            } else {
+                failedUpdateCount.incrementAndGet();
+            }
+        }
+    }
+
+    private boolean writeInTransaction(List<Write> writes) {
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+
+        EntityTransaction tx = null;
+        try {
+            tx = entityManager.getTransaction();
+            tx.begin();
+
+            for (Write write : writes) {
+                write.execute(entityManager);
+            }
+
+            tx.commit();
+            return true;
+        } catch (RuntimeException e) {
+            LOG.error("Exception while writing [{}] changes to the operator api charging station projection", writes.size(), e);
+            if (tx != null && tx.isActive()) {
+                tx.rollback();
+            }
+            return false;
+        } finally {
+            entityManager.close();
+        }
+    }
+
+    /**
+     * Queued change of a charging station.
+     */
+    private abstract static class Write {
+
+        private final String chargingStationId;
+
+        private Write(String chargingStationId) {
+            this.chargingStationId = chargingStationId;
+        }
+
+        abstract void execute(EntityManager entityManager);
+
+        /**
+         * Called once the batch holding the change has been committed, or has failed.
+         */
+        void afterWrite() {
+            // nothing to do by default
+        }
+    }
+}
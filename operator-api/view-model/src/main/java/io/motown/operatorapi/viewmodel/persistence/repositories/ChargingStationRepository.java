@@ -75,6 +75,32 @@ public class ChargingStationRepository {
         }
     }
 
+    /**
+     * Finds a page of charging stations, ordered by id. The page starts after the last charging station of the
+     * previous page instead of at an offset, which keeps the query cost independent of the page number.
+     *
+     * @param afterId    the id of the last charging station of the previous page, or null for the first page.
+     * @param maxResults the maximum number of charging stations to return.
+     * @return the charging stations.
+     */
+    public List<ChargingStation> findAfter(String afterId, int maxResults) {
+        EntityManager entityManager = getEntityManager();
+        try {
+            if (afterId == null) {
+                return entityManager.createQuery("SELECT cs FROM io.motown.operatorapi.viewmodel.persistence.entities.ChargingStation AS cs ORDER BY cs.id", ChargingStation.class)
+                        .setMaxResults(maxResults)
+                        .getResultList();
+            }
+
+            return entityManager.createQuery("SELECT cs FROM io.motown.operatorapi.viewmodel.persistence.entities.ChargingStation AS cs WHERE cs.id > :afterId ORDER BY cs.id", ChargingStation.class)
+                    .setParameter("afterId", afterId)
+                    .setMaxResults(maxResults)
+                    .getResultList();
+        } finally {
+            entityManager.close();
+        }
+    }
+
     public Long getTotalNumberOfChargingStations() {
         EntityManager entityManager = getEntityManager();
         try {
@@ -0,0 +1,32 @@
+/**
+ * Copyright (C) 2013 Motown.IO (info@motown.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.motown.operatorapi.viewmodel.persistence.repositories;
+
+import io.motown.operatorapi.viewmodel.persistence.entities.ChargingStation;
+
+/**
+ * Change to the projection of a single charging station.
+ */
+public interface ChargingStationUpdate {
+
+    /**
+     * Applies the change to the charging station. The charging station is managed by the entity manager of the
+     * current transaction, changes are therefore written when the transaction commits.
+     *
+     * @param chargingStation the charging station.
+     */
+    void apply(ChargingStation chargingStation);
+}
@@ -0,0 +1,151 @@
+/**
+ * Copyright (C) 2013 Motown.IO (info@motown.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.motown.operatorapi.viewmodel.persistence.repositories;
+
+import io.motown.operatorapi.viewmodel.persistence.entities.MeterValue;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.EntityTransaction;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Append-only store of the meter values of transactions.
+ */
+public class MeterValueRepository {
+
+    private static final Logger LOG = LoggerFactory.getLogger(MeterValueRepository.class);
+
+    private EntityManagerFactory entityManagerFactory;
+
+    /**
+     * Stores meter values in a single transaction.
+     *
+     * @param meterValues the meter values to store.
+     */
+    public void append(List<MeterValue> meterValues) {
+        if (meterValues.isEmpty()) {
+            return;
+        }
+
+        EntityManager entityManager = getEntityManager();
+
+        EntityTransaction tx = null;
+        try {
+            tx = entityManager.getTransaction();
+            tx.begin();
+
+            for (MeterValue meterValue : meterValues) {
+                entityManager.persist(meterValue);
+            }
+
+            tx.commit();
+        } catch (Exception e) {
+            LOG.error("Exception while trying to persist meter values.", e);
+            if(tx != null && tx.isActive()) {
+                tx.rollback();
+            }
+            throw e;
+        } finally {
+            entityManager.close();
+        }
+    }
+
+    /**
+     * Finds the meter values of a transaction, ordered by timestamp. If the transaction has more than
+     * {@code maxPoints} meter values the series is downsampled: the time between the first and the last meter value is
+     * divided in {@code maxPoints} intervals of equal length, and of every interval only the last meter value is
+     * returned. Meter values are readings of an energy register which only increases, so the last meter value of an
+     * interval reflects all energy transferred up to the end of the interval.
+     * <p/>
+     * Downsampling is done by the database, so no more than {@code maxPoints} meter values are loaded regardless of
+     * the length of the series.
+     *
+     * @param transactionId the transaction id (not the auto-increment transaction.id).
+     * @param maxPoints     the maximum number of meter values to return.
+     * @return the, possibly downsampled, meter values.
+     */
+    public List<MeterValue> findByTransactionId(String transactionId, int maxPoints) {
+        checkArgument(maxPoints > 0, "maxPoints must be positive");
+
+        EntityManager entityManager = getEntityManager();
+        try {
+            Object[] range = entityManager.createQuery("SELECT COUNT(mv), MIN(mv.timestampInMillis), MAX(mv.timestampInMillis) FROM io.motown.operatorapi.viewmodel.persistence.entities.MeterValue AS mv WHERE mv.transactionId = :transactionId", Object[].class)
+                    .setParameter("transactionId", transactionId)
+                    .getSingleResult();
+
+            if (((Number) range[0]).longValue() <= maxPoints) {
+                return entityManager.createQuery("SELECT mv FROM io.motown.operatorapi.viewmodel.persistence.entities.MeterValue AS mv WHERE mv.transactionId = :transactionId ORDER BY mv.timestamp, mv.id", MeterValue.class)
+                        .setParameter("transactionId", transactionId)
+                        .getResultList();
+            }
+
+            long first = ((Number) range[1]).longValue();
+            long span = Math.max(1, ((Number) range[2]).longValue() - first);
+
+            // the interval is computed from numbers only, which are inlined as not all databases accept parameters in a GROUP BY
+            String interval = String.format("FLOOR((m.timestampInMillis - %d) * %d / %d)", first, maxPoints, span);
+            List<MeterValue> lastOfIntervals = entityManager.createQuery("SELECT mv FROM io.motown.operatorapi.viewmodel.persistence.entities.MeterValue AS mv " +
+                    "WHERE mv.transactionId = :transactionId AND mv.timestampInMillis IN (" +
+                    "SELECT MAX(m.timestampInMillis) FROM io.motown.operatorapi.viewmodel.persistence.entities.MeterValue AS m WHERE m.transactionId = :transactionId GROUP BY " + interval + ") " +
+                    "ORDER BY mv.timestamp, mv.id", MeterValue.class)
+                    .setParameter("transactionId", transactionId)
+                    .getResultList();
+
+            return removeDuplicateTimestamps(lastOfIntervals, maxPoints);
+        } finally {
+            entityManager.close();
+        }
+    }
+
+    public void setEntityManagerFactory(EntityManagerFactory entityManagerFactory) {
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    /**
+     * Keeps a single meter value per timestamp, in case multiple meter values were taken at the same moment. The last
+     * meter value of the series falls in an interval of its own, it replaces the meter value of the last interval.
+     *
+     * @param lastOfIntervals the last meter values of all intervals, ordered by timestamp and id.
+     * @param maxPoints       the maximum number of meter values to return.
+     * @return the meter values.
+     */
+    private List<MeterValue> removeDuplicateTimestamps(List<MeterValue> lastOfIntervals, int maxPoints) {
+        List<MeterValue> meterValues = new ArrayList<>(lastOfIntervals.size());
+        for (MeterValue meterValue : lastOfIntervals) {
+            if (!meterValues.isEmpty() && meterValues.get(meterValues.size() - 1).getTimestamp().equals(meterValue.getTimestamp())) {
+                meterValues.set(meterValues.size() - 1, meterValue);
+            } else {
+                meterValues.add(meterValue);
+            }
+        }
+
+        if (meterValues.size() > maxPoints) {
+            meterValues.remove(meterValues.size() - 2);
+        }
+
+        return meterValues;
+    }
+
+    private EntityManager getEntityManager() {
+        return entityManagerFactory.createEntityManager();
+    }
+}
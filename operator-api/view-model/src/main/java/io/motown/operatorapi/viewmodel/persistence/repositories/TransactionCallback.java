@@ -0,0 +1,35 @@
+/**
+ * Copyright (C) 2013 Motown.IO (info@motown.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.motown.operatorapi.viewmodel.persistence.repositories;
+
+import io.motown.operatorapi.viewmodel.persistence.entities.Transaction;
+
+import java.io.IOException;
+
+/**
+ * Callback which receives the transactions of a query one by one, while the query is being scrolled.
+ */
+public interface TransactionCallback {
+
+    /**
+     * Handles a transaction. The transaction is detached as soon as this method returns, the callback should therefore
+     * not hold on to it.
+     *
+     * @param transaction the transaction.
+     * @throws IOException if the transaction could not be written.
+     */
+    void handle(Transaction transaction) throws IOException;
+}
@@ -16,18 +16,31 @@
 package io.motown.operatorapi.viewmodel.persistence.repositories;
 
 import io.motown.operatorapi.viewmodel.persistence.entities.Transaction;
+import org.hibernate.CacheMode;
+import org.hibernate.FlushMode;
+import org.hibernate.Query;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.Session;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.persistence.EntityManager;
 import javax.persistence.EntityManagerFactory;
 import javax.persistence.EntityTransaction;
-import java.util.List;
+import javax.persistence.TypedQuery;
+import java.io.IOException;
+import java.util.*;
 
 public class TransactionRepository {
 
     private static final Logger LOG = LoggerFactory.getLogger(TransactionRepository.class);
 
+    /**
+     * The number of rows fetched from the database at once while scrolling.
+     */
+    private static final int SCROLL_FETCH_SIZE = 100;
+
     private EntityManagerFactory entityManagerFactory;
 
     public Transaction createOrUpdate(Transaction transaction) {
@@ -80,6 +93,98 @@ public class TransactionRepository {
         }
     }
 
+    /**
+     * Finds a page of transactions, ordered by id. Instead of skipping an offset the page starts after the last
+     * transaction of the previous page, so the cost of a query does not grow with the page number and no count is
+     * needed.
+     *
+     * @param chargingStationId only return transactions of this charging station, or null for all charging stations.
+     * @param startedFrom       only return transactions started at or after this moment, or null.
+     * @param startedTo         only return transactions started before this moment, or null.
+     * @param open              true to only return open transactions, false to only return closed transactions, or
+     *                          null for both.
+     * @param afterId           the id of the last transaction of the previous page, or null for the first page.
+     * @param maxResults        the maximum number of transactions to return.
+     * @return the transactions.
+     */
+    public List<Transaction> findTransactions(String chargingStationId, Date startedFrom, Date startedTo, Boolean open, Long afterId, int maxResults) {
+        Map<String, Object> parameters = new HashMap<>();
+        String jpql = buildTransactionQuery(chargingStationId, startedFrom, startedTo, open, afterId, parameters);
+
+        EntityManager entityManager = getEntityManager();
+        try {
+            TypedQuery<Transaction> query = entityManager.createQuery(jpql, Transaction.class);
+
+            for (Map.Entry<String, Object> parameter : parameters.entrySet()) {
+                query.setParameter(parameter.getKey(), parameter.getValue());
+            }
+
+            return query.setMaxResults(maxResults).getResultList();
+        } finally {
+            entityManager.close();
+        }
+    }
+
+    /**
+     * Passes all transactions matching the filters to a callback, ordered by id. The transactions are scrolled with a
+     * database cursor and detached after the callback has handled them, so the memory used does not depend on the
+     * number of transactions.
+     * <p/>
+     * The cursor is opened within a database transaction which is rolled back afterwards, as some drivers (e.g.
+     * PostgreSQL) ignore the fetch size in auto-commit mode and read the complete result into memory.
+     *
+     * @param chargingStationId only pass transactions of this charging station, or null for all charging stations.
+     * @param startedFrom       only pass transactions started at or after this moment, or null.
+     * @param startedTo         only pass transactions started before this moment, or null.
+     * @param open              true to only pass open transactions, false to only pass closed transactions, or null
+     *                          for both.
+     * @param callback          the callback which handles the transactions.
+     * @return the number of transactions which have been passed to the callback.
+     * @throws IOException if the callback fails to handle a transaction, no further transactions are passed.
+     */
+    public long forEachTransaction(String chargingStationId, Date startedFrom, Date startedTo, Boolean open, TransactionCallback callback) throws IOException {
+        Map<String, Object> parameters = new HashMap<>();
+        String hql = buildTransactionQuery(chargingStationId, startedFrom, startedTo, open, null, parameters);
+
+        EntityManager entityManager = getEntityManager();
+        EntityTransaction entityTransaction = entityManager.getTransaction();
+        ScrollableResults results = null;
+        try {
+            entityTransaction.begin();
+
+            Session session = entityManager.unwrap(Session.class);
+            session.setFlushMode(FlushMode.MANUAL);
+            Query query = session.createQuery(hql)
+                    .setReadOnly(true)
+                    .setCacheMode(CacheMode.IGNORE)
+                    .setFetchSize(SCROLL_FETCH_SIZE);
+
+            for (Map.Entry<String, Object> parameter : parameters.entrySet()) {
+                query.setParameter(parameter.getKey(), parameter.getValue());
+            }
+
+            results = query.scroll(ScrollMode.FORWARD_ONLY);
+
+            long count = 0;
+            while (results.next()) {
+                Transaction transaction = (Transaction) results.get(0);
+                callback.handle(transaction);
+                session.evict(transaction);
+                count++;
+            }
+            return count;
+        } finally {
+            if (results != null) {
+                results.close();
+            }
+            // nothing has been changed, the transaction only exists to keep the cursor open
+            if (entityTransaction.isActive()) {
+                entityTransaction.rollback();
+            }
+            entityManager.close();
+        }
+    }
+
     public Long getTotalNumberOfTransactions() {
         EntityManager entityManager = getEntityManager();
         try {
@@ -89,6 +194,47 @@ public class TransactionRepository {
         }
     }
 
+    /**
+     * Builds the query for transactions matching the filters, ordered by id.
+     *
+     * @param chargingStationId the charging station id, or null.
+     * @param startedFrom       the minimum start moment (inclusive), or null.
+     * @param startedTo         the maximum start moment (exclusive), or null.
+     * @param open              whether the transactions should be open, or null.
+     * @param afterId           the id after which the transactions start, or null.
+     * @param parameters        map to which the parameters of the query are added.
+     * @return the query.
+     */
+    private String buildTransactionQuery(String chargingStationId, Date startedFrom, Date startedTo, Boolean open, Long afterId, Map<String, Object> parameters) {
+        StringBuilder query = new StringBuilder("SELECT t FROM io.motown.operatorapi.viewmodel.persistence.entities.Transaction AS t");
+        List<String> conditions = new ArrayList<>();
+
+        if (chargingStationId != null) {
+            conditions.add("t.chargingStationId = :chargingStationId");
+            parameters.put("chargingStationId", chargingStationId);
+        }
+        if (startedFrom != null) {
+            conditions.add("t.startedTimestamp >= :startedFrom");
+            parameters.put("startedFrom", startedFrom);
+        }
+        if (startedTo != null) {
+            conditions.add("t.startedTimestamp < :startedTo");
+            parameters.put("startedTo", startedTo);
+        }
+        if (open != null) {
+            conditions.add(open ? "t.stoppedTimestamp IS NULL" : "t.stoppedTimestamp IS NOT NULL");
+        }
+        if (afterId != null) {
+            conditions.add("t.id > :afterId");
+            parameters.put("afterId", afterId);
+        }
+
+        for (int i = 0; i < conditions.size(); i++) {
+            query.append(i == 0 ? " WHERE " : " AND ").append(conditions.get(i));
+        }
+        return query.append(" ORDER BY t.id").toString();
+    }
+
     public void setEntityManagerFactory(EntityManagerFactory entityManagerFactory) {
         this.entityManagerFactory = entityManagerFactory;
     }
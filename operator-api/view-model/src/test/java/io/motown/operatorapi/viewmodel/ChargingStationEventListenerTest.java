@@ -19,6 +19,7 @@ import com.google.common.collect.ImmutableSet;
 import io.motown.domain.api.chargingstation.*;
 import io.motown.operatorapi.viewmodel.persistence.entities.ChargingStation;
 import io.motown.operatorapi.viewmodel.persistence.entities.Evse;
+import io.motown.operatorapi.viewmodel.persistence.repositories.ChargingStationProjectionWriter;
 import io.motown.operatorapi.viewmodel.persistence.repositories.ChargingStationRepository;
 import org.junit.Before;
 import org.junit.Test;
@@ -28,7 +29,10 @@ import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
 
+import javax.persistence.EntityManagerFactory;
+
 import java.util.Date;
+import java.util.concurrent.TimeUnit;
 
 import static io.motown.domain.api.chargingstation.test.ChargingStationTestUtils.*;
 import static org.junit.Assert.*;
@@ -41,6 +45,9 @@ public class ChargingStationEventListenerTest {
     @Autowired
     private ChargingStationRepository repository;
 
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
     private ChargingStationEventListener listener;
 
     @Before
@@ -319,4 +326,26 @@ public class ChargingStationEventListenerTest {
         assertTrue(cs.getLocalAuthorizations().size() == IDENTIFYING_TOKENS.size());
     }
 
+    @Test
+    public void testHandleEventsWithProjectionWriter() throws InterruptedException {
+        ChargingStationProjectionWriter projectionWriter = new ChargingStationProjectionWriter();
+        projectionWriter.setEntityManagerFactory(entityManagerFactory);
+        listener.setProjectionWriter(projectionWriter);
+
+        try {
+            listener.handle(new ChargingStationAcceptedEvent(CHARGING_STATION_ID, IDENTITY_CONTEXT));
+            listener.handle(new ChargingStationConfiguredEvent(CHARGING_STATION_ID, EVSES, IDENTITY_CONTEXT));
+            listener.handle(new ChargingStationMadeReservableEvent(CHARGING_STATION_ID, IDENTITY_CONTEXT));
+            assertTrue(projectionWriter.flush(30, TimeUnit.SECONDS));
+        } finally {
+            projectionWriter.shutdown();
+        }
+
+        ChargingStation cs = repository.findOne(CHARGING_STATION_ID.getId());
+        assertTrue(cs.isAccepted());
+        assertTrue(cs.isConfigured());
+        assertTrue(cs.isReservable());
+        assertEquals(EVSES.size(), cs.getEvses().size());
+    }
+
 }
@@ -22,6 +22,7 @@ import io.motown.operatorapi.viewmodel.persistence.entities.ChargingStation;
 import io.motown.operatorapi.viewmodel.persistence.entities.Evse;
 import io.motown.operatorapi.viewmodel.persistence.entities.Transaction;
 import io.motown.operatorapi.viewmodel.persistence.repositories.ChargingStationRepository;
+import io.motown.operatorapi.viewmodel.persistence.repositories.MeterValueRepository;
 import io.motown.operatorapi.viewmodel.persistence.repositories.TransactionRepository;
 import org.junit.Before;
 import org.junit.Test;
@@ -48,12 +49,16 @@ public class TransactionEventListenerTest {
     @Autowired
     private ChargingStationRepository chargingStationRepository;
 
+    @Autowired
+    private MeterValueRepository meterValueRepository;
+
     private TransactionEventListener listener;
 
     @Before
     public void setUp() throws Exception {
         listener = new TransactionEventListener();
         listener.setRepository(repository);
+        listener.setMeterValueRepository(meterValueRepository);
     }
 
     @Test
@@ -93,12 +98,10 @@ public class TransactionEventListenerTest {
         Transaction transaction = new Transaction(CHARGING_STATION_ID.getId(), TRANSACTION_ID.getId());
         transaction.setEvseId(EVSE_ID);
         repository.createOrUpdate(transaction);
-        assertTrue(transaction.getMeterValues().isEmpty());
+        assertTrue(meterValueRepository.findByTransactionId(TRANSACTION_ID.getId(), 100).isEmpty());
 
         listener.handle(new ChargingStationSentMeterValuesEvent(CHARGING_STATION_ID, TRANSACTION_ID, EVSE_ID, METER_VALUES, IDENTITY_CONTEXT));
-        transaction = repository.findByTransactionId(TRANSACTION_ID.getId());
-        assertFalse(transaction.getMeterValues().isEmpty());
-        assertEquals(2, transaction.getMeterValues().size());
+        assertEquals(2, meterValueRepository.findByTransactionId(TRANSACTION_ID.getId(), 100).size());
     }
 
     @Test
@@ -106,16 +109,15 @@ public class TransactionEventListenerTest {
         Transaction transaction = new Transaction(CHARGING_STATION_ID.getId(), TRANSACTION_ID.getId());
         transaction.setEvseId(EVSE_ID);
         repository.createOrUpdate(transaction);
-        assertTrue(transaction.getMeterValues().isEmpty());
+        assertTrue(meterValueRepository.findByTransactionId(TRANSACTION_ID.getId(), 100).isEmpty());
 
         List<MeterValue> meterValuesWithKiloWattHour = ImmutableList.<MeterValue>builder()
                 .add(new MeterValue(new Date(), "1.5", ReadingContext.PERIODIC_SAMPLE, ValueFormat.RAW, Measurand.IMPORTED_ACTIVE_ENERGY_REGISTER, Location.OUTLET, UnitOfMeasure.KILOWATT_HOUR))
                 .build();
 
         listener.handle(new ChargingStationSentMeterValuesEvent(CHARGING_STATION_ID, TRANSACTION_ID, EVSE_ID, meterValuesWithKiloWattHour, IDENTITY_CONTEXT));
-        transaction = repository.findByTransactionId(TRANSACTION_ID.getId());
-        assertFalse(transaction.getMeterValues().isEmpty());
-        assertEquals(1, transaction.getMeterValues().size());
-        assertEquals("1500.0", transaction.getMeterValues().iterator().next().getWattHour());
+        List<io.motown.operatorapi.viewmodel.persistence.entities.MeterValue> storedMeterValues = meterValueRepository.findByTransactionId(TRANSACTION_ID.getId(), 100);
+        assertEquals(1, storedMeterValues.size());
+        assertEquals(1500.0, storedMeterValues.get(0).getWattHour(), 0.001);
     }
 }
@@ -0,0 +1,163 @@
+/**
+ * Copyright (C) 2013 Motown.IO (info@motown.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.motown.operatorapi.viewmodel.persistence.repositories;
+
+import io.motown.operatorapi.viewmodel.persistence.entities.ChargingStation;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static io.motown.domain.api.chargingstation.test.ChargingStationTestUtils.CHARGING_STATION_ID;
+import static org.junit.Assert.*;
+
+@ContextConfiguration("classpath:operator-api-view-model-test-config.xml")
+@RunWith(SpringJUnit4ClassRunner.class)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+public class ChargingStationProjectionWriterTest {
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ChargingStationRepository repository;
+
+    private ChargingStationProjectionWriter writer;
+
+    @Before
+    public void setUp() {
+        writer = new ChargingStationProjectionWriter();
+        writer.setEntityManagerFactory(entityManagerFactory);
+    }
+
+    @After
+    public void tearDown() {
+        writer.shutdown();
+    }
+
+    @Test
+    public void updatesAreAppliedInOrder() throws InterruptedException {
+        final AtomicBoolean outOfOrder = new AtomicBoolean();
+        writer.create(new ChargingStation(CHARGING_STATION_ID.getId()));
+        for (int i = 1; i <= 1000; i++) {
+            final int version = i;
+            writer.update(CHARGING_STATION_ID.getId(), new ChargingStationUpdate() {
+                @Override
+                public void apply(ChargingStation chargingStation) {
+                    if (chargingStation.getLocalAuthorizationListVersion() != version - 1) {
+                        outOfOrder.set(true);
+                    }
+                    chargingStation.setLocalAuthorizationListVersion(version);
+                }
+            });
+        }
+
+        assertTrue(writer.flush(30, TimeUnit.SECONDS));
+
+        assertFalse(outOfOrder.get());
+        assertEquals(1000, repository.findOne(CHARGING_STATION_ID.getId()).getLocalAuthorizationListVersion());
+        assertEquals(0, writer.getFailedUpdateCount());
+    }
+
+    @Test
+    public void updatesQueuedWhileWritingAreWrittenInBatches() throws InterruptedException {
+        final int numberOfUpdates = 500;
+        final CountDownLatch release = new CountDownLatch(1);
+        writer.create(new ChargingStation(CHARGING_STATION_ID.getId()));
+        assertTrue(writer.flush(30, TimeUnit.SECONDS));
+        writer.update(CHARGING_STATION_ID.getId(), new ChargingStationUpdate() {
+            @Override
+            public void apply(ChargingStation chargingStation) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+        for (int i = 0; i < numberOfUpdates; i++) {
+            writer.update(CHARGING_STATION_ID.getId(), new ChargingStationUpdate() {
+                @Override
+                public void apply(ChargingStation chargingStation) {
+                    chargingStation.setLocalAuthorizationListVersion(chargingStation.getLocalAuthorizationListVersion() + 1);
+                }
+            });
+        }
+        long batchesBeforeRelease = writer.getWrittenBatchCount();
+
+        release.countDown();
+        assertTrue(writer.flush(30, TimeUnit.SECONDS));
+
+        assertEquals(numberOfUpdates, repository.findOne(CHARGING_STATION_ID.getId()).getLocalAuthorizationListVersion());
+        // the blocking update, the queued updates and the flush marker in batches of at most 100
+        assertTrue(writer.getWrittenBatchCount() - batchesBeforeRelease <= 8);
+    }
+
+    @Test
+    public void failingUpdateDoesNotFailOtherUpdatesOfBatch() throws InterruptedException {
+        writer.create(new ChargingStation(CHARGING_STATION_ID.getId()));
+        writer.update(CHARGING_STATION_ID.getId(), new ChargingStationUpdate() {
+            @Override
+            public void apply(ChargingStation chargingStation) {
+                throw new IllegalStateException("failure");
+            }
+        });
+        writer.update(CHARGING_STATION_ID.getId(), new ChargingStationUpdate() {
+            @Override
+            public void apply(ChargingStation chargingStation) {
+                chargingStation.setAccepted(true);
+            }
+        });
+
+        assertTrue(writer.flush(30, TimeUnit.SECONDS));
+
+        assertTrue(repository.findOne(CHARGING_STATION_ID.getId()).isAccepted());
+        assertEquals(1, writer.getFailedUpdateCount());
+    }
+
+    @Test
+    public void updateOfUnknownChargingStationIsIgnored() throws InterruptedException {
+        writer.update(CHARGING_STATION_ID.getId(), new ChargingStationUpdate() {
+            @Override
+            public void apply(ChargingStation chargingStation) {
+                fail("charging station does not exist");
+            }
+        });
+
+        assertTrue(writer.flush(30, TimeUnit.SECONDS));
+
+        assertNull(repository.findOne(CHARGING_STATION_ID.getId()));
+        assertEquals(0, writer.getFailedUpdateCount());
+    }
+
+    @Test
+    public void shutdownWritesQueuedUpdates() {
+        writer.create(new ChargingStation(CHARGING_STATION_ID.getId()));
+
+        writer.shutdown();
+
+        assertNotNull(repository.findOne(CHARGING_STATION_ID.getId()));
+    }
+}
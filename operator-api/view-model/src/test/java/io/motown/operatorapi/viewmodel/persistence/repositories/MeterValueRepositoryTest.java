@@ -0,0 +1,111 @@
+/**
+ * Copyright (C) 2013 Motown.IO (info@motown.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.motown.operatorapi.viewmodel.persistence.repositories;
+
+import io.motown.operatorapi.viewmodel.persistence.entities.MeterValue;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+@ContextConfiguration("classpath:operator-api-view-model-test-config.xml")
+@RunWith(SpringJUnit4ClassRunner.class)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+public class MeterValueRepositoryTest {
+
+    private static final String TRANSACTION_ID = "TRANSACTION_1";
+
+    private static final long MINUTE = 60000;
+
+    @Autowired
+    private MeterValueRepository repository;
+
+    @Test
+    public void meterValuesAreReturnedInOrderOfTimestamp() {
+        repository.append(Collections.singletonList(new MeterValue(TRANSACTION_ID, new Date(2 * MINUTE), 200)));
+        repository.append(Collections.singletonList(new MeterValue(TRANSACTION_ID, new Date(MINUTE), 100)));
+
+        List<MeterValue> meterValues = repository.findByTransactionId(TRANSACTION_ID, 10);
+
+        assertEquals(2, meterValues.size());
+        assertEquals(100, meterValues.get(0).getWattHour(), 0.001);
+        assertEquals(200, meterValues.get(1).getWattHour(), 0.001);
+    }
+
+    @Test
+    public void meterValuesOfOtherTransactionsAreNotReturned() {
+        repository.append(Collections.singletonList(new MeterValue(TRANSACTION_ID, new Date(MINUTE), 100)));
+        repository.append(Collections.singletonList(new MeterValue("TRANSACTION_2", new Date(MINUTE), 100)));
+
+        assertEquals(1, repository.findByTransactionId(TRANSACTION_ID, 10).size());
+    }
+
+    @Test
+    public void seriesIsDownsampledToLastMeterValuePerInterval() {
+        List<MeterValue> meterValues = new ArrayList<>();
+        for (int minute = 0; minute <= 100; minute++) {
+            meterValues.add(new MeterValue(TRANSACTION_ID, new Date(minute * MINUTE), minute * 10));
+        }
+        repository.append(meterValues);
+
+        List<MeterValue> downsampled = repository.findByTransactionId(TRANSACTION_ID, 10);
+
+        assertEquals(10, downsampled.size());
+        assertEquals(90, downsampled.get(0).getWattHour(), 0.001);
+        assertEquals(1000, downsampled.get(9).getWattHour(), 0.001);
+    }
+
+    @Test
+    public void seriesIsDownsampledByTimestampRegardlessOfOrderOfStorage() {
+        List<MeterValue> meterValues = new ArrayList<>();
+        for (int minute = 100; minute >= 0; minute--) {
+            meterValues.add(new MeterValue(TRANSACTION_ID, new Date(minute * MINUTE), minute * 10));
+        }
+        repository.append(meterValues);
+
+        List<MeterValue> downsampled = repository.findByTransactionId(TRANSACTION_ID, 10);
+
+        assertEquals(10, downsampled.size());
+        assertEquals(90, downsampled.get(0).getWattHour(), 0.001);
+        assertEquals(190, downsampled.get(1).getWattHour(), 0.001);
+        assertEquals(1000, downsampled.get(9).getWattHour(), 0.001);
+    }
+
+    @Test
+    public void downsampledSeriesHoldsSingleMeterValuePerTimestamp() {
+        List<MeterValue> meterValues = new ArrayList<>();
+        for (int minute = 0; minute <= 20; minute++) {
+            meterValues.add(new MeterValue(TRANSACTION_ID, new Date(minute * MINUTE), minute * 10));
+            meterValues.add(new MeterValue(TRANSACTION_ID, new Date(minute * MINUTE), minute * 10 + 1));
+        }
+        repository.append(meterValues);
+
+        List<MeterValue> downsampled = repository.findByTransactionId(TRANSACTION_ID, 5);
+
+        assertEquals(5, downsampled.size());
+        assertEquals(31, downsampled.get(0).getWattHour(), 0.001);
+        assertEquals(201, downsampled.get(4).getWattHour(), 0.001);
+    }
+}
@@ -0,0 +1,102 @@
+/**
+ * Copyright (C) 2013 Motown.IO (info@motown.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.motown.operatorapi.viewmodel.persistence.repositories;
+
+import io.motown.domain.api.chargingstation.EvseId;
+import io.motown.operatorapi.viewmodel.persistence.entities.Transaction;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+@ContextConfiguration("classpath:operator-api-view-model-test-config.xml")
+@RunWith(SpringJUnit4ClassRunner.class)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+public class TransactionRepositoryTest {
+
+    private static final long MINUTE = 60000;
+
+    @Autowired
+    private TransactionRepository repository;
+
+    @Test
+    public void pagesStartAfterTheLastTransactionOfThePreviousPage() {
+        for (int i = 0; i < 5; i++) {
+            createTransaction("CS-1", "TRANSACTION_" + i, i, false);
+        }
+
+        List<Transaction> firstPage = repository.findTransactions(null, null, null, null, null, 2);
+        List<Transaction> secondPage = repository.findTransactions(null, null, null, null, firstPage.get(1).getId(), 2);
+
+        assertEquals("TRANSACTION_0", firstPage.get(0).getTransactionId());
+        assertEquals("TRANSACTION_1", firstPage.get(1).getTransactionId());
+        assertEquals("TRANSACTION_2", secondPage.get(0).getTransactionId());
+        assertEquals("TRANSACTION_3", secondPage.get(1).getTransactionId());
+    }
+
+    @Test
+    public void transactionsAreFiltered() {
+        createTransaction("CS-1", "TRANSACTION_1", 1, false);
+        createTransaction("CS-1", "TRANSACTION_2", 2, true);
+        createTransaction("CS-1", "TRANSACTION_3", 3, false);
+        createTransaction("CS-2", "TRANSACTION_4", 2, false);
+
+        assertEquals(3, repository.findTransactions("CS-1", null, null, null, null, 10).size());
+        assertEquals(2, repository.findTransactions("CS-1", null, null, Boolean.TRUE, null, 10).size());
+        assertEquals(1, repository.findTransactions("CS-1", null, null, Boolean.FALSE, null, 10).size());
+
+        List<Transaction> startedInRange = repository.findTransactions(null, new Date(2 * MINUTE), new Date(3 * MINUTE), null, null, 10);
+        assertEquals(2, startedInRange.size());
+        assertEquals("TRANSACTION_2", startedInRange.get(0).getTransactionId());
+        assertEquals("TRANSACTION_4", startedInRange.get(1).getTransactionId());
+    }
+
+    @Test
+    public void allMatchingTransactionsArePassedToTheCallback() throws IOException {
+        createTransaction("CS-1", "TRANSACTION_1", 1, false);
+        createTransaction("CS-2", "TRANSACTION_2", 2, false);
+        createTransaction("CS-1", "TRANSACTION_3", 3, false);
+        final List<String> transactionIds = new ArrayList<>();
+
+        long count = repository.forEachTransaction("CS-1", null, null, null, new TransactionCallback() {
+            @Override
+            public void handle(Transaction transaction) {
+                transactionIds.add(transaction.getTransactionId());
+            }
+        });
+
+        assertEquals(2, count);
+        assertEquals("TRANSACTION_1", transactionIds.get(0));
+        assertEquals("TRANSACTION_3", transactionIds.get(1));
+    }
+
+    private void createTransaction(String chargingStationId, String transactionId, int startedMinute, boolean stopped) {
+        Transaction transaction = new Transaction(chargingStationId, transactionId, new EvseId(1), "ID_TAG", 0, new Date(startedMinute * MINUTE));
+        if (stopped) {
+            transaction.setStoppedTimestamp(new Date((startedMinute + 1) * MINUTE));
+        }
+        repository.createOrUpdate(transaction);
+    }
+}
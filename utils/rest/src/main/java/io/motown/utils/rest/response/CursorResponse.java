@@ -0,0 +1,74 @@
+/**
+ * Copyright (C) 2013 Motown.IO (info@motown.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.motown.utils.rest.response;
+
+import com.google.common.collect.ImmutableList;
+
+import java.util.List;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Page of a collection which is navigated with a cursor instead of an offset. The response consists of the current
+ * request URI, the first and next navigation links and a list of elements. Unlike {@link Response} it has no previous
+ * and last links, as these would require counting or skipping all elements before the page.
+ *
+ * @param <T> The type of element.
+ */
+public final class CursorResponse<T> {
+    private final String href;
+    private final NavigationItem next;
+    private final NavigationItem first;
+    private final List<T> elements;
+
+    /**
+     * Construct a new API response.
+     *
+     * @param href      the current request URI.
+     * @param next      the next link, empty if this is the last page.
+     * @param first     the first link.
+     * @param elements  the list of elements.
+     */
+    public CursorResponse(String href, NavigationItem next, NavigationItem first, List<T> elements) {
+        checkArgument(!checkNotNull(href).isEmpty());
+        this.href = href;
+
+        this.next = checkNotNull(next);
+
+        checkArgument(!checkNotNull(first).getHref().isEmpty());
+        this.first = first;
+
+        this.elements = ImmutableList.copyOf(checkNotNull(elements));
+    }
+
+    public String getHref() {
+        return href;
+    }
+
+    public NavigationItem getNext() {
+        return next;
+    }
+
+    public NavigationItem getFirst() {
+        return first;
+    }
+
+    public List<T> getElements() {
+        return elements;
+    }
+
+}
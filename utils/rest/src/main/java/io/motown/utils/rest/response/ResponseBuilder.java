@@ -15,9 +15,15 @@
  */
 package io.motown.utils.rest.response;
 
+import com.google.common.base.Function;
+import com.google.common.base.Joiner;
+import com.google.common.base.Splitter;
 import com.google.common.base.Strings;
+import com.google.common.io.BaseEncoding;
 
 import javax.servlet.http.HttpServletRequest;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.List;
 
 import static com.google.common.base.Preconditions.checkArgument;
@@ -25,6 +31,10 @@ import static com.google.common.base.Preconditions.checkArgument;
 public final class ResponseBuilder {
     private static final String QUERY_STRING_FORMAT = "?offset=%d&limit=%d";
 
+    public static final String CURSOR_PARAMETER = "cursor";
+
+    private static final BaseEncoding CURSOR_ENCODING = BaseEncoding.base64Url().omitPadding();
+
     private ResponseBuilder() {
     }
 
@@ -60,6 +70,98 @@ public final class ResponseBuilder {
         return new Response<>(href, previous, next, first, last, elements);
     }
 
+    /**
+     * Build a {@link CursorResponse} from the request, limit and list of elements. The elements should have been
+     * queried with a limit of one more than the requested limit: if that extra element was found there is a next page,
+     * which starts after the last element of this page. The next link contains a cursor encoding the key of that last
+     * element, all other query parameters (e.g. filters) are kept as is.
+     *
+     * @param request   The {@link javax.servlet.http.HttpServletRequest} which was executed.
+     * @param limit     The maximum number of results.
+     * @param elements  The list of elements, at most {@code limit} + 1.
+     * @param keyOf     Function which returns the key the elements are ordered by, which is used as cursor.
+     * @param <T>       The type of elements in the list.
+     *
+     * @return          A response with the elements of the page and the cursor of the next page.
+     *
+     * @throws IllegalArgumentException when the {@code limit} is lesser than or equal to 0, or when there are more than
+     *                                  {@code limit} + 1 elements.
+     */
+    public static <T> CursorResponse<T> buildCursorResponse(final HttpServletRequest request, final int limit, final List<T> elements, final Function<? super T, ?> keyOf) {
+        checkArgument(limit >= 1);
+        checkArgument(elements.size() <= limit + 1);
+
+        String requestUri = request.getRequestURI();
+        String queryString = request.getQueryString();
+
+        String href = requestUri + (!Strings.isNullOrEmpty(queryString) ? "?" + queryString : "");
+        List<String> parameters = getParametersWithoutCursor(queryString);
+
+        List<T> page = elements.size() > limit ? elements.subList(0, limit) : elements;
+        NavigationItem next = new NavigationItem(elements.size() > limit ? buildUri(requestUri, parameters, CURSOR_PARAMETER + "=" + encodeCursor(String.valueOf(keyOf.apply(page.get(limit - 1))))) : "");
+        NavigationItem first = new NavigationItem(buildUri(requestUri, parameters, CURSOR_PARAMETER + "="));
+
+        return new CursorResponse<>(href, next, first, page);
+    }
+
+    /**
+     * Encodes a key as an opaque, URL safe, cursor.
+     *
+     * @param key   the key.
+     * @return the cursor.
+     */
+    public static String encodeCursor(final String key) {
+        return CURSOR_ENCODING.encode(key.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes a cursor created by {@link #encodeCursor(String)}.
+     *
+     * @param cursor    the cursor, may be null or empty for the first page.
+     * @return the key, or null if the cursor is null or empty.
+     * @throws IllegalArgumentException if the cursor is not a valid cursor.
+     */
+    public static String decodeCursor(final String cursor) {
+        if (Strings.isNullOrEmpty(cursor)) {
+            return null;
+        }
+        return new String(CURSOR_ENCODING.decode(cursor), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Gets the query parameters of the query string, except for the cursor.
+     *
+     * @param queryString   the query string.
+     * @return the query parameters.
+     */
+    private static List<String> getParametersWithoutCursor(final String queryString) {
+        List<String> parameters = new ArrayList<>();
+
+        if (!Strings.isNullOrEmpty(queryString)) {
+            for (String parameter : Splitter.on('&').omitEmptyStrings().split(queryString)) {
+                if (!parameter.equals(CURSOR_PARAMETER) && !parameter.startsWith(CURSOR_PARAMETER + "=")) {
+                    parameters.add(parameter);
+                }
+            }
+        }
+
+        return parameters;
+    }
+
+    /**
+     * Builds a URI from the request URI, the query parameters and an additional query parameter.
+     *
+     * @param requestUri    the request URI.
+     * @param parameters    the query parameters.
+     * @param parameter     the additional query parameter.
+     * @return the URI.
+     */
+    private static String buildUri(final String requestUri, final List<String> parameters, final String parameter) {
+        List<String> allParameters = new ArrayList<>(parameters);
+        allParameters.add(parameter);
+        return requestUri + "?" + Joiner.on('&').join(allParameters);
+    }
+
     /**
      * Checks whether there is a previous page.
      *
@@ -15,12 +15,14 @@
  */
 package io.motown.utils.rest.response;
 
+import com.google.common.base.Functions;
 import com.google.common.collect.Lists;
 import org.junit.Before;
 import org.junit.Test;
 
 import javax.servlet.http.HttpServletRequest;
 
+import static org.junit.Assert.assertEquals;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
@@ -58,4 +60,29 @@ public class ResponseBuilderTest {
     public void testResponseBuilderOffsetEqualToTotalWhenTotalGreaterThanZero() {
         ResponseBuilder.buildResponse(request, 1, 1, 1, Lists.<String>newArrayList());
     }
+
+    @Test
+    public void testCursorResponseWithNextPage() {
+        when(request.getQueryString()).thenReturn("limit=2&cursor=&status=open");
+
+        CursorResponse<String> response = ResponseBuilder.buildCursorResponse(request, 2, Lists.newArrayList("a", "b", "c"), Functions.<String>identity());
+
+        assertEquals(Lists.newArrayList("a", "b"), response.getElements());
+        assertEquals("/test?limit=2&status=open&cursor=", response.getFirst().getHref());
+        assertEquals("/test?limit=2&status=open&cursor=" + ResponseBuilder.encodeCursor("b"), response.getNext().getHref());
+        assertEquals("b", ResponseBuilder.decodeCursor(response.getNext().getHref().substring(response.getNext().getHref().lastIndexOf('=') + 1)));
+    }
+
+    @Test
+    public void testCursorResponseOnLastPage() {
+        CursorResponse<String> response = ResponseBuilder.buildCursorResponse(request, 2, Lists.newArrayList("a", "b"), Functions.<String>identity());
+
+        assertEquals(2, response.getElements().size());
+        assertEquals("", response.getNext().getHref());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testCursorResponseTooManyElements() {
+        ResponseBuilder.buildCursorResponse(request, 1, Lists.newArrayList("a", "b", "c"), Functions.<String>identity());
+    }
 }
@@ -0,0 +1,213 @@
+/**
+ * Copyright (C) 2013 Motown.IO (info@motown.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.motown.vas.v10.soap.publisher;
+
+import io.motown.vas.v10.soap.VasConversionService;
+import io.motown.vas.v10.soap.schema.ChargePoint;
+import io.motown.vas.viewmodel.ChargingStationUpdateListener;
+import io.motown.vas.viewmodel.persistence.entities.ChargingStation;
+import io.motown.vas.viewmodel.persistence.repostories.ChargingStationRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory snapshot of the VAS representation of all charging stations. The snapshot is loaded from the repository
+ * once and from then on kept up to date by the {@link io.motown.vas.viewmodel.VasEventHandler}, so requests for charge
+ * point information neither hit the database nor convert charging stations.
+ * <p/>
+ * Every charge point is stamped with the moment it was last updated, which allows subscribers to retrieve only the
+ * charge points which changed since a previous request. Charge points are ordered by charging station id, so pages
+ * are stable as long as no charging stations are added in between requests.
+ */
+public class ChargePointInfoSnapshot implements ChargingStationUpdateListener {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ChargePointInfoSnapshot.class);
+
+    /**
+     * Map of charge points, key is charging station id.
+     */
+    private final ConcurrentMap<String, Entry> entries = new ConcurrentSkipListMap<>();
+
+    /**
+     * Updates hold the read lock while they stamp and store a charge point, a query takes the write lock to determine
+     * its timestamp. This guarantees every update stamped before the timestamp of a query is visible to that query.
+     */
+    private final ReadWriteLock updateLock = new ReentrantReadWriteLock();
+
+    private volatile boolean loaded;
+
+    private ChargingStationRepository chargingStationRepository;
+
+    private VasConversionService vasConversionService;
+
+    @Override
+    public void chargingStationUpdated(ChargingStation chargingStation) {
+        ChargePoint chargePoint = vasConversionService.getVasRepresentation(chargingStation);
+
+        updateLock.readLock().lock();
+        try {
+            entries.put(chargingStation.getId(), new Entry(chargePoint, System.currentTimeMillis()));
+        } finally {
+            updateLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Gets the charge points which have changed since a moment in time.
+     *
+     * @param changedSince only charge points updated at or after this moment are returned, if null all charge points
+     *                     are returned.
+     * @param offset       number of charge points to skip.
+     * @param maxResults   maximum number of charge points to return, if null all remaining charge points are returned.
+     *                     A negative maximum is treated as 0.
+     * @return the page of charge points.
+     */
+    public Page getChargePoints(Date changedSince, int offset, Integer maxResults) {
+        loadIfNecessary();
+
+        long timestamp;
+        updateLock.writeLock().lock();
+        try {
+            timestamp = System.currentTimeMillis();
+        } finally {
+            updateLock.writeLock().unlock();
+        }
+
+        long since = changedSince != null ? changedSince.getTime() : Long.MIN_VALUE;
+        int limit = maxResults != null ? Math.max(maxResults, 0) : Integer.MAX_VALUE;
+        List<ChargePoint> chargePoints = new ArrayList<>(Math.min(limit, entries.size()));
+        int totalCount = 0;
+
+        for (Entry entry : entries.values()) {
+            if (entry.updatedAt >= since) {
+                if (totalCount >= offset && chargePoints.size() < limit) {
+                    chargePoints.add(entry.chargePoint);
+                }
+                totalCount++;
+            }
+        }
+
+        return new Page(chargePoints, totalCount, new Date(timestamp));
+    }
+
+    /**
+     * Discards the snapshot, the next request reloads it from the repository.
+     */
+    public synchronized void clear() {
+        loaded = false;
+        entries.clear();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public void setChargingStationRepository(ChargingStationRepository chargingStationRepository) {
+        this.chargingStationRepository = chargingStationRepository;
+    }
+
+    public void setVasConversionService(VasConversionService vasConversionService) {
+        this.vasConversionService = vasConversionService;
+    }
+
+    private void loadIfNecessary() {
+        if (loaded) {
+            return;
+        }
+
+        synchronized (this) {
+            if (!loaded) {
+                long start = System.currentTimeMillis();
+                for (ChargingStation chargingStation : chargingStationRepository.findAll()) {
+                    ChargePoint chargePoint = vasConversionService.getVasRepresentation(chargingStation);
+
+                    updateLock.readLock().lock();
+                    try {
+                        // charging stations updated by events in the meantime are more recent than the loaded ones
+                        entries.putIfAbsent(chargingStation.getId(), new Entry(chargePoint, start));
+                    } finally {
+                        updateLock.readLock().unlock();
+                    }
+                }
+                loaded = true;
+
+                LOG.info("Loaded [{}] charge points in [{}] ms", entries.size(), System.currentTimeMillis() - start);
+            }
+        }
+    }
+
+    /**
+     * Page of charge points returned by {@link #getChargePoints(java.util.Date, int, Integer)}.
+     */
+    public static final class Page {
+
+        private final List<ChargePoint> chargePoints;
+
+        private final int totalCount;
+
+        private final Date timestamp;
+
+        Page(List<ChargePoint> chargePoints, int totalCount, Date timestamp) {
+            this.chargePoints = Collections.unmodifiableList(chargePoints);
+            this.totalCount = totalCount;
+            this.timestamp = timestamp;
+        }
+
+        public List<ChargePoint> getChargePoints() {
+            return chargePoints;
+        }
+
+        /**
+         * Gets the number of charge points matching the request, regardless of offset and maximum number of results.
+         *
+         * @return total number of charge points.
+         */
+        public int getTotalCount() {
+            return totalCount;
+        }
+
+        /**
+         * Gets the moment up to which updates are guaranteed to be included, to be used as 'changed since' in a subsequent
+         * request. Charge points updated while the page was assembled may be returned again by that request.
+         *
+         * @return the timestamp.
+         */
+        public Date getTimestamp() {
+            return new Date(timestamp.getTime());
+        }
+    }
+
+    private static final class Entry {
+
+        private final ChargePoint chargePoint;
+
+        private final long updatedAt;
+
+        private Entry(ChargePoint chargePoint, long updatedAt) {
+            this.chargePoint = chargePoint;
+            this.updatedAt = updatedAt;
+        }
+    }
+}
@@ -24,6 +24,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.jws.WebParam;
+import java.util.Date;
 import java.util.List;
 
 @javax.jws.WebService(
@@ -44,6 +45,8 @@ public class MotownVasPublisherService implements VasPublisherService {
 
     private VasConversionService vasConversionService;
 
+    private ChargePointInfoSnapshot chargePointInfoSnapshot;
+
     @Override
     public SubscribeResponse subscribe(@WebParam(partName = "parameters", name = "subscribeRequest", targetNamespace = VAS_NAMESPACE) SubscribeRequest parameters, @WebParam(partName = "SubscriberIdentity", name = "subscriberIdentity", targetNamespace = VAS_NAMESPACE, header = true) String subscriberIdentity) {
         LOG.info("Subscribing {}", subscriberIdentity);
@@ -74,7 +77,24 @@ public class MotownVasPublisherService implements VasPublisherService {
         LOG.info("GetChargePointInfo {}", subscriberIdentity);
 
         GetChargePointInfoResponse response = new GetChargePointInfoResponse();
-        if (!subscriptionRepository.findBySubscriberIdentity(subscriberIdentity).isEmpty()) {
+        if (subscriptionRepository.findBySubscriberIdentity(subscriberIdentity).isEmpty()) {
+            return response;
+        }
+
+        if (chargePointInfoSnapshot != null) {
+            Date changedSince = parameters != null ? parameters.getChangedSince() : null;
+            Integer offset = parameters != null ? parameters.getOffset() : null;
+            Integer maxResults = parameters != null ? parameters.getMaxResults() : null;
+
+            ChargePointInfoSnapshot.Page page = chargePointInfoSnapshot.getChargePoints(changedSince, offset != null ? Math.max(offset, 0) : 0, maxResults != null ? Math.max(maxResults, 0) : null);
+            response.getChargePoints().addAll(page.getChargePoints());
+
+            // only add the paging information for subscribers which requested it, to keep the response unchanged for others
+            if (changedSince != null || offset != null || maxResults != null) {
+                response.setTimestamp(page.getTimestamp());
+                response.setTotalCount(page.getTotalCount());
+            }
+        } else {
             List<ChargePoint> chargePoints = response.getChargePoints();
             for (ChargingStation chargingStation : chargingStationRepository.findAll()) {
                 chargePoints.add(vasConversionService.getVasRepresentation(chargingStation));
@@ -117,4 +137,14 @@ public class MotownVasPublisherService implements VasPublisherService {
     public void setVasConversionService(VasConversionService vasConversionService) {
         this.vasConversionService = vasConversionService;
     }
+
+    /**
+     * Sets the snapshot from which charge point information is served. If no snapshot is set, all charging stations
+     * are loaded and converted for every request and paging parameters are ignored.
+     *
+     * @param chargePointInfoSnapshot the snapshot.
+     */
+    public void setChargePointInfoSnapshot(ChargePointInfoSnapshot chargePointInfoSnapshot) {
+        this.chargePointInfoSnapshot = chargePointInfoSnapshot;
+    }
 }
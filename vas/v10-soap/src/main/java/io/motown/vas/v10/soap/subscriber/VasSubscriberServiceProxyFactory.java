@@ -15,6 +15,9 @@
  */
 package io.motown.vas.v10.soap.subscriber;
 
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
 import io.motown.vas.v10.soap.schema.VasSubscriberService;
 import org.apache.cxf.binding.soap.Soap12;
 import org.apache.cxf.binding.soap.SoapBindingConfiguration;
@@ -22,16 +25,61 @@ import org.apache.cxf.jaxws.JaxWsProxyFactoryBean;
 import org.apache.cxf.ws.addressing.WSAddressingFeature;
 
 import javax.xml.ws.BindingProvider;
+import java.util.concurrent.TimeUnit;
 
+/**
+ * Creates the web service proxies of subscribers. Proxies are cached per delivery address, as creating one takes far
+ * longer than pushing a notification. A proxy is only configured when it is created, after which it can be shared
+ * between threads.
+ */
 public class VasSubscriberServiceProxyFactory {
 
+    private static final int DEFAULT_MAXIMUM_CACHE_SIZE = 1000;
+
+    private static final long DEFAULT_CACHE_EXPIRY_IN_SECONDS = 3600;
+
+    private final LoadingCache<String, VasSubscriberService> proxies;
+
+    public VasSubscriberServiceProxyFactory() {
+        this(DEFAULT_MAXIMUM_CACHE_SIZE, DEFAULT_CACHE_EXPIRY_IN_SECONDS);
+    }
+
+    /**
+     * Creates a proxy factory.
+     *
+     * @param maximumCacheSize     the maximum number of proxies to keep.
+     * @param cacheExpiryInSeconds the time in seconds after which an unused proxy is discarded.
+     */
+    public VasSubscriberServiceProxyFactory(int maximumCacheSize, long cacheExpiryInSeconds) {
+        this.proxies = CacheBuilder.newBuilder()
+                .maximumSize(maximumCacheSize)
+                .expireAfterAccess(cacheExpiryInSeconds, TimeUnit.SECONDS)
+                .build(new CacheLoader<String, VasSubscriberService>() {
+                    @Override
+                    public VasSubscriberService load(String deliveryAddress) {
+                        return createProxy(deliveryAddress);
+                    }
+                });
+    }
+
     /**
-     * Creates a vas subscriber web service proxy based on the delivery address.
+     * Gets the vas subscriber web service proxy for a delivery address, the proxy is created if there is none yet.
      *
      * @param deliveryAddress delivery address
      * @return subscriber web service proxy
      */
     public VasSubscriberService createVasSubscriberService(String deliveryAddress) {
+        return proxies.getUnchecked(deliveryAddress);
+    }
+
+    /**
+     * Discards all cached proxies.
+     */
+    public void clearCache() {
+        proxies.invalidateAll();
+    }
+
+    private VasSubscriberService createProxy(String deliveryAddress) {
         JaxWsProxyFactoryBean factory = new JaxWsProxyFactoryBean();
         factory.setServiceClass(VasSubscriberService.class);
 
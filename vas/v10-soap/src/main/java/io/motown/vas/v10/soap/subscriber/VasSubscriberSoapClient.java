@@ -24,6 +24,7 @@ import io.motown.vas.viewmodel.vas.SubscriberClient;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.Collections;
 import java.util.List;
 
 public class VasSubscriberSoapClient implements SubscriberClient {
@@ -36,19 +37,29 @@ public class VasSubscriberSoapClient implements SubscriberClient {
 
     @Override
     public void pushStatusChange(Subscription subscription, io.motown.vas.viewmodel.model.StatusChange statusChange) {
-        LOG.info("Pushing status change to subscription");
+        pushStatusChanges(subscription, Collections.singletonList(statusChange));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void pushStatusChanges(Subscription subscription, List<io.motown.vas.viewmodel.model.StatusChange> statusChanges) {
+        LOG.info("Pushing {} status change(s) to subscription", statusChanges.size());
 
         StatusChangeNotification notification = new StatusChangeNotification();
         notification.setSubscriptionId(subscription.getSubscriptionId());
 
-        StatusChange statusChangeWs = new StatusChange();
-        statusChangeWs.setChargePoint(statusChange.getChargingStationId());
-        statusChangeWs.setConnectorsFree(statusChange.getConnectorsFree());
-        statusChangeWs.setStatus(ChargePointStatus.fromValue(statusChange.getStatus().value()));
-        statusChangeWs.setTimestamp(statusChange.getTimestamp());
+        List<StatusChange> statusChangesWs = notification.getStatusChanges();
+        for (io.motown.vas.viewmodel.model.StatusChange statusChange : statusChanges) {
+            StatusChange statusChangeWs = new StatusChange();
+            statusChangeWs.setChargePoint(statusChange.getChargingStationId());
+            statusChangeWs.setConnectorsFree(statusChange.getConnectorsFree());
+            statusChangeWs.setStatus(ChargePointStatus.fromValue(statusChange.getStatus().value()));
+            statusChangeWs.setTimestamp(statusChange.getTimestamp());
 
-        List<StatusChange> statusChanges = notification.getStatusChanges();
-        statusChanges.add(statusChangeWs);
+            statusChangesWs.add(statusChangeWs);
+        }
 
         VasSubscriberService vasSubscriberService = proxyFactory.createVasSubscriberService(subscription.getDeliveryAddress());
         vasSubscriberService.statusChange(notification, publisherIdentity);
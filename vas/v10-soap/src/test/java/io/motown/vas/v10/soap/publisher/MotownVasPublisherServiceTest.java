@@ -30,6 +30,7 @@ import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
 
 import javax.persistence.EntityManager;
 import javax.persistence.EntityManagerFactory;
+import java.util.Date;
 
 import static io.motown.domain.api.chargingstation.test.ChargingStationTestUtils.CHARGING_STATION_ID;
 import static io.motown.vas.v10.soap.VasSoapTestUtils.*;
@@ -159,6 +160,72 @@ public class MotownVasPublisherServiceTest {
         assertEquals(2, response.getChargePoints().size());
     }
 
+    @Test
+    public void getChargePointInfoFromSnapshotValidateResponse() {
+        service.setChargePointInfoSnapshot(createSnapshot());
+        subscribeTestSubscriber();
+        chargingStationRepository.createOrUpdate(new ChargingStation(CHARGING_STATION_ID.getId()));
+        chargingStationRepository.createOrUpdate(new ChargingStation("SECOND_CS"));
+
+        GetChargePointInfoResponse response = service.getChargePointInfo(new GetChargePointInfoRequest(), SUBSCRIBER_IDENTITY);
+
+        assertEquals(2, response.getChargePoints().size());
+        assertNull(response.getTimestamp());
+        assertNull(response.getTotalCount());
+    }
+
+    @Test
+    public void getChargePointInfoFromSnapshotPagedValidateResponse() {
+        service.setChargePointInfoSnapshot(createSnapshot());
+        subscribeTestSubscriber();
+        chargingStationRepository.createOrUpdate(new ChargingStation(CHARGING_STATION_ID.getId()));
+        chargingStationRepository.createOrUpdate(new ChargingStation("SECOND_CS"));
+        GetChargePointInfoRequest request = new GetChargePointInfoRequest();
+        request.setOffset(1);
+        request.setMaxResults(1);
+
+        GetChargePointInfoResponse response = service.getChargePointInfo(request, SUBSCRIBER_IDENTITY);
+
+        assertEquals(1, response.getChargePoints().size());
+        assertEquals(Integer.valueOf(2), response.getTotalCount());
+        assertNotNull(response.getTimestamp());
+    }
+
+    @Test
+    public void getChargePointInfoFromSnapshotNegativeMaxResultsValidateResponse() {
+        service.setChargePointInfoSnapshot(createSnapshot());
+        subscribeTestSubscriber();
+        chargingStationRepository.createOrUpdate(new ChargingStation(CHARGING_STATION_ID.getId()));
+        GetChargePointInfoRequest request = new GetChargePointInfoRequest();
+        request.setMaxResults(-1);
+
+        GetChargePointInfoResponse response = service.getChargePointInfo(request, SUBSCRIBER_IDENTITY);
+
+        assertEquals(0, response.getChargePoints().size());
+        assertEquals(Integer.valueOf(1), response.getTotalCount());
+    }
+
+    @Test
+    public void getChargePointInfoFromSnapshotChangedSinceValidateResponse() throws InterruptedException {
+        ChargePointInfoSnapshot snapshot = createSnapshot();
+        service.setChargePointInfoSnapshot(snapshot);
+        subscribeTestSubscriber();
+        chargingStationRepository.createOrUpdate(new ChargingStation(CHARGING_STATION_ID.getId()));
+        GetChargePointInfoRequest request = new GetChargePointInfoRequest();
+        request.setChangedSince(new Date(0));
+        GetChargePointInfoResponse initialResponse = service.getChargePointInfo(request, SUBSCRIBER_IDENTITY);
+        request.setChangedSince(initialResponse.getTimestamp());
+        // make sure the update is stamped after the timestamp of the previous response
+        Thread.sleep(5);
+        snapshot.chargingStationUpdated(chargingStationRepository.createOrUpdate(new ChargingStation("SECOND_CS")));
+
+        GetChargePointInfoResponse response = service.getChargePointInfo(request, SUBSCRIBER_IDENTITY);
+
+        assertEquals(1, initialResponse.getChargePoints().size());
+        assertEquals(1, response.getChargePoints().size());
+        assertEquals("SECOND_CS", response.getChargePoints().get(0).getUid());
+    }
+
     @Test
     public void unsubscribeKnownSubscriptionValidateResponse() {
         String subscriptionId = subscribeTestSubscriber();
@@ -218,6 +285,13 @@ public class MotownVasPublisherServiceTest {
         assertNull(subscriptionRepository.findBySubscriberIdentityAndDeliveryAddress(SUBSCRIBER_IDENTITY, DELIVERY_ADDRESS));
     }
 
+    private ChargePointInfoSnapshot createSnapshot() {
+        ChargePointInfoSnapshot snapshot = new ChargePointInfoSnapshot();
+        snapshot.setChargingStationRepository(chargingStationRepository);
+        snapshot.setVasConversionService(vasConversionService);
+        return snapshot;
+    }
+
     private String subscribeTestSubscriber() {
         SubscribeRequest subscribeRequest = new SubscribeRequest();
         subscribeRequest.setDeliveryAddress(DELIVERY_ADDRESS);
@@ -19,6 +19,8 @@ import io.motown.vas.v10.soap.schema.VasSubscriberService;
 import org.junit.Test;
 
 import static junit.framework.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
 
 public class VasSubscriberServiceProxyFactoryTest {
 
@@ -31,4 +33,12 @@ public class VasSubscriberServiceProxyFactoryTest {
         assertNotNull(vasSubscriberService);
     }
 
+    @Test
+    public void proxyIsReusedForSameDeliveryAddress() {
+        VasSubscriberService vasSubscriberService = factory.createVasSubscriberService("http://localhost");
+
+        assertSame(vasSubscriberService, factory.createVasSubscriberService("http://localhost"));
+        assertNotSame(vasSubscriberService, factory.createVasSubscriberService("http://otherhost"));
+    }
+
 }
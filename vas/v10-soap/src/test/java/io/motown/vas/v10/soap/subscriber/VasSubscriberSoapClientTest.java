@@ -24,6 +24,9 @@ import io.motown.vas.viewmodel.persistence.entities.Subscription;
 import org.junit.Test;
 import org.mockito.ArgumentCaptor;
 
+import java.util.Arrays;
+import java.util.List;
+
 import static io.motown.domain.api.chargingstation.test.ChargingStationTestUtils.CHARGING_STATION_ID;
 import static io.motown.domain.api.chargingstation.test.ChargingStationTestUtils.FIVE_MINUTES_AGO;
 import static org.junit.Assert.assertEquals;
@@ -65,4 +68,26 @@ public class VasSubscriberSoapClientTest {
         assertEquals(ChargePointStatus.AVAILABLE, serviceStatusChange.getStatus());
     }
 
+    @Test
+    public void pushStatusChangesSendsSingleNotification() {
+        VasSubscriberServiceProxyFactory proxyFactory = mock(VasSubscriberServiceProxyFactory.class);
+        VasSubscriberService vasSubscriberService = mock(VasSubscriberService.class);
+        when(proxyFactory.createVasSubscriberService(SUBSCRIPTION_DELIVERY_ADDRESS)).thenReturn(vasSubscriberService);
+        VasSubscriberSoapClient client = new VasSubscriberSoapClient();
+        client.setProxyFactory(proxyFactory);
+        client.setPublisherIdentity(PUBLISHER_IDENTITY);
+        Subscription subscription = new Subscription(SUBSCRIPTION_IDENTITY, SUBSCRIPTION_DELIVERY_ADDRESS);
+        StatusChange occupied = new StatusChange(CHARGING_STATION_ID.getId(), FIVE_MINUTES_AGO, ComponentStatus.OCCUPIED, 0);
+        StatusChange available = new StatusChange(CHARGING_STATION_ID.getId(), FIVE_MINUTES_AGO, ComponentStatus.AVAILABLE, CONNECTORS_FREE);
+        ArgumentCaptor<StatusChangeNotification> argumentCaptor = ArgumentCaptor.forClass(StatusChangeNotification.class);
+
+        client.pushStatusChanges(subscription, Arrays.asList(occupied, available));
+
+        verify(vasSubscriberService).statusChange(argumentCaptor.capture(), eq(PUBLISHER_IDENTITY));
+        List<io.motown.vas.v10.soap.schema.StatusChange> serviceStatusChanges = argumentCaptor.getValue().getStatusChanges();
+        assertEquals(2, serviceStatusChanges.size());
+        assertEquals(ChargePointStatus.OCCUPIED, serviceStatusChanges.get(0).getStatus());
+        assertEquals(ChargePointStatus.AVAILABLE, serviceStatusChanges.get(1).getStatus());
+    }
+
 }
@@ -0,0 +1,31 @@
+/**
+ * Copyright (C) 2013 Motown.IO (info@motown.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.motown.vas.viewmodel;
+
+import io.motown.vas.viewmodel.persistence.entities.ChargingStation;
+
+/**
+ * Listener which is notified when the {@link VasEventHandler} has stored a change to a charging station.
+ */
+public interface ChargingStationUpdateListener {
+
+    /**
+     * Called after a charging station has been created or updated.
+     *
+     * @param chargingStation the charging station as it has been stored.
+     */
+    void chargingStationUpdated(ChargingStation chargingStation);
+}
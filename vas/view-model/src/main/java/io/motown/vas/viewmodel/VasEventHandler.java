@@ -39,6 +39,8 @@ public class VasEventHandler {
 
     private VasSubscriberService subscriberService;
 
+    private ChargingStationUpdateListener chargingStationUpdateListener;
+
     @EventHandler
     public void handle(ChargingStationCreatedEvent event) {
         LOG.info("Handling ChargingStationCreatedEvent");
@@ -50,7 +52,7 @@ public class VasEventHandler {
             chargingStation = new ChargingStation(chargingStationId);
         }
 
-        chargingStationRepository.createOrUpdate(chargingStation);
+        save(chargingStation);
     }
 
     @EventHandler
@@ -61,7 +63,7 @@ public class VasEventHandler {
 
         if (chargingStation != null) {
             chargingStation.setRegistered(true);
-            chargingStationRepository.createOrUpdate(chargingStation);
+            save(chargingStation);
         }
     }
 
@@ -93,7 +95,7 @@ public class VasEventHandler {
         chargingStation.setChargingCapabilities(configurationConversionService.getChargingCapabilitiesFromEvses(eventEvses));
         chargingStation.setConfigured(true);
 
-        chargingStationRepository.createOrUpdate(chargingStation);
+        save(chargingStation);
     }
 
     /**
@@ -144,7 +146,7 @@ public class VasEventHandler {
         ChargingStation chargingStation = getChargingStation(event.getChargingStationId());
         if (chargingStation != null) {
             chargingStation.setOpeningTimes(convertFromApiOpeningTimes(event.getOpeningTimes()));
-            chargingStationRepository.createOrUpdate(chargingStation);
+            save(chargingStation);
         }
     }
 
@@ -163,7 +165,7 @@ public class VasEventHandler {
                 chargingStation.setOpeningTimes(new HashSet<io.motown.vas.viewmodel.persistence.entities.OpeningTime>());
             }
             chargingStation.getOpeningTimes().addAll(convertFromApiOpeningTimes(event.getOpeningTimes()));
-            chargingStationRepository.createOrUpdate(chargingStation);
+            save(chargingStation);
         }
     }
 
@@ -188,7 +190,7 @@ public class VasEventHandler {
         ChargingStation chargingStation = getChargingStation(event.getChargingStationId());
         if (chargingStation != null) {
             chargingStation.setState(ComponentStatus.fromApiComponentStatus(event.getStatusNotification().getStatus()));
-            chargingStationRepository.createOrUpdate(chargingStation);
+            save(chargingStation);
 
             subscriberService.updateSubscribers(chargingStation, event.getStatusNotification().getTimeStamp());
         }
@@ -203,7 +205,7 @@ public class VasEventHandler {
         if (chargingStation != null && event.getComponentId() instanceof EvseId) {
             io.motown.vas.viewmodel.persistence.entities.Evse evse = chargingStation.getEvse(((EvseId) event.getComponentId()).getNumberedId());
             evse.setState(ComponentStatus.fromApiComponentStatus(event.getStatusNotification().getStatus()));
-            chargingStationRepository.createOrUpdate(chargingStation);
+            save(chargingStation);
 
             subscriberService.updateSubscribers(chargingStation, event.getStatusNotification().getTimeStamp());
         }
@@ -222,6 +224,23 @@ public class VasEventHandler {
         this.subscriberService = subscriberService;
     }
 
+    public void setChargingStationUpdateListener(ChargingStationUpdateListener chargingStationUpdateListener) {
+        this.chargingStationUpdateListener = chargingStationUpdateListener;
+    }
+
+    /**
+     * Stores the charging station and notifies the update listener, if any.
+     *
+     * @param chargingStation the charging station to store.
+     */
+    private void save(ChargingStation chargingStation) {
+        ChargingStation persistedChargingStation = chargingStationRepository.createOrUpdate(chargingStation);
+
+        if (chargingStationUpdateListener != null) {
+            chargingStationUpdateListener.chargingStationUpdated(persistedChargingStation);
+        }
+    }
+
     /**
      * Tries to find a {@code ChargingStation} by the passed id, if not found an error will be logged and null will be
      * returned.
@@ -251,7 +270,7 @@ public class VasEventHandler {
 
         if (chargingStation != null) {
             chargingStation.setReservable(reservable);
-            chargingStationRepository.createOrUpdate(chargingStation);
+            save(chargingStation);
         }
     }
 
@@ -284,7 +303,7 @@ public class VasEventHandler {
 
             chargingStation.setAccessibility(accessibility.name());
 
-            chargingStationRepository.createOrUpdate(chargingStation);
+            save(chargingStation);
         }
     }
 
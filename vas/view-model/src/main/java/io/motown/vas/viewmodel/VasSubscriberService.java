@@ -15,24 +15,69 @@
  */
 package io.motown.vas.viewmodel;
 
+import io.motown.domain.utils.concurrent.ClosableBatch;
+import io.motown.domain.utils.concurrent.Timers;
 import io.motown.vas.viewmodel.model.StatusChange;
 import io.motown.vas.viewmodel.persistence.entities.*;
 import io.motown.vas.viewmodel.persistence.repostories.SubscriptionRepository;
 import io.motown.vas.viewmodel.vas.SubscriberClient;
 import io.motown.vas.viewmodel.vas.SubscriptionUpdater;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
-import java.util.concurrent.ExecutorService;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
+/**
+ * Pushes status changes of charging stations to the subscribers.
+ * <p/>
+ * By default every status change is pushed to every subscriber right away. When a notification window is configured,
+ * status changes are collected per subscription and pushed in a single notification once the window has passed since
+ * the first collected change, or once {@code maxStatusChangesPerNotification} changes have been collected. This keeps
+ * subscribers from being flooded when many charging stations change state at the same time.
+ */
 public class VasSubscriberService {
 
+    private static final Logger LOG = LoggerFactory.getLogger(VasSubscriberService.class);
+
+    private final ConcurrentMap<String, PendingNotification> pendingNotifications = new ConcurrentHashMap<>();
+
+    private final ScheduledThreadPoolExecutor timer;
+
+    private final AtomicInteger pendingStatusChangeCount = new AtomicInteger();
+
+    private final AtomicLong deliveredNotificationCount = new AtomicLong();
+
+    private final AtomicLong failedNotificationCount = new AtomicLong();
+
+    private final AtomicLong totalDeliveryLatencyInMillis = new AtomicLong();
+
+    private final AtomicLong maxDeliveryLatencyInMillis = new AtomicLong();
+
     private SubscriptionRepository subscriptionRepository;
 
     private ExecutorService executorService;
 
     private SubscriberClient subscriberClient;
 
+    /**
+     * The time in milliseconds status changes are collected before they are pushed, 0 pushes every change right away.
+     */
+    private long notificationWindowInMillis = 0;
+
+    /**
+     * The number of status changes after which a notification is pushed without waiting for the window to pass.
+     */
+    private int maxStatusChangesPerNotification = 500;
+
+    public VasSubscriberService() {
+        this.timer = Timers.newTimer("vas-notification-window-%d");
+    }
+
     /**
      * Updates all known subscribers (from the repository) about the new state the charging station is in. Uses the executor
      * service to execute updaters. Any exceptions thrown by an updater (e.g. client not reachable) will not influence
@@ -43,13 +88,39 @@ public class VasSubscriberService {
      */
     public void updateSubscribers(ChargingStation chargingStation, Date timestampStatusChange) {
         StatusChange change = new StatusChange(chargingStation.getId(), timestampStatusChange, chargingStation.getState(), chargingStation.getNumberOfFreeEvses());
+        long now = System.currentTimeMillis();
 
         List<Subscription> subscriptions = subscriptionRepository.findAll();
         for (Subscription subscription : subscriptions) {
-            executorService.execute(new SubscriptionUpdater(subscriberClient, subscription, change));
+            pendingStatusChangeCount.incrementAndGet();
+
+            if (notificationWindowInMillis > 0) {
+                collect(subscription, change, now);
+            } else {
+                List<StatusChange> changes = new ArrayList<>(1);
+                changes.add(change);
+                push(subscription, changes, now);
+            }
+        }
+    }
+
+    /**
+     * Pushes all collected status changes.
+     */
+    public void flush() {
+        for (PendingNotification pendingNotification : pendingNotifications.values()) {
+            flush(pendingNotification);
         }
     }
 
+    /**
+     * Stops the notification window timer and pushes all collected status changes.
+     */
+    public void shutdown() {
+        timer.shutdownNow();
+        flush();
+    }
+
     /**
      * Sets the subscription repository.
      *
@@ -76,4 +147,178 @@ public class VasSubscriberService {
     public void setSubscriberClient(SubscriberClient subscriberClient) {
         this.subscriberClient = subscriberClient;
     }
+
+    /**
+     * Sets the time status changes are collected before they are pushed to a subscriber.
+     *
+     * @param notificationWindowInMillis the window in milliseconds, 0 pushes every change right away.
+     */
+    public void setNotificationWindowInMillis(long notificationWindowInMillis) {
+        this.notificationWindowInMillis = notificationWindowInMillis;
+    }
+
+    /**
+     * Sets the maximum number of status changes pushed in a single notification.
+     *
+     * @param maxStatusChangesPerNotification the maximum number of status changes.
+     */
+    public void setMaxStatusChangesPerNotification(int maxStatusChangesPerNotification) {
+        this.maxStatusChangesPerNotification = maxStatusChangesPerNotification;
+    }
+
+    /**
+     * Gets the number of status changes, counted per subscriber, which have not been pushed yet. This includes the
+     * status changes which are being collected and those waiting for the executor service.
+     *
+     * @return the number of pending status changes.
+     */
+    public int getPendingStatusChangeCount() {
+        return pendingStatusChangeCount.get();
+    }
+
+    /**
+     * Gets the number of notifications which have been pushed to subscribers, since startup.
+     *
+     * @return the number of delivered notifications.
+     */
+    public long getDeliveredNotificationCount() {
+        return deliveredNotificationCount.get();
+    }
+
+    /**
+     * Gets the number of notifications which could not be pushed to subscribers, since startup.
+     *
+     * @return the number of failed notifications.
+     */
+    public long getFailedNotificationCount() {
+        return failedNotificationCount.get();
+    }
+
+    /**
+     * Gets the average time between a status change and the delivery of the notification containing it. For a
+     * notification containing multiple status changes, the time of its first status change is used.
+     *
+     * @return the average delivery latency in milliseconds, or 0 if no notification has been delivered.
+     */
+    public long getAverageDeliveryLatencyInMillis() {
+        long delivered = deliveredNotificationCount.get();
+        return delivered > 0 ? totalDeliveryLatencyInMillis.get() / delivered : 0;
+    }
+
+    /**
+     * Gets the longest time between a status change and the delivery of the notification containing it, since
+     * startup.
+     *
+     * @return the maximum delivery latency in milliseconds.
+     */
+    public long getMaxDeliveryLatencyInMillis() {
+        return maxDeliveryLatencyInMillis.get();
+    }
+
+    private void collect(Subscription subscription, StatusChange change, long now) {
+        while (true) {
+            PendingNotification pendingNotification = pendingNotifications.get(subscription.getSubscriptionId());
+            if (pendingNotification == null) {
+                PendingNotification created = new PendingNotification(subscription, now);
+                pendingNotification = pendingNotifications.putIfAbsent(subscription.getSubscriptionId(), created);
+                if (pendingNotification == null) {
+                    pendingNotification = created;
+                    scheduleFlush(created);
+                }
+            }
+
+            int size = pendingNotification.add(change);
+            if (size >= 0) {
+                if (size >= maxStatusChangesPerNotification) {
+                    flush(pendingNotification);
+                }
+                return;
+            }
+
+            // the notification has been pushed while we were adding to it, start a new one
+            pendingNotifications.remove(subscription.getSubscriptionId(), pendingNotification);
+        }
+    }
+
+    private void scheduleFlush(final PendingNotification pendingNotification) {
+        try {
+            pendingNotification.setFlush(timer.schedule(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        flush(pendingNotification);
+                    } catch (RuntimeException e) {
+                        LOG.error("Exception while pushing status changes to subscription [{}]", pendingNotification.subscription.getSubscriptionId(), e);
+                    }
+                }
+            }, notificationWindowInMillis, TimeUnit.MILLISECONDS));
+        } catch (RejectedExecutionException e) {
+            // shut down, nothing will flush the notification later on
+            flush(pendingNotification);
+        }
+    }
+
+    private void flush(PendingNotification pendingNotification) {
+        List<StatusChange> changes = pendingNotification.close();
+        if (changes == null) {
+            return;
+        }
+
+        pendingNotifications.remove(pendingNotification.subscription.getSubscriptionId(), pendingNotification);
+
+        if (!changes.isEmpty()) {
+            push(pendingNotification.subscription, changes, pendingNotification.createdAt);
+        }
+    }
+
+    private void push(Subscription subscription, final List<StatusChange> changes, final long firstChangeAt) {
+        final SubscriptionUpdater updater = new SubscriptionUpdater(subscriberClient, subscription, changes);
+        final String subscriptionId = subscription.getSubscriptionId();
+
+        try {
+            executorService.execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        updater.run();
+                        recordDelivery(System.currentTimeMillis() - firstChangeAt);
+                    } catch (RuntimeException e) {
+                        failedNotificationCount.incrementAndGet();
+                        LOG.warn("Unable to push [{}] status change(s) to subscription [{}]", changes.size(), subscriptionId, e);
+                    } finally {
+                        pendingStatusChangeCount.addAndGet(-changes.size());
+                    }
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            pendingStatusChangeCount.addAndGet(-changes.size());
+            failedNotificationCount.incrementAndGet();
+            LOG.warn("Unable to push [{}] status change(s) to subscription [{}], executor service rejected the update", changes.size(), subscriptionId);
+        }
+    }
+
+    private void recordDelivery(long latencyInMillis) {
+        deliveredNotificationCount.incrementAndGet();
+        totalDeliveryLatencyInMillis.addAndGet(latencyInMillis);
+
+        long max = maxDeliveryLatencyInMillis.get();
+        while (latencyInMillis > max && !maxDeliveryLatencyInMillis.compareAndSet(max, latencyInMillis)) {
+            max = maxDeliveryLatencyInMillis.get();
+        }
+    }
+
+    /**
+     * Status changes collected for a single subscription, to be pushed in a single notification.
+     */
+    private static final class PendingNotification extends ClosableBatch<StatusChange> {
+
+        private final Subscription subscription;
+
+        private final long createdAt;
+
+        private PendingNotification(Subscription subscription, long createdAt) {
+            this.subscription = subscription;
+            this.createdAt = createdAt;
+        }
+    }
 }
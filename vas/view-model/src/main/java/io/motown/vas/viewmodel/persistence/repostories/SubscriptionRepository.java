@@ -15,6 +15,7 @@
  */
 package io.motown.vas.viewmodel.persistence.repostories;
 
+import com.google.common.collect.ImmutableList;
 import io.motown.vas.viewmodel.persistence.entities.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -23,6 +24,7 @@ import javax.persistence.EntityManager;
 import javax.persistence.EntityManagerFactory;
 import javax.persistence.EntityTransaction;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class SubscriptionRepository {
 
@@ -30,14 +32,30 @@ public class SubscriptionRepository {
 
     private EntityManagerFactory entityManagerFactory;
 
+    /**
+     * All subscriptions, read on every status change. Subscriptions only change through this repository, so the list
+     * is kept in memory and reloaded after a subscription has been inserted or deleted. Null if it has to be reloaded.
+     */
+    private volatile CachedSubscriptions allSubscriptions;
+
+    /**
+     * Incremented whenever the subscriptions kept in memory are discarded. A list which has been loaded before the last
+     * increment may miss an insert or delete and is never served.
+     */
+    private final AtomicLong cacheGeneration = new AtomicLong();
+
     public void insert(final Subscription subscription) {
         final EntityManager entityManager = getEntityManager();
-        executeWithinTransaction(new TransactionalTask() {
-            @Override
-            public void execute() {
-                entityManager.persist(subscription);
-            }
-        }, entityManager);
+        try {
+            executeWithinTransaction(new TransactionalTask() {
+                @Override
+                public void execute() {
+                    entityManager.persist(subscription);
+                }
+            }, entityManager);
+        } finally {
+            clearCache();
+        }
     }
 
     public void delete(final Subscription subscription) {
@@ -46,12 +64,16 @@ public class SubscriptionRepository {
         //Making sure the subscription is in the scope of this entitymanager
         final Subscription subscriptionToRemove = entityManager.contains(subscription) ? subscription : entityManager.merge(subscription);
 
-        executeWithinTransaction(new TransactionalTask() {
-            @Override
-            public void execute() {
-                entityManager.remove(subscriptionToRemove);
-            }
-        }, entityManager);
+        try {
+            executeWithinTransaction(new TransactionalTask() {
+                @Override
+                public void execute() {
+                    entityManager.remove(subscriptionToRemove);
+                }
+            }, entityManager);
+        } finally {
+            clearCache();
+        }
     }
 
     private void executeWithinTransaction(TransactionalTask task, EntityManager entityManager) {
@@ -123,14 +145,41 @@ public class SubscriptionRepository {
         }
     }
 
+    /**
+     * Finds all subscriptions. The subscriptions are served from memory, the database is only queried after a
+     * subscription has been inserted or deleted.
+     *
+     * @return an immutable list of all subscriptions.
+     */
     public List<Subscription> findAll() {
+        long generation = cacheGeneration.get();
+        CachedSubscriptions cached = allSubscriptions;
+
+        if (cached != null && cached.generation == generation) {
+            return cached.subscriptions;
+        }
+
+        List<Subscription> subscriptions;
         EntityManager entityManager = getEntityManager();
         try {
-            return entityManager.createQuery("SELECT s FROM io.motown.vas.viewmodel.persistence.entities.Subscription AS s", Subscription.class)
-                    .getResultList();
+            subscriptions = ImmutableList.copyOf(entityManager.createQuery("SELECT s FROM io.motown.vas.viewmodel.persistence.entities.Subscription AS s", Subscription.class)
+                    .getResultList());
         } finally {
             entityManager.close();
         }
+
+        // if the cache has been cleared while loading, the list is outdated by the time it is stored and never served
+        allSubscriptions = new CachedSubscriptions(generation, subscriptions);
+
+        return subscriptions;
+    }
+
+    /**
+     * Discards the subscriptions kept in memory, the next {@link #findAll()} reads them from the database.
+     */
+    public void clearCache() {
+        cacheGeneration.incrementAndGet();
+        allSubscriptions = null;
     }
 
     public void setEntityManagerFactory(EntityManagerFactory entityManagerFactory) {
@@ -144,4 +193,19 @@ public class SubscriptionRepository {
     private static interface TransactionalTask {
         void execute();
     }
+
+    /**
+     * Subscriptions kept in memory, together with the cache generation in which they have been loaded.
+     */
+    private static final class CachedSubscriptions {
+
+        private final long generation;
+
+        private final List<Subscription> subscriptions;
+
+        private CachedSubscriptions(long generation, List<Subscription> subscriptions) {
+            this.generation = generation;
+            this.subscriptions = subscriptions;
+        }
+    }
 }
@@ -18,8 +18,18 @@ package io.motown.vas.viewmodel.vas;
 import io.motown.vas.viewmodel.model.StatusChange;
 import io.motown.vas.viewmodel.persistence.entities.*;
 
+import java.util.List;
+
 public interface SubscriberClient {
 
     void pushStatusChange(Subscription subscription, StatusChange statusChange);
 
+    /**
+     * Pushes a number of status changes to a subscriber in a single notification.
+     *
+     * @param subscription  the subscription.
+     * @param statusChanges the status changes, in the order in which they occurred.
+     */
+    void pushStatusChanges(Subscription subscription, List<StatusChange> statusChanges);
+
 }
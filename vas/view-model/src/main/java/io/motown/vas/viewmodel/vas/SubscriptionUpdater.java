@@ -18,21 +18,39 @@ package io.motown.vas.viewmodel.vas;
 import io.motown.vas.viewmodel.model.StatusChange;
 import io.motown.vas.viewmodel.persistence.entities.*;
 
+import java.util.Collections;
+import java.util.List;
+
 public class SubscriptionUpdater implements Runnable {
 
     private SubscriberClient client;
 
     private Subscription subscription;
 
-    private StatusChange change;
+    private List<StatusChange> changes;
 
     public SubscriptionUpdater(SubscriberClient client, Subscription subscription, StatusChange change) {
+        this(client, subscription, Collections.singletonList(change));
+    }
+
+    /**
+     * Creates an updater which pushes a number of status changes in a single notification.
+     *
+     * @param client       the subscriber client.
+     * @param subscription the subscription.
+     * @param changes      the status changes, in the order in which they occurred.
+     */
+    public SubscriptionUpdater(SubscriberClient client, Subscription subscription, List<StatusChange> changes) {
         this.client = client;
         this.subscription = subscription;
-        this.change = change;
+        this.changes = changes;
     }
 
     public void run() {
-        client.pushStatusChange(subscription, change);
+        if (changes.size() == 1) {
+            client.pushStatusChange(subscription, changes.get(0));
+        } else {
+            client.pushStatusChanges(subscription, changes);
+        }
     }
 }
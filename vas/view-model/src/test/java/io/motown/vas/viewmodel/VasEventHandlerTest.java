@@ -26,6 +26,7 @@ import io.motown.vas.viewmodel.persistence.repostories.ChargingStationRepository
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
@@ -99,6 +100,19 @@ public class VasEventHandlerTest {
         assertTrue(getTestChargingStationFromRepository().isRegistered());
     }
 
+    @Test
+    public void chargingStationAcceptedEventUpdateListenerNotified() {
+        ChargingStationUpdateListener updateListener = mock(ChargingStationUpdateListener.class);
+        eventHandler.setChargingStationUpdateListener(updateListener);
+        chargingStationRepository.createOrUpdate(new ChargingStation(CHARGING_STATION_ID.getId()));
+
+        eventHandler.handle(new ChargingStationAcceptedEvent(CHARGING_STATION_ID, ROOT_IDENTITY_CONTEXT));
+
+        ArgumentCaptor<ChargingStation> chargingStationCaptor = ArgumentCaptor.forClass(ChargingStation.class);
+        verify(updateListener).chargingStationUpdated(chargingStationCaptor.capture());
+        assertTrue(chargingStationCaptor.getValue().isRegistered());
+    }
+
     @Test
     public void chargingStationAcceptedEventUnknownChargingStationNoExceptionThrown() {
         assertNull(getTestChargingStationFromRepository());
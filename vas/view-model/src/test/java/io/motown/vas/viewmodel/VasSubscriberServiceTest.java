@@ -18,14 +18,25 @@ package io.motown.vas.viewmodel;
 import io.motown.vas.viewmodel.persistence.entities.ChargingStation;
 import io.motown.vas.viewmodel.persistence.repostories.SubscriptionRepository;
 import io.motown.vas.viewmodel.vas.SubscriptionUpdater;
+import com.google.common.util.concurrent.MoreExecutors;
+import io.motown.vas.viewmodel.model.StatusChange;
+import io.motown.vas.viewmodel.persistence.entities.Subscription;
+import io.motown.vas.viewmodel.vas.SubscriberClient;
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.MockitoAnnotations;
 
+import java.util.Date;
+import java.util.List;
 import java.util.concurrent.ExecutorService;
 
 import static io.motown.domain.api.chargingstation.test.ChargingStationTestUtils.*;
 import static io.motown.vas.viewmodel.VasViewModelTestUtils.SUBSCRIPTIONS;
 import static io.motown.vas.viewmodel.VasViewModelTestUtils.getRegisteredAndConfiguredChargingStation;
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.*;
 
 public class VasSubscriberServiceTest {
@@ -36,8 +47,12 @@ public class VasSubscriberServiceTest {
 
     private ExecutorService executorService;
 
+    @Captor
+    private ArgumentCaptor<List<StatusChange>> statusChanges;
+
     @Before
     public void setUp() {
+        MockitoAnnotations.initMocks(this);
         subscriptionRepository = mock(SubscriptionRepository.class);
         executorService = mock(ExecutorService.class);
 
@@ -65,4 +80,78 @@ public class VasSubscriberServiceTest {
         verify(executorService, times(SUBSCRIPTIONS.size())).execute(any(SubscriptionUpdater.class));
     }
 
+    @Test
+    public void statusChangesWithinWindowArePushedInSingleNotification() {
+        SubscriberClient subscriberClient = mock(SubscriberClient.class);
+        subscribeService.setSubscriberClient(subscriberClient);
+        subscribeService.setExecutorService(MoreExecutors.sameThreadExecutor());
+        subscribeService.setNotificationWindowInMillis(60000);
+        when(subscriptionRepository.findAll()).thenReturn(SUBSCRIPTIONS);
+        ChargingStation chargingStation = getRegisteredAndConfiguredChargingStation();
+
+        subscribeService.updateSubscribers(chargingStation, FIVE_MINUTES_AGO);
+        subscribeService.updateSubscribers(chargingStation, new Date());
+        verifyZeroInteractions(subscriberClient);
+        assertEquals(SUBSCRIPTIONS.size() * 2, subscribeService.getPendingStatusChangeCount());
+
+        subscribeService.flush();
+
+        for (Subscription subscription : SUBSCRIPTIONS) {
+            verify(subscriberClient).pushStatusChanges(eq(subscription), statusChanges.capture());
+            assertEquals(2, statusChanges.getValue().size());
+        }
+        assertEquals(0, subscribeService.getPendingStatusChangeCount());
+        assertEquals(SUBSCRIPTIONS.size(), subscribeService.getDeliveredNotificationCount());
+        subscribeService.shutdown();
+    }
+
+    @Test
+    public void fullNotificationIsPushedRightAway() {
+        SubscriberClient subscriberClient = mock(SubscriberClient.class);
+        subscribeService.setSubscriberClient(subscriberClient);
+        subscribeService.setExecutorService(MoreExecutors.sameThreadExecutor());
+        subscribeService.setNotificationWindowInMillis(60000);
+        subscribeService.setMaxStatusChangesPerNotification(2);
+        when(subscriptionRepository.findAll()).thenReturn(SUBSCRIPTIONS);
+        ChargingStation chargingStation = getRegisteredAndConfiguredChargingStation();
+
+        subscribeService.updateSubscribers(chargingStation, FIVE_MINUTES_AGO);
+        subscribeService.updateSubscribers(chargingStation, new Date());
+
+        verify(subscriberClient, times(SUBSCRIPTIONS.size())).pushStatusChanges(any(Subscription.class), statusChanges.capture());
+        for (List<StatusChange> changes : statusChanges.getAllValues()) {
+            assertEquals(2, changes.size());
+        }
+        subscribeService.shutdown();
+    }
+
+    @Test
+    public void notificationIsPushedAfterWindow() {
+        SubscriberClient subscriberClient = mock(SubscriberClient.class);
+        subscribeService.setSubscriberClient(subscriberClient);
+        subscribeService.setExecutorService(MoreExecutors.sameThreadExecutor());
+        subscribeService.setNotificationWindowInMillis(10);
+        when(subscriptionRepository.findAll()).thenReturn(SUBSCRIPTIONS);
+
+        subscribeService.updateSubscribers(getRegisteredAndConfiguredChargingStation(), FIVE_MINUTES_AGO);
+
+        verify(subscriberClient, timeout(5000).times(SUBSCRIPTIONS.size())).pushStatusChange(any(Subscription.class), any(StatusChange.class));
+        subscribeService.shutdown();
+    }
+
+    @Test
+    public void failedNotificationIsCounted() {
+        SubscriberClient subscriberClient = mock(SubscriberClient.class);
+        doThrow(new IllegalStateException()).when(subscriberClient).pushStatusChange(any(Subscription.class), any(StatusChange.class));
+        subscribeService.setSubscriberClient(subscriberClient);
+        subscribeService.setExecutorService(MoreExecutors.sameThreadExecutor());
+        when(subscriptionRepository.findAll()).thenReturn(SUBSCRIPTIONS);
+
+        subscribeService.updateSubscribers(getRegisteredAndConfiguredChargingStation(), FIVE_MINUTES_AGO);
+
+        assertEquals(SUBSCRIPTIONS.size(), subscribeService.getFailedNotificationCount());
+        assertEquals(0, subscribeService.getDeliveredNotificationCount());
+        assertEquals(0, subscribeService.getPendingStatusChangeCount());
+    }
+
 }
@@ -0,0 +1,127 @@
+/**
+ * Copyright (C) 2013 Motown.IO (info@motown.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.motown.vas.viewmodel.persistence.repostories;
+
+import io.motown.vas.viewmodel.persistence.entities.Subscription;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+
+import static io.motown.vas.viewmodel.VasViewModelTestUtils.deleteFromDatabase;
+import static org.junit.Assert.assertEquals;
+
+@ContextConfiguration("classpath:vas-view-model-test-context.xml")
+@RunWith(SpringJUnit4ClassRunner.class)
+public class SubscriptionRepositoryTest {
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private SubscriptionRepository repository;
+
+    /**
+     * Runs once when the next entity manager is closed, which for {@code findAll} is after the subscriptions have been
+     * loaded but before they are kept in memory.
+     */
+    private Runnable onNextClose;
+
+    @Before
+    public void setUp() {
+        deleteFromDatabase(entityManagerFactory.createEntityManager(), Subscription.class);
+
+        repository = new SubscriptionRepository();
+        repository.setEntityManagerFactory(interceptingEntityManagerFactory());
+    }
+
+    @Test
+    public void findAllServesSubscriptionsFromMemory() {
+        repository.insert(new Subscription("subscriber", "http://localhost/subscriber"));
+
+        assertEquals(1, repository.findAll().size());
+        assertEquals(repository.findAll(), repository.findAll());
+    }
+
+    @Test
+    public void insertDuringLoadIsNotHiddenByOutdatedSubscriptions() {
+        onNextClose = new Runnable() {
+            @Override
+            public void run() {
+                repository.insert(new Subscription("subscriber", "http://localhost/subscriber"));
+            }
+        };
+
+        assertEquals(0, repository.findAll().size());
+        assertEquals(1, repository.findAll().size());
+    }
+
+    @Test
+    public void deleteDuringLoadIsNotHiddenByOutdatedSubscriptions() {
+        final Subscription subscription = new Subscription("subscriber", "http://localhost/subscriber");
+        repository.insert(subscription);
+        onNextClose = new Runnable() {
+            @Override
+            public void run() {
+                repository.delete(subscription);
+            }
+        };
+
+        assertEquals(1, repository.findAll().size());
+        assertEquals(0, repository.findAll().size());
+    }
+
+    private EntityManagerFactory interceptingEntityManagerFactory() {
+        return (EntityManagerFactory) Proxy.newProxyInstance(getClass().getClassLoader(), new Class[]{EntityManagerFactory.class}, new InvocationHandler() {
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                Object result = invokeOn(entityManagerFactory, method, args);
+                return result instanceof EntityManager ? interceptingEntityManager((EntityManager) result) : result;
+            }
+        });
+    }
+
+    private EntityManager interceptingEntityManager(final EntityManager entityManager) {
+        return (EntityManager) Proxy.newProxyInstance(getClass().getClassLoader(), new Class[]{EntityManager.class}, new InvocationHandler() {
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                Object result = invokeOn(entityManager, method, args);
+                if ("close".equals(method.getName()) && onNextClose != null) {
+                    Runnable task = onNextClose;
+                    onNextClose = null;
+                    task.run();
+                }
+                return result;
+            }
+        });
+    }
+
+    private static Object invokeOn(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
@@ -18,10 +18,16 @@ package io.motown.vas.viewmodel.vas;
 import io.motown.vas.viewmodel.model.StatusChange;
 import io.motown.vas.viewmodel.persistence.entities.Subscription;
 
+import java.util.List;
+
 public class SubscriberClientMock implements SubscriberClient {
 
     @Override
     public void pushStatusChange(Subscription subscription, StatusChange statusChange) {
     }
 
+    @Override
+    public void pushStatusChanges(Subscription subscription, List<StatusChange> statusChanges) {
+    }
+
 }
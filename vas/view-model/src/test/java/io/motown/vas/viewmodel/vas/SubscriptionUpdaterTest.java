@@ -20,7 +20,9 @@ import io.motown.vas.viewmodel.model.StatusChange;
 import io.motown.vas.viewmodel.persistence.entities.Subscription;
 import org.junit.Test;
 
+import java.util.Arrays;
 import java.util.Date;
+import java.util.List;
 
 import static io.motown.domain.api.chargingstation.test.ChargingStationTestUtils.CHARGING_STATION_ID;
 import static org.mockito.Mockito.mock;
@@ -44,4 +46,17 @@ public class SubscriptionUpdaterTest {
         verify(client).pushStatusChange(subscription, statusChange);
     }
 
+    @Test
+    public void runUpdaterWithMultipleChangesVerifyClientCall() {
+        SubscriberClient client = mock(SubscriberClient.class);
+        Subscription subscription = new Subscription(SUBSCRIPTION_IDENTITY, SUBSCRIPTION_DELIVERY_ADDRESS);
+        List<StatusChange> statusChanges = Arrays.asList(new StatusChange(CHARGING_STATION_ID.getId(), new Date(), ComponentStatus.OCCUPIED, 0),
+                new StatusChange(CHARGING_STATION_ID.getId(), new Date(), ComponentStatus.AVAILABLE, 2));
+        SubscriptionUpdater subscriptionUpdater = new SubscriptionUpdater(client, subscription, statusChanges);
+
+        subscriptionUpdater.run();
+
+        verify(client).pushStatusChanges(subscription, statusChanges);
+    }
+
 }